@@ -25,12 +25,31 @@ import smile.data.NominalAttribute;
 import weka.classifiers.AbstractClassifier;
 import smile.core.SmileDatasetHeader;
 import smile.core.SmileDatasetUtils;
+import smile.core.PredictionCache;
+import smile.core.PredictionMetrics;
+import smile.core.TrainingBudget;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.Utils;
+import weka.core.WekaOptionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Vector;
 
 /**
  * Ancestor for SMILE classification algorithms.
+ * <br>
+ * Thread-safety: once built, the prediction methods
+ * ({@link #classifyInstance(Instance)}, {@link #distributionForInstance(Instance)},
+ * {@link #distributionsForInstances(Instances)}) can be called concurrently
+ * on a single instance of the classifier; there is no need to copy the model
+ * per thread. Any scratch space is allocated per call or per thread, the
+ * prediction cache and the metrics are thread-safe. Building the classifier
+ * or changing its options must not happen while predicting; replace the
+ * model via {@link smile.core.ModelHolder} instead.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
@@ -39,6 +58,27 @@ public abstract class AbstractSmileClassifier
 
   private static final long serialVersionUID = 8061087017316008521L;
 
+  /** the flag for {@link #m_PredictionCacheSize}. */
+  public final static String PREDICTIONCACHESIZE = "prediction-cache-size";
+
+  /** the maximum number of cached predictions, 0 to disable. */
+  protected int m_PredictionCacheSize = getDefaultPredictionCacheSize();
+
+  /** the flag for {@link #m_TrainingTimeBudget}. */
+  public final static String TRAININGTIMEBUDGET = "training-time-budget";
+
+  /** the time budget for training in seconds, 0 for unlimited. */
+  protected double m_TrainingTimeBudget = getDefaultTrainingTimeBudget();
+
+  /** the time spent on training and why it stopped. */
+  protected TrainingBudget m_TrainingBudget;
+
+  /** the prediction cache (lazily initialized). */
+  protected transient volatile PredictionCache m_PredictionCache;
+
+  /** the latency metrics of the single-row predictions, null if not collected. */
+  protected transient volatile PredictionMetrics m_Metrics;
+
   /** the dataset structure. */
   protected SmileDatasetHeader m_Header;
 
@@ -52,12 +92,219 @@ public abstract class AbstractSmileClassifier
    */
   public abstract String globalInfo();
 
+  /**
+   * Returns an enumeration describing the available options.
+   *
+   * @return an enumeration of all the available options.
+   */
+  @Override
+  public Enumeration listOptions() {
+    Vector result = new Vector();
+    WekaOptionUtils.addOption(result, predictionCacheSizeTipText(), "" + getDefaultPredictionCacheSize(), PREDICTIONCACHESIZE);
+    WekaOptionUtils.addOption(result, trainingTimeBudgetTipText(), "" + getDefaultTrainingTimeBudget(), TRAININGTIMEBUDGET);
+    WekaOptionUtils.add(result, super.listOptions());
+    return WekaOptionUtils.toEnumeration(result);
+  }
+
+  /**
+   * Parses a given list of options.
+   *
+   * @param options the list of options as an array of strings
+   * @throws Exception if an option is not supported
+   */
+  @Override
+  public void setOptions(String[] options) throws Exception {
+    setPredictionCacheSize(WekaOptionUtils.parse(options, PREDICTIONCACHESIZE, getDefaultPredictionCacheSize()));
+    setTrainingTimeBudget(WekaOptionUtils.parse(options, TRAININGTIMEBUDGET, getDefaultTrainingTimeBudget()));
+    super.setOptions(options);
+  }
+
+  /**
+   * Gets the current settings.
+   *
+   * @return an array of strings suitable for passing to setOptions
+   */
+  @Override
+  public String[] getOptions() {
+    List<String> result = new ArrayList<String>();
+    WekaOptionUtils.add(result, PREDICTIONCACHESIZE, getPredictionCacheSize());
+    WekaOptionUtils.add(result, TRAININGTIMEBUDGET, getTrainingTimeBudget());
+    WekaOptionUtils.add(result, super.getOptions());
+    return WekaOptionUtils.toArray(result);
+  }
+
+  /**
+   * The default value for predictionCacheSize.
+   *
+   * @return the default value
+   * @see #m_PredictionCacheSize
+   */
+  protected int getDefaultPredictionCacheSize() {
+    return 0;
+  }
+
+  /**
+   * Returns the maximum number of cached predictions, 0 to disable.
+   *
+   * @return the current value (value >= 0)
+   * @see #m_PredictionCacheSize
+   */
+  public int getPredictionCacheSize() {
+    return m_PredictionCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of cached predictions, 0 to disable.
+   *
+   * @param value the new value (value >= 0)
+   * @see #m_PredictionCacheSize
+   */
+  public synchronized void setPredictionCacheSize(int value) {
+    if (value >= 0) {
+      m_PredictionCacheSize = value;
+      m_PredictionCache     = null;
+    }
+  }
+
+  /**
+   * Returns the help string for predictionCacheSize.
+   *
+   * @return the help string
+   * @see #m_PredictionCacheSize
+   */
+  public String predictionCacheSizeTipText() {
+    return "The maximum number of predictions to cache, keyed by the feature vector (least recently used ones get evicted); use 0 to disable.";
+  }
+
+  /**
+   * The default value for trainingTimeBudget.
+   *
+   * @return the default value
+   * @see #m_TrainingTimeBudget
+   */
+  protected double getDefaultTrainingTimeBudget() {
+    return 0.0;
+  }
+
+  /**
+   * Returns the time budget for training in seconds, 0 for unlimited.
+   *
+   * @return the current value (value >= 0)
+   * @see #m_TrainingTimeBudget
+   */
+  public double getTrainingTimeBudget() {
+    return m_TrainingTimeBudget;
+  }
+
+  /**
+   * Sets the time budget for training in seconds, 0 for unlimited.
+   *
+   * @param value the new value (value >= 0)
+   * @see #m_TrainingTimeBudget
+   */
+  public void setTrainingTimeBudget(double value) {
+    if (value >= 0) {
+      m_TrainingTimeBudget = value;
+    }
+  }
+
+  /**
+   * Returns the help string for trainingTimeBudget.
+   *
+   * @return the help string
+   * @see #m_TrainingTimeBudget
+   */
+  public String trainingTimeBudgetTipText() {
+    return "The time budget for training in seconds; iterative algorithms stop with the best model so far once it is used up (the current iteration gets finished); use 0 for no limit.";
+  }
+
+  /**
+   * Returns the prediction cache, initializes it if necessary.
+   *
+   * @return		the cache, null if disabled
+   */
+  public PredictionCache getPredictionCache() {
+    PredictionCache	result;
+
+    result = m_PredictionCache;
+    if ((result != null) || (m_PredictionCacheSize <= 0))
+      return result;
+
+    synchronized(this) {
+      if ((m_PredictionCache == null) && (m_PredictionCacheSize > 0))
+	m_PredictionCache = new PredictionCache(m_PredictionCacheSize);
+      return m_PredictionCache;
+    }
+  }
+
+  /**
+   * Sets whether to collect latency metrics for the single-row predictions.
+   * Disabling unregisters the current metrics from JMX, if necessary.
+   *
+   * @param value	true if to collect
+   * @see		PredictionMetrics
+   */
+  public synchronized void setCollectMetrics(boolean value) {
+    if (value && (m_Metrics == null)) {
+      m_Metrics = new PredictionMetrics();
+    }
+    else if (!value && (m_Metrics != null)) {
+      try {
+	m_Metrics.unregister();
+      }
+      catch (Exception e) {
+	System.err.println(getClass().getName() + ": failed to unregister metrics!");
+	e.printStackTrace();
+      }
+      m_Metrics = null;
+    }
+  }
+
+  /**
+   * Returns whether latency metrics get collected for the single-row predictions.
+   *
+   * @return		true if collected
+   */
+  public boolean getCollectMetrics() {
+    return (m_Metrics != null);
+  }
+
+  /**
+   * Returns the latency metrics of the single-row predictions.
+   *
+   * @return		the metrics, null if not collected
+   */
+  public PredictionMetrics getMetrics() {
+    return m_Metrics;
+  }
+
   /**
    * Resets the scheme.
    */
   protected void reset() {
-    m_Header = null;
-    m_Model  = null;
+    m_Header         = null;
+    m_Model          = null;
+    m_TrainingBudget = null;
+    if (m_PredictionCache != null)
+      m_PredictionCache.clear();
+  }
+
+  /**
+   * Returns the structure of the training data.
+   *
+   * @return		the header, null if no model built yet
+   */
+  public SmileDatasetHeader getHeader() {
+    return m_Header;
+  }
+
+  /**
+   * Returns the time spent on training and why training stopped.
+   *
+   * @return		the budget, null if no model built yet
+   */
+  public TrainingBudget getTrainingBudget() {
+    return m_TrainingBudget;
   }
 
   /**
@@ -77,53 +324,249 @@ public abstract class AbstractSmileClassifier
    */
   @Override
   public void buildClassifier(Instances data) throws Exception {
-    AttributeDataset	dataset;
+    m_Model = buildClassifier(initDataset(data));
+    m_TrainingBudget.finish();
+  }
+
+  /**
+   * Resets the scheme, checks the data and converts it into a SMILE dataset,
+   * initializing the header.
+   *
+   * @param data	the data to use for training
+   * @return		the converted data
+   * @throws Exception	if data does not match capabilities or conversion fails
+   */
+  protected AttributeDataset initDataset(Instances data) throws Exception {
+    AttributeDataset	result;
 
     reset();
+    m_TrainingBudget = new TrainingBudget(m_TrainingTimeBudget);
     getCapabilities().testWithFail(data);
     data     = new Instances(data);
     data.deleteWithMissingClass();
-    dataset  = SmileDatasetUtils.convertInstances(data);
-    m_Header = new SmileDatasetHeader(dataset, data);
-    m_Model  = buildClassifier(dataset);
+    result   = SmileDatasetUtils.convertInstances(data);
+    m_Header = new SmileDatasetHeader(result, data);
+
+    return result;
   }
 
   /**
-   * Returns the class distribution for the instance.
+   * Returns the class distribution for the converted instance.
+   *
+   * @param values	the converted instance
+   * @return		the class distribution
+   * @throws Exception	if classification fails
+   */
+  protected double[] distributionForValues(double[] values) throws Exception {
+    double[]	result;
+
+    result = new double[numClasses()];
+    distributionForValues(values, result);
+
+    return result;
+  }
+
+  /**
+   * Fills the supplied array with the class distribution for the converted
+   * instance. Models that are not probabilistic only predict the label,
+   * which gets turned into a one-hot distribution.
+   *
+   * @param values	the converted instance
+   * @param dist	the array to fill, length must be the number of classes
+   * @throws Exception	if classification fails
+   */
+  protected void distributionForValues(double[] values, double[] dist) throws Exception {
+    if (isProbabilistic()) {
+      ((SoftClassifier<double[]>) m_Model).predict(values, dist);
+    }
+    else {
+      Arrays.fill(dist, 0.0);
+      dist[(int) classifyValues(values)] = 1.0;
+    }
+  }
+
+  /**
+   * Returns whether the model computes class probabilities. If not, the
+   * class distributions are one-hot encodings of the predicted label and
+   * {@link #predictIndex(Instance)} returns the label of the distribution.
+   *
+   * @return		true if probabilistic
+   */
+  public boolean isProbabilistic() {
+    return (m_Model instanceof SoftClassifier);
+  }
+
+  /**
+   * Returns the number of class labels.
+   *
+   * @return		the number of labels
+   */
+  public int numClasses() {
+    return ((NominalAttribute) m_Header.getDataset().responseAttribute()).size();
+  }
+
+  /**
+   * Returns the class distribution for the converted instance. Uses the
+   * prediction cache if enabled.
+   *
+   * @param values	the converted instance
+   * @return		the class distribution
+   * @throws Exception	if classification fails
+   * @see		#distributionForValues(double[])
+   */
+  protected double[] cachedDistributionForValues(double[] values) throws Exception {
+    double[]		result;
+    PredictionCache	cache;
+
+    cache = getPredictionCache();
+    if (cache == null)
+      return distributionForValues(values);
+
+    result = cache.get(values);
+    if (result == null) {
+      result = distributionForValues(values);
+      cache.put(values, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the class distribution for the instance. Uses the prediction
+   * cache if enabled and records the latencies if metrics are collected.
    *
    * @param instance	the instance to get the class distribution for
    * @return		the class distribution
    * @throws Exception	if classification fails
+   * @see		#cachedDistributionForValues(double[])
    */
   @Override
   public double[] distributionForInstance(Instance instance) throws Exception {
-    double[]	values;
-    double[]	posterior;
+    PredictionMetrics	metrics;
+    double[]		values;
+    double[]		result;
+    long		start;
+    long		converted;
+
+    metrics = m_Metrics;
+    if (metrics == null)
+      return cachedDistributionForValues(SmileDatasetUtils.convertInstance(instance, m_Header.getDataset()));
 
-    if (m_Model instanceof SoftClassifier) {
+    try {
+      start     = System.nanoTime();
       values    = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
-      posterior = new double[((NominalAttribute) m_Header.getDataset().responseAttribute()).size()];
-      ((SoftClassifier<double[]>) m_Model).predict(values, posterior);
-      return posterior;
+      converted = System.nanoTime();
+      result    = cachedDistributionForValues(values);
+      metrics.record(start, converted, System.nanoTime());
     }
-    else {
-      return super.distributionForInstance(instance);
+    catch (Exception e) {
+      metrics.error();
+      throw e;
+    }
+
+    return result;
+  }
+
+  /**
+   * Fills the supplied array with the class distribution for the instance,
+   * avoiding the allocation of a new array for every prediction (eg when
+   * scoring many rows with the same buffer). Uses the prediction cache if
+   * enabled and records the latencies if metrics are collected.
+   *
+   * @param instance	the instance to get the class distribution for
+   * @param dist	the array to fill, length must be the number of classes
+   * @throws Exception	if classification fails
+   * @see		#numClasses()
+   */
+  public void distributionForInstance(Instance instance, double[] dist) throws Exception {
+    PredictionMetrics	metrics;
+    double[]		values;
+    long		start;
+    long		converted;
+
+    if (dist.length != numClasses())
+      throw new IllegalArgumentException("Distribution must have length " + numClasses() + ", provided: " + dist.length);
+
+    metrics = m_Metrics;
+    try {
+      start     = (metrics == null) ? 0 : System.nanoTime();
+      values    = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
+      converted = (metrics == null) ? 0 : System.nanoTime();
+      if (getPredictionCache() == null)
+	distributionForValues(values, dist);
+      else
+	System.arraycopy(cachedDistributionForValues(values), 0, dist, 0, dist.length);
+      if (metrics != null)
+	metrics.record(start, converted, System.nanoTime());
+    }
+    catch (Exception e) {
+      if (metrics != null)
+	metrics.error();
+      throw e;
     }
   }
 
   /**
-   * Classifies the specified instance.
+   * Classifies the converted instance.
+   *
+   * @param values	the converted instance
+   * @return		the classification
+   * @throws Exception	if classification fails
+   */
+  protected double classifyValues(double[] values) throws Exception {
+    return m_Model.predict(values);
+  }
+
+  /**
+   * Classifies the specified instance. Records the latencies if metrics
+   * are collected.
    *
    * @param instance	the instance to classify
    * @return		the classification
    * @throws Exception	if classification fails
+   * @see		#classifyValues(double[])
    */
   @Override
   public double classifyInstance(Instance instance) throws Exception {
-    double[]	values;
+    PredictionMetrics	metrics;
+    double[]		values;
+    double		result;
+    long		start;
+    long		converted;
 
-    values = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
-    return m_Model.predict(values);
+    metrics = m_Metrics;
+    if (metrics == null)
+      return classifyValues(SmileDatasetUtils.convertInstance(instance, m_Header.getDataset()));
+
+    try {
+      start     = System.nanoTime();
+      values    = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
+      converted = System.nanoTime();
+      result    = classifyValues(values);
+      metrics.record(start, converted, System.nanoTime());
+    }
+    catch (Exception e) {
+      metrics.error();
+      throw e;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the index of the predicted class label, without computing a
+   * class distribution. This is the label of the model itself, which for
+   * probabilistic models can differ from the most likely class of the
+   * distribution (eg majority vote vs averaged posteriors). Records the
+   * latencies if metrics are collected.
+   *
+   * @param instance	the instance to classify
+   * @return		the index of the label
+   * @throws Exception	if classification fails
+   * @see		#classifyInstance(Instance)
+   */
+  public int predictIndex(Instance instance) throws Exception {
+    return (int) classifyInstance(instance);
   }
 
   /**
@@ -133,9 +576,19 @@ public abstract class AbstractSmileClassifier
    */
   @Override
   public String toString() {
+    String	result;
+
     if (m_Model == null)
-      return Utils.toCommandLine(this) + "\n" + "No model built yet!";
+      result = Utils.toCommandLine(this) + "\n" + "No model built yet!";
     else
-      return Utils.toCommandLine(this) + "\n" + m_Model.getClass().getName();
+      result = Utils.toCommandLine(this) + "\n" + m_Model.getClass().getName();
+    if (m_TrainingBudget != null)
+      result += "\n" + "Training: " + m_TrainingBudget;
+    if (m_PredictionCache != null)
+      result += "\n" + "Prediction cache: " + m_PredictionCache;
+    if (m_Metrics != null)
+      result += "\n" + "Prediction latencies:\n" + m_Metrics;
+
+    return result;
   }
 }
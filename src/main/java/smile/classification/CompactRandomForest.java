@@ -0,0 +1,235 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompactRandomForest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import smile.core.CompactTrees;
+import smile.core.SmileReflectionUtils;
+import smile.data.Attribute;
+import smile.math.Math;
+
+import java.util.Arrays;
+
+/**
+ * Compact form of a SMILE random forest for classification, producing the
+ * same predictions (majority vote, weighted posteriors). Only the leaves
+ * keep their label and posteriors, the split structure is stored in
+ * {@link CompactTrees}.
+ *
+ * @author agent (agent at local)
+ */
+public class CompactRandomForest
+  implements SoftClassifier<double[]> {
+
+  private static final long serialVersionUID = 4326019726475937601L;
+
+  /** the split structure. */
+  protected CompactTrees m_Trees;
+
+  /** the weights of the trees. */
+  protected double[] m_Weights;
+
+  /** the number of classes. */
+  protected int m_NumClasses;
+
+  /** the labels of the leaves. */
+  protected int[] m_LeafLabels;
+
+  /** the posteriors of the leaves (numClasses values per leaf). */
+  protected double[] m_LeafPosteriors;
+
+  /** the number of leaves (only used during construction). */
+  protected transient int m_NumLeaves;
+
+  /**
+   * Compiles the trees.
+   *
+   * @param trees	the trees of the forest (DecisionTree or HistogramTree)
+   * @param weights	the weights of the trees
+   * @param attributes	the attributes of the training data
+   * @param numClasses	the number of classes
+   * @throws Exception	if accessing the trees fails or limits are exceeded
+   */
+  public CompactRandomForest(SoftClassifier<double[]>[] trees, double[] weights, Attribute[] attributes, int numClasses) throws Exception {
+    m_Weights        = weights.clone();
+    m_NumClasses     = numClasses;
+    m_LeafLabels     = new int[16];
+    m_LeafPosteriors = new double[16 * numClasses];
+    m_NumLeaves      = 0;
+    m_Trees          = new CompactTrees(trees, attributes, new CompactTrees.LeafHandler() {
+      @Override
+      public int leaf(int tree, Object node) throws Exception {
+	return addLeaf((Integer) SmileReflectionUtils.getField(node, "output"), (double[]) SmileReflectionUtils.getField(node, "posteriori"));
+      }
+    });
+    m_LeafLabels     = Arrays.copyOf(m_LeafLabels, m_NumLeaves);
+    m_LeafPosteriors = Arrays.copyOf(m_LeafPosteriors, m_NumLeaves * numClasses);
+  }
+
+  /**
+   * Adds the leaf to the tables.
+   *
+   * @param label	the label of the leaf
+   * @param posterior	the posteriors of the leaf
+   * @return		the index of the leaf
+   */
+  protected int addLeaf(int label, double[] posterior) {
+    if (m_NumLeaves == m_LeafLabels.length) {
+      m_LeafLabels     = Arrays.copyOf(m_LeafLabels, m_NumLeaves * 2);
+      m_LeafPosteriors = Arrays.copyOf(m_LeafPosteriors, m_NumLeaves * 2 * m_NumClasses);
+    }
+    m_LeafLabels[m_NumLeaves] = label;
+    System.arraycopy(posterior, 0, m_LeafPosteriors, m_NumLeaves * m_NumClasses, m_NumClasses);
+
+    return m_NumLeaves++;
+  }
+
+  /**
+   * Returns the number of trees.
+   *
+   * @return		the number of trees
+   */
+  public int size() {
+    return m_Trees.numTrees();
+  }
+
+  /**
+   * Returns the split structure.
+   *
+   * @return		the trees
+   */
+  public CompactTrees getTrees() {
+    return m_Trees;
+  }
+
+  /**
+   * Bins the row for use with {@link #predict(int, char[], double[])}.
+   *
+   * @param x		the row
+   * @return		the binned row
+   */
+  public char[] bin(double[] x) {
+    return m_Trees.bin(x);
+  }
+
+  /**
+   * Predicts the class with a single tree.
+   *
+   * @param tree	the index of the tree
+   * @param bins	the binned row
+   * @param posterior	the array for the posteriors of the tree, null if not required
+   * @return		the predicted class
+   */
+  public int predict(int tree, char[] bins, double[] posterior) {
+    int		leaf;
+
+    leaf = m_Trees.leaf(tree, bins);
+    if (posterior != null)
+      System.arraycopy(m_LeafPosteriors, leaf * m_NumClasses, posterior, 0, m_NumClasses);
+
+    return m_LeafLabels[leaf];
+  }
+
+  /**
+   * Returns the weight of the tree.
+   *
+   * @param tree	the index of the tree
+   * @return		the weight
+   */
+  public double weight(int tree) {
+    return m_Weights[tree];
+  }
+
+  /**
+   * Predicts the class via majority vote.
+   *
+   * @param x		the row
+   * @return		the predicted class
+   */
+  @Override
+  public int predict(double[] x) {
+    int[]	votes;
+    int[]	leaves;
+
+    leaves = new int[m_Trees.numTrees()];
+    votes  = new int[m_NumClasses];
+    m_Trees.leaves(x, leaves);
+    for (int leaf: leaves)
+      votes[m_LeafLabels[leaf]]++;
+
+    return Math.whichMax(votes);
+  }
+
+  /**
+   * Predicts the class via majority vote and computes the posteriors as the
+   * weighted sum of the posteriors of the trees.
+   *
+   * @param x		the row
+   * @param posteriori	the array for the posteriors
+   * @return		the predicted class
+   */
+  @Override
+  public int predict(double[] x, double[] posteriori) {
+    int[]	votes;
+    int[]	leaves;
+    int		leaf;
+    int		offset;
+    int		i;
+    int		n;
+
+    if (posteriori.length != m_NumClasses)
+      throw new IllegalArgumentException(String.format("Invalid posteriori vector size: %d, expected: %d", posteriori.length, m_NumClasses));
+
+    Arrays.fill(posteriori, 0.0);
+    leaves = new int[m_Trees.numTrees()];
+    votes  = new int[m_NumClasses];
+    m_Trees.leaves(x, leaves);
+    for (i = 0; i < leaves.length; i++) {
+      leaf   = leaves[i];
+      offset = leaf * m_NumClasses;
+      votes[m_LeafLabels[leaf]]++;
+      for (n = 0; n < m_NumClasses; n++)
+	posteriori[n] += m_Weights[i] * m_LeafPosteriors[offset + n];
+    }
+    Math.unitize1(posteriori);
+
+    return Math.whichMax(votes);
+  }
+
+  /**
+   * Returns the approximate memory footprint of the model.
+   *
+   * @return		the size in bytes
+   */
+  public long sizeInBytes() {
+    return m_Trees.sizeInBytes() + m_Weights.length * 8L + m_LeafLabels.length * 4L + m_LeafPosteriors.length * 8L;
+  }
+
+  /**
+   * Returns a short description of the model.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return getClass().getName() + ": " + size() + " trees, " + m_Trees.numNodes() + " nodes, "
+      + (sizeInBytes() / 1024) + " KB";
+  }
+}
@@ -0,0 +1,537 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExpandedSVM.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import smile.classification.SVM.Multiclass;
+import smile.core.KernelExpansion;
+import smile.core.SmileMathUtils;
+import smile.core.SmileReflectionUtils;
+import smile.math.Math;
+import smile.math.kernel.LinearKernel;
+import smile.math.kernel.MercerKernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SVM with the binary machines in explicit kernel expansion form, using the
+ * same voting and posterior computation as SMILE's SVM. Allows replacing the
+ * machines with reduced set approximations.
+ * <br>
+ * Without Platt scaling, the posteriors are the 0/1 distribution of the
+ * predicted class. In fast posterior mode, the sigmoids use precomputed
+ * parameters and {@link SmileMathUtils#exp(double)}, and the pairwise
+ * coupling of one-vs-one machines works on a per-thread workspace instead
+ * of allocating matrices for every prediction.
+ *
+ * @author agent (agent at local)
+ */
+public class ExpandedSVM
+  implements SoftClassifier<double[]> {
+
+  private static final long serialVersionUID = -1297451434232795207L;
+
+  /** the binary machines. */
+  protected KernelExpansion[] m_Machines;
+
+  /** the Platt scaling of the machines. */
+  protected PlattScaling[] m_Platt;
+
+  /** the number of classes. */
+  protected int m_NumClasses;
+
+  /** the multi-class strategy. */
+  protected Multiclass m_Strategy;
+
+  /** whether to use the fast posterior computation. */
+  protected boolean m_FastPosteriors;
+
+  /** the slopes of the sigmoids (fast posteriors). */
+  protected double[] m_PlattAlpha;
+
+  /** the intercepts of the sigmoids (fast posteriors). */
+  protected double[] m_PlattBeta;
+
+  /** the workspace for the pairwise coupling, per thread. */
+  protected static final ThreadLocal<double[]> WORKSPACE = new ThreadLocal<double[]>();
+
+  /**
+   * Initializes the model.
+   *
+   * @param machines	the binary machines
+   * @param platt	the Platt scaling of the machines, null if not available
+   * @param numClasses	the number of classes
+   * @param strategy	the multi-class strategy
+   */
+  public ExpandedSVM(KernelExpansion[] machines, PlattScaling[] platt, int numClasses, Multiclass strategy) {
+    m_Machines   = machines;
+    m_Platt      = platt;
+    m_NumClasses = numClasses;
+    m_Strategy   = strategy;
+  }
+
+  /**
+   * Extracts the binary machines from the trained SVM.
+   *
+   * @param svm		the trained SVM (with or without Platt scaling)
+   * @param kernel	the kernel used for training
+   * @param numClasses	the number of classes
+   * @param strategy	the multi-class strategy that was used
+   * @throws Exception	if accessing the machines fails
+   */
+  public ExpandedSVM(SVM<double[]> svm, MercerKernel<double[]> kernel, int numClasses, Multiclass strategy) throws Exception {
+    List	machines;
+    int		i;
+
+    machines = new ArrayList();
+    if (numClasses == 2)
+      machines.add(SmileReflectionUtils.getField(svm, "svm"));
+    else
+      machines.addAll((List) SmileReflectionUtils.getField(svm, "svms"));
+
+    m_Machines   = new KernelExpansion[machines.size()];
+    m_Platt      = new PlattScaling[machines.size()];
+    m_NumClasses = numClasses;
+    m_Strategy   = strategy;
+    for (i = 0; i < machines.size(); i++) {
+      m_Machines[i] = toExpansion(machines.get(i), kernel);
+      m_Platt[i]    = (PlattScaling) SmileReflectionUtils.getField(machines.get(i), "platt");
+      if (m_Platt[i] == null) {
+	m_Platt = null;
+	break;
+      }
+    }
+    for (; i < machines.size(); i++)
+      m_Machines[i] = toExpansion(machines.get(i), kernel);
+  }
+
+  /**
+   * Turns the support vectors of a binary machine into an expansion. For
+   * a finished machine with linear kernel, the expansion consists of the
+   * primal weight vector only.
+   *
+   * @param machine	the machine to convert
+   * @param kernel	the kernel
+   * @return		the expansion
+   * @throws Exception	if accessing the support vectors fails
+   */
+  protected KernelExpansion toExpansion(Object machine, MercerKernel<double[]> kernel) throws Exception {
+    List		sv;
+    double[]		w;
+    List<double[]>	vectors;
+    List<Double>	coefs;
+    double[]		coefficients;
+    int			i;
+
+    if (kernel instanceof LinearKernel) {
+      w = (double[]) SmileReflectionUtils.getField(machine, "w");
+      if (w != null)
+	return new KernelExpansion(new double[][]{w}, new double[]{1.0}, (Double) SmileReflectionUtils.getField(machine, "b"), kernel);
+    }
+
+    sv      = (List) SmileReflectionUtils.getField(machine, "sv");
+    vectors = new ArrayList<double[]>();
+    coefs   = new ArrayList<Double>();
+    for (i = 0; i < sv.size(); i++) {
+      if (sv.get(i) == null)
+	continue;
+      vectors.add((double[]) SmileReflectionUtils.getField(sv.get(i), "x"));
+      coefs.add((Double) SmileReflectionUtils.getField(sv.get(i), "alpha"));
+    }
+    coefficients = new double[coefs.size()];
+    for (i = 0; i < coefficients.length; i++)
+      coefficients[i] = coefs.get(i);
+
+    return new KernelExpansion(
+      vectors.toArray(new double[vectors.size()][]),
+      coefficients,
+      (Double) SmileReflectionUtils.getField(machine, "b"),
+      kernel);
+  }
+
+  /**
+   * Returns the binary machines.
+   *
+   * @return		the machines
+   */
+  public KernelExpansion[] getMachines() {
+    return m_Machines;
+  }
+
+  /**
+   * Returns the total number of vectors across all machines.
+   *
+   * @return		the number of vectors
+   */
+  public int size() {
+    int		result;
+
+    result = 0;
+    for (KernelExpansion machine: m_Machines)
+      result += machine.size();
+
+    return result;
+  }
+
+  /**
+   * Approximates each binary machine with at most the specified number of
+   * vectors.
+   *
+   * @param maxVectors	the maximum number of vectors per machine
+   * @return		the reduced model
+   * @throws Exception	if setting up the fast posteriors fails
+   * @see		KernelExpansion#reduce(int)
+   */
+  public ExpandedSVM reduce(int maxVectors) throws Exception {
+    ExpandedSVM		result;
+    KernelExpansion[]	machines;
+    int			i;
+
+    machines = new KernelExpansion[m_Machines.length];
+    for (i = 0; i < m_Machines.length; i++)
+      machines[i] = m_Machines[i].reduce(maxVectors);
+
+    result = new ExpandedSVM(machines, m_Platt, m_NumClasses, m_Strategy);
+    result.setFastPosteriors(m_FastPosteriors);
+
+    return result;
+  }
+
+  /**
+   * Returns whether Platt scaling is available for computing posteriors.
+   *
+   * @return		true if available
+   */
+  public boolean hasPosteriors() {
+    return (m_Platt != null);
+  }
+
+  /**
+   * Sets whether to use the fast posterior computation, ie precomputed
+   * sigmoid parameters, fast exp and allocation-free pairwise coupling.
+   *
+   * @param value	true if to use the fast computation
+   * @throws Exception	if accessing the sigmoid parameters fails
+   */
+  public void setFastPosteriors(boolean value) throws Exception {
+    int		i;
+
+    m_FastPosteriors = value;
+    m_PlattAlpha     = null;
+    m_PlattBeta      = null;
+    if (!value || !hasPosteriors())
+      return;
+
+    m_PlattAlpha = new double[m_Platt.length];
+    m_PlattBeta  = new double[m_Platt.length];
+    for (i = 0; i < m_Platt.length; i++) {
+      m_PlattAlpha[i] = (Double) SmileReflectionUtils.getField(m_Platt[i], "alpha");
+      m_PlattBeta[i]  = (Double) SmileReflectionUtils.getField(m_Platt[i], "beta");
+    }
+  }
+
+  /**
+   * Returns whether the fast posterior computation is used.
+   *
+   * @return		true if used
+   */
+  public boolean getFastPosteriors() {
+    return m_FastPosteriors;
+  }
+
+  /**
+   * Computes the root mean squared difference between the decision values
+   * of this model's machines and the ones of the other model.
+   *
+   * @param other	the model to compare with (same number of machines)
+   * @param x		the rows to evaluate
+   * @return		the RMSE across all machines
+   */
+  public double error(ExpandedSVM other, double[][] x) {
+    double	sum;
+    int		i;
+
+    if (x.length == 0)
+      return 0.0;
+
+    sum = 0.0;
+    for (i = 0; i < m_Machines.length; i++)
+      sum += m_Machines[i].squaredError(other.m_Machines[i], x);
+
+    return Math.sqrt(sum / (x.length * m_Machines.length));
+  }
+
+  /**
+   * Turns the decision value of a machine into a probability.
+   *
+   * @param index	the index of the machine
+   * @param f		the decision value
+   * @return		the probability
+   */
+  protected double posterior(int index, double f) {
+    double	z;
+    double	e;
+    double	p;
+
+    if (m_PlattAlpha == null)
+      return Math.min(1.0 - 1e-7, Math.max(1.0e-7, m_Platt[index].predict(f)));
+
+    // same as PlattScaling.predict, with precomputed parameters and fast exp
+    z = f * m_PlattAlpha[index] + m_PlattBeta[index];
+    if (z >= 0) {
+      e = SmileMathUtils.exp(-z);
+      p = e / (1.0 + e);
+    }
+    else {
+      p = 1.0 / (1.0 + SmileMathUtils.exp(z));
+    }
+
+    return Math.min(1.0 - 1e-7, Math.max(1.0e-7, p));
+  }
+
+  /**
+   * Returns the workspace of the current thread, with at least the
+   * specified size.
+   *
+   * @param size	the required size
+   * @return		the workspace
+   */
+  protected static double[] workspace(int size) {
+    double[]	result;
+
+    result = WORKSPACE.get();
+    if ((result == null) || (result.length < size)) {
+      result = new double[size];
+      WORKSPACE.set(result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Couples the pairwise probabilities into the class posteriors, like
+   * {@link PlattScaling#multiclass(int, double[][], double[])} (method 2
+   * of Wu, Lin and Weng), but on flat arrays in the workspace.
+   * <br>
+   * Layout of the workspace: the pairwise probabilities (k x k, row-major,
+   * the value at i*k+j being the probability of i over j), followed by
+   * the Q matrix (k x k) and Q*p (k).
+   *
+   * @param k		the number of classes
+   * @param work	the workspace, with the pairwise probabilities filled in
+   * @param p		the array for the posteriors
+   */
+  protected static void couple(int k, double[] work, double[] p) {
+    double	eps;
+    double	pqp;
+    double	error;
+    double	diff;
+    double	d;
+    int		q;
+    int		qp;
+    int		maxIter;
+    int		iter;
+    int		t;
+    int		j;
+
+    q  = k * k;
+    qp = 2 * k * k;
+    for (t = 0; t < k; t++) {
+      p[t]                = 1.0 / k;
+      work[q + t * k + t] = 0.0;
+      for (j = 0; j < t; j++) {
+	work[q + t * k + t] += work[j * k + t] * work[j * k + t];
+	work[q + t * k + j]  = work[q + j * k + t];
+      }
+      for (j = t + 1; j < k; j++) {
+	work[q + t * k + t] += work[j * k + t] * work[j * k + t];
+	work[q + t * k + j]  = -work[j * k + t] * work[t * k + j];
+      }
+    }
+
+    eps     = 0.005 / k;
+    maxIter = Math.max(100, k);
+    for (iter = 0; iter < maxIter; iter++) {
+      pqp = 0.0;
+      for (t = 0; t < k; t++) {
+	work[qp + t] = 0.0;
+	for (j = 0; j < k; j++)
+	  work[qp + t] += work[q + t * k + j] * p[j];
+	pqp += p[t] * work[qp + t];
+      }
+      error = 0.0;
+      for (t = 0; t < k; t++) {
+	d = Math.abs(work[qp + t] - pqp);
+	if (d > error)
+	  error = d;
+      }
+      if (error < eps)
+	break;
+
+      for (t = 0; t < k; t++) {
+	diff  = (-work[qp + t] + pqp) / work[q + t * k + t];
+	p[t] += diff;
+	pqp   = (pqp + diff * (diff * work[q + t * k + t] + 2.0 * work[qp + t])) / (1.0 + diff) / (1.0 + diff);
+	for (j = 0; j < k; j++) {
+	  work[qp + j] = (work[qp + j] + diff * work[q + t * k + j]) / (1.0 + diff);
+	  p[j]        /= (1.0 + diff);
+	}
+      }
+    }
+  }
+
+  /**
+   * Predicts the class label of an instance.
+   *
+   * @param x		the instance to be classified
+   * @return		the predicted class label
+   */
+  @Override
+  public int predict(double[] x) {
+    int[]	count;
+    double	f;
+    double	max;
+    int		result;
+    int		i;
+    int		j;
+    int		m;
+
+    if (m_NumClasses == 2)
+      return (m_Machines[0].predict(x) > 0) ? 1 : 0;
+
+    if (m_Strategy == Multiclass.ONE_VS_ALL) {
+      result = 0;
+      max    = Double.NEGATIVE_INFINITY;
+      for (i = 0; i < m_Machines.length; i++) {
+	f = m_Machines[i].predict(x);
+	if (f > max) {
+	  max    = f;
+	  result = i;
+	}
+      }
+      return result;
+    }
+
+    count = new int[m_NumClasses];
+    m     = 0;
+    for (i = 0; i < m_NumClasses; i++) {
+      for (j = i + 1; j < m_NumClasses; j++) {
+	if (m_Machines[m++].predict(x) > 0)
+	  count[i]++;
+	else
+	  count[j]++;
+      }
+    }
+
+    return Math.whichMax(count);
+  }
+
+  /**
+   * Predicts the class label of an instance and also calculates the
+   * posteriori probabilities.
+   *
+   * @param x		the instance to be classified
+   * @param posteriori	the array to store the posteriori probabilities
+   * @return		the predicted class label
+   */
+  @Override
+  public int predict(double[] x, double[] posteriori) {
+    int[]	count;
+    double[][]	r;
+    double[]	work;
+    double	f;
+    double	max;
+    int		result;
+    int		k;
+    int		i;
+    int		j;
+    int		m;
+
+    if (!hasPosteriors()) {
+      Arrays.fill(posteriori, 0.0);
+      result = predict(x);
+      posteriori[result] = 1.0;
+      return result;
+    }
+
+    if (m_NumClasses == 2) {
+      f = m_Machines[0].predict(x);
+      posteriori[1] = posterior(0, f);
+      posteriori[0] = 1.0 - posteriori[1];
+      return (f > 0) ? 1 : 0;
+    }
+
+    if (m_Strategy == Multiclass.ONE_VS_ALL) {
+      result = 0;
+      max    = Double.NEGATIVE_INFINITY;
+      for (i = 0; i < m_Machines.length; i++) {
+	f             = m_Machines[i].predict(x);
+	posteriori[i] = posterior(i, f);
+	if (f > max) {
+	  max    = f;
+	  result = i;
+	}
+      }
+      Math.unitize1(posteriori);
+      return result;
+    }
+
+    count = new int[m_NumClasses];
+    if (m_FastPosteriors) {
+      k    = m_NumClasses;
+      work = workspace(2 * k * k + k);
+      m    = 0;
+      for (i = 0; i < k; i++) {
+	for (j = i + 1; j < k; j++) {
+	  f               = m_Machines[m].predict(x);
+	  work[i * k + j] = posterior(m, f);
+	  work[j * k + i] = 1.0 - work[i * k + j];
+	  if (f > 0)
+	    count[i]++;
+	  else
+	    count[j]++;
+	  m++;
+	}
+      }
+      couple(k, work, posteriori);
+      return Math.whichMax(count);
+    }
+
+    r     = new double[m_NumClasses][m_NumClasses];
+    m     = 0;
+    for (i = 0; i < m_NumClasses; i++) {
+      for (j = i + 1; j < m_NumClasses; j++) {
+	f       = m_Machines[m].predict(x);
+	r[i][j] = posterior(m, f);
+	r[j][i] = 1.0 - r[i][j];
+	if (f > 0)
+	  count[i]++;
+	else
+	  count[j]++;
+	m++;
+      }
+    }
+    PlattScaling.multiclass(m_NumClasses, r, posteriori);
+
+    return Math.whichMax(count);
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * HistogramTree.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import smile.core.AbstractHistogramTree;
+import smile.core.HistogramBinning;
+import smile.math.Math;
+
+/**
+ * Decision tree for classification that finds its splits via class count
+ * histograms over the pre-binned data, as alternative to SMILE's
+ * DecisionTree for large datasets. Supports the same split rules.
+ *
+ * @author agent (agent at local)
+ */
+public class HistogramTree
+  extends AbstractHistogramTree
+  implements SoftClassifier<double[]> {
+
+  private static final long serialVersionUID = 8735119925044672164L;
+
+  /**
+   * A node with the predicted class and the posteriors.
+   */
+  public static class ClassNode
+    extends Node {
+
+    private static final long serialVersionUID = -4893401375632187720L;
+
+    /** the predicted class (named like in SMILE's nodes). */
+    public int output;
+
+    /** the posteriors (named like in SMILE's nodes). */
+    public double[] posteriori;
+  }
+
+  /** the number of classes. */
+  protected int m_NumClasses;
+
+  /** the split rule. */
+  protected DecisionTree.SplitRule m_SplitRule;
+
+  /** the class labels (only used while growing). */
+  protected transient int[] m_Y;
+
+  /**
+   * Grows the tree.
+   *
+   * @param binning	the binned data
+   * @param y		the class labels
+   * @param numClasses	the number of classes
+   * @param maxNodes	the maximum number of leaves
+   * @param nodeSize	the minimum node size
+   * @param mtry	the number of features to evaluate per node
+   * @param rule	the split rule
+   * @param samples	the number of times each row is in the sample
+   */
+  public HistogramTree(HistogramBinning binning, int[] y, int numClasses, int maxNodes, int nodeSize, int mtry,
+		       DecisionTree.SplitRule rule, int[] samples) {
+    m_NumClasses = numClasses;
+    m_SplitRule  = rule;
+    m_Y          = y;
+    grow(binning, samples, maxNodes, nodeSize, mtry);
+    m_Y          = null;
+  }
+
+  /**
+   * Returns the number of target statistics per bin.
+   *
+   * @return		the number of classes
+   */
+  @Override
+  protected int numStats() {
+    return m_NumClasses;
+  }
+
+  /**
+   * Adds the class of the row to the counts.
+   *
+   * @param stats	the class counts
+   * @param offset	the offset of the counts in the array
+   * @param row		the row
+   * @param weight	the weight of the row
+   */
+  @Override
+  protected void add(double[] stats, int offset, int row, int weight) {
+    stats[offset + m_Y[row]] += weight;
+  }
+
+  /**
+   * Returns the total weight of the rows in the counts.
+   *
+   * @param stats	the class counts
+   * @return		the weight
+   */
+  @Override
+  protected double weight(double[] stats) {
+    return Math.sum(stats);
+  }
+
+  /**
+   * Computes the impurity of the class counts with the split rule.
+   *
+   * @param stats	the class counts
+   * @param weight	the total weight
+   * @return		the impurity
+   */
+  protected double impurity(double[] stats, double weight) {
+    double	result;
+    double	p;
+
+    switch (m_SplitRule) {
+      case GINI:
+	result = 1.0;
+	for (double count: stats) {
+	  p       = count / weight;
+	  result -= p * p;
+	}
+	return result;
+
+      case ENTROPY:
+	result = 0.0;
+	for (double count: stats) {
+	  if (count > 0) {
+	    p       = count / weight;
+	    result -= p * Math.log2(p);
+	  }
+	}
+	return result;
+
+      case CLASSIFICATION_ERROR:
+	return Math.abs(1.0 - Math.max(stats) / weight);
+
+      default:
+	throw new IllegalStateException("Unsupported split rule: " + m_SplitRule);
+    }
+  }
+
+  /**
+   * Computes the decrease in impurity of a split.
+   *
+   * @param stats	the class counts of the node
+   * @param trueStats	the class counts of the true child
+   * @param falseStats	the class counts of the false child
+   * @return		the gain
+   */
+  @Override
+  protected double gain(double[] stats, double[] trueStats, double[] falseStats) {
+    double	weight;
+    double	trueWeight;
+    double	falseWeight;
+
+    weight      = weight(stats);
+    trueWeight  = weight(trueStats);
+    falseWeight = weight(falseStats);
+
+    return impurity(stats, weight)
+      - trueWeight / weight * impurity(trueStats, trueWeight)
+      - falseWeight / weight * impurity(falseStats, falseWeight);
+  }
+
+  /**
+   * Creates a node with the majority class and the relative frequencies as
+   * posteriors.
+   *
+   * @param stats	the class counts of the node
+   * @return		the node
+   */
+  @Override
+  protected Node newNode(double[] stats) {
+    ClassNode	result;
+    double	weight;
+    int		i;
+
+    result            = new ClassNode();
+    result.output     = Math.whichMax(stats);
+    result.posteriori = new double[m_NumClasses];
+    weight            = weight(stats);
+    for (i = 0; i < m_NumClasses; i++)
+      result.posteriori[i] = stats[i] / weight;
+
+    return result;
+  }
+
+  /**
+   * Predicts the class.
+   *
+   * @param x		the row
+   * @return		the predicted class
+   */
+  @Override
+  public int predict(double[] x) {
+    return ((ClassNode) leaf(x)).output;
+  }
+
+  /**
+   * Predicts the class and returns the posteriors of the leaf.
+   *
+   * @param x		the row
+   * @param posteriori	the array for the posteriors
+   * @return		the predicted class
+   */
+  @Override
+  public int predict(double[] x, double[] posteriori) {
+    ClassNode	leaf;
+
+    leaf = (ClassNode) leaf(x);
+    System.arraycopy(leaf.posteriori, 0, posteriori, 0, m_NumClasses);
+
+    return leaf.output;
+  }
+}
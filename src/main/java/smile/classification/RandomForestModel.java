@@ -0,0 +1,194 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RandomForestModel.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import smile.math.Math;
+
+import java.util.Arrays;
+
+/**
+ * Random forest for classification assembled from individually trained
+ * trees (see {@link RandomForestTrainer}), as SMILE's RandomForest cannot
+ * be created from trees. Predicts like SMILE's forest: majority vote of the
+ * trees, posteriors as the weighted sum of the posteriors of the trees.
+ *
+ * @author agent (agent at local)
+ */
+public class RandomForestModel
+  implements SoftClassifier<double[]> {
+
+  private static final long serialVersionUID = 2836412270845161938L;
+
+  /** the trees (DecisionTree or HistogramTree). */
+  protected SoftClassifier<double[]>[] m_Trees;
+
+  /** the weights of the trees (out-of-bag accuracy). */
+  protected double[] m_Weights;
+
+  /** the number of classes. */
+  protected int m_NumClasses;
+
+  /** the out-of-bag error. */
+  protected double m_Error;
+
+  /**
+   * Initializes the forest.
+   *
+   * @param trees	the trees
+   * @param weights	the weights of the trees
+   * @param numClasses	the number of classes
+   * @param error	the out-of-bag error
+   */
+  public RandomForestModel(SoftClassifier<double[]>[] trees, double[] weights, int numClasses, double error) {
+    m_Trees      = trees.clone();
+    m_Weights    = weights.clone();
+    m_NumClasses = numClasses;
+    m_Error      = error;
+  }
+
+  /**
+   * Returns the number of trees.
+   *
+   * @return		the number of trees
+   */
+  public int size() {
+    return m_Trees.length;
+  }
+
+  /**
+   * Returns the trees.
+   *
+   * @return		the trees
+   */
+  public SoftClassifier<double[]>[] getTrees() {
+    return m_Trees;
+  }
+
+  /**
+   * Returns the weights of the trees.
+   *
+   * @return		the weights
+   */
+  public double[] getWeights() {
+    return m_Weights;
+  }
+
+  /**
+   * Returns the number of classes.
+   *
+   * @return		the number of classes
+   */
+  public int numClasses() {
+    return m_NumClasses;
+  }
+
+  /**
+   * Returns the out-of-bag estimate of the error.
+   *
+   * @return		the error rate
+   */
+  public double error() {
+    return m_Error;
+  }
+
+  /**
+   * Returns the variable importance, the sum of the importance of the trees.
+   *
+   * @return		the importance per attribute
+   */
+  public double[] importance() {
+    double[]	result;
+    double[]	tree;
+    int		i;
+
+    result = null;
+    for (SoftClassifier<double[]> t: m_Trees) {
+      if (t instanceof HistogramTree)
+	tree = ((HistogramTree) t).importance();
+      else
+	tree = ((DecisionTree) t).importance();
+      if (result == null)
+	result = new double[tree.length];
+      for (i = 0; i < tree.length; i++)
+	result[i] += tree[i];
+    }
+
+    return result;
+  }
+
+  /**
+   * Predicts the class via majority vote.
+   *
+   * @param x		the row
+   * @return		the predicted class
+   */
+  @Override
+  public int predict(double[] x) {
+    int[]	votes;
+
+    votes = new int[m_NumClasses];
+    for (SoftClassifier<double[]> tree: m_Trees)
+      votes[tree.predict(x)]++;
+
+    return Math.whichMax(votes);
+  }
+
+  /**
+   * Predicts the class via majority vote and computes the posteriors as the
+   * weighted sum of the posteriors of the trees.
+   *
+   * @param x		the row
+   * @param posteriori	the array for the posteriors
+   * @return		the predicted class
+   */
+  @Override
+  public int predict(double[] x, double[] posteriori) {
+    int[]	votes;
+    double[]	tree;
+    int		i;
+    int		n;
+
+    if (posteriori.length != m_NumClasses)
+      throw new IllegalArgumentException(String.format("Invalid posteriori vector size: %d, expected: %d", posteriori.length, m_NumClasses));
+
+    Arrays.fill(posteriori, 0.0);
+    votes = new int[m_NumClasses];
+    tree  = new double[m_NumClasses];
+    for (i = 0; i < m_Trees.length; i++) {
+      votes[m_Trees[i].predict(x, tree)]++;
+      for (n = 0; n < m_NumClasses; n++)
+	posteriori[n] += m_Weights[i] * tree[n];
+    }
+    Math.unitize1(posteriori);
+
+    return Math.whichMax(votes);
+  }
+
+  /**
+   * Returns a short description of the model.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return getClass().getName() + ": " + size() + " trees, OOB error: " + m_Error;
+  }
+}
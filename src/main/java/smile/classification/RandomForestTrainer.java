@@ -0,0 +1,365 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RandomForestTrainer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import smile.core.HistogramBinning;
+import smile.core.TrainingExecutor;
+import smile.data.Attribute;
+import smile.math.Math;
+import smile.util.SmileUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Trains the trees of a random forest for classification on a
+ * {@link TrainingExecutor}, ie with a configurable number of threads rather
+ * than SMILE's global MulticoreExecutor. Uses the same algorithm as SMILE's
+ * RandomForest: stratified bootstrap (or sub-)samples, a decision tree per
+ * sample and the out-of-bag accuracy as weight of the tree. Trees can be
+ * added in several steps.
+ * <br>
+ * With a maximum number of bins, the data gets pre-binned and the trees
+ * find their splits via histograms (see {@link HistogramTree}) instead of
+ * sorting, which is faster and uses less memory for large datasets.
+ * <br>
+ * SMILE's RandomForest cannot be reused for this: it trains all trees in
+ * its constructor on the global MulticoreExecutor (thread count fixed via a
+ * system property), cannot add trees to an existing forest (needed for
+ * iterative training, OOB-based early stopping and training time budgets)
+ * and has no way to plug in other tree implementations. The sampling, tree
+ * construction and OOB weighting are therefore replicated here;
+ * RandomForestTrainerTest checks OOB error and accuracy against SMILE's
+ * RandomForest.
+ *
+ * @author agent (agent at local)
+ * @see RandomForestModel
+ */
+public class RandomForestTrainer {
+
+  /**
+   * A trained tree and its weight.
+   */
+  protected static class Tree {
+
+    /** the tree. */
+    public SoftClassifier<double[]> tree;
+
+    /** the out-of-bag accuracy. */
+    public double weight;
+  }
+
+  /** the attributes. */
+  protected Attribute[] m_Attributes;
+
+  /** the training rows. */
+  protected double[][] m_X;
+
+  /** the class labels. */
+  protected int[] m_Y;
+
+  /** the number of classes. */
+  protected int m_NumClasses;
+
+  /** the maximum number of leaf nodes. */
+  protected int m_MaxNodes;
+
+  /** the minimum node size. */
+  protected int m_NodeSize;
+
+  /** the number of features to split on. */
+  protected int m_NumFeatures;
+
+  /** the sub-sample size (1 for bootstrap sampling). */
+  protected double m_SubSample;
+
+  /** the split rule. */
+  protected DecisionTree.SplitRule m_SplitRule;
+
+  /** the class weights. */
+  protected int[] m_ClassWeight;
+
+  /** the sorted index of the numeric attributes, shared by the trees (null if binned). */
+  protected int[][] m_Order;
+
+  /** the binned data, shared by the trees (null if not binned). */
+  protected HistogramBinning m_Binning;
+
+  /** the out-of-bag votes per row. */
+  protected int[][] m_Votes;
+
+  /** the trees so far. */
+  protected List<SoftClassifier<double[]>> m_Trees;
+
+  /** the weights of the trees so far. */
+  protected List<Double> m_Weights;
+
+  /** for running the training tasks. */
+  protected TrainingExecutor m_Executor;
+
+  /**
+   * Initializes the trainer.
+   *
+   * @param attributes	the attributes
+   * @param x		the training rows
+   * @param y		the class labels
+   * @param maxNodes	the maximum number of leaf nodes
+   * @param nodeSize	the minimum node size
+   * @param mtry	the number of features to split on
+   * @param subsample	the sub-sample size (1 for bootstrap sampling)
+   * @param rule	the split rule
+   * @param classWeight	the class weights, null for equal weights
+   * @param maxBins	the maximum number of bins per numeric attribute for histogram-based split finding, 0 for sorting
+   * @param executor	for running the training tasks
+   */
+  public RandomForestTrainer(Attribute[] attributes, double[][] x, int[] y, int maxNodes, int nodeSize, int mtry,
+			     double subsample, DecisionTree.SplitRule rule, int[] classWeight, int maxBins, TrainingExecutor executor) {
+    int[]	labels;
+    int		i;
+
+    if (x.length != y.length)
+      throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.length, y.length));
+    if ((mtry < 1) || (mtry > x[0].length))
+      throw new IllegalArgumentException("Invalid number of variables to split on at a node of the tree: " + mtry);
+    if (nodeSize < 1)
+      throw new IllegalArgumentException("Invalid minimum size of leaves: " + nodeSize);
+    if (maxNodes < 2)
+      throw new IllegalArgumentException("Invalid maximum number of leaves: " + maxNodes);
+    if ((subsample <= 0) || (subsample > 1))
+      throw new IllegalArgumentException("Invalid sampling rating: " + subsample);
+
+    labels = Math.unique(y);
+    Arrays.sort(labels);
+    for (i = 0; i < labels.length; i++) {
+      if (labels[i] < 0)
+	throw new IllegalArgumentException("Negative class label: " + labels[i]);
+      if ((i > 0) && (labels[i] - labels[i - 1] > 1))
+	throw new IllegalArgumentException("Missing class: " + (labels[i - 1] + 1));
+    }
+
+    m_Attributes  = attributes;
+    m_X           = x;
+    m_Y           = y;
+    m_NumClasses  = labels.length;
+    m_MaxNodes    = maxNodes;
+    m_NodeSize    = nodeSize;
+    m_NumFeatures = mtry;
+    m_SubSample   = subsample;
+    m_SplitRule   = rule;
+    m_ClassWeight = classWeight;
+    if (m_ClassWeight == null) {
+      m_ClassWeight = new int[m_NumClasses];
+      Arrays.fill(m_ClassWeight, 1);
+    }
+    m_Executor    = executor;
+    if (maxBins == 0)
+      m_Order     = SmileUtils.sort(attributes, x);
+    else
+      m_Binning   = new HistogramBinning(attributes, x, maxBins);
+    m_Votes       = new int[x.length][m_NumClasses];
+    m_Trees       = new ArrayList<SoftClassifier<double[]>>();
+    m_Weights     = new ArrayList<Double>();
+  }
+
+  /**
+   * Draws the sample for a tree: stratified sampling with replacement, or
+   * without replacement if sub-sampling.
+   *
+   * @return		the number of times each row is in the sample
+   */
+  protected int[] sample() {
+    int[]		result;
+    int[]		perm;
+    int[]		counts;
+    List<Integer>	rows;
+    int			size;
+    int			count;
+    int			i;
+    int			l;
+
+    result = new int[m_X.length];
+    if (m_SubSample == 1.0) {
+      for (l = 0; l < m_NumClasses; l++) {
+	rows = new ArrayList<Integer>();
+	for (i = 0; i < m_Y.length; i++) {
+	  if (m_Y[i] == l)
+	    rows.add(i);
+	}
+	size = rows.size() / m_ClassWeight[l];
+	for (i = 0; i < size; i++)
+	  result[rows.get(Math.randomInt(rows.size()))]++;
+      }
+    }
+    else {
+      perm = new int[m_X.length];
+      for (i = 0; i < perm.length; i++)
+	perm[i] = i;
+      Math.permutate(perm);
+      counts = new int[m_NumClasses];
+      for (i = 0; i < m_Y.length; i++)
+	counts[m_Y[i]]++;
+      for (l = 0; l < m_NumClasses; l++) {
+	size  = (int) Math.round(counts[l] * m_SubSample / m_ClassWeight[l]);
+	count = 0;
+	for (i = 0; (i < perm.length) && (count < size); i++) {
+	  if (m_Y[perm[i]] == l) {
+	    result[perm[i]]++;
+	    count++;
+	  }
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Trains a tree on a new sample and records its out-of-bag votes.
+   *
+   * @return		the tree and its weight
+   */
+  protected Tree train() {
+    Tree	result;
+    int[]	samples;
+    int		oob;
+    int		correct;
+    int		label;
+    int		i;
+
+    samples     = sample();
+    result      = new Tree();
+    if (m_Binning == null)
+      result.tree = new DecisionTree(m_Attributes, m_X, m_Y, m_MaxNodes, m_NodeSize, m_NumFeatures, m_SplitRule, samples.clone(), m_Order);
+    else
+      result.tree = new HistogramTree(m_Binning, m_Y, m_NumClasses, m_MaxNodes, m_NodeSize, m_NumFeatures, m_SplitRule, samples);
+
+    oob     = 0;
+    correct = 0;
+    for (i = 0; i < m_X.length; i++) {
+      if (samples[i] == 0) {
+	oob++;
+	label = result.tree.predict(m_X[i]);
+	if (label == m_Y[i])
+	  correct++;
+	synchronized(m_Votes[i]) {
+	  m_Votes[i][label]++;
+	}
+      }
+    }
+    result.weight = (oob == 0) ? 1.0 : (double) correct / oob;
+
+    return result;
+  }
+
+  /**
+   * Trains the specified number of trees and adds them to the forest.
+   *
+   * @param num		the number of trees to add
+   * @throws Exception	if training fails
+   */
+  public void addTrees(int num) throws Exception {
+    List<Callable<Tree>>	tasks;
+    int				i;
+
+    tasks = new ArrayList<Callable<Tree>>();
+    for (i = 0; i < num; i++) {
+      tasks.add(new Callable<Tree>() {
+	@Override
+	public Tree call() throws Exception {
+	  return train();
+	}
+      });
+    }
+    for (Tree tree: m_Executor.run(tasks)) {
+      m_Trees.add(tree.tree);
+      m_Weights.add(tree.weight);
+    }
+  }
+
+  /**
+   * Returns the number of trees trained so far.
+   *
+   * @return		the number of trees
+   */
+  public int numTrees() {
+    return m_Trees.size();
+  }
+
+  /**
+   * Returns the number of classes.
+   *
+   * @return		the number of classes
+   */
+  public int numClasses() {
+    return m_NumClasses;
+  }
+
+  /**
+   * Returns the out-of-bag error of the trees so far: the fraction of rows
+   * (with out-of-bag votes) whose majority vote is wrong.
+   *
+   * @return		the error rate, NaN if no out-of-bag votes available
+   */
+  public double error() {
+    int		count;
+    int		wrong;
+    int		i;
+
+    count = 0;
+    wrong = 0;
+    for (i = 0; i < m_Votes.length; i++) {
+      if (Math.sum(m_Votes[i]) > 0) {
+	count++;
+	if (Math.whichMax(m_Votes[i]) != m_Y[i])
+	  wrong++;
+      }
+    }
+
+    return (count == 0) ? Double.NaN : (double) wrong / count;
+  }
+
+  /**
+   * Returns the executor for the training tasks.
+   *
+   * @return		the executor
+   */
+  public TrainingExecutor getExecutor() {
+    return m_Executor;
+  }
+
+  /**
+   * Returns the forest of the trees trained so far.
+   *
+   * @return		the forest
+   */
+  public RandomForestModel getModel() {
+    double[]	weights;
+    int		i;
+
+    weights = new double[m_Weights.size()];
+    for (i = 0; i < weights.length; i++)
+      weights[i] = m_Weights.get(i);
+
+    return new RandomForestModel(m_Trees.toArray(new SoftClassifier[0]), weights, m_NumClasses, error());
+  }
+}
@@ -20,21 +20,91 @@
 
 package smile.classification;
 
+import smile.core.AnytimePrediction;
+import smile.core.AnytimePredictor;
+import smile.core.OutOfBagStopping;
+import smile.core.TrainingBudget;
+import smile.core.SmileDatasetUtils;
+import smile.core.TrainingExecutor;
 import smile.data.AttributeDataset;
 import smile.math.Math;
+import weka.classifiers.IterativeClassifier;
+import weka.core.Aggregateable;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * SMILE RandomForest.
+ * SMILE RandomForest. Supports anytime prediction, returning the vote of
+ * the trees evaluated before a deadline.
+ * <br>
+ * The trees get built with the configured number of threads (or a supplied
+ * executor) rather than SMILE's global thread pool, see
+ * {@link RandomForestTrainer}. With histogramBins, the trees find their
+ * splits via histograms over pre-binned data rather than by sorting, see
+ * {@link HistogramTree}.
+ * <br>
+ * Can be trained iteratively (eg by IterativeClassifierOptimizer to pick the
+ * number of trees), adding numTreesPerIteration trees per iteration up to
+ * numTrees trees.
+ * <br>
+ * With an oobStoppingWindow, trees get added only as long as the
+ * out-of-bag error keeps improving, see {@link OutOfBagStopping}.
+ * <br>
+ * Forests trained on disjoint partitions of the data (with the same
+ * header) can be merged via {@link #aggregate(SmileRandomForest)} and
+ * {@link #finalizeAggregation()}. The forests must not be compacted, the
+ * merged forest gets compacted when finalizing (if enabled).
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SmileRandomForest
-  extends SmileRandomForestBase {
+  extends SmileRandomForestBase
+  implements AnytimePredictor, IterativeClassifier, Aggregateable<SmileRandomForest> {
 
   private static final long serialVersionUID = -6558986110434792292L;
 
+  /** the trees of the forest, in evaluation order. */
+  protected SoftClassifier<double[]>[] m_Trees;
+
+  /** the weights of the trees (out-of-bag accuracy). */
+  protected double[] m_TreeWeights;
+
+  /** the number of predictions made in early exit mode. */
+  protected AtomicLong m_EarlyExitPredictions = new AtomicLong();
+
+  /** the total number of trees evaluated in early exit mode. */
+  protected AtomicLong m_EarlyExitTreesEvaluated = new AtomicLong();
+
+  /** the executor to build the trees with, null to use numThreads. */
+  protected transient ExecutorService m_Executor;
+
+  /** the thread utilisation of the training. */
+  protected String m_TrainingStatistics;
+
+  /** the trainer while training iteratively (or resumable). */
+  protected transient RandomForestTrainer m_Trainer;
+
+  /** the training data while training iteratively (or resumable). */
+  protected transient AttributeDataset m_TrainingData;
+
+  /** the out-of-bag stopping monitor, null if not used. */
+  protected OutOfBagStopping m_OutOfBagStopping;
+
+  /** the forests to merge, null if not aggregating. */
+  protected transient List<RandomForestModel> m_Aggregated;
+
+  /** the number of forests this forest was merged from, 0 if not aggregated. */
+  protected int m_NumAggregated;
+
   /**
    * Returns a description of the classifier.
    *
@@ -73,6 +143,170 @@ public class SmileRandomForest
     return result;
   }
 
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    if (m_Trainer != null)
+      m_Trainer.getExecutor().shutdown();
+    super.reset();
+    m_Trees       = null;
+    m_TreeWeights = null;
+    m_EarlyExitPredictions.set(0);
+    m_EarlyExitTreesEvaluated.set(0);
+    m_TrainingStatistics = null;
+    m_Trainer            = null;
+    m_TrainingData       = null;
+    m_OutOfBagStopping   = null;
+    m_Aggregated         = null;
+    m_NumAggregated      = 0;
+  }
+
+  /**
+   * Sets the executor to build the trees with, eg for sharing a pool between
+   * several trainings. Takes precedence over numThreads, which is then only
+   * used for reporting. Does not get serialized.
+   *
+   * @param value	the executor, null to use numThreads
+   */
+  public void setExecutor(ExecutorService value) {
+    m_Executor = value;
+  }
+
+  /**
+   * Returns the executor to build the trees with.
+   *
+   * @return		the executor, null if using numThreads
+   */
+  public ExecutorService getExecutor() {
+    return m_Executor;
+  }
+
+  /**
+   * Returns the thread utilisation of the last training.
+   *
+   * @return		the statistics, null if not trained
+   */
+  public String getTrainingStatistics() {
+    return m_TrainingStatistics;
+  }
+
+  /**
+   * Returns the out-of-bag stopping monitor of the last training, with the
+   * stopping point.
+   *
+   * @return		the monitor, null if not used
+   */
+  public OutOfBagStopping getOutOfBagStopping() {
+    return m_OutOfBagStopping;
+  }
+
+  /**
+   * Creates the out-of-bag stopping monitor.
+   *
+   * @return		the monitor, null if oobStoppingWindow is 0
+   */
+  protected OutOfBagStopping newOutOfBagStopping() {
+    if (m_OobStoppingWindow == 0)
+      return null;
+    return new OutOfBagStopping(m_OobStoppingWindow, m_OobStoppingTolerance);
+  }
+
+  /**
+   * Creates the executor for the training tasks.
+   *
+   * @return		the executor
+   */
+  protected TrainingExecutor newTrainingExecutor() {
+    if (m_Executor != null)
+      return new TrainingExecutor(m_Executor, m_NumThreads);
+    return new TrainingExecutor(m_NumThreads);
+  }
+
+  /**
+   * Uses the trees and their weights of the forest.
+   *
+   * @param forest	the forest to get the trees from
+   */
+  protected void initTrees(RandomForestModel forest) {
+    m_Trees       = forest.getTrees();
+    m_TreeWeights = forest.getWeights();
+  }
+
+  /**
+   * Creates the trainer for the data.
+   *
+   * @param data	the training data
+   * @return		the trainer
+   */
+  protected RandomForestTrainer newTrainer(AttributeDataset data) {
+    return new RandomForestTrainer(
+      data.attributes(),
+      data.x(),
+      data.labels(),
+      m_MaxNodes,
+      m_MinNodeSize,
+      m_NumFeatures == -1 ? (int) Math.floor(Math.sqrt(data.attributes().length)) : m_NumFeatures,
+      m_SubSample,
+      m_SplitRule,
+      null,
+      m_HistogramBins,
+      newTrainingExecutor());
+  }
+
+  /**
+   * Compacts the trees of the forest, which get discarded.
+   *
+   * @param x		the rows to verify the generated code with, null to skip verification
+   * @return		the compact forest
+   * @throws Exception	if compacting fails or the generated code differs
+   */
+  protected CompactRandomForest compact(double[][] x) throws Exception {
+    CompactRandomForest		result;
+
+    result        = new CompactRandomForest(m_Trees, m_TreeWeights, m_Header.getDataset().attributes(), numClasses());
+    m_Trees       = null;
+    m_TreeWeights = null;
+    if (m_GenerateCode) {
+      result.getTrees().setGenerateCode(true);
+      if ((x != null) && (result.getTrees().verifyGeneratedCode(x) > 0))
+	throw new IllegalStateException("Generated code differs from compact trees!");
+    }
+
+    return result;
+  }
+
+  /**
+   * Assembles the model from the trees trained so far and shuts down the
+   * thread pool of the training session (resuming creates a new one).
+   * Unless training is to be resumed, the trainer gets discarded and the
+   * trees compacted (if enabled).
+   *
+   * @return 		the generated model
+   * @throws Exception	if compacting the trees fails
+   */
+  protected Classifier<double[]> finishTraining() throws Exception {
+    RandomForestModel		result;
+    AttributeDataset		data;
+
+    result               = m_Trainer.getModel();
+    m_TrainingStatistics = m_Trainer.getExecutor().toString();
+    m_Trainer.getExecutor().shutdown();
+    initTrees(result);
+    if (m_Resume)
+      return result;
+
+    data           = m_TrainingData;
+    m_Trainer      = null;
+    m_TrainingData = null;
+
+    if (m_CompactTrees || m_GenerateCode)
+      return compact(data.x());
+
+    return result;
+  }
+
   /**
    * Builds the classifier.
    *
@@ -82,15 +316,447 @@ public class SmileRandomForest
    */
   @Override
   protected Classifier<double[]> buildClassifier(AttributeDataset data) throws Exception {
-    return new RandomForest(
-      data,
-      m_NumTrees,
-      m_MaxNodes,
-      m_MinNodeSize,
-      m_NumFeatures == -1 ? (int) Math.floor(Math.sqrt(data.attributes().length)) : m_NumFeatures,
-      m_SubSample,
-      m_SplitRule,
-      null);
+    m_TrainingData     = data;
+    m_Trainer          = newTrainer(data);
+    m_OutOfBagStopping = newOutOfBagStopping();
+    if ((m_OutOfBagStopping == null) && !m_TrainingBudget.isLimited())
+      m_Trainer.addTrees(m_NumTrees);
+    else
+      while (addTrees());
+
+    return finishTraining();
+  }
+
+  /**
+   * Discards the cached predictions and resets the early-exit statistics,
+   * since they refer to the previous model.
+   */
+  protected void modelChanged() {
+    m_EarlyExitPredictions.set(0);
+    m_EarlyExitTreesEvaluated.set(0);
+    if (m_PredictionCache != null)
+      m_PredictionCache.clear();
+  }
+
+  /**
+   * Initializes the classifier for iterative training, without any trees.
+   * If resuming, training continues with the current trees and the data
+   * training was initialized with (with a fresh time budget); the data
+   * must have the same structure, but its rows get ignored.
+   *
+   * @param data	the data to use for training
+   * @throws Exception	if data does not match capabilities or, when resuming, differs in structure
+   */
+  @Override
+  public void initializeClassifier(Instances data) throws Exception {
+    String	msg;
+
+    if (m_Resume && (m_Trainer != null)) {
+      msg = m_Header.getInstances().equalHeadersMsg(data);
+      if (msg != null)
+	throw new IllegalArgumentException("Data differs from the data training is resumed with: " + msg);
+      m_TrainingBudget = new TrainingBudget(m_TrainingTimeBudget);
+      return;
+    }
+
+    m_TrainingData     = initDataset(data);
+    m_Trainer          = newTrainer(m_TrainingData);
+    m_OutOfBagStopping = newOutOfBagStopping();
+    m_Model            = m_Trainer.getModel();
+    initTrees((RandomForestModel) m_Model);
+  }
+
+  /**
+   * Adds the next numTreesPerIteration trees, without exceeding numTrees,
+   * and updates the out-of-bag stopping monitor. Once the time budget is
+   * used up, no more trees get added (but at least one batch).
+   *
+   * @return		false if numTrees has been reached, out-of-bag stopping kicked in or the time budget is used up
+   * @throws Exception	if training fails
+   */
+  protected boolean addTrees() throws Exception {
+    int		num;
+
+    num = Math.min(m_NumTreesPerIteration, m_NumTrees - m_Trainer.numTrees());
+    if ((num < 1) || ((m_OutOfBagStopping != null) && m_OutOfBagStopping.isStopped()))
+      return false;
+    if ((m_Trainer.numTrees() > 0) && m_TrainingBudget.isExceeded()) {
+      m_TrainingBudget.stop("time budget used up after " + m_Trainer.numTrees() + " of " + m_NumTrees + " trees");
+      return false;
+    }
+    m_Trainer.addTrees(num);
+    if ((m_OutOfBagStopping != null) && m_OutOfBagStopping.update(m_Trainer.numTrees(), m_Trainer.error()))
+      m_TrainingBudget.stop("out-of-bag error converged after " + m_Trainer.numTrees() + " of " + m_NumTrees + " trees");
+
+    return true;
+  }
+
+  /**
+   * Adds the next numTreesPerIteration trees, without exceeding numTrees.
+   *
+   * @return		false if numTrees has been reached, out-of-bag stopping kicked in or the time budget is used up
+   * @throws Exception	if training fails
+   */
+  @Override
+  public boolean next() throws Exception {
+    if (m_Trainer == null)
+      throw new IllegalStateException("Classifier has not been initialized!");
+
+    if (!addTrees())
+      return false;
+    m_Model = m_Trainer.getModel();
+    initTrees((RandomForestModel) m_Model);
+    modelChanged();
+
+    return true;
+  }
+
+  /**
+   * Finishes iterative training.
+   *
+   * @throws Exception	if compacting the trees fails
+   */
+  @Override
+  public void done() throws Exception {
+    if (m_Trainer != null) {
+      m_Model = finishTraining();
+      m_TrainingBudget.finish();
+      modelChanged();
+    }
+  }
+
+  /**
+   * Returns the forest with the trees of this classifier for aggregation.
+   *
+   * @return		the forest
+   * @throws Exception	if not trained or the trees are compacted
+   */
+  protected RandomForestModel getForest() throws Exception {
+    if (m_Header == null)
+      throw new IllegalStateException("Forest has not been trained!");
+    if (!(m_Model instanceof RandomForestModel))
+      throw new IllegalStateException(
+	"Only forests without compacted trees can be aggregated, train them without compactTrees and generateCode!");
+
+    return (RandomForestModel) m_Model;
+  }
+
+  /**
+   * Adds the trees of the forest trained on another partition of the data.
+   * Both forests must have been trained on data with the same header. The
+   * trees do not get remapped, as their splits (and votes) refer to
+   * attribute (and label) indices: headers that differ only in the order of
+   * the attributes or labels get rejected as well. The merged forest is
+   * only available after {@link #finalizeAggregation()}.
+   *
+   * @param toAggregate	the forest to add
+   * @return		this forest
+   * @throws Exception	if the forests cannot be aggregated
+   */
+  @Override
+  public SmileRandomForest aggregate(SmileRandomForest toAggregate) throws Exception {
+    String	msg;
+
+    if ((m_Header == null) || (toAggregate.m_Header == null))
+      throw new IllegalStateException("Both forests must be trained!");
+    msg = m_Header.getInstances().equalHeadersMsg(toAggregate.m_Header.getInstances());
+    if (msg != null)
+      throw new IllegalArgumentException("Forests were trained on incompatible data: " + msg);
+
+    if (m_Aggregated == null) {
+      m_Aggregated = new ArrayList<RandomForestModel>();
+      m_Aggregated.add(getForest());
+    }
+    m_Aggregated.add(toAggregate.getForest());
+
+    return this;
+  }
+
+  /**
+   * Merges the aggregated forests. The trees get interleaved, so that any
+   * prefix (eg for early exit or anytime prediction) draws from all
+   * partitions. The out-of-bag error is the average of the forests,
+   * weighted by their number of trees.
+   *
+   * @throws Exception	if compacting the trees fails
+   */
+  @Override
+  public void finalizeAggregation() throws Exception {
+    RandomForestModel			result;
+    List<SoftClassifier<double[]>>	trees;
+    List<Double>			weights;
+    double[]				weightsArray;
+    double				error;
+    int					numErrors;
+    int					max;
+    int					i;
+
+    if (m_Aggregated == null)
+      return;
+
+    trees     = new ArrayList<SoftClassifier<double[]>>();
+    weights   = new ArrayList<Double>();
+    error     = 0.0;
+    numErrors = 0;
+    max       = 0;
+    for (RandomForestModel forest: m_Aggregated) {
+      max = Math.max(max, forest.size());
+      if (!Double.isNaN(forest.error())) {
+	error     += forest.size() * forest.error();
+	numErrors += forest.size();
+      }
+    }
+    for (i = 0; i < max; i++) {
+      for (RandomForestModel forest: m_Aggregated) {
+	if (i < forest.size()) {
+	  trees.add(forest.getTrees()[i]);
+	  weights.add(forest.getWeights()[i]);
+	}
+      }
+    }
+    weightsArray = new double[weights.size()];
+    for (i = 0; i < weightsArray.length; i++)
+      weightsArray[i] = weights.get(i);
+    result = new RandomForestModel(
+      trees.toArray(new SoftClassifier[0]), weightsArray, numClasses(), (numErrors == 0) ? Double.NaN : error / numErrors);
+
+    if (m_Trainer != null)
+      m_Trainer.getExecutor().shutdown();
+    m_NumAggregated      = m_Aggregated.size();
+    m_Aggregated         = null;
+    m_Trainer            = null;
+    m_TrainingData       = null;
+    m_TrainingStatistics = null;
+    m_OutOfBagStopping   = null;
+    m_TrainingBudget     = null;
+    modelChanged();
+
+    initTrees(result);
+    m_Model = result;
+    if (m_CompactTrees || m_GenerateCode)
+      m_Model = compact(null);
+  }
+
+  /**
+   * Returns the number of trees available for early exit.
+   *
+   * @return		the number of trees, 0 if not available
+   */
+  protected int numTrees() {
+    if (m_Trees != null)
+      return m_Trees.length;
+    if (m_Model instanceof CompactRandomForest)
+      return ((CompactRandomForest) m_Model).size();
+    return 0;
+  }
+
+  /**
+   * Evaluates the trees in their fixed order, accumulating the votes and
+   * the weighted posteriors, until the budget of trees is used up, the
+   * deadline has passed or, if a margin is given, the majority vote can no
+   * longer change within the budget (or the margin has been reached). At
+   * least one tree gets evaluated.
+   *
+   * @param values	the row to predict
+   * @param votes	the array for the votes
+   * @param posterior	the array for the posteriors (not normalized), null if not required
+   * @param maxTrees	the maximum number of trees to evaluate
+   * @param deadline	the System.nanoTime() value after which to stop, {@link #NO_DEADLINE} for none
+   * @param margin	the vote margin for stopping early, negative to only stop at budget or deadline
+   * @return		the number of trees evaluated
+   */
+  protected int evaluateTrees(double[] values, int[] votes, double[] posterior, int maxTrees, long deadline, double margin) {
+    CompactRandomForest	compact;
+    char[]		bins;
+    double[]		treePosterior;
+    double		weight;
+    int			evaluated;
+    int			label;
+    int			first;
+    int			second;
+    int			i;
+
+    treePosterior = (posterior == null) ? null : new double[posterior.length];
+    compact       = (m_Trees == null) ? (CompactRandomForest) m_Model : null;
+    bins          = (compact == null) ? null : compact.bin(values);
+    evaluated     = 0;
+    while (evaluated < maxTrees) {
+      if (compact != null) {
+	label  = compact.predict(evaluated, bins, treePosterior);
+	weight = compact.weight(evaluated);
+      }
+      else {
+	label  = (posterior == null) ? m_Trees[evaluated].predict(values) : m_Trees[evaluated].predict(values, treePosterior);
+	weight = m_TreeWeights[evaluated];
+      }
+      if (posterior != null) {
+	for (i = 0; i < posterior.length; i++)
+	  posterior[i] += weight * treePosterior[i];
+      }
+      votes[label]++;
+      evaluated++;
+
+      if ((deadline != NO_DEADLINE) && (System.nanoTime() - deadline >= 0))
+	break;
+
+      if (margin >= 0) {
+	// votes of the leading and the second class
+	first  = 0;
+	second = 0;
+	for (i = 0; i < votes.length; i++) {
+	  if (votes[i] > first) {
+	    second = first;
+	    first  = votes[i];
+	  }
+	  else if (votes[i] > second) {
+	    second = votes[i];
+	  }
+	}
+	if ((first - second > maxTrees - evaluated) || (first - second >= margin))
+	  break;
+      }
+    }
+
+    return evaluated;
+  }
+
+  /**
+   * Evaluates the trees in their fixed order until the majority vote can no
+   * longer change (or the early exit margin has been reached).
+   *
+   * @param values	the row to predict
+   * @param posterior	the array for the posterior probabilities of the
+   * 			evaluated trees, null if not required
+   * @return		the index of the predicted class
+   */
+  protected int predictEarlyExit(double[] values, double[] posterior) {
+    int[]	votes;
+    int		evaluated;
+
+    votes = new int[numClasses()];
+    if (posterior != null)
+      Arrays.fill(posterior, 0.0);
+    evaluated = evaluateTrees(values, votes, posterior, numTrees(), NO_DEADLINE, m_EarlyExitMargin * numTrees());
+
+    m_EarlyExitPredictions.incrementAndGet();
+    m_EarlyExitTreesEvaluated.addAndGet(evaluated);
+    if (posterior != null)
+      Math.unitize1(posterior);
+
+    return Math.whichMax(votes);
+  }
+
+  /**
+   * Predicts the class distribution from the trees evaluated in their fixed
+   * order before the deadline or budget runs out. Since the trees are
+   * trained on independent bootstrap samples, any prefix is a random
+   * sub-forest and the estimate only gets noisier with fewer trees.
+   * A forest without any trees yet (eg after {@link #initializeClassifier(Instances)})
+   * reports zero members.
+   *
+   * @param instance	the instance to predict
+   * @param deadline	the System.nanoTime() value after which to stop, {@link #NO_DEADLINE} for none
+   * @param maxMembers	the maximum number of trees to evaluate (at least one), -1 for all
+   * @return		the prediction
+   * @throws Exception	if prediction fails
+   */
+  @Override
+  public AnytimePrediction predictAnytime(Instance instance, long deadline, int maxMembers) throws Exception {
+    AnytimePrediction	result;
+    double[]		values;
+    int[]		votes;
+    int			numTrees;
+    int			budget;
+
+    values   = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
+    numTrees = numTrees();
+    result   = new AnytimePrediction();
+    if (numTrees == 0) {
+      result.distribution = distributionForValues(values);
+      result.prediction   = Utils.maxIndex(result.distribution);
+      result.membersUsed  = 0;
+      result.numMembers   = result.membersUsed;
+      return result;
+    }
+
+    budget                 = (maxMembers < 0) ? numTrees : Math.max(1, Math.min(maxMembers, numTrees));
+    result.distribution    = new double[numClasses()];
+    votes                  = new int[result.distribution.length];
+    result.numMembers      = numTrees;
+    result.membersUsed     = evaluateTrees(values, votes, result.distribution, budget, deadline, -1);
+    result.deadlineReached = (result.membersUsed < budget);
+    result.prediction      = Math.whichMax(votes);
+    Math.unitize1(result.distribution);
+
+    return result;
+  }
+
+  /**
+   * Fills the supplied array with the class distribution for the converted
+   * instance.
+   *
+   * @param values	the converted instance
+   * @param dist	the array to fill, length must be the number of classes
+   * @throws Exception	if classification fails
+   */
+  @Override
+  protected void distributionForValues(double[] values, double[] dist) throws Exception {
+    if (!m_EarlyExit || (numTrees() == 0))
+      super.distributionForValues(values, dist);
+    else
+      predictEarlyExit(values, dist);
+  }
+
+  /**
+   * Classifies the converted instance.
+   *
+   * @param values	the converted instance
+   * @return		the classification
+   * @throws Exception	if classification fails
+   */
+  @Override
+  protected double classifyValues(double[] values) throws Exception {
+    if (!m_EarlyExit || (numTrees() == 0))
+      return super.classifyValues(values);
+
+    return predictEarlyExit(values, null);
+  }
+
+  /**
+   * Returns the average number of trees that were evaluated per prediction
+   * in early exit mode.
+   *
+   * @return		the average, NaN if no predictions were made yet
+   */
+  public double getAverageNumTreesEvaluated() {
+    if (m_EarlyExitPredictions.get() == 0)
+      return Double.NaN;
+    return (double) m_EarlyExitTreesEvaluated.get() / m_EarlyExitPredictions.get();
+  }
+
+  /**
+   * Outputs some information about the model.
+   *
+   * @return		the model
+   */
+  @Override
+  public String toString() {
+    String	result;
+
+    result = super.toString();
+    if (m_Model instanceof CompactRandomForest)
+      result += "\n" + "Compact trees: " + m_Model;
+    if (m_NumAggregated > 0)
+      result += "\n" + "Aggregated from " + m_NumAggregated + " forests";
+    if (m_TrainingStatistics != null)
+      result += "\n" + "Training:\n" + m_TrainingStatistics;
+    if (m_OutOfBagStopping != null)
+      result += "\n" + "Out-of-bag stopping: " + m_OutOfBagStopping;
+    if (m_EarlyExit && (numTrees() > 0) && (m_EarlyExitPredictions.get() > 0))
+      result += "\n" + "Early exit: " + Utils.doubleToString(getAverageNumTreesEvaluated(), 2)
+	+ " of " + numTrees() + " trees evaluated on average";
+
+    return result;
   }
 
   /**
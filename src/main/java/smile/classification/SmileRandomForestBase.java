@@ -55,6 +55,36 @@ public abstract class SmileRandomForestBase
   /** the flag for {@link #m_SplitRule}. */
   public final static String SPLITRULE = "split-rule";
 
+  /** the flag for {@link #m_EarlyExit}. */
+  public final static String EARLYEXIT = "early-exit";
+
+  /** the flag for {@link #m_EarlyExitMargin}. */
+  public final static String EARLYEXITMARGIN = "early-exit-margin";
+
+  /** the flag for {@link #m_CompactTrees}. */
+  public final static String COMPACTTREES = "compact-trees";
+
+  /** the flag for {@link #m_GenerateCode}. */
+  public final static String GENERATECODE = "generate-code";
+
+  /** the flag for {@link #m_NumThreads}. */
+  public final static String NUMTHREADS = "num-threads";
+
+  /** the flag for {@link #m_NumTreesPerIteration}. */
+  public final static String NUMTREESPERITERATION = "num-trees-per-iteration";
+
+  /** the flag for {@link #m_Resume}. */
+  public final static String RESUME = "resume";
+
+  /** the flag for {@link #m_OobStoppingWindow}. */
+  public final static String OOBSTOPPINGWINDOW = "oob-stopping-window";
+
+  /** the flag for {@link #m_OobStoppingTolerance}. */
+  public final static String OOBSTOPPINGTOLERANCE = "oob-stopping-tolerance";
+
+  /** the flag for {@link #m_HistogramBins}. */
+  public final static String HISTOGRAMBINS = "histogram-bins";
+
   /** the number of trees to use. */
   protected int m_NumTrees = getDefaultNumTrees();
 
@@ -73,6 +103,36 @@ public abstract class SmileRandomForestBase
   /** the split rule to use. */
   protected SplitRule m_SplitRule = getDefaultSplitRule();
 
+  /** whether to stop evaluating trees once the remaining trees can no longer change the majority vote. */
+  protected boolean m_EarlyExit = getDefaultEarlyExit();
+
+  /** the vote margin (as fraction of the number of trees) between the leading and the second class at which early exit stops, in addition to the exact criterion; 1 only uses the exact criterion. */
+  protected double m_EarlyExitMargin = getDefaultEarlyExitMargin();
+
+  /** whether to compile the trees after training into a compact form (thresholds quantized to 16-bit bins over the observed split points, packed nodes); predictions are unchanged, the original trees get discarded. */
+  protected boolean m_CompactTrees = getDefaultCompactTrees();
+
+  /** whether to generate and compile Java code for the compact trees (implies compactTrees, requires a JDK at runtime); the generated code gets verified against the compact trees on the training data. */
+  protected boolean m_GenerateCode = getDefaultGenerateCode();
+
+  /** the number of threads for building the trees; use -1 for the number of available processors; trees that consider all attributes at each split (numFeatures equal to the number of attributes) and do not use histogram bins still search their splits on SMILE's global thread pool, which this option does not limit. */
+  protected int m_NumThreads = getDefaultNumThreads();
+
+  /** the number of trees to add per iteration when training iteratively, eg with IterativeClassifierOptimizer. */
+  protected int m_NumTreesPerIteration = getDefaultNumTreesPerIteration();
+
+  /** whether further iterations can be added after training is done; if enabled, the trees do not get compacted. */
+  protected boolean m_Resume = getDefaultResume();
+
+  /** the number of trees over which the out-of-bag error has to improve by the oobStoppingTolerance for adding further trees (checked every numTreesPerIteration trees); use 0 to always build numTrees trees. */
+  protected int m_OobStoppingWindow = getDefaultOobStoppingWindow();
+
+  /** the minimum relative improvement of the out-of-bag error over oobStoppingWindow trees for adding further trees. */
+  protected double m_OobStoppingTolerance = getDefaultOobStoppingTolerance();
+
+  /** the maximum number of bins per numeric attribute for finding the splits via histograms over pre-binned data, which is faster and uses less memory on large datasets; use 0 for finding exact splits on sorted attributes. */
+  protected int m_HistogramBins = getDefaultHistogramBins();
+
   /**
    * Returns a desription of the class.
    *
@@ -94,6 +154,16 @@ public abstract class SmileRandomForestBase
     WekaOptionUtils.addOption(result, minNodeSizeTipText(), "" + getDefaultMinNodeSize(), MINNODESIZE);
     WekaOptionUtils.addOption(result, subSampleTipText(), "" + getDefaultSubSample(), SUBSAMPLE);
     WekaOptionUtils.addOption(result, splitRuleTipText(), "" + getDefaultSplitRule(), SPLITRULE);
+    WekaOptionUtils.addFlag(result, earlyExitTipText(), EARLYEXIT);
+    WekaOptionUtils.addOption(result, earlyExitMarginTipText(), "" + getDefaultEarlyExitMargin(), EARLYEXITMARGIN);
+    WekaOptionUtils.addFlag(result, compactTreesTipText(), COMPACTTREES);
+    WekaOptionUtils.addFlag(result, generateCodeTipText(), GENERATECODE);
+    WekaOptionUtils.addOption(result, numThreadsTipText(), "" + getDefaultNumThreads(), NUMTHREADS);
+    WekaOptionUtils.addOption(result, numTreesPerIterationTipText(), "" + getDefaultNumTreesPerIteration(), NUMTREESPERITERATION);
+    WekaOptionUtils.addFlag(result, resumeTipText(), RESUME);
+    WekaOptionUtils.addOption(result, oobStoppingWindowTipText(), "" + getDefaultOobStoppingWindow(), OOBSTOPPINGWINDOW);
+    WekaOptionUtils.addOption(result, oobStoppingToleranceTipText(), "" + getDefaultOobStoppingTolerance(), OOBSTOPPINGTOLERANCE);
+    WekaOptionUtils.addOption(result, histogramBinsTipText(), "" + getDefaultHistogramBins(), HISTOGRAMBINS);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -112,6 +182,16 @@ public abstract class SmileRandomForestBase
     setMinNodeSize(WekaOptionUtils.parse(options, MINNODESIZE, getDefaultMinNodeSize()));
     setSubSample(WekaOptionUtils.parse(options, SUBSAMPLE, getDefaultSubSample()));
     setSplitRule((SplitRule) WekaOptionUtils.parse(options, SPLITRULE, getDefaultSplitRule()));
+    setEarlyExit(Utils.getFlag(EARLYEXIT, options));
+    setEarlyExitMargin(WekaOptionUtils.parse(options, EARLYEXITMARGIN, getDefaultEarlyExitMargin()));
+    setCompactTrees(Utils.getFlag(COMPACTTREES, options));
+    setGenerateCode(Utils.getFlag(GENERATECODE, options));
+    setNumThreads(WekaOptionUtils.parse(options, NUMTHREADS, getDefaultNumThreads()));
+    setNumTreesPerIteration(WekaOptionUtils.parse(options, NUMTREESPERITERATION, getDefaultNumTreesPerIteration()));
+    setResume(Utils.getFlag(RESUME, options));
+    setOobStoppingWindow(WekaOptionUtils.parse(options, OOBSTOPPINGWINDOW, getDefaultOobStoppingWindow()));
+    setOobStoppingTolerance(WekaOptionUtils.parse(options, OOBSTOPPINGTOLERANCE, getDefaultOobStoppingTolerance()));
+    setHistogramBins(WekaOptionUtils.parse(options, HISTOGRAMBINS, getDefaultHistogramBins()));
     super.setOptions(options);
   }
 
@@ -129,6 +209,16 @@ public abstract class SmileRandomForestBase
     WekaOptionUtils.add(result, MINNODESIZE, getMinNodeSize());
     WekaOptionUtils.add(result, SUBSAMPLE, getSubSample());
     WekaOptionUtils.add(result, SPLITRULE, getSplitRule());
+    WekaOptionUtils.add(result, EARLYEXIT, getEarlyExit());
+    WekaOptionUtils.add(result, EARLYEXITMARGIN, getEarlyExitMargin());
+    WekaOptionUtils.add(result, COMPACTTREES, getCompactTrees());
+    WekaOptionUtils.add(result, GENERATECODE, getGenerateCode());
+    WekaOptionUtils.add(result, NUMTHREADS, getNumThreads());
+    WekaOptionUtils.add(result, NUMTREESPERITERATION, getNumTreesPerIteration());
+    WekaOptionUtils.add(result, RESUME, getResume());
+    WekaOptionUtils.add(result, OOBSTOPPINGWINDOW, getOobStoppingWindow());
+    WekaOptionUtils.add(result, OOBSTOPPINGTOLERANCE, getOobStoppingTolerance());
+    WekaOptionUtils.add(result, HISTOGRAMBINS, getHistogramBins());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
@@ -382,4 +472,416 @@ public abstract class SmileRandomForestBase
   public String splitRuleTipText() {
     return "The split rule to use.";
   }
+
+  /**
+   * The default value for earlyExit.
+   *
+   * @return the default value
+   * @see #m_EarlyExit
+   */
+  protected boolean getDefaultEarlyExit() {
+    return false;
+  }
+
+  /**
+   * Returns whether to stop evaluating trees once the remaining trees can no longer change the majority vote.
+   *
+   * @return the current value
+   * @see #m_EarlyExit
+   */
+  public boolean getEarlyExit() {
+    return m_EarlyExit;
+  }
+
+  /**
+   * Sets whether to stop evaluating trees once the remaining trees can no longer change the majority vote.
+   *
+   * @param value the new value
+   * @see #m_EarlyExit
+   */
+  public void setEarlyExit(boolean value) {
+    m_EarlyExit = value;
+  }
+
+  /**
+   * Returns the help string for earlyExit.
+   *
+   * @return the help string
+   * @see #m_EarlyExit
+   */
+  public String earlyExitTipText() {
+    return "Whether to stop evaluating trees once the remaining trees can no longer change the majority vote.";
+  }
+
+  /**
+   * The default value for earlyExitMargin.
+   *
+   * @return the default value
+   * @see #m_EarlyExitMargin
+   */
+  protected double getDefaultEarlyExitMargin() {
+    return 1.0;
+  }
+
+  /**
+   * Returns the vote margin (as fraction of the number of trees) between the leading and the second class at which early exit stops, in addition to the exact criterion; 1 only uses the exact criterion.
+   *
+   * @return the current value ((value > 0) && (value <= 1))
+   * @see #m_EarlyExitMargin
+   */
+  public double getEarlyExitMargin() {
+    return m_EarlyExitMargin;
+  }
+
+  /**
+   * Sets the vote margin (as fraction of the number of trees) between the leading and the second class at which early exit stops, in addition to the exact criterion; 1 only uses the exact criterion.
+   *
+   * @param value the new value ((value > 0) && (value <= 1))
+   * @see #m_EarlyExitMargin
+   */
+  public void setEarlyExitMargin(double value) {
+    if ((value > 0) && (value <= 1)) {
+      m_EarlyExitMargin = value;
+    }
+  }
+
+  /**
+   * Returns the help string for earlyExitMargin.
+   *
+   * @return the help string
+   * @see #m_EarlyExitMargin
+   */
+  public String earlyExitMarginTipText() {
+    return "The vote margin (as fraction of the number of trees) between the leading and the second class at which early exit stops, in addition to the exact criterion; 1 only uses the exact criterion; (value > 0) && (value <= 1).";
+  }
+
+  /**
+   * The default value for compactTrees.
+   *
+   * @return the default value
+   * @see #m_CompactTrees
+   */
+  protected boolean getDefaultCompactTrees() {
+    return false;
+  }
+
+  /**
+   * Returns whether to compile the trees after training into a compact form (thresholds quantized to 16-bit bins over the observed split points, packed nodes); predictions are unchanged, the original trees get discarded.
+   *
+   * @return the current value
+   * @see #m_CompactTrees
+   */
+  public boolean getCompactTrees() {
+    return m_CompactTrees;
+  }
+
+  /**
+   * Sets whether to compile the trees after training into a compact form (thresholds quantized to 16-bit bins over the observed split points, packed nodes); predictions are unchanged, the original trees get discarded.
+   *
+   * @param value the new value
+   * @see #m_CompactTrees
+   */
+  public void setCompactTrees(boolean value) {
+    m_CompactTrees = value;
+  }
+
+  /**
+   * Returns the help string for compactTrees.
+   *
+   * @return the help string
+   * @see #m_CompactTrees
+   */
+  public String compactTreesTipText() {
+    return "Whether to compile the trees after training into a compact form (thresholds quantized to 16-bit bins over the observed split points, packed nodes); predictions are unchanged, the original trees get discarded.";
+  }
+
+  /**
+   * The default value for generateCode.
+   *
+   * @return the default value
+   * @see #m_GenerateCode
+   */
+  protected boolean getDefaultGenerateCode() {
+    return false;
+  }
+
+  /**
+   * Returns whether to generate and compile Java code for the compact trees (implies compactTrees, requires a JDK at runtime); the generated code gets verified against the compact trees on the training data.
+   *
+   * @return the current value
+   * @see #m_GenerateCode
+   */
+  public boolean getGenerateCode() {
+    return m_GenerateCode;
+  }
+
+  /**
+   * Sets whether to generate and compile Java code for the compact trees (implies compactTrees, requires a JDK at runtime); the generated code gets verified against the compact trees on the training data.
+   *
+   * @param value the new value
+   * @see #m_GenerateCode
+   */
+  public void setGenerateCode(boolean value) {
+    m_GenerateCode = value;
+  }
+
+  /**
+   * Returns the help string for generateCode.
+   *
+   * @return the help string
+   * @see #m_GenerateCode
+   */
+  public String generateCodeTipText() {
+    return "Whether to generate and compile Java code for the compact trees (implies compactTrees, requires a JDK at runtime); the generated code gets verified against the compact trees on the training data.";
+  }
+
+  /**
+   * The default value for numThreads.
+   *
+   * @return the default value
+   * @see #m_NumThreads
+   */
+  protected int getDefaultNumThreads() {
+    return -1;
+  }
+
+  /**
+   * Returns the number of threads for building the trees; use -1 for the number of available processors; trees that consider all attributes at each split (numFeatures equal to the number of attributes) and do not use histogram bins still search their splits on SMILE's global thread pool, which this option does not limit.
+   *
+   * @return the current value ((value >= 1) || (value == -1))
+   * @see #m_NumThreads
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Sets the number of threads for building the trees; use -1 for the number of available processors; trees that consider all attributes at each split (numFeatures equal to the number of attributes) and do not use histogram bins still search their splits on SMILE's global thread pool, which this option does not limit.
+   *
+   * @param value the new value ((value >= 1) || (value == -1))
+   * @see #m_NumThreads
+   */
+  public void setNumThreads(int value) {
+    if ((value >= 1) || (value == -1)) {
+      m_NumThreads = value;
+    }
+  }
+
+  /**
+   * Returns the help string for numThreads.
+   *
+   * @return the help string
+   * @see #m_NumThreads
+   */
+  public String numThreadsTipText() {
+    return "The number of threads for building the trees; use -1 for the number of available processors; trees that consider all attributes at each split (numFeatures equal to the number of attributes) and do not use histogram bins still search their splits on SMILE's global thread pool, which this option does not limit; (value >= 1) || (value == -1).";
+  }
+
+  /**
+   * The default value for numTreesPerIteration.
+   *
+   * @return the default value
+   * @see #m_NumTreesPerIteration
+   */
+  protected int getDefaultNumTreesPerIteration() {
+    return 10;
+  }
+
+  /**
+   * Returns the number of trees to add per iteration when training iteratively, eg with IterativeClassifierOptimizer.
+   *
+   * @return the current value (value >= 1)
+   * @see #m_NumTreesPerIteration
+   */
+  public int getNumTreesPerIteration() {
+    return m_NumTreesPerIteration;
+  }
+
+  /**
+   * Sets the number of trees to add per iteration when training iteratively, eg with IterativeClassifierOptimizer.
+   *
+   * @param value the new value (value >= 1)
+   * @see #m_NumTreesPerIteration
+   */
+  public void setNumTreesPerIteration(int value) {
+    if (value >= 1) {
+      m_NumTreesPerIteration = value;
+    }
+  }
+
+  /**
+   * Returns the help string for numTreesPerIteration.
+   *
+   * @return the help string
+   * @see #m_NumTreesPerIteration
+   */
+  public String numTreesPerIterationTipText() {
+    return "The number of trees to add per iteration when training iteratively, eg with IterativeClassifierOptimizer; value >= 1.";
+  }
+
+  /**
+   * The default value for resume.
+   *
+   * @return the default value
+   * @see #m_Resume
+   */
+  protected boolean getDefaultResume() {
+    return false;
+  }
+
+  /**
+   * Returns whether further iterations can be added after training is done; if enabled, the trees do not get compacted.
+   *
+   * @return the current value
+   * @see #m_Resume
+   */
+  public boolean getResume() {
+    return m_Resume;
+  }
+
+  /**
+   * Sets whether further iterations can be added after training is done; if enabled, the trees do not get compacted.
+   *
+   * @param value the new value
+   * @see #m_Resume
+   */
+  public void setResume(boolean value) {
+    m_Resume = value;
+  }
+
+  /**
+   * Returns the help string for resume.
+   *
+   * @return the help string
+   * @see #m_Resume
+   */
+  public String resumeTipText() {
+    return "Whether further iterations can be added after training is done; if enabled, the trees do not get compacted.";
+  }
+
+  /**
+   * The default value for oobStoppingWindow.
+   *
+   * @return the default value
+   * @see #m_OobStoppingWindow
+   */
+  protected int getDefaultOobStoppingWindow() {
+    return 0;
+  }
+
+  /**
+   * Returns the number of trees over which the out-of-bag error has to improve by the oobStoppingTolerance for adding further trees (checked every numTreesPerIteration trees); use 0 to always build numTrees trees.
+   *
+   * @return the current value (value >= 0)
+   * @see #m_OobStoppingWindow
+   */
+  public int getOobStoppingWindow() {
+    return m_OobStoppingWindow;
+  }
+
+  /**
+   * Sets the number of trees over which the out-of-bag error has to improve by the oobStoppingTolerance for adding further trees (checked every numTreesPerIteration trees); use 0 to always build numTrees trees.
+   *
+   * @param value the new value (value >= 0)
+   * @see #m_OobStoppingWindow
+   */
+  public void setOobStoppingWindow(int value) {
+    if (value >= 0) {
+      m_OobStoppingWindow = value;
+    }
+  }
+
+  /**
+   * Returns the help string for oobStoppingWindow.
+   *
+   * @return the help string
+   * @see #m_OobStoppingWindow
+   */
+  public String oobStoppingWindowTipText() {
+    return "The number of trees over which the out-of-bag error has to improve by the oobStoppingTolerance for adding further trees (checked every numTreesPerIteration trees); use 0 to always build numTrees trees; value >= 0.";
+  }
+
+  /**
+   * The default value for oobStoppingTolerance.
+   *
+   * @return the default value
+   * @see #m_OobStoppingTolerance
+   */
+  protected double getDefaultOobStoppingTolerance() {
+    return 0.01;
+  }
+
+  /**
+   * Returns the minimum relative improvement of the out-of-bag error over oobStoppingWindow trees for adding further trees.
+   *
+   * @return the current value (value >= 0)
+   * @see #m_OobStoppingTolerance
+   */
+  public double getOobStoppingTolerance() {
+    return m_OobStoppingTolerance;
+  }
+
+  /**
+   * Sets the minimum relative improvement of the out-of-bag error over oobStoppingWindow trees for adding further trees.
+   *
+   * @param value the new value (value >= 0)
+   * @see #m_OobStoppingTolerance
+   */
+  public void setOobStoppingTolerance(double value) {
+    if (value >= 0) {
+      m_OobStoppingTolerance = value;
+    }
+  }
+
+  /**
+   * Returns the help string for oobStoppingTolerance.
+   *
+   * @return the help string
+   * @see #m_OobStoppingTolerance
+   */
+  public String oobStoppingToleranceTipText() {
+    return "The minimum relative improvement of the out-of-bag error over oobStoppingWindow trees for adding further trees; value >= 0.";
+  }
+
+  /**
+   * The default value for histogramBins.
+   *
+   * @return the default value
+   * @see #m_HistogramBins
+   */
+  protected int getDefaultHistogramBins() {
+    return 0;
+  }
+
+  /**
+   * Returns the maximum number of bins per numeric attribute for finding the splits via histograms over pre-binned data, which is faster and uses less memory on large datasets; use 0 for finding exact splits on sorted attributes.
+   *
+   * @return the current value ((value == 0) || ((value >= 2) && (value <= 65534)))
+   * @see #m_HistogramBins
+   */
+  public int getHistogramBins() {
+    return m_HistogramBins;
+  }
+
+  /**
+   * Sets the maximum number of bins per numeric attribute for finding the splits via histograms over pre-binned data, which is faster and uses less memory on large datasets; use 0 for finding exact splits on sorted attributes.
+   *
+   * @param value the new value ((value == 0) || ((value >= 2) && (value <= 65534)))
+   * @see #m_HistogramBins
+   */
+  public void setHistogramBins(int value) {
+    if ((value == 0) || ((value >= 2) && (value <= 65534))) {
+      m_HistogramBins = value;
+    }
+  }
+
+  /**
+   * Returns the help string for histogramBins.
+   *
+   * @return the help string
+   * @see #m_HistogramBins
+   */
+  public String histogramBinsTipText() {
+    return "The maximum number of bins per numeric attribute for finding the splits via histograms over pre-binned data, which is faster and uses less memory on large datasets; use 0 for finding exact splits on sorted attributes; (value == 0) || ((value >= 2) && (value <= 65534)).";
+  }
 }
@@ -21,8 +21,14 @@
 package smile.classification;
 
 import smile.data.AttributeDataset;
+import smile.math.Math;
+import smile.math.kernel.LinearKernel;
+import smile.math.kernel.MercerKernel;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
+import weka.core.Utils;
+
+import java.util.Arrays;
 
 /**
  * SMILE SVM.
@@ -34,6 +40,15 @@ public class SmileSVM
 
   private static final long serialVersionUID = -8861088582494627633L;
 
+  /** the number of portions the training pass gets split into when the training time is limited. */
+  public static final int NUM_PORTIONS = 10;
+
+  /** the number of support vectors before reduction. */
+  protected int m_NumSupportVectors;
+
+  /** the RMSE of the decision values of the reduced machines on the training data. */
+  protected double m_ReductionError;
+
   /**
    * Returns a description of the classifier.
    *
@@ -50,6 +65,18 @@ public class SmileSVM
       + "https://haifengl.github.io/smile/api/java/smile/classification/SVM.html";
   }
 
+  /**
+   * Returns the help string for trainingTimeBudget.
+   *
+   * @return		the help string
+   */
+  @Override
+  public String trainingTimeBudgetTipText() {
+    return super.trainingTimeBudgetTipText() + " With any budget, the training pass gets learned in "
+      + NUM_PORTIONS + " stratified portions, one after the other, so that it can stop after each; "
+      + "the model can therefore differ slightly from the one trained without a budget, even if the budget is not used up.";
+  }
+
   /**
    * Returns default capabilities of the classifier.
    *
@@ -81,17 +108,166 @@ public class SmileSVM
    */
   @Override
   protected Classifier<double[]> buildClassifier(AttributeDataset data) throws Exception {
-    SVM<double[]>	result;
-    int			numClasses;
+    SVM<double[]>		result;
+    ExpandedSVM			expanded;
+    MercerKernel<double[]>	kernel;
+    int				numClasses;
 
+    kernel     = m_Kernel.getKernel();
     numClasses = m_Header.getInstances().classAttribute().numValues();
     if (numClasses > 2)
-      result = new SVM(m_Kernel.getKernel(), m_Capacity, numClasses, m_MultiClassStrategy);
+      result = new SVM(kernel, m_Capacity, numClasses, m_MultiClassStrategy);
     else
-      result = new SVM(m_Kernel.getKernel(), m_Capacity);
+      result = new SVM(kernel, m_Capacity);
     result.setTolerance(m_Tolerance);
-    result.learn(data.x(), data.labels());
-    result.trainPlattScaling(data.x(), data.labels());
+    if (m_TrainingBudget.isLimited())
+      learn(result, data.x(), data.labels(), numClasses);
+    else
+      result.learn(data.x(), data.labels());
+    // finishing the training collapses the support vectors of each
+    // binary machine into its primal weight vector, which SMILE then
+    // uses for prediction (single dot product instead of kernel sum)
+    if (kernel instanceof LinearKernel)
+      result.finish();
+    if (!m_DecisionOnly)
+      result.trainPlattScaling(data.x(), data.labels());
+
+    // replace the support vectors of each binary machine with a smaller set
+    if ((m_MaxSupportVectors > 0) && !(kernel instanceof LinearKernel))
+      return reduce(result, kernel, numClasses, data.x());
+
+    // SMILE's SVM always computes posteriors via its own Platt scaling
+    if (m_FastPosteriors || m_DecisionOnly) {
+      expanded = new ExpandedSVM(result, kernel, numClasses, m_MultiClassStrategy);
+      expanded.setFastPosteriors(m_FastPosteriors);
+      return expanded;
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs the training pass in stratified portions, which SMILE's SVM
+   * learns online one after the other, until all rows have been processed
+   * or the time budget is used up (at least one portion).
+   *
+   * @param svm		the SVM to train
+   * @param x		the training data
+   * @param y		the class labels
+   * @param numClasses	the number of classes
+   */
+  protected void learn(SVM<double[]> svm, double[][] x, int[] y, int numClasses) {
+    int[][]	portions;
+    int[]	portion;
+    int[]	counts;
+    int[]	sizes;
+    int[]	order;
+    int[]	seen;
+    double[][]	px;
+    int[]	py;
+    int		processed;
+    int		i;
+    int		n;
+
+    // randomly assign the rows to the portions, keeping the class distribution
+    // (the first portion contains every class)
+    counts = new int[numClasses];
+    for (i = 0; i < y.length; i++)
+      counts[y[i]]++;
+    order   = Math.permutate(y.length);
+    seen    = new int[numClasses];
+    portion = new int[y.length];
+    sizes   = new int[NUM_PORTIONS];
+    for (i = 0; i < order.length; i++) {
+      portion[order[i]] = (int) ((long) seen[y[order[i]]]++ * NUM_PORTIONS / counts[y[order[i]]]);
+      sizes[portion[order[i]]]++;
+    }
+    portions = new int[NUM_PORTIONS][];
+    for (i = 0; i < NUM_PORTIONS; i++)
+      portions[i] = new int[sizes[i]];
+    Arrays.fill(sizes, 0);
+    for (i = 0; i < order.length; i++)
+      portions[portion[order[i]]][sizes[portion[order[i]]]++] = order[i];
+
+    processed = 0;
+    for (i = 0; i < NUM_PORTIONS; i++) {
+      if ((i > 0) && m_TrainingBudget.isExceeded()) {
+	m_TrainingBudget.stop("time budget used up after " + processed + " of " + y.length + " rows of the training pass");
+	break;
+      }
+      if (portions[i].length == 0)
+	continue;
+      px = new double[portions[i].length][];
+      py = new int[portions[i].length];
+      for (n = 0; n < portions[i].length; n++) {
+	px[n] = x[portions[i][n]];
+	py[n] = y[portions[i][n]];
+      }
+      svm.learn(px, py);
+      processed += px.length;
+    }
+  }
+
+  /**
+   * Approximates the binary machines of the trained SVM with at most
+   * the maximum number of support vectors each.
+   *
+   * @param svm		the trained SVM
+   * @param kernel	the kernel used for training
+   * @param numClasses	the number of classes
+   * @param x		the training data, for computing the approximation error
+   * @return		the reduced model
+   * @throws Exception	if accessing the support vectors fails
+   */
+  protected Classifier<double[]> reduce(SVM<double[]> svm, MercerKernel<double[]> kernel, int numClasses, double[][] x) throws Exception {
+    ExpandedSVM		full;
+    ExpandedSVM		result;
+
+    full                = new ExpandedSVM(svm, kernel, numClasses, m_MultiClassStrategy);
+    full.setFastPosteriors(m_FastPosteriors);
+    result              = full.reduce(m_MaxSupportVectors);
+    m_NumSupportVectors = full.size();
+    m_ReductionError    = result.error(full, x);
+
+    return result;
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    m_NumSupportVectors = 0;
+    m_ReductionError    = 0.0;
+  }
+
+  /**
+   * Returns whether the model computes class probabilities, ie whether
+   * Platt scaling was trained.
+   *
+   * @return		true if probabilistic
+   */
+  @Override
+  public boolean isProbabilistic() {
+    if (m_Model instanceof ExpandedSVM)
+      return ((ExpandedSVM) m_Model).hasPosteriors();
+    return super.isProbabilistic();
+  }
+
+  /**
+   * Returns a string representation of the model.
+   *
+   * @return		the model
+   */
+  @Override
+  public String toString() {
+    String	result;
+
+    result = super.toString();
+    if ((m_Model instanceof ExpandedSVM) && (m_NumSupportVectors > 0))
+      result += "\n" + "Reduced set: " + ((ExpandedSVM) m_Model).size() + " of " + m_NumSupportVectors
+	+ " support vectors, RMSE of decision values on training data: " + Utils.doubleToString(m_ReductionError, 6);
 
     return result;
   }
@@ -50,6 +50,15 @@ public abstract class SmileSVMBase
   /** the flag for {@link #m_MultiClassStrategy}. */
   public final static String MULTICLASSSTRATEGY = "multi-class-strategy";
 
+  /** the flag for {@link #m_MaxSupportVectors}. */
+  public final static String MAXSUPPORTVECTORS = "max-support-vectors";
+
+  /** the flag for {@link #m_FastPosteriors}. */
+  public final static String FASTPOSTERIORS = "fast-posteriors";
+
+  /** the flag for {@link #m_DecisionOnly}. */
+  public final static String DECISIONONLY = "decision-only";
+
   /** the kernel to use. */
   protected AbstractSmileKernel m_Kernel = getDefaultKernel();
 
@@ -62,6 +71,15 @@ public abstract class SmileSVMBase
   /** the strategy to use in case of non-binary class attribute. */
   protected Multiclass m_MultiClassStrategy = getDefaultMultiClassStrategy();
 
+  /** the maximum number of vectors per binary machine for approximating the decision function after training (reduced set); use -1 to keep all support vectors. */
+  protected int m_MaxSupportVectors = getDefaultMaxSupportVectors();
+
+  /** whether to compute the posteriors via precomputed sigmoid parameters, a fast exp approximation (accurate to a few ulps) and allocation-free pairwise coupling. */
+  protected boolean m_FastPosteriors = getDefaultFastPosteriors();
+
+  /** whether to skip Platt scaling and return the 0/1 distribution of the predicted class, when probabilities are not needed. */
+  protected boolean m_DecisionOnly = getDefaultDecisionOnly();
+
   /**
    * Returns a desription of the class.
    *
@@ -81,6 +99,9 @@ public abstract class SmileSVMBase
     WekaOptionUtils.addOption(result, capacityTipText(), "" + getDefaultCapacity(), CAPACITY);
     WekaOptionUtils.addOption(result, toleranceTipText(), "" + getDefaultTolerance(), TOLERANCE);
     WekaOptionUtils.addOption(result, multiClassStrategyTipText(), "" + getDefaultMultiClassStrategy(), MULTICLASSSTRATEGY);
+    WekaOptionUtils.addOption(result, maxSupportVectorsTipText(), "" + getDefaultMaxSupportVectors(), MAXSUPPORTVECTORS);
+    WekaOptionUtils.addFlag(result, fastPosteriorsTipText(), FASTPOSTERIORS);
+    WekaOptionUtils.addFlag(result, decisionOnlyTipText(), DECISIONONLY);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -97,6 +118,9 @@ public abstract class SmileSVMBase
     setCapacity(WekaOptionUtils.parse(options, CAPACITY, getDefaultCapacity()));
     setTolerance(WekaOptionUtils.parse(options, TOLERANCE, getDefaultTolerance()));
     setMultiClassStrategy((Multiclass) WekaOptionUtils.parse(options, MULTICLASSSTRATEGY, getDefaultMultiClassStrategy()));
+    setMaxSupportVectors(WekaOptionUtils.parse(options, MAXSUPPORTVECTORS, getDefaultMaxSupportVectors()));
+    setFastPosteriors(Utils.getFlag(FASTPOSTERIORS, options));
+    setDecisionOnly(Utils.getFlag(DECISIONONLY, options));
     super.setOptions(options);
   }
 
@@ -112,6 +136,9 @@ public abstract class SmileSVMBase
     WekaOptionUtils.add(result, CAPACITY, getCapacity());
     WekaOptionUtils.add(result, TOLERANCE, getTolerance());
     WekaOptionUtils.add(result, MULTICLASSSTRATEGY, getMultiClassStrategy());
+    WekaOptionUtils.add(result, MAXSUPPORTVECTORS, getMaxSupportVectors());
+    WekaOptionUtils.add(result, FASTPOSTERIORS, getFastPosteriors());
+    WekaOptionUtils.add(result, DECISIONONLY, getDecisionOnly());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
@@ -279,4 +306,126 @@ public abstract class SmileSVMBase
   public String multiClassStrategyTipText() {
     return "The strategy to use in case of non-binary class attribute.";
   }
+
+  /**
+   * The default value for maxSupportVectors.
+   *
+   * @return the default value
+   * @see #m_MaxSupportVectors
+   */
+  protected int getDefaultMaxSupportVectors() {
+    return -1;
+  }
+
+  /**
+   * Returns the maximum number of vectors per binary machine for approximating the decision function after training (reduced set); use -1 to keep all support vectors.
+   *
+   * @return the current value ((value >= 1) || (value == -1))
+   * @see #m_MaxSupportVectors
+   */
+  public int getMaxSupportVectors() {
+    return m_MaxSupportVectors;
+  }
+
+  /**
+   * Sets the maximum number of vectors per binary machine for approximating the decision function after training (reduced set); use -1 to keep all support vectors.
+   *
+   * @param value the new value ((value >= 1) || (value == -1))
+   * @see #m_MaxSupportVectors
+   */
+  public void setMaxSupportVectors(int value) {
+    if ((value >= 1) || (value == -1)) {
+      m_MaxSupportVectors = value;
+    }
+  }
+
+  /**
+   * Returns the help string for maxSupportVectors.
+   *
+   * @return the help string
+   * @see #m_MaxSupportVectors
+   */
+  public String maxSupportVectorsTipText() {
+    return "The maximum number of vectors per binary machine for approximating the decision function after training (reduced set); use -1 to keep all support vectors; (value >= 1) || (value == -1).";
+  }
+
+  /**
+   * The default value for fastPosteriors.
+   *
+   * @return the default value
+   * @see #m_FastPosteriors
+   */
+  protected boolean getDefaultFastPosteriors() {
+    return false;
+  }
+
+  /**
+   * Returns whether to compute the posteriors via precomputed sigmoid parameters, a fast exp approximation (accurate to a few ulps) and allocation-free pairwise coupling.
+   *
+   * @return the current value
+   * @see #m_FastPosteriors
+   */
+  public boolean getFastPosteriors() {
+    return m_FastPosteriors;
+  }
+
+  /**
+   * Sets whether to compute the posteriors via precomputed sigmoid parameters, a fast exp approximation (accurate to a few ulps) and allocation-free pairwise coupling.
+   *
+   * @param value the new value
+   * @see #m_FastPosteriors
+   */
+  public void setFastPosteriors(boolean value) {
+    m_FastPosteriors = value;
+  }
+
+  /**
+   * Returns the help string for fastPosteriors.
+   *
+   * @return the help string
+   * @see #m_FastPosteriors
+   */
+  public String fastPosteriorsTipText() {
+    return "Whether to compute the posteriors via precomputed sigmoid parameters, a fast exp approximation (accurate to a few ulps) and allocation-free pairwise coupling.";
+  }
+
+  /**
+   * The default value for decisionOnly.
+   *
+   * @return the default value
+   * @see #m_DecisionOnly
+   */
+  protected boolean getDefaultDecisionOnly() {
+    return false;
+  }
+
+  /**
+   * Returns whether to skip Platt scaling and return the 0/1 distribution of the predicted class, when probabilities are not needed.
+   *
+   * @return the current value
+   * @see #m_DecisionOnly
+   */
+  public boolean getDecisionOnly() {
+    return m_DecisionOnly;
+  }
+
+  /**
+   * Sets whether to skip Platt scaling and return the 0/1 distribution of the predicted class, when probabilities are not needed.
+   *
+   * @param value the new value
+   * @see #m_DecisionOnly
+   */
+  public void setDecisionOnly(boolean value) {
+    m_DecisionOnly = value;
+  }
+
+  /**
+   * Returns the help string for decisionOnly.
+   *
+   * @return the help string
+   * @see #m_DecisionOnly
+   */
+  public String decisionOnlyTipText() {
+    return "Whether to skip Platt scaling and return the 0/1 distribution of the predicted class, when probabilities are not needed.";
+  }
 }
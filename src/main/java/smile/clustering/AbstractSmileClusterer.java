@@ -20,6 +20,9 @@
 
 package smile.clustering;
 
+import smile.core.NearestCentroids;
+import smile.core.PredictionMetrics;
+import smile.core.TrainingBudget;
 import smile.data.AttributeDataset;
 import weka.clusterers.AbstractClusterer;
 import smile.core.SmileDatasetHeader;
@@ -27,9 +30,21 @@ import smile.core.SmileDatasetUtils;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.Utils;
+import weka.core.WekaOptionUtils;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Vector;
 
 /**
  * Ancestor for SMILE clustering algorithms.
+ * <br>
+ * Thread-safety: once built, {@link #clusterInstance(Instance)} and
+ * {@link #clusterInstances(Instances)} can be called concurrently on a single
+ * instance of the clusterer. Building the clusterer or changing its options
+ * must not happen while clustering; replace the model via
+ * {@link smile.core.ModelHolder} instead.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
@@ -38,12 +53,30 @@ public abstract class AbstractSmileClusterer
 
   private static final long serialVersionUID = 8061087017316008521L;
 
+  /** the number of instances to convert at a time in batch assignment. */
+  public static final int BATCH_SIZE = 4096;
+
+  /** the flag for {@link #m_TrainingTimeBudget}. */
+  public final static String TRAININGTIMEBUDGET = "training-time-budget";
+
+  /** the time budget for training in seconds, 0 for unlimited. */
+  protected double m_TrainingTimeBudget = getDefaultTrainingTimeBudget();
+
+  /** the time spent on training and why it stopped. */
+  protected TrainingBudget m_TrainingBudget;
+
   /** the dataset structure. */
   protected SmileDatasetHeader m_Header;
 
   /** the model. */
   protected smile.clustering.Clustering<double[]> m_Model;
 
+  /** for assigning rows to the centroids/medoids (Euclidean distance), if available. */
+  protected NearestCentroids m_NearestCentroids;
+
+  /** the latency metrics of the single-row predictions, null if not collected. */
+  protected transient volatile PredictionMetrics m_Metrics;
+
   /**
    * Returns a description of the clusterer.
    *
@@ -51,12 +84,153 @@ public abstract class AbstractSmileClusterer
    */
   public abstract String globalInfo();
 
+  /**
+   * Returns an enumeration describing the available options.
+   *
+   * @return an enumeration of all the available options.
+   */
+  @Override
+  public Enumeration listOptions() {
+    Vector result = new Vector();
+    WekaOptionUtils.addOption(result, trainingTimeBudgetTipText(), "" + getDefaultTrainingTimeBudget(), TRAININGTIMEBUDGET);
+    WekaOptionUtils.add(result, super.listOptions());
+    return WekaOptionUtils.toEnumeration(result);
+  }
+
+  /**
+   * Parses a given list of options.
+   *
+   * @param options the list of options as an array of strings
+   * @throws Exception if an option is not supported
+   */
+  @Override
+  public void setOptions(String[] options) throws Exception {
+    setTrainingTimeBudget(WekaOptionUtils.parse(options, TRAININGTIMEBUDGET, getDefaultTrainingTimeBudget()));
+    super.setOptions(options);
+  }
+
+  /**
+   * Gets the current settings.
+   *
+   * @return an array of strings suitable for passing to setOptions
+   */
+  @Override
+  public String[] getOptions() {
+    List<String> result = new ArrayList<String>();
+    WekaOptionUtils.add(result, TRAININGTIMEBUDGET, getTrainingTimeBudget());
+    WekaOptionUtils.add(result, super.getOptions());
+    return WekaOptionUtils.toArray(result);
+  }
+
+  /**
+   * The default value for trainingTimeBudget.
+   *
+   * @return the default value
+   * @see #m_TrainingTimeBudget
+   */
+  protected double getDefaultTrainingTimeBudget() {
+    return 0.0;
+  }
+
+  /**
+   * Returns the time budget for training in seconds, 0 for unlimited.
+   *
+   * @return the current value (value >= 0)
+   * @see #m_TrainingTimeBudget
+   */
+  public double getTrainingTimeBudget() {
+    return m_TrainingTimeBudget;
+  }
+
+  /**
+   * Sets the time budget for training in seconds, 0 for unlimited.
+   *
+   * @param value the new value (value >= 0)
+   * @see #m_TrainingTimeBudget
+   */
+  public void setTrainingTimeBudget(double value) {
+    if (value >= 0) {
+      m_TrainingTimeBudget = value;
+    }
+  }
+
+  /**
+   * Returns the help string for trainingTimeBudget.
+   *
+   * @return the help string
+   * @see #m_TrainingTimeBudget
+   */
+  public String trainingTimeBudgetTipText() {
+    return "The time budget for training in seconds; iterative algorithms stop with the best model so far once it is used up (the current iteration gets finished); use 0 for no limit.";
+  }
+
+  /**
+   * Sets whether to collect latency metrics for the single-row predictions.
+   * Disabling unregisters the current metrics from JMX, if necessary.
+   *
+   * @param value	true if to collect
+   * @see		PredictionMetrics
+   */
+  public synchronized void setCollectMetrics(boolean value) {
+    if (value && (m_Metrics == null)) {
+      m_Metrics = new PredictionMetrics();
+    }
+    else if (!value && (m_Metrics != null)) {
+      try {
+	m_Metrics.unregister();
+      }
+      catch (Exception e) {
+	System.err.println(getClass().getName() + ": failed to unregister metrics!");
+	e.printStackTrace();
+      }
+      m_Metrics = null;
+    }
+  }
+
+  /**
+   * Returns whether latency metrics get collected for the single-row predictions.
+   *
+   * @return		true if collected
+   */
+  public boolean getCollectMetrics() {
+    return (m_Metrics != null);
+  }
+
+  /**
+   * Returns the latency metrics of the single-row predictions.
+   *
+   * @return		the metrics, null if not collected
+   */
+  public PredictionMetrics getMetrics() {
+    return m_Metrics;
+  }
+
   /**
    * Resets the scheme.
    */
   protected void reset() {
-    m_Header = null;
-    m_Model = null;
+    m_Header           = null;
+    m_Model            = null;
+    m_NearestCentroids = null;
+    m_TrainingBudget   = null;
+  }
+
+  /**
+   * Returns the structure of the training data.
+   *
+   * @return		the header, null if no model built yet
+   */
+  public SmileDatasetHeader getHeader() {
+    return m_Header;
+  }
+
+  /**
+   * Returns the time spent on training and why training stopped.
+   *
+   * @return		the budget, null if no model built yet
+   */
+  public TrainingBudget getTrainingBudget() {
+    return m_TrainingBudget;
   }
 
   /**
@@ -79,25 +253,103 @@ public abstract class AbstractSmileClusterer
     AttributeDataset	dataset;
 
     reset();
+    m_TrainingBudget = new TrainingBudget(m_TrainingTimeBudget);
     getCapabilities().testWithFail(data);
     dataset = SmileDatasetUtils.convertInstances(data);
     m_Header = new SmileDatasetHeader(dataset, data);
     m_Model = buildClusterer(dataset);
+    m_TrainingBudget.finish();
   }
 
   /**
-   * Classifies the specified instance.
+   * Clusters the converted instance. Rows with missing values always go
+   * through the model, as only it knows how to handle them.
+   *
+   * @param values	the converted instance
+   * @return		the cluster index
+   * @throws Exception	if clustering fails
+   */
+  protected int clusterValues(double[] values) throws Exception {
+    if ((m_NearestCentroids != null) && !NearestCentroids.hasMissing(values))
+      return m_NearestCentroids.nearest(values);
+    return m_Model.predict(values);
+  }
+
+  /**
+   * Classifies the specified instance. Records the latencies if metrics
+   * are collected.
    *
    * @param instance	the instance to classify
    * @return		the classification
    * @throws Exception	if classification fails
+   * @see		#clusterValues(double[])
    */
   @Override
   public int clusterInstance(Instance instance) throws Exception {
-    double[]	values;
+    PredictionMetrics	metrics;
+    double[]		values;
+    int			result;
+    long		start;
+    long		converted;
 
-    values = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
-    return m_Model.predict(values);
+    metrics = m_Metrics;
+    if (metrics == null)
+      return clusterValues(SmileDatasetUtils.convertInstance(instance, m_Header.getDataset()));
+
+    try {
+      start     = System.nanoTime();
+      values    = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
+      converted = System.nanoTime();
+      result    = clusterValues(values);
+      metrics.record(start, converted, System.nanoTime());
+    }
+    catch (Exception e) {
+      metrics.error();
+      throw e;
+    }
+
+    return result;
+  }
+
+  /**
+   * Clusters all the specified instances. If centroids are available,
+   * blocks of instances get assigned at once (rows with missing values
+   * go through the model).
+   *
+   * @param data	the instances to cluster
+   * @return		the cluster indices
+   * @throws Exception	if clustering fails
+   * @see		NearestCentroids#nearest(double[][])
+   */
+  public int[] clusterInstances(Instances data) throws Exception {
+    int[]	result;
+    int[]	assigned;
+    double[][]	x;
+    int		start;
+    int		end;
+    int		i;
+
+    result = new int[data.numInstances()];
+    if (m_NearestCentroids == null) {
+      for (i = 0; i < data.numInstances(); i++)
+	result[i] = clusterInstance(data.instance(i));
+      return result;
+    }
+
+    for (start = 0; start < data.numInstances(); start += BATCH_SIZE) {
+      end = Math.min(data.numInstances(), start + BATCH_SIZE);
+      x   = new double[end - start][];
+      for (i = start; i < end; i++)
+	x[i - start] = SmileDatasetUtils.convertInstance(data.instance(i), m_Header.getDataset());
+      assigned = m_NearestCentroids.nearest(x);
+      for (i = 0; i < x.length; i++) {
+	if (NearestCentroids.hasMissing(x[i]))
+	  assigned[i] = m_Model.predict(x[i]);
+      }
+      System.arraycopy(assigned, 0, result, start, assigned.length);
+    }
+
+    return result;
   }
 
   /**
@@ -122,9 +374,17 @@ public abstract class AbstractSmileClusterer
    */
   @Override
   public String toString() {
+    String	result;
+
     if (m_Model == null)
-      return Utils.toCommandLine(this) + "\n" + "No model built yet!\n";
+      result = Utils.toCommandLine(this) + "\n" + "No model built yet!\n";
     else
-      return Utils.toCommandLine(this) + "\n" + m_Model.getClass().getName() + "\n";
+      result = Utils.toCommandLine(this) + "\n" + m_Model.getClass().getName() + "\n";
+    if (m_TrainingBudget != null)
+      result += "Training: " + m_TrainingBudget + "\n";
+    if (m_Metrics != null)
+      result += "Prediction latencies:\n" + m_Metrics + "\n";
+
+    return result;
   }
 }
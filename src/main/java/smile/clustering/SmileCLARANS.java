@@ -20,7 +20,9 @@
 
 package smile.clustering;
 
+import smile.core.NearestCentroids;
 import smile.data.AttributeDataset;
+import smile.math.distance.SmileEuclideanDistance;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
 
@@ -84,12 +86,36 @@ public class SmileCLARANS
    */
   @Override
   protected Clustering<double[]> buildClusterer(AttributeDataset data) throws Exception {
-    return new CLARANS<double[]>(
-      data.x(),
-      m_Distance.getDistance(),
-      m_NumClusters,
-      (m_MaxNeighbor < 1 ? (int) (0.02 * m_NumClusters * (data.size() - m_NumClusters)) : m_MaxNeighbor),
-      m_NumLocalMinima);
+    CLARANS<double[]>	result;
+    CLARANS<double[]>	current;
+    int			maxNeighbor;
+    int			i;
+
+    maxNeighbor = (m_MaxNeighbor < 1 ? (int) (0.02 * m_NumClusters * (data.size() - m_NumClusters)) : m_MaxNeighbor);
+    if ((m_NumLocalMinima <= 1) || !m_TrainingBudget.isLimited()) {
+      result = new CLARANS<double[]>(data.x(), m_Distance.getDistance(), m_NumClusters, maxNeighbor, m_NumLocalMinima);
+    }
+    else {
+      // one search for a local minimum at a time, keeping the best, until the budget is used up
+      result = null;
+      for (i = 0; i < m_NumLocalMinima; i++) {
+	if ((i > 0) && m_TrainingBudget.isExceeded()) {
+	  m_TrainingBudget.stop("time budget used up after " + i + " of " + m_NumLocalMinima + " local minima");
+	  break;
+	}
+	current = new CLARANS<double[]>(data.x(), m_Distance.getDistance(), m_NumClusters, maxNeighbor, 1);
+	if ((result == null) || (current.distortion() < result.distortion()))
+	  result = current;
+      }
+    }
+    // spatial index over the medoids only works with Euclidean distance
+    if (m_Distance instanceof SmileEuclideanDistance) {
+      m_NearestCentroids = new NearestCentroids(result.medoids(), false);
+      if (!m_NearestCentroids.initTree(data.x()))
+	m_NearestCentroids = null;
+    }
+
+    return result;
   }
 
   /**
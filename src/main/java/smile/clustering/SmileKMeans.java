@@ -20,6 +20,7 @@
 
 package smile.clustering;
 
+import smile.core.NearestCentroids;
 import smile.data.AttributeDataset;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
@@ -68,6 +69,33 @@ public class SmileKMeans
     return result;
   }
 
+  /**
+   * Performs the restarts one after the other, keeping the clustering with
+   * the lowest distortion, until all runs are done or the time budget is
+   * used up (at least one run).
+   *
+   * @param x		the data to cluster
+   * @return		the best clustering
+   */
+  protected KMeans restarts(double[][] x) {
+    KMeans	result;
+    KMeans	current;
+    int		i;
+
+    result = null;
+    for (i = 0; i < m_Runs; i++) {
+      if ((i > 0) && m_TrainingBudget.isExceeded()) {
+	m_TrainingBudget.stop("time budget used up after " + i + " of " + m_Runs + " runs");
+	break;
+      }
+      current = new KMeans(x, m_NumClusters, m_MaxIter);
+      if ((result == null) || (current.distortion() < result.distortion()))
+	result = current;
+    }
+
+    return result;
+  }
+
   /**
    * Builds the clusterer.
    *
@@ -77,10 +105,18 @@ public class SmileKMeans
    */
   @Override
   protected Clustering<double[]> buildClusterer(AttributeDataset data) throws Exception {
+    KMeans	result;
+
     if (m_Runs <= 1)
-      return new KMeans(data.x(), m_NumClusters, m_MaxIter);
+      result = new KMeans(data.x(), m_NumClusters, m_MaxIter);
+    else if (m_TrainingBudget.isLimited())
+      result = restarts(data.x());
     else
-      return new KMeans(data.x(), m_NumClusters, m_MaxIter, m_Runs);
+      result = new KMeans(data.x(), m_NumClusters, m_MaxIter, m_Runs);
+    m_NearestCentroids = new NearestCentroids(result.centroids(), m_FloatPrecision);
+    m_NearestCentroids.initTree(data.x());
+
+    return result;
   }
 
   /**
@@ -45,6 +45,9 @@ public abstract class SmileKMeansBase
   /** the flag for {@link #m_Runs}. */
   public final static String RUNS = "runs";
 
+  /** the flag for {@link #m_FloatPrecision}. */
+  public final static String FLOATPRECISION = "float-precision";
+
   /** the number of clusters to determine. */
   protected int m_NumClusters = getDefaultNumClusters();
 
@@ -54,6 +57,9 @@ public abstract class SmileKMeansBase
   /** the number of runs; if more than 1 then the best model is used. */
   protected int m_Runs = getDefaultRuns();
 
+  /** if enabled, batch cluster assignment computes the distances in single precision (faster, but near-ties may get assigned differently). */
+  protected boolean m_FloatPrecision = getDefaultFloatPrecision();
+
   /**
    * Returns a desription of the class.
    *
@@ -72,6 +78,7 @@ public abstract class SmileKMeansBase
     WekaOptionUtils.addOption(result, numClustersTipText(), "" + getDefaultNumClusters(), NUMCLUSTERS);
     WekaOptionUtils.addOption(result, maxIterTipText(), "" + getDefaultMaxIter(), MAXITER);
     WekaOptionUtils.addOption(result, runsTipText(), "" + getDefaultRuns(), RUNS);
+    WekaOptionUtils.addFlag(result, floatPrecisionTipText(), FLOATPRECISION);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -87,6 +94,7 @@ public abstract class SmileKMeansBase
     setNumClusters(WekaOptionUtils.parse(options, NUMCLUSTERS, getDefaultNumClusters()));
     setMaxIter(WekaOptionUtils.parse(options, MAXITER, getDefaultMaxIter()));
     setRuns(WekaOptionUtils.parse(options, RUNS, getDefaultRuns()));
+    setFloatPrecision(Utils.getFlag(FLOATPRECISION, options));
     super.setOptions(options);
   }
 
@@ -101,6 +109,7 @@ public abstract class SmileKMeansBase
     WekaOptionUtils.add(result, NUMCLUSTERS, getNumClusters());
     WekaOptionUtils.add(result, MAXITER, getMaxIter());
     WekaOptionUtils.add(result, RUNS, getRuns());
+    WekaOptionUtils.add(result, FLOATPRECISION, getFloatPrecision());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
@@ -230,4 +239,44 @@ public abstract class SmileKMeansBase
   public String runsTipText() {
     return "The number of runs; if more than 1 then the best model is used; value >= 1.";
   }
+
+  /**
+   * The default value for floatPrecision.
+   *
+   * @return the default value
+   * @see #m_FloatPrecision
+   */
+  protected boolean getDefaultFloatPrecision() {
+    return false;
+  }
+
+  /**
+   * Returns if enabled, batch cluster assignment computes the distances in single precision (faster, but near-ties may get assigned differently).
+   *
+   * @return the current value
+   * @see #m_FloatPrecision
+   */
+  public boolean getFloatPrecision() {
+    return m_FloatPrecision;
+  }
+
+  /**
+   * Sets if enabled, batch cluster assignment computes the distances in single precision (faster, but near-ties may get assigned differently).
+   *
+   * @param value the new value
+   * @see #m_FloatPrecision
+   */
+  public void setFloatPrecision(boolean value) {
+    m_FloatPrecision = value;
+  }
+
+  /**
+   * Returns the help string for floatPrecision.
+   *
+   * @return the help string
+   * @see #m_FloatPrecision
+   */
+  public String floatPrecisionTipText() {
+    return "If enabled, batch cluster assignment computes the distances in single precision (faster, but near-ties may get assigned differently).";
+  }
 }
@@ -0,0 +1,532 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractHistogramTree.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Ancestor for trees that find their splits via histograms over the
+ * pre-binned data (see {@link HistogramBinning}) rather than by sorting.
+ * Grows the tree like SMILE's trees: best-first up to the maximum number
+ * of leaves, evaluating a random subset of the features at each node and
+ * requiring the minimum node size on both sides of a split. Missing values
+ * always go to the false child.
+ * <br>
+ * The histograms hold the target statistics (eg class counts) per bin.
+ * If most features get evaluated at each node, the histograms of all
+ * features are kept per node and those of the larger child get derived
+ * by subtracting the ones of the smaller child from the parent's
+ * (histogram subtraction), so only the rows of the smaller child get
+ * scanned. The number of nodes keeping histograms is limited by
+ * {@link #MAX_HISTOGRAM_BYTES}: beyond it, the histograms of the smaller
+ * child get dropped after finding its split, and its children get their
+ * histograms rebuilt from their rows once there is room again. Otherwise
+ * only the histograms of the sampled features get built for each node,
+ * which is cheaper than building all.
+ * <br>
+ * The nodes use the same field names as SMILE's tree nodes, so that the
+ * trees can be compiled with {@link CompactTrees}.
+ *
+ * @author agent (agent at local)
+ */
+public abstract class AbstractHistogramTree
+  implements Serializable {
+
+  private static final long serialVersionUID = -3164290713650916409L;
+
+  /** the maximum memory for the histograms kept while growing a tree. */
+  public static final long MAX_HISTOGRAM_BYTES = 64L * 1024 * 1024;
+
+  /**
+   * A node of the tree, a leaf if it has no children.
+   */
+  public static class Node
+    implements Serializable {
+
+    private static final long serialVersionUID = 6215718468380947310L;
+
+    /** the feature to split on, -1 for leaves. */
+    public int splitFeature = -1;
+
+    /** the label index (nominal) or threshold (numeric) of the split. */
+    public double splitValue = Double.NaN;
+
+    /** the child for values equal to (nominal) or at most (numeric) the split value. */
+    public Node trueChild;
+
+    /** the child for all other values, including missing ones. */
+    public Node falseChild;
+  }
+
+  /**
+   * A node while growing the tree.
+   */
+  protected static class TrainNode {
+
+    /** the node. */
+    public Node node;
+
+    /** the rows of the node. */
+    public int[] rows;
+
+    /** the target statistics of the node. */
+    public double[] stats;
+
+    /** the histograms of all features, null if not kept. */
+    public double[][] histograms;
+
+    /** the best feature to split on, -1 if none. */
+    public int feature = -1;
+
+    /** the bin to split after. */
+    public int bin;
+
+    /** the gain of the split. */
+    public double gain;
+  }
+
+  /** the root node (named like in SMILE's trees). */
+  protected Node root;
+
+  /** whether the features are nominal. */
+  protected boolean[] m_Nominal;
+
+  /** the importance of the features (sum of the split gains). */
+  protected double[] m_Importance;
+
+  /** the binned data (only used while growing). */
+  protected transient HistogramBinning m_Binning;
+
+  /** the weights of the rows, ie their number of occurrences in the sample (only used while growing). */
+  protected transient int[] m_Samples;
+
+  /** the minimum node size (only used while growing). */
+  protected transient int m_NodeSize;
+
+  /** the number of features to evaluate per node (only used while growing). */
+  protected transient int m_NumFeatures;
+
+  /** whether to keep the histograms of all features (only used while growing). */
+  protected transient boolean m_KeepHistograms;
+
+  /** the maximum number of nodes keeping histograms (only used while growing). */
+  protected transient int m_MaxHistogramNodes;
+
+  /** the number of nodes currently keeping histograms (only used while growing). */
+  protected transient int m_NumHistogramNodes;
+
+  /**
+   * Returns the number of target statistics per bin.
+   *
+   * @return		the number of statistics
+   */
+  protected abstract int numStats();
+
+  /**
+   * Adds the target of the row to the statistics.
+   *
+   * @param stats	the statistics
+   * @param offset	the offset of the statistics in the array
+   * @param row		the row
+   * @param weight	the weight of the row
+   */
+  protected abstract void add(double[] stats, int offset, int row, int weight);
+
+  /**
+   * Returns the total weight of the rows in the statistics.
+   *
+   * @param stats	the statistics
+   * @return		the weight
+   */
+  protected abstract double weight(double[] stats);
+
+  /**
+   * Computes the gain of a split.
+   *
+   * @param stats	the statistics of the node
+   * @param trueStats	the statistics of the true child
+   * @param falseStats	the statistics of the false child
+   * @return		the gain
+   */
+  protected abstract double gain(double[] stats, double[] trueStats, double[] falseStats);
+
+  /**
+   * Creates a node with the output for the statistics.
+   *
+   * @param stats	the statistics of the node
+   * @return		the node
+   */
+  protected abstract Node newNode(double[] stats);
+
+  /**
+   * Returns the maximum number of nodes that may keep the histograms of all
+   * features at the same time.
+   *
+   * @param bytesPerNode	the memory for the histograms of a node
+   * @return			the maximum number of nodes, at least 2
+   */
+  protected int maxHistogramNodes(long bytesPerNode) {
+    return (int) Math.max(2, Math.min(Integer.MAX_VALUE, MAX_HISTOGRAM_BYTES / bytesPerNode));
+  }
+
+  /**
+   * Grows the tree.
+   *
+   * @param binning	the binned data
+   * @param samples	the number of times each row is in the sample
+   * @param maxNodes	the maximum number of leaves
+   * @param nodeSize	the minimum node size
+   * @param mtry	the number of features to evaluate per node
+   */
+  protected void grow(HistogramBinning binning, int[] samples, int maxNodes, int nodeSize, int mtry) {
+    PriorityQueue<TrainNode>	queue;
+    TrainNode			current;
+    TrainNode[]			children;
+    long			bytesPerNode;
+    int				numRows;
+    int				leaves;
+    int				i;
+    int				n;
+
+    m_Binning        = binning;
+    m_Samples        = samples;
+    m_NodeSize       = nodeSize;
+    m_NumFeatures    = mtry;
+    m_KeepHistograms = (2 * mtry >= binning.numFeatures());
+    m_Nominal        = binning.getNominal();
+    m_Importance     = new double[binning.numFeatures()];
+
+    m_NumHistogramNodes = 0;
+    if (m_KeepHistograms) {
+      bytesPerNode = 0;
+      for (i = 0; i < binning.numFeatures(); i++)
+	bytesPerNode += 8L * (binning.numBins(i) + 1) * numStats();
+      m_MaxHistogramNodes = maxHistogramNodes(bytesPerNode);
+    }
+
+    current = new TrainNode();
+    numRows = 0;
+    for (i = 0; i < samples.length; i++) {
+      if (samples[i] > 0)
+	numRows++;
+    }
+    current.rows  = new int[numRows];
+    current.stats = new double[numStats()];
+    n             = 0;
+    for (i = 0; i < samples.length; i++) {
+      if (samples[i] > 0) {
+	current.rows[n++] = i;
+	add(current.stats, 0, i, samples[i]);
+      }
+    }
+    current.node = newNode(current.stats);
+    root         = current.node;
+    if (m_KeepHistograms) {
+      current.histograms = histograms(current.rows);
+      m_NumHistogramNodes++;
+    }
+
+    queue = new PriorityQueue<TrainNode>(16, new Comparator<TrainNode>() {
+      @Override
+      public int compare(TrainNode o1, TrainNode o2) {
+	return Double.compare(o2.gain, o1.gain);
+      }
+    });
+    if (findSplit(current))
+      queue.add(current);
+
+    leaves = 1;
+    while ((leaves < maxNodes) && !queue.isEmpty()) {
+      current  = queue.poll();
+      children = split(current);
+      for (TrainNode child: children) {
+	if (findSplit(child))
+	  queue.add(child);
+	else
+	  release(child);
+      }
+      // stay within the budget by dropping the histograms of the smaller child
+      if (m_NumHistogramNodes > m_MaxHistogramNodes)
+	release((children[0].rows.length <= children[1].rows.length) ? children[0] : children[1]);
+      leaves++;
+    }
+
+    m_Binning = null;
+    m_Samples = null;
+  }
+
+  /**
+   * Drops the histograms of the node, if any.
+   *
+   * @param node	the node
+   */
+  protected void release(TrainNode node) {
+    if (node.histograms != null) {
+      node.histograms = null;
+      m_NumHistogramNodes--;
+    }
+  }
+
+  /**
+   * Builds the histogram of the feature over the rows.
+   *
+   * @param feature	the feature
+   * @param rows	the rows
+   * @return		the histogram, statistics per bin followed by the ones of missing values
+   */
+  protected double[] histogram(int feature, int[] rows) {
+    double[]	result;
+    char[]	bins;
+    int		numBins;
+    int		numStats;
+    int		bin;
+
+    bins     = m_Binning.getBins(feature);
+    numBins  = m_Binning.numBins(feature);
+    numStats = numStats();
+    result   = new double[(numBins + 1) * numStats];
+    for (int row: rows) {
+      bin = bins[row];
+      if (bin == HistogramBinning.MISSING)
+	bin = numBins;
+      add(result, bin * numStats, row, m_Samples[row]);
+    }
+
+    return result;
+  }
+
+  /**
+   * Builds the histograms of all features over the rows.
+   *
+   * @param rows	the rows
+   * @return		the histograms
+   */
+  protected double[][] histograms(int[] rows) {
+    double[][]	result;
+    int		i;
+
+    result = new double[m_Binning.numFeatures()][];
+    for (i = 0; i < result.length; i++)
+      result[i] = histogram(i, rows);
+
+    return result;
+  }
+
+  /**
+   * Determines the best split of the node over a random subset of the
+   * features.
+   *
+   * @param node	the node to split
+   * @return		true if a split with positive gain was found
+   */
+  protected boolean findSplit(TrainNode node) {
+    int[]	features;
+    double[]	histogram;
+    double[]	trueStats;
+    double[]	falseStats;
+    double	gain;
+    int		numStats;
+    int		numBins;
+    int		feature;
+    int		bin;
+    int		i;
+    int		n;
+
+    node.feature = -1;
+    node.gain    = 0.0;
+    if (weight(node.stats) < 2 * m_NodeSize)
+      return false;
+
+    numStats   = numStats();
+    trueStats  = new double[numStats];
+    falseStats = new double[numStats];
+    features   = new int[m_Binning.numFeatures()];
+    for (i = 0; i < features.length; i++)
+      features[i] = i;
+    smile.math.Math.permutate(features);
+
+    for (i = 0; i < m_NumFeatures; i++) {
+      feature   = features[i];
+      numBins   = m_Binning.numBins(feature);
+      histogram = (node.histograms != null) ? node.histograms[feature] : histogram(feature, node.rows);
+      for (n = 0; n < numStats; n++)
+	trueStats[n] = 0.0;
+
+      for (bin = 0; bin < numBins; bin++) {
+	if (m_Nominal[feature]) {
+	  // one label against the rest
+	  for (n = 0; n < numStats; n++)
+	    trueStats[n] = histogram[bin * numStats + n];
+	}
+	else {
+	  // bins up to the current one against the rest
+	  if (bin == numBins - 1)
+	    break;
+	  for (n = 0; n < numStats; n++)
+	    trueStats[n] += histogram[bin * numStats + n];
+	}
+	if (weight(trueStats) < m_NodeSize)
+	  continue;
+	for (n = 0; n < numStats; n++)
+	  falseStats[n] = node.stats[n] - trueStats[n];
+	if (weight(falseStats) < m_NodeSize)
+	  continue;
+	gain = gain(node.stats, trueStats, falseStats);
+	if (gain > node.gain) {
+	  node.gain    = gain;
+	  node.feature = feature;
+	  node.bin     = bin;
+	}
+      }
+    }
+
+    return (node.feature > -1);
+  }
+
+  /**
+   * Splits the node according to its best split.
+   *
+   * @param node	the node to split
+   * @return		the true and the false child
+   */
+  protected TrainNode[] split(TrainNode node) {
+    TrainNode[]	result;
+    TrainNode	smaller;
+    TrainNode	larger;
+    char[]	bins;
+    int		numTrue;
+    int		bin;
+    int		i;
+    int		n;
+    int		f;
+
+    bins    = m_Binning.getBins(node.feature);
+    numTrue = 0;
+    for (int row: node.rows) {
+      if (goesTrue(node, bins[row]))
+	numTrue++;
+    }
+
+    result = new TrainNode[]{new TrainNode(), new TrainNode()};
+    result[0].rows  = new int[numTrue];
+    result[0].stats = new double[numStats()];
+    result[1].rows  = new int[node.rows.length - numTrue];
+    result[1].stats = new double[numStats()];
+    i = 0;
+    n = 0;
+    for (int row: node.rows) {
+      bin = bins[row];
+      if (goesTrue(node, bin)) {
+	result[0].rows[i++] = row;
+	add(result[0].stats, 0, row, m_Samples[row]);
+      }
+      else {
+	result[1].rows[n++] = row;
+	add(result[1].stats, 0, row, m_Samples[row]);
+      }
+    }
+
+    if (result[0].rows.length <= result[1].rows.length) {
+      smaller = result[0];
+      larger  = result[1];
+    }
+    else {
+      smaller = result[1];
+      larger  = result[0];
+    }
+    if (node.histograms != null) {
+      smaller.histograms = histograms(smaller.rows);
+      larger.histograms  = node.histograms;
+      for (f = 0; f < larger.histograms.length; f++) {
+	for (i = 0; i < larger.histograms[f].length; i++)
+	  larger.histograms[f][i] -= smaller.histograms[f][i];
+      }
+      node.histograms = null;
+      m_NumHistogramNodes++;
+    }
+    else if (m_KeepHistograms && (m_NumHistogramNodes + 2 <= m_MaxHistogramNodes)) {
+      // rebuild, as the histograms of the node were dropped
+      smaller.histograms = histograms(smaller.rows);
+      larger.histograms  = histograms(larger.rows);
+      m_NumHistogramNodes += 2;
+    }
+
+    result[0].node = newNode(result[0].stats);
+    result[1].node = newNode(result[1].stats);
+    node.node.splitFeature = node.feature;
+    node.node.splitValue   = m_Binning.splitValue(node.feature, node.bin);
+    node.node.trueChild    = result[0].node;
+    node.node.falseChild   = result[1].node;
+    m_Importance[node.feature] += node.gain;
+    node.rows = null;
+
+    return result;
+  }
+
+  /**
+   * Checks whether the bin goes to the true child of the split.
+   *
+   * @param node	the node with the split
+   * @param bin		the bin
+   * @return		true if going to the true child
+   */
+  protected boolean goesTrue(TrainNode node, int bin) {
+    if (bin == HistogramBinning.MISSING)
+      return false;
+    if (m_Nominal[node.feature])
+      return (bin == node.bin);
+    return (bin <= node.bin);
+  }
+
+  /**
+   * Determines the leaf the row ends up in.
+   *
+   * @param x		the row
+   * @return		the leaf
+   */
+  protected Node leaf(double[] x) {
+    Node	node;
+    double	value;
+
+    node = root;
+    while (node.trueChild != null) {
+      value = x[node.splitFeature];
+      if (m_Nominal[node.splitFeature])
+	node = (value == node.splitValue) ? node.trueChild : node.falseChild;
+      else
+	node = (value <= node.splitValue) ? node.trueChild : node.falseChild;
+    }
+
+    return node;
+  }
+
+  /**
+   * Returns the importance of the features, the sum of the gains of the
+   * splits on them.
+   *
+   * @return		the importance per feature
+   */
+  public double[] importance() {
+    return m_Importance;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AnytimePrediction.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import weka.core.Utils;
+
+/**
+ * The outcome of an {@link AnytimePredictor}: the ensemble estimate from the
+ * members that were evaluated before the deadline or budget ran out.
+ *
+ * @author agent (agent at local)
+ */
+public class AnytimePrediction {
+
+  /** the prediction (class index or numeric value). */
+  public double prediction;
+
+  /** the class distribution, null for regression. */
+  public double[] distribution;
+
+  /** the number of members that were evaluated. */
+  public int membersUsed;
+
+  /** the total number of members. */
+  public int numMembers;
+
+  /** whether the deadline stopped the evaluation. */
+  public boolean deadlineReached;
+
+  /**
+   * Returns whether all members were evaluated.
+   *
+   * @return		true if complete
+   */
+  public boolean isComplete() {
+    return (membersUsed == numMembers);
+  }
+
+  /**
+   * Returns a short description of the prediction.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return Utils.doubleToString(prediction, 6)
+      + ((distribution == null) ? "" : " " + Utils.arrayToString(distribution))
+      + ", " + membersUsed + " of " + numMembers + " members"
+      + (deadlineReached ? ", deadline reached" : "");
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AnytimePredictor.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import weka.core.Instance;
+
+/**
+ * Interface for ensembles that can return the estimate of the members
+ * evaluated so far when running out of time, rather than evaluating all
+ * members.
+ *
+ * @author agent (agent at local)
+ */
+public interface AnytimePredictor {
+
+  /** the value for not using a deadline. */
+  public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+  /**
+   * Makes a prediction for the instance, evaluating the members in their
+   * fixed order until all have been evaluated, the budget of members is
+   * used up or the deadline has passed. At least one member always gets
+   * evaluated. Bypasses the prediction cache.
+   *
+   * @param instance	the instance to predict
+   * @param deadline	the {@link System#nanoTime()} value after which to stop, {@link #NO_DEADLINE} for none
+   * @param maxMembers	the maximum number of members to evaluate (at least one), -1 for all
+   * @return		the prediction
+   * @throws Exception	if prediction fails
+   */
+  public AnytimePrediction predictAnytime(Instance instance, long deadline, int maxMembers) throws Exception;
+}
@@ -0,0 +1,363 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BulkScorer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+import weka.core.converters.ArffLoader.ArffReader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Scores ARFF or CSV files of arbitrary size with a serialized SMILE
+ * classifier, regressor or clusterer, without loading the data into memory.
+ * <br>
+ * The reader (calling thread) reads chunks of rows and hands them to a pool
+ * of worker threads for scoring, while a writer thread outputs the results
+ * in input order. The number of chunks in flight is bounded, so memory
+ * usage does not depend on the size of the input.
+ * <br>
+ * ARFF attributes are matched to the training attributes by name, CSV rows
+ * must list the values in the order of the training attributes (see
+ * {@link ModelScorer}).
+ *
+ * @author agent (agent at local)
+ */
+public class BulkScorer {
+
+  /** the scorer. */
+  protected ModelScorer m_Scorer;
+
+  /** the number of worker threads. */
+  protected int m_NumThreads;
+
+  /** the number of rows per chunk. */
+  protected int m_ChunkSize;
+
+  /** the number of rows scored. */
+  protected long m_NumRows;
+
+  /**
+   * Initializes the bulk scorer.
+   *
+   * @param scorer	the scorer to use
+   * @param numThreads	the number of worker threads, &lt;= 0 for number of cores
+   * @param chunkSize	the number of rows per chunk
+   */
+  public BulkScorer(ModelScorer scorer, int numThreads, int chunkSize) {
+    m_Scorer     = scorer;
+    m_NumThreads = (numThreads <= 0) ? Runtime.getRuntime().availableProcessors() : numThreads;
+    m_ChunkSize  = Math.max(1, chunkSize);
+  }
+
+  /**
+   * Returns the number of rows scored by the last run.
+   *
+   * @return		the number of rows
+   */
+  public long getNumRows() {
+    return m_NumRows;
+  }
+
+  /**
+   * Scores the ARFF data.
+   *
+   * @param in		the ARFF data
+   * @param out		for writing the results
+   * @throws Exception	if reading, scoring or writing fails
+   */
+  public void scoreArff(BufferedReader in, Writer out) throws Exception {
+    ArffReader	reader;
+    Instances	structure;
+    Instances	chunk;
+    Instance	inst;
+    Pipeline	pipeline;
+
+    reader    = new ArffReader(in, 1);
+    structure = reader.getStructure();
+    pipeline  = new Pipeline(out);
+    try {
+      chunk = new Instances(m_Scorer.getHeader(), m_ChunkSize);
+      while ((inst = reader.readInstance(structure)) != null) {
+	chunk.add(m_Scorer.map(inst));
+	if (chunk.numInstances() == m_ChunkSize) {
+	  pipeline.submit(chunk);
+	  chunk = new Instances(m_Scorer.getHeader(), m_ChunkSize);
+	}
+      }
+      if (chunk.numInstances() > 0)
+	pipeline.submit(chunk);
+    }
+    finally {
+      pipeline.finish();
+    }
+  }
+
+  /**
+   * Scores the CSV data.
+   *
+   * @param in		the CSV data
+   * @param skipHeader	whether the first line is a header row
+   * @param out		for writing the results
+   * @throws Exception	if reading, scoring or writing fails
+   */
+  public void scoreCSV(BufferedReader in, boolean skipHeader, Writer out) throws Exception {
+    Instances	chunk;
+    Pipeline	pipeline;
+    String	line;
+    boolean	first;
+
+    pipeline = new Pipeline(out);
+    first    = true;
+    try {
+      chunk = new Instances(m_Scorer.getHeader(), m_ChunkSize);
+      while ((line = in.readLine()) != null) {
+	if (first && skipHeader) {
+	  first = false;
+	  continue;
+	}
+	first = false;
+	if (line.trim().isEmpty())
+	  continue;
+	chunk.add(m_Scorer.parse(line));
+	if (chunk.numInstances() == m_ChunkSize) {
+	  pipeline.submit(chunk);
+	  chunk = new Instances(m_Scorer.getHeader(), m_ChunkSize);
+	}
+      }
+      if (chunk.numInstances() > 0)
+	pipeline.submit(chunk);
+    }
+    finally {
+      pipeline.finish();
+    }
+  }
+
+  /**
+   * The worker pool and ordered writer.
+   */
+  protected class Pipeline {
+
+    /** the workers. */
+    protected ExecutorService m_Workers;
+
+    /** the scored chunks in input order. */
+    protected BlockingQueue<Future<String[]>> m_Pending;
+
+    /** the marker for the end of the input. */
+    protected FutureTask<String[]> m_End;
+
+    /** the writer thread. */
+    protected Thread m_WriterThread;
+
+    /** the output. */
+    protected Writer m_Output;
+
+    /** the error that occurred in the writer thread, if any. */
+    protected volatile Exception m_Error;
+
+    /**
+     * Starts the workers and the writer thread.
+     *
+     * @param out	the output to write to
+     */
+    public Pipeline(Writer out) {
+      m_Output  = out;
+      m_NumRows = 0;
+      m_Workers = Executors.newFixedThreadPool(m_NumThreads);
+      m_Pending = new ArrayBlockingQueue<Future<String[]>>(m_NumThreads * 2);
+      m_End     = new FutureTask<String[]>(new Callable<String[]>() {
+	@Override
+	public String[] call() throws Exception {
+	  return null;
+	}
+      });
+      m_End.run();
+      m_WriterThread = new Thread(new Runnable() {
+	@Override
+	public void run() {
+	  write();
+	}
+      }, BulkScorer.class.getSimpleName() + "-writer");
+      m_WriterThread.start();
+    }
+
+    /**
+     * Submits the chunk for scoring, blocks if too many chunks are in flight.
+     *
+     * @param chunk	the chunk to score
+     * @throws Exception	if the writer failed or interrupted
+     */
+    public void submit(final Instances chunk) throws Exception {
+      if (m_Error != null)
+	throw m_Error;
+      m_Pending.put(m_Workers.submit(new Callable<String[]>() {
+	@Override
+	public String[] call() throws Exception {
+	  return m_Scorer.score(chunk);
+	}
+      }));
+    }
+
+    /**
+     * Writes the results in order, until the end marker is encountered.
+     * In case of an error, the remaining chunks get discarded.
+     */
+    protected void write() {
+      Future<String[]>	future;
+      String[]		results;
+
+      try {
+	while ((future = m_Pending.take()) != m_End) {
+	  results = future.get();
+	  for (String result: results)
+	    m_Output.write(result + "\n");
+	  m_NumRows += results.length;
+	}
+	m_Output.flush();
+      }
+      catch (Exception e) {
+	m_Error = e;
+	m_Workers.shutdownNow();
+	// keep draining so that the reader does not block
+	try {
+	  while (m_Pending.take() != m_End) {
+	    // discard
+	  }
+	}
+	catch (InterruptedException ie) {
+	  // ignored
+	}
+      }
+    }
+
+    /**
+     * Signals the end of the input and waits for all results to be written.
+     *
+     * @throws Exception	if scoring or writing failed
+     */
+    public void finish() throws Exception {
+      m_Pending.put(m_End);
+      m_WriterThread.join();
+      m_Workers.shutdown();
+      if (m_Error != null)
+	throw m_Error;
+    }
+  }
+
+  /**
+   * Opens the file for reading, decompressing .gz files.
+   *
+   * @param file	the file, "-" for stdin
+   * @return		the reader
+   * @throws Exception	if opening fails
+   */
+  protected static BufferedReader open(String file) throws Exception {
+    InputStream	in;
+
+    if (file.equals("-"))
+      in = System.in;
+    else if (file.endsWith(".gz"))
+      in = new GZIPInputStream(new FileInputStream(file));
+    else
+      in = new FileInputStream(file);
+
+    return new BufferedReader(new InputStreamReader(in, "UTF-8"), 1024 * 1024);
+  }
+
+  /**
+   * Scores a file from the command-line.
+   * <br>
+   * Options: -model file -input file [-output file] [-csv] [-csv-header]
+   * [-no-distribution] [-threads &lt;cores&gt;] [-chunk-size 1000] [-decimals 6]
+   * <br>
+   * The input format is determined by the extension (.csv, .arff, optionally
+   * gzip compressed), unless -csv is specified. Use "-" for stdin/stdout.
+   *
+   * @param args	the options
+   * @throws Exception	if scoring fails
+   */
+  public static void main(String[] args) throws Exception {
+    BulkScorer		bulk;
+    ModelScorer		scorer;
+    BufferedReader	in;
+    Writer		out;
+    String		model;
+    String		input;
+    String		output;
+    String		value;
+    boolean		csv;
+    boolean		csvHeader;
+    long		start;
+
+    model  = Utils.getOption("model", args);
+    input  = Utils.getOption("input", args);
+    if (model.isEmpty() || input.isEmpty()) {
+      System.err.println("Usage: " + BulkScorer.class.getName() + " -model <file> -input <file|-> [-output <file|->] "
+	+ "[-csv] [-csv-header] [-no-distribution] [-threads <cores>] [-chunk-size 1000] [-decimals 6]");
+      System.exit(1);
+    }
+    output    = Utils.getOption("output", args);
+    csvHeader = Utils.getFlag("csv-header", args);
+    csv       = Utils.getFlag("csv", args) || input.toLowerCase().endsWith(".csv") || input.toLowerCase().endsWith(".csv.gz");
+    scorer    = ModelScorer.load(model, ((value = Utils.getOption("decimals", args)).isEmpty()) ? 6 : Integer.parseInt(value));
+    scorer.setOutputDistribution(!Utils.getFlag("no-distribution", args));
+    bulk      = new BulkScorer(
+      scorer,
+      ((value = Utils.getOption("threads", args)).isEmpty()) ? -1 : Integer.parseInt(value),
+      ((value = Utils.getOption("chunk-size", args)).isEmpty()) ? 1000 : Integer.parseInt(value));
+
+    in = open(input);
+    if (output.isEmpty() || output.equals("-"))
+      out = new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8"), 1024 * 1024);
+    else
+      out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), "UTF-8"), 1024 * 1024);
+
+    start = System.currentTimeMillis();
+    try {
+      if (csv)
+	bulk.scoreCSV(in, csvHeader, out);
+      else
+	bulk.scoreArff(in, out);
+    }
+    finally {
+      in.close();
+      out.close();
+    }
+    System.err.println("Scored " + bulk.getNumRows() + " rows in " + (System.currentTimeMillis() - start) + "ms");
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CentroidTree.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * KD-tree over a (fixed) set of centroids for exact nearest centroid lookup
+ * using the squared Euclidean distance. In case of ties, the centroid with
+ * the lowest index is returned, like with an exhaustive scan.
+ *
+ * @author agent (agent at local)
+ */
+public class CentroidTree
+  implements Serializable {
+
+  private static final long serialVersionUID = 6097524391764382107L;
+
+  /** the maximum number of centroids in a leaf. */
+  public static final int LEAF_SIZE = 8;
+
+  /**
+   * Node of the tree.
+   */
+  protected static class Node
+    implements Serializable {
+
+    private static final long serialVersionUID = -2302458393683712620L;
+
+    /** the first position in the index array (leaf). */
+    public int start;
+
+    /** the position after the last one in the index array (leaf). */
+    public int end;
+
+    /** the split dimension, -1 for leaves. */
+    public int splitDim = -1;
+
+    /** the split value. */
+    public double splitValue;
+
+    /** the branch with values less or equal to the split value. */
+    public Node left;
+
+    /** the branch with values greater or equal to the split value. */
+    public Node right;
+  }
+
+  /** the centroids. */
+  protected double[][] m_Centroids;
+
+  /** the indices of the centroids, ordered by leaf. */
+  protected int[] m_Index;
+
+  /** the root node. */
+  protected Node m_Root;
+
+  /**
+   * Builds the tree over the centroids.
+   *
+   * @param centroids	the centroids
+   */
+  public CentroidTree(double[][] centroids) {
+    Integer[]	index;
+    int		i;
+
+    m_Centroids = centroids;
+    index       = new Integer[centroids.length];
+    for (i = 0; i < index.length; i++)
+      index[i] = i;
+    m_Root  = build(index, 0, index.length);
+    m_Index = new int[index.length];
+    for (i = 0; i < index.length; i++)
+      m_Index[i] = index[i];
+  }
+
+  /**
+   * Builds the subtree for the specified range of the index array.
+   *
+   * @param index	the indices of the centroids
+   * @param start	the first position
+   * @param end		the position after the last one
+   * @return		the subtree
+   */
+  protected Node build(Integer[] index, int start, int end) {
+    Node		result;
+    double		min;
+    double		max;
+    double		spread;
+    double		value;
+    int			mid;
+    int			i;
+    int			n;
+    final int		dim;
+
+    result       = new Node();
+    result.start = start;
+    result.end   = end;
+    if (end - start <= LEAF_SIZE)
+      return result;
+
+    // dimension with largest spread
+    n      = -1;
+    spread = 0.0;
+    for (i = 0; i < m_Centroids[index[start]].length; i++) {
+      min = Double.POSITIVE_INFINITY;
+      max = Double.NEGATIVE_INFINITY;
+      for (mid = start; mid < end; mid++) {
+	value = m_Centroids[index[mid]][i];
+	min   = Math.min(min, value);
+	max   = Math.max(max, value);
+      }
+      if (max - min > spread) {
+	spread = max - min;
+	n      = i;
+      }
+    }
+    if (n == -1)
+      return result;
+
+    dim = n;
+    Arrays.sort(index, start, end, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+	return Double.compare(m_Centroids[o1][dim], m_Centroids[o2][dim]);
+      }
+    });
+    mid               = (start + end) / 2;
+    result.splitDim   = dim;
+    result.splitValue = m_Centroids[index[mid]][dim];
+    result.left       = build(index, start, mid);
+    result.right      = build(index, mid, end);
+
+    return result;
+  }
+
+  /**
+   * Returns the index of the nearest centroid.
+   *
+   * @param x		the row
+   * @return		the index of the centroid
+   */
+  public int nearest(double[] x) {
+    return nearest(x, null);
+  }
+
+  /**
+   * Returns the index of the nearest centroid. Rows with missing values
+   * (NaN) get assigned to the first centroid, like with an exhaustive scan.
+   *
+   * @param x		the row
+   * @param count	for counting the distance computations, can be null
+   * @return		the index of the centroid
+   */
+  public int nearest(double[] x, int[] count) {
+    double[]	best;
+    int[]	bestIndex;
+
+    best      = new double[]{Double.POSITIVE_INFINITY};
+    bestIndex = new int[]{0};
+    search(m_Root, x, best, bestIndex, count);
+
+    return bestIndex[0];
+  }
+
+  /**
+   * Searches the subtree for the nearest centroid.
+   *
+   * @param node	the subtree
+   * @param x		the row
+   * @param best	the smallest squared distance so far
+   * @param bestIndex	the index of the nearest centroid so far
+   * @param count	for counting the distance computations, can be null
+   */
+  protected void search(Node node, double[] x, double[] best, int[] bestIndex, int[] count) {
+    double[]	centroid;
+    double	dist;
+    double	diff;
+    int		index;
+    int		i;
+    int		n;
+
+    if (node.splitDim == -1) {
+      for (i = node.start; i < node.end; i++) {
+	index    = m_Index[i];
+	centroid = m_Centroids[index];
+	dist     = 0.0;
+	for (n = 0; n < x.length; n++) {
+	  diff  = x[n] - centroid[n];
+	  dist += diff * diff;
+	}
+	if ((dist < best[0]) || ((dist == best[0]) && (index < bestIndex[0]))) {
+	  best[0]      = dist;
+	  bestIndex[0] = index;
+	}
+      }
+      if (count != null)
+	count[0] += node.end - node.start;
+      return;
+    }
+
+    diff = x[node.splitDim] - node.splitValue;
+    if (diff <= 0) {
+      search(node.left, x, best, bestIndex, count);
+      if (diff * diff <= best[0])
+	search(node.right, x, best, bestIndex, count);
+    }
+    else {
+      search(node.right, x, best, bestIndex, count);
+      if (diff * diff <= best[0])
+	search(node.left, x, best, bestIndex, count);
+    }
+  }
+
+  /**
+   * Returns the average fraction of the centroids that the search has to
+   * compute the distance for, using the sample rows.
+   *
+   * @param sample	the rows to use
+   * @return		the fraction (0-1)
+   */
+  public double visitedFraction(double[][] sample) {
+    int[]	count;
+
+    if ((sample.length == 0) || (m_Centroids.length == 0))
+      return 1.0;
+
+    count = new int[1];
+    for (double[] x: sample)
+      nearest(x, count);
+
+    return (double) count[0] / sample.length / m_Centroids.length;
+  }
+}
@@ -0,0 +1,453 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompactTrees.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.data.Attribute;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Compact representation of the split structure of a set of SMILE trees
+ * (DecisionTree or RegressionTree), which get walked via reflection.
+ * <br>
+ * The thresholds of numeric splits are replaced by 16-bit bin indices over
+ * the distinct split points of each feature. As the bins are formed by the
+ * split points themselves, "x &lt;= threshold" is equivalent to
+ * "bin(x) &lt;= bin(threshold)" and the quantization is lossless. Input
+ * rows get binned once per prediction (see {@link #bin(double[])}) and are
+ * shared by all trees.
+ * <br>
+ * Nodes are stored in pre-order in a single int array, two ints per node:
+ * <ul>
+ *   <li>inner node: [nominal flag (bit 31) | feature (bits 16-30) | bin (bits 0-15)], index of the false child</li>
+ *   <li>leaf: unused, bitwise complement of the leaf index</li>
+ * </ul>
+ * The true child always directly follows its parent. The leaf index refers
+ * to the leaf tables of the enclosing model (labels, posteriors, outputs).
+ * <br>
+ * Optionally, Java code gets generated and compiled for the trees (see
+ * {@link TreeCodeGenerator}), which is used by {@link #leaves(double[], int[])}.
+ * The compiled code is not serialized, but regenerated on first use.
+ * <br>
+ * Limits: 32768 features, 65534 distinct split points per numeric feature
+ * and 65535 labels per nominal feature.
+ *
+ * @author agent (agent at local)
+ */
+public class CompactTrees
+  implements Serializable {
+
+  private static final long serialVersionUID = -2208713874512371958L;
+
+  /** the bin of missing values. */
+  public static final char MISSING = 0xFFFF;
+
+  /** the maximum number of distinct split points per numeric feature. */
+  public static final int MAX_THRESHOLDS = 0xFFFE;
+
+  /** the maximum number of features. */
+  public static final int MAX_FEATURES = 0x8000;
+
+  /** the flag for nominal splits. */
+  protected static final int NOMINAL = 0x80000000;
+
+  /**
+   * Gets notified of the leaves of the trees, in the order they get packed.
+   */
+  public interface LeafHandler {
+
+    /**
+     * Processes the leaf node.
+     *
+     * @param tree	the index of the tree
+     * @param node	the SMILE leaf node
+     * @return		the index of the leaf in the tables of the model
+     * @throws Exception	if accessing the node fails
+     */
+    public int leaf(int tree, Object node) throws Exception;
+  }
+
+  /** the number of features. */
+  protected int m_NumFeatures;
+
+  /** whether the features are nominal. */
+  protected boolean[] m_Nominal;
+
+  /** the sorted, distinct split points of the numeric features (null if not used). */
+  protected double[][] m_Thresholds;
+
+  /** the indices of the features used in splits. */
+  protected int[] m_Used;
+
+  /** the packed nodes. */
+  protected int[] m_Nodes;
+
+  /** the index of the root node of each tree. */
+  protected int[] m_Roots;
+
+  /** whether to generate code for the trees. */
+  protected boolean m_GenerateCode;
+
+  /** the compiled trees, null if not (yet) generated. */
+  protected transient volatile CompiledTrees m_Compiled;
+
+  /** the number of nodes packed so far (only used during construction). */
+  protected transient int m_NumNodes;
+
+  /**
+   * Compiles the trees.
+   *
+   * @param trees	the SMILE trees (DecisionTree or RegressionTree)
+   * @param attributes	the attributes of the training data
+   * @param handler	for processing the leaves
+   * @throws Exception	if accessing the trees fails or limits are exceeded
+   */
+  public CompactTrees(Object[] trees, Attribute[] attributes, LeafHandler handler) throws Exception {
+    TreeSet<Double>[]	splits;
+    Object		root;
+    boolean[]		used;
+    int			numUsed;
+    int			i;
+    int			n;
+
+    if (attributes.length > MAX_FEATURES)
+      throw new IllegalStateException("At most " + MAX_FEATURES + " features supported, found: " + attributes.length);
+
+    m_NumFeatures = attributes.length;
+    m_Nominal     = new boolean[m_NumFeatures];
+    for (i = 0; i < m_NumFeatures; i++)
+      m_Nominal[i] = (attributes[i].getType() == Attribute.Type.NOMINAL);
+
+    // collect split points
+    splits     = new TreeSet[m_NumFeatures];
+    used       = new boolean[m_NumFeatures];
+    m_NumNodes = 0;
+    for (Object tree: trees)
+      collect(SmileReflectionUtils.getField(tree, "root"), splits, used);
+
+    m_Thresholds = new double[m_NumFeatures][];
+    numUsed      = 0;
+    for (i = 0; i < m_NumFeatures; i++) {
+      if (used[i])
+	numUsed++;
+      if (splits[i] == null)
+	continue;
+      if (splits[i].size() > MAX_THRESHOLDS)
+	throw new IllegalStateException(
+	  "At most " + MAX_THRESHOLDS + " distinct split points supported, found " + splits[i].size() + " for feature #" + (i+1));
+      m_Thresholds[i] = new double[splits[i].size()];
+      n = 0;
+      for (Double split: splits[i])
+	m_Thresholds[i][n++] = split;
+    }
+    m_Used = new int[numUsed];
+    n      = 0;
+    for (i = 0; i < m_NumFeatures; i++) {
+      if (used[i])
+	m_Used[n++] = i;
+    }
+
+    // pack nodes
+    m_Nodes    = new int[m_NumNodes * 2];
+    m_Roots    = new int[trees.length];
+    m_NumNodes = 0;
+    for (i = 0; i < trees.length; i++) {
+      root       = SmileReflectionUtils.getField(trees[i], "root");
+      m_Roots[i] = pack(i, root, handler);
+    }
+  }
+
+  /**
+   * Normalizes the value for comparisons (-0.0 becomes 0.0).
+   *
+   * @param value	the value
+   * @return		the normalized value
+   */
+  protected static double normalize(double value) {
+    return value + 0.0;
+  }
+
+  /**
+   * Checks whether the node is a leaf.
+   *
+   * @param node	the SMILE node
+   * @return		true if a leaf
+   * @throws Exception	if accessing the node fails
+   */
+  protected static boolean isLeaf(Object node) throws Exception {
+    return (SmileReflectionUtils.getField(node, "trueChild") == null)
+      && (SmileReflectionUtils.getField(node, "falseChild") == null);
+  }
+
+  /**
+   * Collects the split points of the numeric features and counts the nodes.
+   *
+   * @param node	the SMILE node
+   * @param splits	the split points per feature
+   * @param used	the features used in splits
+   * @throws Exception	if accessing the node fails
+   */
+  protected void collect(Object node, TreeSet<Double>[] splits, boolean[] used) throws Exception {
+    int		feature;
+
+    m_NumNodes++;
+    if (isLeaf(node))
+      return;
+
+    feature       = (Integer) SmileReflectionUtils.getField(node, "splitFeature");
+    used[feature] = true;
+    if (!m_Nominal[feature]) {
+      if (splits[feature] == null)
+	splits[feature] = new TreeSet<Double>();
+      splits[feature].add(normalize((Double) SmileReflectionUtils.getField(node, "splitValue")));
+    }
+    collect(SmileReflectionUtils.getField(node, "trueChild"), splits, used);
+    collect(SmileReflectionUtils.getField(node, "falseChild"), splits, used);
+  }
+
+  /**
+   * Packs the node and its children.
+   *
+   * @param tree	the index of the tree
+   * @param node	the SMILE node
+   * @param handler	for processing the leaves
+   * @return		the index of the node
+   * @throws Exception	if accessing the node fails or limits are exceeded
+   */
+  protected int pack(int tree, Object node, LeafHandler handler) throws Exception {
+    int		result;
+    int		feature;
+    double	split;
+    int		bin;
+
+    result = m_NumNodes++;
+    if (isLeaf(node)) {
+      m_Nodes[result * 2 + 1] = ~handler.leaf(tree, node);
+      return result;
+    }
+
+    feature = (Integer) SmileReflectionUtils.getField(node, "splitFeature");
+    split   = normalize((Double) SmileReflectionUtils.getField(node, "splitValue"));
+    if (m_Nominal[feature]) {
+      if ((split < 0) || (split >= MISSING))
+	throw new IllegalStateException("Unsupported nominal split value for feature #" + (feature + 1) + ": " + split);
+      bin = (int) split;
+      m_Nodes[result * 2] = NOMINAL | (feature << 16) | bin;
+    }
+    else {
+      bin = Arrays.binarySearch(m_Thresholds[feature], split);
+      m_Nodes[result * 2] = (feature << 16) | bin;
+    }
+    pack(tree, SmileReflectionUtils.getField(node, "trueChild"), handler);
+    m_Nodes[result * 2 + 1] = pack(tree, SmileReflectionUtils.getField(node, "falseChild"), handler);
+
+    return result;
+  }
+
+  /**
+   * Returns the number of trees.
+   *
+   * @return		the number of trees
+   */
+  public int numTrees() {
+    return m_Roots.length;
+  }
+
+  /**
+   * Returns the total number of nodes.
+   *
+   * @return		the number of nodes
+   */
+  public int numNodes() {
+    return m_Nodes.length / 2;
+  }
+
+  /**
+   * Bins the row, ie determines for each feature used in splits the number
+   * of split points less than the value (numeric) or the label index
+   * (nominal). Missing values get mapped to {@link #MISSING}, which fails
+   * all split tests, like in SMILE.
+   *
+   * @param x		the row
+   * @return		the bins
+   */
+  public char[] bin(double[] x) {
+    char[]	result;
+    double	value;
+    int		index;
+
+    result = new char[m_NumFeatures];
+    for (int feature: m_Used) {
+      value = x[feature];
+      if (Double.isNaN(value)) {
+	result[feature] = MISSING;
+      }
+      else if (m_Nominal[feature]) {
+	result[feature] = ((value < 0) || (value >= MISSING) || (value != (int) value)) ? MISSING : (char) value;
+      }
+      else {
+	index           = Arrays.binarySearch(m_Thresholds[feature], normalize(value));
+	result[feature] = (char) ((index >= 0) ? index : -index - 1);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Determines the leaf the binned row ends up in.
+   *
+   * @param tree	the index of the tree
+   * @param bins	the binned row
+   * @return		the index of the leaf
+   * @see		#bin(double[])
+   */
+  public int leaf(int tree, char[] bins) {
+    int[]	nodes;
+    int		node;
+    int		split;
+    int		next;
+    int		bin;
+
+    nodes = m_Nodes;
+    node  = m_Roots[tree];
+    while ((next = nodes[node * 2 + 1]) >= 0) {
+      split = nodes[node * 2];
+      bin   = bins[(split >>> 16) & 0x7FFF];
+      if ((split & NOMINAL) != 0)
+	node = (bin == (split & 0xFFFF)) ? node + 1 : next;
+      else
+	node = (bin <= (split & 0xFFFF)) ? node + 1 : next;
+    }
+
+    return ~next;
+  }
+
+  /**
+   * Sets whether to generate code for the trees. Generates and compiles it
+   * immediately when turned on.
+   *
+   * @param value	true if to generate code
+   * @throws Exception	if generating or compiling the code fails
+   */
+  public synchronized void setGenerateCode(boolean value) throws Exception {
+    m_GenerateCode = value;
+    m_Compiled     = null;
+    if (value)
+      m_Compiled = new TreeCodeGenerator(this).compile();
+  }
+
+  /**
+   * Returns whether to generate code for the trees.
+   *
+   * @return		true if to generate code
+   */
+  public boolean getGenerateCode() {
+    return m_GenerateCode;
+  }
+
+  /**
+   * Returns the compiled trees, generates them if necessary (eg after
+   * deserialization). Falls back to interpretation if generating fails.
+   *
+   * @return		the compiled trees, null if not available
+   */
+  protected CompiledTrees getCompiled() {
+    CompiledTrees	result;
+
+    result = m_Compiled;
+    if ((result != null) || !m_GenerateCode)
+      return result;
+
+    synchronized(this) {
+      if ((m_Compiled == null) && m_GenerateCode) {
+	try {
+	  m_Compiled = new TreeCodeGenerator(this).compile();
+	}
+	catch (Exception e) {
+	  System.err.println(getClass().getName() + ": failed to generate code for trees, using interpretation!");
+	  e.printStackTrace();
+	  m_GenerateCode = false;
+	}
+      }
+      return m_Compiled;
+    }
+  }
+
+  /**
+   * Checks the generated code against the interpretation of the trees.
+   *
+   * @param x		the rows to check
+   * @return		the number of rows that end up in different leaves
+   * @throws IllegalStateException	if no generated code available
+   */
+  public int verifyGeneratedCode(double[][] x) {
+    CompiledTrees	compiled;
+
+    compiled = getCompiled();
+    if (compiled == null)
+      throw new IllegalStateException("No generated code available!");
+
+    return TreeCodeGenerator.verify(this, compiled, x);
+  }
+
+  /**
+   * Determines the leaves the row ends up in for all trees, using the
+   * generated code if available.
+   *
+   * @param x		the row
+   * @param leaves	the array for the leaf indices, one per tree
+   */
+  public void leaves(double[] x, int[] leaves) {
+    CompiledTrees	compiled;
+    char[]		bins;
+    int			i;
+
+    compiled = getCompiled();
+    if (compiled != null) {
+      compiled.leaves(x, leaves);
+      return;
+    }
+
+    bins = bin(x);
+    for (i = 0; i < leaves.length; i++)
+      leaves[i] = leaf(i, bins);
+  }
+
+  /**
+   * Returns the approximate memory footprint of the split structure.
+   *
+   * @return		the size in bytes
+   */
+  public long sizeInBytes() {
+    long	result;
+
+    result = m_Nodes.length * 4L + m_Roots.length * 4L + m_Used.length * 4L + m_Nominal.length;
+    for (double[] thresholds: m_Thresholds) {
+      if (thresholds != null)
+	result += thresholds.length * 8L;
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompiledTrees.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * Interface for the classes generated by {@link TreeCodeGenerator}.
+ * Operates on the unbinned rows and returns the same leaf indices as
+ * {@link CompactTrees}.
+ *
+ * @author agent (agent at local)
+ */
+public interface CompiledTrees {
+
+  /**
+   * Returns the number of trees.
+   *
+   * @return		the number of trees
+   */
+  public int numTrees();
+
+  /**
+   * Determines the leaf the row ends up in.
+   *
+   * @param tree	the index of the tree
+   * @param x		the row
+   * @return		the index of the leaf
+   */
+  public int leaf(int tree, double[] x);
+
+  /**
+   * Determines the leaves the row ends up in for all trees.
+   *
+   * @param x		the row
+   * @param leaves	the array for the leaf indices, one per tree
+   */
+  public void leaves(double[] x, int[] leaves);
+}
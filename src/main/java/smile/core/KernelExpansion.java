@@ -0,0 +1,490 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * KernelExpansion.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.math.kernel.GaussianKernel;
+import smile.math.kernel.HyperbolicTangentKernel;
+import smile.math.kernel.LaplacianKernel;
+import smile.math.kernel.LinearKernel;
+import smile.math.kernel.MercerKernel;
+import smile.math.kernel.PolynomialKernel;
+
+import java.io.Serializable;
+
+/**
+ * Decision function of a kernel machine in explicit form:
+ * f(x) = b + sum_i c_i * k(v_i, x).
+ * <br>
+ * Can be approximated with fewer vectors using {@link #reduce(int)}.
+ * <br>
+ * For kernels that are functions of dot product and norms (Gaussian,
+ * Laplacian, linear, polynomial, hyperbolic tangent), {@link #predict(double[][])}
+ * evaluates blocks of rows against blocks of vectors at once, using the
+ * cached squared norms of the vectors.
+ *
+ * @author agent (agent at local)
+ */
+public class KernelExpansion
+  implements Serializable {
+
+  private static final long serialVersionUID = 3402839217339563823L;
+
+  /** the number of rows per block in batch prediction. */
+  public static final int ROW_BLOCK = 32;
+
+  /** the number of vectors per block in batch prediction. */
+  public static final int VECTOR_BLOCK = 128;
+
+  /**
+   * The kernels that can be evaluated from dot product and norms.
+   */
+  public enum KernelType {
+    GAUSSIAN,
+    LAPLACIAN,
+    LINEAR,
+    POLYNOMIAL,
+    HYPERBOLIC_TANGENT,
+    OTHER
+  }
+
+  /** the vectors. */
+  protected double[][] m_Vectors;
+
+  /** the coefficients. */
+  protected double[] m_Coefficients;
+
+  /** the bias. */
+  protected double m_Bias;
+
+  /** the kernel. */
+  protected MercerKernel<double[]> m_Kernel;
+
+  /** the squared norms of the vectors. */
+  protected double[] m_SquaredNorms;
+
+  /** the type of kernel. */
+  protected KernelType m_KernelType;
+
+  /** the gamma of the Gaussian/Laplacian kernel. */
+  protected double m_Gamma;
+
+  /** the scale of the polynomial/hyperbolic tangent kernel. */
+  protected double m_Scale;
+
+  /** the offset of the polynomial/hyperbolic tangent kernel. */
+  protected double m_Offset;
+
+  /** the degree of the polynomial kernel. */
+  protected int m_Degree;
+
+  /**
+   * Initializes the expansion.
+   *
+   * @param vectors		the vectors
+   * @param coefficients	the coefficients
+   * @param bias		the bias
+   * @param kernel		the kernel
+   */
+  public KernelExpansion(double[][] vectors, double[] coefficients, double bias, MercerKernel<double[]> kernel) {
+    int		i;
+
+    if (vectors.length != coefficients.length)
+      throw new IllegalArgumentException(
+	"Number of vectors and coefficients differ: " + vectors.length + " != " + coefficients.length);
+    m_Vectors      = vectors;
+    m_Coefficients = coefficients;
+    m_Bias         = bias;
+    m_Kernel       = kernel;
+    m_SquaredNorms = new double[vectors.length];
+    for (i = 0; i < vectors.length; i++)
+      m_SquaredNorms[i] = dot(vectors[i], vectors[i]);
+    initKernelType();
+  }
+
+  /**
+   * Determines the kernel type and obtains its parameters.
+   */
+  protected void initKernelType() {
+    m_KernelType = KernelType.OTHER;
+    try {
+      if (m_Kernel instanceof GaussianKernel) {
+	m_Gamma      = (Double) SmileReflectionUtils.getField(m_Kernel, "gamma");
+	m_KernelType = KernelType.GAUSSIAN;
+      }
+      else if (m_Kernel instanceof LaplacianKernel) {
+	m_Gamma      = (Double) SmileReflectionUtils.getField(m_Kernel, "gamma");
+	m_KernelType = KernelType.LAPLACIAN;
+      }
+      else if (m_Kernel instanceof LinearKernel) {
+	m_KernelType = KernelType.LINEAR;
+      }
+      else if (m_Kernel instanceof PolynomialKernel) {
+	m_Degree     = (Integer) SmileReflectionUtils.getField(m_Kernel, "degree");
+	m_Scale      = (Double) SmileReflectionUtils.getField(m_Kernel, "scale");
+	m_Offset     = (Double) SmileReflectionUtils.getField(m_Kernel, "offset");
+	m_KernelType = KernelType.POLYNOMIAL;
+      }
+      else if (m_Kernel instanceof HyperbolicTangentKernel) {
+	m_Scale      = (Double) SmileReflectionUtils.getField(m_Kernel, "scale");
+	m_Offset     = (Double) SmileReflectionUtils.getField(m_Kernel, "offset");
+	m_KernelType = KernelType.HYPERBOLIC_TANGENT;
+      }
+    }
+    catch (Exception e) {
+      // parameters not accessible, use the kernel itself
+      m_KernelType = KernelType.OTHER;
+    }
+  }
+
+  /**
+   * Returns the vectors.
+   *
+   * @return		the vectors
+   */
+  public double[][] getVectors() {
+    return m_Vectors;
+  }
+
+  /**
+   * Returns the coefficients.
+   *
+   * @return		the coefficients
+   */
+  public double[] getCoefficients() {
+    return m_Coefficients;
+  }
+
+  /**
+   * Returns the bias.
+   *
+   * @return		the bias
+   */
+  public double getBias() {
+    return m_Bias;
+  }
+
+  /**
+   * Returns the kernel.
+   *
+   * @return		the kernel
+   */
+  public MercerKernel<double[]> getKernel() {
+    return m_Kernel;
+  }
+
+  /**
+   * Returns the type of kernel.
+   *
+   * @return		the type
+   */
+  public KernelType getKernelType() {
+    return m_KernelType;
+  }
+
+  /**
+   * Returns the number of vectors.
+   *
+   * @return		the number of vectors
+   */
+  public int size() {
+    return m_Vectors.length;
+  }
+
+  /**
+   * Computes the decision value for the row.
+   *
+   * @param x		the row
+   * @return		the decision value
+   */
+  public double predict(double[] x) {
+    double	result;
+    int		i;
+
+    result = m_Bias;
+    for (i = 0; i < m_Vectors.length; i++)
+      result += m_Coefficients[i] * m_Kernel.k(m_Vectors[i], x);
+
+    return result;
+  }
+
+  /**
+   * Computes the dot product of the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector
+   * @return		the dot product
+   */
+  protected static double dot(double[] x, double[] y) {
+    double	result;
+    int		i;
+
+    result = 0.0;
+    for (i = 0; i < x.length; i++)
+      result += x[i] * y[i];
+
+    return result;
+  }
+
+  /**
+   * Computes the kernel value from the dot product and squared norms of
+   * the two vectors.
+   *
+   * @param dot		the dot product
+   * @param normX	the squared norm of the first vector
+   * @param normY	the squared norm of the second vector
+   * @return		the kernel value
+   */
+  protected double kernel(double dot, double normX, double normY) {
+    double	dist;
+
+    switch (m_KernelType) {
+      case GAUSSIAN:
+	dist = Math.max(0.0, normX + normY - 2.0 * dot);
+	return SmileMathUtils.exp(-m_Gamma * dist);
+      case LAPLACIAN:
+	dist = Math.max(0.0, normX + normY - 2.0 * dot);
+	return SmileMathUtils.exp(-m_Gamma * Math.sqrt(dist));
+      case LINEAR:
+	return dot;
+      case POLYNOMIAL:
+	return Math.pow(m_Scale * dot + m_Offset, m_Degree);
+      case HYPERBOLIC_TANGENT:
+	return Math.tanh(m_Scale * dot + m_Offset);
+      default:
+	throw new IllegalStateException("Unsupported kernel type: " + m_KernelType);
+    }
+  }
+
+  /**
+   * Computes the decision values for the rows. Processes the rows in blocks
+   * against blocks of vectors, so that the vectors of a block get reused
+   * while in the cache, and computes the dot products of four rows with a
+   * vector at a time. Results can differ from {@link #predict(double[])}
+   * in the last digits due to the distances getting computed from dot
+   * products and norms.
+   *
+   * @param x		the rows
+   * @return		the decision values
+   */
+  public double[] predict(double[][] x) {
+    double[]	result;
+    double[]	norms;
+    double[]	vector;
+    double[]	x0;
+    double[]	x1;
+    double[]	x2;
+    double[]	x3;
+    double	d0;
+    double	d1;
+    double	d2;
+    double	d3;
+    double	v;
+    double	coef;
+    double	norm;
+    int		rowStart;
+    int		rowEnd;
+    int		vecStart;
+    int		vecEnd;
+    int		dims;
+    int		i;
+    int		j;
+    int		k;
+
+    result = new double[x.length];
+    if (m_KernelType == KernelType.OTHER) {
+      for (i = 0; i < x.length; i++)
+	result[i] = predict(x[i]);
+      return result;
+    }
+
+    norms = new double[x.length];
+    for (i = 0; i < x.length; i++) {
+      norms[i]  = dot(x[i], x[i]);
+      result[i] = m_Bias;
+    }
+
+    for (rowStart = 0; rowStart < x.length; rowStart += ROW_BLOCK) {
+      rowEnd = Math.min(x.length, rowStart + ROW_BLOCK);
+      for (vecStart = 0; vecStart < m_Vectors.length; vecStart += VECTOR_BLOCK) {
+	vecEnd = Math.min(m_Vectors.length, vecStart + VECTOR_BLOCK);
+	for (j = vecStart; j < vecEnd; j++) {
+	  vector = m_Vectors[j];
+	  coef   = m_Coefficients[j];
+	  norm   = m_SquaredNorms[j];
+	  dims   = vector.length;
+	  for (i = rowStart; i + 3 < rowEnd; i += 4) {
+	    x0 = x[i];
+	    x1 = x[i + 1];
+	    x2 = x[i + 2];
+	    x3 = x[i + 3];
+	    d0 = 0.0;
+	    d1 = 0.0;
+	    d2 = 0.0;
+	    d3 = 0.0;
+	    for (k = 0; k < dims; k++) {
+	      v   = vector[k];
+	      d0 += x0[k] * v;
+	      d1 += x1[k] * v;
+	      d2 += x2[k] * v;
+	      d3 += x3[k] * v;
+	    }
+	    result[i]     += coef * kernel(d0, norms[i], norm);
+	    result[i + 1] += coef * kernel(d1, norms[i + 1], norm);
+	    result[i + 2] += coef * kernel(d2, norms[i + 2], norm);
+	    result[i + 3] += coef * kernel(d3, norms[i + 3], norm);
+	  }
+	  for (; i < rowEnd; i++)
+	    result[i] += coef * kernel(dot(x[i], vector), norms[i], norm);
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Approximates the expansion with at most the specified number of vectors
+   * (reduced set method). The vectors are selected greedily from the current
+   * ones via a pivoted incomplete Cholesky decomposition of the kernel matrix,
+   * always picking the vector that reduces the distance between the weight
+   * vector and its approximation in feature space the most. The new
+   * coefficients are the projection of the weight vector onto the span of
+   * the selected vectors.
+   *
+   * @param maxVectors	the maximum number of vectors to use
+   * @return		the reduced expansion, the expansion itself if it
+   * 			already uses no more than the maximum
+   */
+  public KernelExpansion reduce(int maxVectors) {
+    double[][]	l;
+    double[]	diag;
+    double[]	g;
+    boolean[]	selected;
+    int[]	pivots;
+    double[]	t;
+    double[]	beta;
+    double[][]	vectors;
+    double	score;
+    double	bestScore;
+    double	pivot;
+    double	value;
+    int		n;
+    int		m;
+    int		best;
+    int		i;
+    int		j;
+    int		r;
+
+    n = m_Vectors.length;
+    if (maxVectors >= n)
+      return this;
+
+    l        = new double[n][maxVectors];
+    diag     = new double[n];
+    selected = new boolean[n];
+    pivots   = new int[maxVectors];
+    g        = new double[n];
+    t        = new double[maxVectors];
+    // g = K alpha, using the symmetry of the kernel matrix (upper triangle only)
+    for (i = 0; i < n; i++) {
+      diag[i] = m_Kernel.k(m_Vectors[i], m_Vectors[i]);
+      g[i]   += m_Coefficients[i] * diag[i];
+      for (j = i + 1; j < n; j++) {
+	value = m_Kernel.k(m_Vectors[i], m_Vectors[j]);
+	g[i] += m_Coefficients[j] * value;
+	g[j] += m_Coefficients[i] * value;
+      }
+    }
+
+    // pivoted incomplete Cholesky; g holds the inner products of the residual
+    // weight vector with the residual vectors, t the weight vector in the
+    // Cholesky basis
+    m = 0;
+    while (m < maxVectors) {
+      best      = -1;
+      bestScore = 0.0;
+      for (i = 0; i < n; i++) {
+	if (selected[i] || (diag[i] <= 1e-12))
+	  continue;
+	score = g[i] * g[i] / diag[i];
+	if (score > bestScore) {
+	  bestScore = score;
+	  best      = i;
+	}
+      }
+      if (best == -1)
+	break;
+
+      selected[best] = true;
+      pivots[m]      = best;
+      pivot          = Math.sqrt(diag[best]);
+      for (i = 0; i < n; i++) {
+	value = m_Kernel.k(m_Vectors[i], m_Vectors[best]);
+	for (j = 0; j < m; j++)
+	  value -= l[i][j] * l[best][j];
+	l[i][m]  = value / pivot;
+	diag[i] -= l[i][m] * l[i][m];
+      }
+      for (i = 0; i < n; i++)
+	t[m] += m_Coefficients[i] * l[i][m];
+      for (i = 0; i < n; i++)
+	g[i] -= l[i][m] * t[m];
+      m++;
+    }
+
+    // project weight vector: solve R^T beta = L^T alpha, R = rows of L at the pivots
+    beta = new double[m];
+    for (j = m - 1; j >= 0; j--) {
+      value = t[j];
+      for (r = j + 1; r < m; r++)
+	value -= l[pivots[r]][j] * beta[r];
+      beta[j] = value / l[pivots[j]][j];
+    }
+
+    vectors = new double[m][];
+    for (j = 0; j < m; j++)
+      vectors[j] = m_Vectors[pivots[j]];
+
+    return new KernelExpansion(vectors, beta, m_Bias, m_Kernel);
+  }
+
+  /**
+   * Computes the sum of squared differences between the decision values of
+   * this expansion and the other one on the given rows.
+   *
+   * @param other	the expansion to compare with
+   * @param x		the rows to evaluate
+   * @return		the sum of squared differences
+   */
+  public double squaredError(KernelExpansion other, double[][] x) {
+    double	result;
+    double	diff;
+    int		i;
+
+    result = 0.0;
+    for (i = 0; i < x.length; i++) {
+      diff    = predict(x[i]) - other.predict(x[i]);
+      result += diff * diff;
+    }
+
+    return result;
+  }
+}
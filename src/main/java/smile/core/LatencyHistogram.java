@@ -0,0 +1,267 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LatencyHistogram.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nano seconds, using log-linear
+ * buckets (like HDR histograms): values below 16 get their own bucket,
+ * every power of two above is split into 16 linear sub-buckets. This
+ * bounds the relative error of the reported percentiles to about 3%, with
+ * a fixed number of buckets for the whole range of long values.
+ *
+ * @author agent (agent at local)
+ */
+public class LatencyHistogram {
+
+  /** the number of bits for the sub-buckets. */
+  public static final int SUB_BITS = 4;
+
+  /** the number of sub-buckets per power of two. */
+  public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  /** the total number of buckets. */
+  public static final int NUM_BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+  /**
+   * Immutable copy of the histogram.
+   */
+  public static class Snapshot {
+
+    /** the bucket counts. */
+    protected long[] m_Counts;
+
+    /** the number of values. */
+    protected long m_Count;
+
+    /** the sum of the values. */
+    protected long m_Sum;
+
+    /** the largest value. */
+    protected long m_Max;
+
+    /**
+     * Initializes the snapshot.
+     *
+     * @param counts	the bucket counts
+     * @param sum	the sum of the values
+     * @param max	the largest value
+     */
+    protected Snapshot(long[] counts, long sum, long max) {
+      m_Counts = counts;
+      m_Sum    = sum;
+      m_Max    = max;
+      for (long count: counts)
+	m_Count += count;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return		the number
+     */
+    public long getCount() {
+      return m_Count;
+    }
+
+    /**
+     * Returns the average value.
+     *
+     * @return		the average in nano seconds, NaN if no values
+     */
+    public double getMean() {
+      if (m_Count == 0)
+	return Double.NaN;
+      return (double) m_Sum / m_Count;
+    }
+
+    /**
+     * Returns the largest value.
+     *
+     * @return		the value in nano seconds
+     */
+    public long getMax() {
+      return m_Max;
+    }
+
+    /**
+     * Returns the percentile.
+     *
+     * @param percentile	the percentile (0-100)
+     * @return			the value in nano seconds (middle of the bucket), NaN if no values
+     */
+    public double getPercentile(double percentile) {
+      long	rank;
+      long	seen;
+      int	i;
+
+      if (m_Count == 0)
+	return Double.NaN;
+
+      rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * m_Count));
+      seen = 0;
+      for (i = 0; i < m_Counts.length; i++) {
+	seen += m_Counts[i];
+	if (seen >= rank)
+	  return Math.min(m_Max, (lowerBound(i) + upperBound(i)) / 2.0);
+      }
+
+      return m_Max;
+    }
+
+    /**
+     * Returns a short description of the snapshot.
+     *
+     * @return		the description (microsec)
+     */
+    @Override
+    public String toString() {
+      return "count=" + getCount()
+	+ ", mean=" + format(getMean())
+	+ ", p50=" + format(getPercentile(50))
+	+ ", p95=" + format(getPercentile(95))
+	+ ", p99=" + format(getPercentile(99))
+	+ ", p99.9=" + format(getPercentile(99.9))
+	+ ", max=" + format(getMax())
+	+ " (us)";
+    }
+
+    /**
+     * Formats the nano seconds as micro seconds.
+     *
+     * @param nanos	the value to format
+     * @return		the formatted value
+     */
+    protected static String format(double nanos) {
+      if (Double.isNaN(nanos))
+	return "NaN";
+      return String.format(Locale.ENGLISH, "%.2f", nanos / 1000.0);
+    }
+  }
+
+  /** the bucket counts. */
+  protected AtomicLongArray m_Counts;
+
+  /** the sum of the values. */
+  protected AtomicLong m_Sum;
+
+  /** the largest value. */
+  protected AtomicLong m_Max;
+
+  /**
+   * Initializes the histogram.
+   */
+  public LatencyHistogram() {
+    m_Counts = new AtomicLongArray(NUM_BUCKETS);
+    m_Sum    = new AtomicLong();
+    m_Max    = new AtomicLong();
+  }
+
+  /**
+   * Returns the bucket for the value.
+   *
+   * @param value	the value
+   * @return		the bucket index
+   */
+  public static int bucket(long value) {
+    int		exp;
+
+    if (value < SUB_BUCKETS)
+      return (int) Math.max(0, value);
+    exp = 63 - Long.numberOfLeadingZeros(value);
+    return SUB_BUCKETS + (exp - SUB_BITS) * SUB_BUCKETS + (int) ((value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1));
+  }
+
+  /**
+   * Returns the smallest value of the bucket.
+   *
+   * @param bucket	the bucket index
+   * @return		the value
+   */
+  public static long lowerBound(int bucket) {
+    int		exp;
+
+    if (bucket < SUB_BUCKETS)
+      return bucket;
+    exp = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+    return ((long) (SUB_BUCKETS + (bucket % SUB_BUCKETS))) << (exp - SUB_BITS);
+  }
+
+  /**
+   * Returns the largest value of the bucket.
+   *
+   * @param bucket	the bucket index
+   * @return		the value
+   */
+  public static long upperBound(int bucket) {
+    if (bucket == NUM_BUCKETS - 1)
+      return Long.MAX_VALUE;
+    return lowerBound(bucket + 1) - 1;
+  }
+
+  /**
+   * Records the value.
+   *
+   * @param nanos	the latency in nano seconds
+   */
+  public void record(long nanos) {
+    long	max;
+
+    m_Counts.incrementAndGet(bucket(nanos));
+    m_Sum.addAndGet(nanos);
+    max = m_Max.get();
+    while ((nanos > max) && !m_Max.compareAndSet(max, nanos))
+      max = m_Max.get();
+  }
+
+  /**
+   * Returns a copy of the current state. Not atomic with respect to
+   * concurrent recording, ie values recorded meanwhile may be partially
+   * reflected.
+   *
+   * @return		the snapshot
+   */
+  public Snapshot snapshot() {
+    long[]	counts;
+    int		i;
+
+    counts = new long[NUM_BUCKETS];
+    for (i = 0; i < counts.length; i++)
+      counts[i] = m_Counts.get(i);
+
+    return new Snapshot(counts, m_Sum.get(), m_Max.get());
+  }
+
+  /**
+   * Removes all values.
+   */
+  public void reset() {
+    int		i;
+
+    for (i = 0; i < NUM_BUCKETS; i++)
+      m_Counts.set(i, 0);
+    m_Sum.set(0);
+    m_Max.set(0);
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelHolder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.io.File;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the model currently used for scoring and replaces it atomically.
+ * New models get deserialized and warmed up (see {@link ModelWarmup}) in a
+ * background thread before
+ * they are swapped in. Callers obtain the current model via {@link #get()},
+ * which never blocks, and keep using that instance for the duration of
+ * their request, ie in-flight predictions complete on the old model.
+ * <br>
+ * Models whose training structure differs from the current one get
+ * rejected, as clients would have to change the format of their rows.
+ *
+ * @author agent (agent at local)
+ */
+public class ModelHolder {
+
+  /** the current model. */
+  protected AtomicReference<ModelScorer> m_Current;
+
+  /** the number of decimals in the output. */
+  protected int m_NumDecimals;
+
+  /** for warming up new models, null to turn off. */
+  protected ModelWarmup m_Warmup;
+
+  /** for loading models in the background. */
+  protected ScheduledExecutorService m_Loader;
+
+  /** the number of swaps. */
+  protected AtomicLong m_NumSwaps;
+
+  /** the time in msec it took to load the last model. */
+  protected volatile long m_LoadTime;
+
+  /** the outcome of warming up the last model. */
+  protected volatile ModelWarmup.Result m_LastWarmup;
+
+  /** the timestamp of the last swap. */
+  protected volatile long m_LastSwap;
+
+  /** the error of the last load attempt, null if successful. */
+  protected volatile Exception m_LastError;
+
+  /** the timestamp of the model file that got checked last (watch mode). */
+  protected volatile long m_LastModified;
+
+  /**
+   * Initializes the holder.
+   *
+   * @param numDecimals	the number of decimals in the output
+   */
+  public ModelHolder(int numDecimals) {
+    m_Current          = new AtomicReference<ModelScorer>();
+    m_NumDecimals      = numDecimals;
+    m_Warmup           = new ModelWarmup();
+    m_NumSwaps         = new AtomicLong();
+    m_Loader           = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+	Thread	result;
+	result = new Thread(r, ModelHolder.class.getSimpleName() + "-loader");
+	result.setDaemon(true);
+	return result;
+      }
+    });
+  }
+
+  /**
+   * Initializes the holder with the model.
+   *
+   * @param scorer	the initial model
+   */
+  public ModelHolder(ModelScorer scorer) {
+    this(scorer.getNumDecimals());
+    swap(scorer);
+  }
+
+  /**
+   * Sets the warmup for new models.
+   *
+   * @param value	the warmup, null to turn off
+   */
+  public void setWarmup(ModelWarmup value) {
+    m_Warmup = value;
+  }
+
+  /**
+   * Returns the warmup for new models.
+   *
+   * @return		the warmup, null if turned off
+   */
+  public ModelWarmup getWarmup() {
+    return m_Warmup;
+  }
+
+  /**
+   * Returns the current model. Never blocks.
+   *
+   * @return		the model, null if none loaded yet
+   */
+  public ModelScorer get() {
+    return m_Current.get();
+  }
+
+  /**
+   * Replaces the current model.
+   *
+   * @param scorer	the new model
+   * @return		the previous model, null if none
+   * @throws IllegalArgumentException	if the training structure differs
+   */
+  public ModelScorer swap(ModelScorer scorer) {
+    ModelScorer	current;
+    ModelScorer	result;
+    String	msg;
+
+    current = m_Current.get();
+    if (current != null) {
+      msg = current.getHeader().equalHeadersMsg(scorer.getHeader());
+      if (msg != null)
+	throw new IllegalArgumentException("Training structure of new model differs: " + msg);
+    }
+    result = m_Current.getAndSet(scorer);
+    m_LastSwap = System.currentTimeMillis();
+    if (result != null)
+      m_NumSwaps.incrementAndGet();
+
+    return result;
+  }
+
+  /**
+   * Loads, warms up and swaps in the model in the calling thread.
+   *
+   * @param file	the file with the serialized model
+   * @return		the new model
+   * @throws Exception	if loading, warming up or swapping fails
+   */
+  public ModelScorer load(String file) throws Exception {
+    ModelScorer		result;
+    ModelWarmup.Result	warmup;
+    long		start;
+    long		loadTime;
+
+    try {
+      start    = System.currentTimeMillis();
+      result   = ModelScorer.load(file, m_NumDecimals);
+      loadTime = System.currentTimeMillis() - start;
+      warmup   = (m_Warmup == null) ? null : m_Warmup.warmup(result);
+      swap(result);
+      m_LoadTime   = loadTime;
+      m_LastWarmup = warmup;
+      m_LastError  = null;
+    }
+    catch (Exception e) {
+      m_LastError = e;
+      throw e;
+    }
+
+    return result;
+  }
+
+  /**
+   * Loads, warms up and swaps in the model in the background. The current
+   * model stays in use until then, or if loading fails.
+   *
+   * @param file	the file with the serialized model
+   * @return		the future of the new model
+   */
+  public Future<ModelScorer> reload(final String file) {
+    return m_Loader.submit(new Callable<ModelScorer>() {
+      @Override
+      public ModelScorer call() throws Exception {
+	return load(file);
+      }
+    });
+  }
+
+  /**
+   * Reloads the model file in the calling thread if its modification
+   * timestamp changed since the last check. The timestamp gets recorded
+   * whether loading succeeds or not, so a failed file (eg a partially
+   * written one) only gets tried again once it changes again.
+   *
+   * @param file	the file with the serialized model
+   * @return		true if a new model got swapped in
+   */
+  protected boolean check(String file) {
+    long	modified;
+
+    modified = new File(file).lastModified();
+    if ((modified == 0) || (modified == m_LastModified))
+      return false;
+    m_LastModified = modified;
+    try {
+      load(file);
+      return true;
+    }
+    catch (Exception e) {
+      System.err.println("Failed to reload model from " + file + ": " + e);
+      return false;
+    }
+  }
+
+  /**
+   * Checks the model file periodically and reloads it in the background
+   * whenever its modification timestamp changes (see {@link #check(String)}).
+   *
+   * @param file	the file with the serialized model
+   * @param interval	the interval in seconds
+   */
+  public void watch(final String file, int interval) {
+    m_LastModified = new File(file).lastModified();
+    m_Loader.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+	check(file);
+      }
+    }, interval, interval, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops the background loading.
+   */
+  public void shutdown() {
+    m_Loader.shutdownNow();
+  }
+
+  /**
+   * Returns the number of times the model got replaced.
+   *
+   * @return		the number of swaps
+   */
+  public long getNumSwaps() {
+    return m_NumSwaps.get();
+  }
+
+  /**
+   * Returns the time it took to deserialize the last loaded model.
+   *
+   * @return		the time in msec
+   */
+  public long getLoadTime() {
+    return m_LoadTime;
+  }
+
+  /**
+   * Returns the time it took to warm up the last loaded model.
+   *
+   * @return		the time in msec
+   */
+  public long getWarmupTime() {
+    ModelWarmup.Result	warmup;
+
+    warmup = m_LastWarmup;
+    return (warmup == null) ? 0 : warmup.time;
+  }
+
+  /**
+   * Returns the outcome of warming up the last loaded model.
+   *
+   * @return		the outcome, null if not warmed up
+   */
+  public ModelWarmup.Result getLastWarmup() {
+    return m_LastWarmup;
+  }
+
+  /**
+   * Returns the error of the last load attempt.
+   *
+   * @return		the error, null if successful
+   */
+  public Exception getLastError() {
+    return m_LastError;
+  }
+
+  /**
+   * Returns the statistics of the holder.
+   *
+   * @return		the statistics, one "key: value" per line
+   */
+  public String getStatistics() {
+    StringBuilder	result;
+    ModelScorer		current;
+
+    current = m_Current.get();
+    result  = new StringBuilder();
+    result.append("model: ").append(current == null ? "-" : current.getModel().getClass().getName()).append("\n");
+    result.append("swaps: ").append(getNumSwaps()).append("\n");
+    result.append("last swap: ").append(m_LastSwap == 0 ? "-" : new Date(m_LastSwap).toString()).append("\n");
+    result.append("load time (ms): ").append(getLoadTime()).append("\n");
+    result.append("warmup: ").append(m_LastWarmup == null ? "-" : m_LastWarmup.toString()).append("\n");
+    if (m_LastError != null)
+      result.append("last load error: ").append(m_LastError).append("\n");
+
+    return result.toString();
+  }
+}
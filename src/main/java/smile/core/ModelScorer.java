@@ -0,0 +1,429 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelScorer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.classification.AbstractSmileClassifier;
+import smile.clustering.AbstractSmileClusterer;
+import smile.regression.AbstractSmileRegressor;
+import weka.classifiers.AbstractClassifier;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SerializationHelper;
+import weka.core.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scores rows in text form (comma-separated values in the order of the
+ * training attributes) with a built SMILE classifier, regressor or
+ * clusterer. The class value can be omitted or supplied (it gets ignored).
+ * <br>
+ * Results are comma-separated as well: the label followed by the class
+ * distribution (optional) for classifiers, the prediction for regressors
+ * and the cluster index for clusterers.
+ *
+ * @author agent (agent at local)
+ */
+public class ModelScorer {
+
+  /** the model. */
+  protected Object m_Model;
+
+  /** the training data structure. */
+  protected Instances m_Header;
+
+  /** the number of decimals in the output. */
+  protected int m_NumDecimals;
+
+  /** whether to output the class distribution as well (classifiers). */
+  protected boolean m_OutputDistribution;
+
+  /**
+   * Initializes the scorer.
+   *
+   * @param model	the built classifier, regressor or clusterer
+   * @param numDecimals	the number of decimals in the output
+   * @throws IllegalArgumentException	if the model is not supported or not built
+   */
+  public ModelScorer(Object model, int numDecimals) {
+    SmileDatasetHeader	header;
+
+    if (model instanceof AbstractSmileClassifier)
+      header = ((AbstractSmileClassifier) model).getHeader();
+    else if (model instanceof AbstractSmileRegressor)
+      header = ((AbstractSmileRegressor) model).getHeader();
+    else if (model instanceof AbstractSmileClusterer)
+      header = ((AbstractSmileClusterer) model).getHeader();
+    else
+      throw new IllegalArgumentException("Unsupported model: " + (model == null ? "null" : model.getClass().getName()));
+    if (header == null)
+      throw new IllegalArgumentException("Model has not been built: " + model.getClass().getName());
+
+    m_Model              = model;
+    m_Header             = new Instances(header.getInstances(), 0);
+    m_NumDecimals        = numDecimals;
+    m_OutputDistribution = true;
+
+    // initialize lazily created dataset before any concurrent use
+    header.getDataset();
+  }
+
+  /**
+   * Deserializes the model from the file.
+   *
+   * @param file	the file with the serialized model
+   * @param numDecimals	the number of decimals in the output
+   * @return		the scorer
+   * @throws Exception	if loading fails or model not supported
+   */
+  public static ModelScorer load(String file, int numDecimals) throws Exception {
+    return new ModelScorer(SerializationHelper.read(file), numDecimals);
+  }
+
+  /**
+   * Returns the model.
+   *
+   * @return		the model
+   */
+  public Object getModel() {
+    return m_Model;
+  }
+
+  /**
+   * Returns the structure of the training data.
+   *
+   * @return		the header
+   */
+  public Instances getHeader() {
+    return m_Header;
+  }
+
+  /**
+   * Returns the number of decimals in the output.
+   *
+   * @return		the number of decimals
+   */
+  public int getNumDecimals() {
+    return m_NumDecimals;
+  }
+
+  /**
+   * Sets whether to output the class distribution after the label
+   * (classifiers only).
+   *
+   * @param value	true if to output the distribution
+   */
+  public void setOutputDistribution(boolean value) {
+    m_OutputDistribution = value;
+  }
+
+  /**
+   * Returns whether to output the class distribution after the label
+   * (classifiers only).
+   *
+   * @return		true if to output the distribution
+   */
+  public boolean getOutputDistribution() {
+    return m_OutputDistribution;
+  }
+
+  /**
+   * Returns the number of input values expected per row (ie excluding the
+   * class attribute).
+   *
+   * @return		the number of inputs
+   */
+  public int numInputs() {
+    return m_Header.numAttributes() - (m_Header.classIndex() > -1 ? 1 : 0);
+  }
+
+  /**
+   * Maps an instance with a different structure onto the training structure,
+   * matching attributes by name and nominal values by label. Attributes
+   * missing from the instance as well as unknown labels become missing.
+   *
+   * @param inst	the instance to map
+   * @return		the mapped instance
+   */
+  public Instance map(Instance inst) {
+    Instances	data;
+    double[]	values;
+    Attribute	att;
+    Attribute	other;
+    int		i;
+    int		index;
+
+    data   = inst.dataset();
+    values = new double[m_Header.numAttributes()];
+    for (i = 0; i < m_Header.numAttributes(); i++) {
+      values[i] = Utils.missingValue();
+      att       = m_Header.attribute(i);
+      other     = data.attribute(att.name());
+      if ((i == m_Header.classIndex()) || (other == null) || inst.isMissing(other.index()))
+	continue;
+      if (att.isNominal()) {
+	if (other.isNominal() || other.isString()) {
+	  index = att.indexOfValue(inst.stringValue(other.index()));
+	  if (index > -1)
+	    values[i] = index;
+	}
+      }
+      else {
+	values[i] = inst.value(other.index());
+      }
+    }
+
+    return new DenseInstance(inst.weight(), values);
+  }
+
+  /**
+   * Splits a row of comma-separated values. Values can be quoted with
+   * single or double quotes, in which case they can contain commas; inside
+   * quotes, the quote character can be escaped by doubling it or with a
+   * backslash, like in Weka's CSV files (backslash escapes \n, \t, \r,
+   * \\, \' and \"). Whitespace around values gets removed. Unquoted '?'
+   * and empty values are missing.
+   *
+   * @param line	the row
+   * @return		the values, null for missing values
+   * @throws IllegalArgumentException	if a quote is not closed or followed by other characters
+   */
+  public static String[] split(String line) {
+    List<String>	result;
+    StringBuilder	value;
+    char		quote;
+    char		c;
+    int			i;
+    int			start;
+
+    result = new ArrayList<String>();
+    i      = 0;
+    while (true) {
+      // skip leading whitespace
+      while ((i < line.length()) && Character.isWhitespace(line.charAt(i)))
+	i++;
+
+      if ((i < line.length()) && ((line.charAt(i) == '"') || (line.charAt(i) == '\''))) {
+	quote = line.charAt(i);
+	value = new StringBuilder();
+	i++;
+	while (true) {
+	  if (i >= line.length())
+	    throw new IllegalArgumentException("Unterminated quote in: " + line);
+	  c = line.charAt(i);
+	  if (c == '\\') {
+	    if (i + 1 >= line.length())
+	      throw new IllegalArgumentException("Unterminated quote in: " + line);
+	    c = line.charAt(++i);
+	    switch (c) {
+	      case 'n':
+		value.append('\n');
+		break;
+	      case 't':
+		value.append('\t');
+		break;
+	      case 'r':
+		value.append('\r');
+		break;
+	      default:
+		value.append(c);
+	    }
+	  }
+	  else if (c == quote) {
+	    if ((i + 1 < line.length()) && (line.charAt(i + 1) == quote)) {
+	      value.append(quote);
+	      i++;
+	    }
+	    else {
+	      i++;
+	      break;
+	    }
+	  }
+	  else {
+	    value.append(c);
+	  }
+	  i++;
+	}
+	// only whitespace allowed up to the next comma
+	while ((i < line.length()) && (line.charAt(i) != ',')) {
+	  if (!Character.isWhitespace(line.charAt(i)))
+	    throw new IllegalArgumentException("Unexpected character after closing quote at position " + i + ": " + line);
+	  i++;
+	}
+	result.add(value.toString());
+      }
+      else {
+	start = i;
+	while ((i < line.length()) && (line.charAt(i) != ','))
+	  i++;
+	value = new StringBuilder(line.substring(start, i).trim());
+	if ((value.length() == 0) || value.toString().equals("?"))
+	  result.add(null);
+	else
+	  result.add(value.toString());
+      }
+
+      if (i >= line.length())
+	break;
+      // skip the comma
+      i++;
+    }
+
+    return result.toArray(new String[result.size()]);
+  }
+
+  /**
+   * Turns a row of comma-separated values into an instance. Values can be
+   * quoted, use '?' for missing values (see {@link #split(String)}).
+   *
+   * @param line	the row
+   * @return		the instance
+   * @throws Exception	if parsing fails
+   */
+  public Instance parse(String line) throws Exception {
+    String[]	parts;
+    double[]	values;
+    Attribute	att;
+    String	value;
+    boolean	withClass;
+    int		i;
+    int		n;
+
+    parts     = split(line);
+    withClass = (parts.length == m_Header.numAttributes());
+    if (!withClass && (parts.length != numInputs()))
+      throw new IllegalArgumentException(
+	"Expected " + numInputs() + " values (or " + m_Header.numAttributes() + " with class), got " + parts.length + ": " + line);
+
+    values = new double[m_Header.numAttributes()];
+    n      = 0;
+    for (i = 0; i < m_Header.numAttributes(); i++) {
+      att = m_Header.attribute(i);
+      if (i == m_Header.classIndex()) {
+	values[i] = Utils.missingValue();
+	if (withClass)
+	  n++;
+	continue;
+      }
+      value = parts[n++];
+      if (value == null) {
+	values[i] = Utils.missingValue();
+      }
+      else if (att.isNominal()) {
+	values[i] = att.indexOfValue(value);
+	if (values[i] == -1)
+	  throw new IllegalArgumentException("Unknown label '" + value + "' for attribute '" + att.name() + "'!");
+      }
+      else if (att.isDate()) {
+	// the date format is shared by all copies of the attribute
+	synchronized(att) {
+	  values[i] = att.parseDate(value);
+	}
+      }
+      else {
+	values[i] = Double.parseDouble(value);
+      }
+    }
+
+    return new DenseInstance(1.0, values);
+  }
+
+  /**
+   * Scores the instances.
+   *
+   * @param data	the instances to score, using the training structure
+   * @return		the results
+   * @throws Exception	if scoring fails
+   */
+  public String[] score(Instances data) throws Exception {
+    String[]		result;
+    double[][]		dists;
+    int[]		clusters;
+    StringBuilder	line;
+    int			i;
+    int			n;
+
+    result = new String[data.numInstances()];
+
+    if (m_Model instanceof AbstractSmileClusterer) {
+      clusters = ((AbstractSmileClusterer) m_Model).clusterInstances(data);
+      for (i = 0; i < clusters.length; i++)
+	result[i] = "" + clusters[i];
+      return result;
+    }
+
+    // labels only from a non-probabilistic model: no need for class distributions
+    if ((m_Model instanceof AbstractSmileClassifier) && !m_OutputDistribution && !((AbstractSmileClassifier) m_Model).isProbabilistic()) {
+      for (i = 0; i < data.numInstances(); i++)
+	result[i] = m_Header.classAttribute().value(((AbstractSmileClassifier) m_Model).predictIndex(data.instance(i)));
+      return result;
+    }
+
+    // uses more efficient batch prediction where available
+    dists = ((AbstractClassifier) m_Model).distributionsForInstances(data);
+    for (i = 0; i < dists.length; i++) {
+      if (m_Model instanceof AbstractSmileRegressor) {
+	result[i] = Utils.doubleToString(dists[i][0], m_NumDecimals);
+      }
+      else {
+	line = new StringBuilder(m_Header.classAttribute().value(Utils.maxIndex(dists[i])));
+	if (m_OutputDistribution) {
+	  for (n = 0; n < dists[i].length; n++)
+	    line.append(",").append(Utils.doubleToString(dists[i][n], m_NumDecimals));
+	}
+	result[i] = line.toString();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Parses and scores the rows.
+   *
+   * @param lines	the rows
+   * @return		the results
+   * @throws Exception	if parsing or scoring fails
+   */
+  public String[] score(String[] lines) throws Exception {
+    Instances	data;
+
+    data = new Instances(m_Header, lines.length);
+    for (String line: lines)
+      data.add(parse(line));
+
+    return score(data);
+  }
+
+  /**
+   * Parses and scores the row.
+   *
+   * @param line	the row
+   * @return		the result
+   * @throws Exception	if parsing or scoring fails
+   */
+  public String score(String line) throws Exception {
+    return score(new String[]{line})[0];
+  }
+}
@@ -0,0 +1,401 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelWarmup.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.classification.AbstractSmileClassifier;
+import smile.clustering.AbstractSmileClusterer;
+import smile.regression.AbstractSmileRegressor;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SerializationHelper;
+import weka.core.Utils;
+import weka.core.converters.ConverterUtils.DataSource;
+
+import java.util.Random;
+
+/**
+ * Warms up a freshly deserialized SMILE classifier, regressor or clusterer
+ * by replaying rows through the full prediction path (Weka instance,
+ * conversion, SMILE prediction), until the JIT compiler has caught up.
+ * <br>
+ * Rows get scored in rounds; the warmup stops once the average latency per
+ * row changed by less than the tolerance for the specified number of
+ * consecutive rounds, or when the maximum time is up. Rows are either
+ * synthetic (random values for the training structure) or taken from
+ * stored sample data, which gets mapped onto the training structure by
+ * attribute name.
+ * <br>
+ * The prediction cache of the model (if any) gets bypassed during the
+ * warmup and starts out empty afterwards.
+ *
+ * @author agent (agent at local)
+ */
+public class ModelWarmup {
+
+  /**
+   * The outcome of a warmup.
+   */
+  public static class Result {
+
+    /** the number of rounds. */
+    public int rounds;
+
+    /** the number of predictions made. */
+    public long predictions;
+
+    /** the time the warmup took (msec). */
+    public long time;
+
+    /** the average latency per row in the first round (microsec). */
+    public double initialLatency;
+
+    /** the average latency per row in the last round (microsec). */
+    public double finalLatency;
+
+    /** whether the latency stabilized (otherwise the time ran out). */
+    public boolean stable;
+
+    /**
+     * Returns a short description of the outcome.
+     *
+     * @return		the description
+     */
+    @Override
+    public String toString() {
+      return (stable ? "stable" : "not stable") + " after " + rounds + " rounds/" + predictions + " predictions in " + time + "ms"
+	+ ", latency/row: " + Utils.doubleToString(initialLatency, 2) + "us -> " + Utils.doubleToString(finalLatency, 2) + "us";
+    }
+  }
+
+  /** the number of rows per round. */
+  protected int m_RoundSize;
+
+  /** the relative change in latency that counts as stable. */
+  protected double m_Tolerance;
+
+  /** the number of consecutive stable rounds required. */
+  protected int m_StableRounds;
+
+  /** the maximum time in msec. */
+  protected long m_MaxTime;
+
+  /** the stored sample rows, null for synthetic ones. */
+  protected Instances m_Data;
+
+  /**
+   * Initializes the warmup with the default settings.
+   */
+  public ModelWarmup() {
+    m_RoundSize    = 500;
+    m_Tolerance    = 0.1;
+    m_StableRounds = 3;
+    m_MaxTime      = 30000;
+  }
+
+  /**
+   * Sets the number of rows per round.
+   *
+   * @param value	the number of rows
+   */
+  public void setRoundSize(int value) {
+    m_RoundSize = Math.max(1, value);
+  }
+
+  /**
+   * Returns the number of rows per round.
+   *
+   * @return		the number of rows
+   */
+  public int getRoundSize() {
+    return m_RoundSize;
+  }
+
+  /**
+   * Sets the relative change in latency between rounds that counts as stable.
+   *
+   * @param value	the tolerance, eg 0.1 for 10%
+   */
+  public void setTolerance(double value) {
+    m_Tolerance = value;
+  }
+
+  /**
+   * Returns the relative change in latency between rounds that counts as stable.
+   *
+   * @return		the tolerance
+   */
+  public double getTolerance() {
+    return m_Tolerance;
+  }
+
+  /**
+   * Sets the number of consecutive stable rounds required.
+   *
+   * @param value	the number of rounds
+   */
+  public void setStableRounds(int value) {
+    m_StableRounds = Math.max(1, value);
+  }
+
+  /**
+   * Returns the number of consecutive stable rounds required.
+   *
+   * @return		the number of rounds
+   */
+  public int getStableRounds() {
+    return m_StableRounds;
+  }
+
+  /**
+   * Sets the maximum time for the warmup.
+   *
+   * @param value	the time in msec
+   */
+  public void setMaxTime(long value) {
+    m_MaxTime = value;
+  }
+
+  /**
+   * Returns the maximum time for the warmup.
+   *
+   * @return		the time in msec
+   */
+  public long getMaxTime() {
+    return m_MaxTime;
+  }
+
+  /**
+   * Sets the stored sample rows to replay.
+   *
+   * @param value	the rows, null for synthetic rows
+   */
+  public void setData(Instances value) {
+    m_Data = value;
+  }
+
+  /**
+   * Returns the stored sample rows to replay.
+   *
+   * @return		the rows, null for synthetic rows
+   */
+  public Instances getData() {
+    return m_Data;
+  }
+
+  /**
+   * Creates synthetic rows for the training structure: random labels for
+   * nominal attributes, standard normal values otherwise, missing class.
+   *
+   * @param header	the training structure
+   * @param numRows	the number of rows to create
+   * @param seed	the seed for the random values
+   * @return		the rows
+   */
+  public static Instances createRows(SmileDatasetHeader header, int numRows, long seed) {
+    Instances	result;
+    Instances	structure;
+    double[]	values;
+    Random	rand;
+    int		i;
+    int		n;
+
+    structure = header.getInstances();
+    rand      = new Random(seed);
+    result    = new Instances(structure, numRows);
+    for (i = 0; i < numRows; i++) {
+      values = new double[structure.numAttributes()];
+      for (n = 0; n < values.length; n++) {
+	if (n == structure.classIndex())
+	  values[n] = Utils.missingValue();
+	else if (structure.attribute(n).isNominal())
+	  values[n] = rand.nextInt(Math.max(1, structure.attribute(n).numValues()));
+	else
+	  values[n] = rand.nextGaussian();
+      }
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the rows for the round.
+   *
+   * @param scorer	for mapping the stored rows
+   * @param header	the training structure
+   * @param round	the round
+   * @return		the rows
+   */
+  protected Instances getRows(ModelScorer scorer, SmileDatasetHeader header, int round) {
+    Instances	result;
+    int		i;
+
+    // fresh synthetic rows every round
+    if ((m_Data == null) || (m_Data.numInstances() == 0))
+      return createRows(header, m_RoundSize, round);
+
+    result = new Instances(scorer.getHeader(), m_RoundSize);
+    for (i = 0; i < m_RoundSize; i++)
+      result.add(scorer.map(m_Data.instance((int) (((long) round * m_RoundSize + i) % m_Data.numInstances()))));
+
+    return result;
+  }
+
+  /**
+   * Scores the row via the single row prediction path.
+   *
+   * @param model	the model
+   * @param inst	the row
+   * @throws Exception	if prediction fails
+   */
+  protected void predict(Object model, Instance inst) throws Exception {
+    if (model instanceof AbstractSmileClusterer)
+      ((AbstractSmileClusterer) model).clusterInstance(inst);
+    else if (model instanceof AbstractSmileClassifier)
+      ((AbstractSmileClassifier) model).distributionForInstance(inst);
+    else
+      ((AbstractSmileRegressor) model).classifyInstance(inst);
+  }
+
+  /**
+   * Warms up the model.
+   *
+   * @param scorer	the scorer wrapping the model
+   * @return		the outcome
+   * @throws Exception	if prediction fails
+   */
+  public Result warmup(ModelScorer scorer) throws Exception {
+    Result		result;
+    Object		model;
+    SmileDatasetHeader	header;
+    Instances		rows;
+    int			cacheSize;
+    long		start;
+    long		roundStart;
+    double		latency;
+    double		prev;
+    int			stable;
+    int			i;
+
+    model     = scorer.getModel();
+    header    = null;
+    cacheSize = 0;
+    if (model instanceof AbstractSmileClassifier) {
+      header    = ((AbstractSmileClassifier) model).getHeader();
+      cacheSize = ((AbstractSmileClassifier) model).getPredictionCacheSize();
+      ((AbstractSmileClassifier) model).setPredictionCacheSize(0);
+    }
+    else if (model instanceof AbstractSmileRegressor) {
+      header    = ((AbstractSmileRegressor) model).getHeader();
+      cacheSize = ((AbstractSmileRegressor) model).getPredictionCacheSize();
+      ((AbstractSmileRegressor) model).setPredictionCacheSize(0);
+    }
+    else {
+      header = ((AbstractSmileClusterer) model).getHeader();
+    }
+
+    result = new Result();
+    start  = System.currentTimeMillis();
+    prev   = Double.NaN;
+    stable = 0;
+    try {
+      while (true) {
+	rows       = getRows(scorer, header, result.rounds);
+	roundStart = System.nanoTime();
+	for (i = 0; i < rows.numInstances(); i++)
+	  predict(model, rows.instance(i));
+	latency = (System.nanoTime() - roundStart) / 1000.0 / rows.numInstances();
+	// batch path, as used by the scoring tools
+	scorer.score(rows);
+
+	result.rounds++;
+	result.predictions += 2 * rows.numInstances();
+	if (result.rounds == 1)
+	  result.initialLatency = latency;
+	result.finalLatency = latency;
+
+	if (!Double.isNaN(prev) && (Math.abs(latency - prev) <= m_Tolerance * prev))
+	  stable++;
+	else
+	  stable = 0;
+	prev = latency;
+
+	if (stable >= m_StableRounds) {
+	  result.stable = true;
+	  break;
+	}
+	if (System.currentTimeMillis() - start >= m_MaxTime)
+	  break;
+      }
+    }
+    finally {
+      if (model instanceof AbstractSmileClassifier)
+	((AbstractSmileClassifier) model).setPredictionCacheSize(cacheSize);
+      else if (model instanceof AbstractSmileRegressor)
+	((AbstractSmileRegressor) model).setPredictionCacheSize(cacheSize);
+    }
+    result.time = System.currentTimeMillis() - start;
+
+    return result;
+  }
+
+  /**
+   * Loads and warms up a model from the command-line, outputting how long
+   * it took.
+   * <br>
+   * Options: -model file [-data file] [-round-size 500] [-tolerance 0.1]
+   * [-stable-rounds 3] [-max-time &lt;msec, 30000&gt;]
+   *
+   * @param args	the options
+   * @throws Exception	if loading or warming up fails
+   */
+  public static void main(String[] args) throws Exception {
+    ModelWarmup	warmup;
+    ModelScorer	scorer;
+    String	model;
+    String	value;
+    long	start;
+
+    model = Utils.getOption("model", args);
+    if (model.isEmpty()) {
+      System.err.println("Usage: " + ModelWarmup.class.getName() + " -model <file> [-data <file>] "
+	+ "[-round-size 500] [-tolerance 0.1] [-stable-rounds 3] [-max-time <msec, 30000>]");
+      System.exit(1);
+    }
+    warmup = new ModelWarmup();
+    if (!(value = Utils.getOption("data", args)).isEmpty())
+      warmup.setData(DataSource.read(value));
+    if (!(value = Utils.getOption("round-size", args)).isEmpty())
+      warmup.setRoundSize(Integer.parseInt(value));
+    if (!(value = Utils.getOption("tolerance", args)).isEmpty())
+      warmup.setTolerance(Double.parseDouble(value));
+    if (!(value = Utils.getOption("stable-rounds", args)).isEmpty())
+      warmup.setStableRounds(Integer.parseInt(value));
+    if (!(value = Utils.getOption("max-time", args)).isEmpty())
+      warmup.setMaxTime(Long.parseLong(value));
+
+    start  = System.currentTimeMillis();
+    scorer = new ModelScorer(SerializationHelper.read(model), 6);
+    System.out.println("Loaded in " + (System.currentTimeMillis() - start) + "ms");
+    System.out.println("Warmup: " + warmup.warmup(scorer));
+  }
+}
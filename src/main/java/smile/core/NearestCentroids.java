@@ -0,0 +1,418 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * NearestCentroids.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.io.Serializable;
+
+/**
+ * Assigns rows to their nearest centroid (squared Euclidean distance).
+ * <br>
+ * Batch assignment uses ||x - c||^2 = ||x||^2 - 2 x.c + ||c||^2 with
+ * precomputed centroid norms: the rows are processed in blocks that stay in
+ * the cache while all the centroids are streamed past them, each centroid
+ * getting multiplied with four rows at a time, and the argmin of
+ * ||c||^2 - 2 x.c is kept per row. Optionally, the batch computation uses
+ * single precision. Like SMILE's KMeans.predict, rows with missing values
+ * (NaN) get assigned to the first centroid; models that handle missing
+ * values differently (eg CLARANS, whose distance skips them) have to
+ * check for them via {@link #hasMissing(double[])} and predict such rows
+ * themselves.
+ * <br>
+ * If a {@link CentroidTree} proves to be effective on a sample of the data
+ * (see {@link #initTree(double[][])}), it gets used for exact lookup instead.
+ *
+ * @author agent (agent at local)
+ */
+public class NearestCentroids
+  implements Serializable {
+
+  private static final long serialVersionUID = -4519370431624932180L;
+
+  /** the number of rows per block. */
+  public static final int ROW_BLOCK = 64;
+
+  /** the maximum number of sample rows for evaluating the tree. */
+  public static final int TREE_SAMPLE_SIZE = 256;
+
+  /** the maximum average fraction of centroids visited by the tree search for it to be used. */
+  public static final double TREE_MAX_VISITED = 0.25;
+
+  /** the centroids. */
+  protected double[][] m_Centroids;
+
+  /** the squared norms of the centroids. */
+  protected double[] m_SquaredNorms;
+
+  /** the tree for looking up the nearest centroid, null if brute force. */
+  protected CentroidTree m_Tree;
+
+  /** whether to use single precision for batch assignment. */
+  protected boolean m_FloatPrecision;
+
+  /** the centroids in single precision (lazily initialized). */
+  protected transient float[][] m_FloatCentroids;
+
+  /** the squared norms in single precision (lazily initialized). */
+  protected transient float[] m_FloatSquaredNorms;
+
+  /**
+   * Initializes the search.
+   *
+   * @param centroids		the centroids
+   * @param floatPrecision	whether to use single precision in batch assignment
+   */
+  public NearestCentroids(double[][] centroids, boolean floatPrecision) {
+    int		i;
+    int		n;
+
+    m_Centroids      = centroids;
+    m_FloatPrecision = floatPrecision;
+    m_SquaredNorms   = new double[centroids.length];
+    for (i = 0; i < centroids.length; i++) {
+      for (n = 0; n < centroids[i].length; n++)
+	m_SquaredNorms[i] += centroids[i][n] * centroids[i][n];
+    }
+  }
+
+  /**
+   * Returns the centroids.
+   *
+   * @return		the centroids
+   */
+  public double[][] getCentroids() {
+    return m_Centroids;
+  }
+
+  /**
+   * Builds a tree over the centroids and keeps it if on average the search
+   * only has to look at a small fraction of the centroids for rows of the
+   * sample (which is not the case with many dimensions).
+   *
+   * @param data	the data to draw the sample rows from
+   * @return		true if the tree is used
+   * @see		#TREE_MAX_VISITED
+   */
+  public boolean initTree(double[][] data) {
+    CentroidTree	tree;
+    double[][]		sample;
+    int			i;
+
+    m_Tree = null;
+    if ((m_Centroids.length <= CentroidTree.LEAF_SIZE) || (data.length == 0))
+      return false;
+
+    sample = new double[Math.min(TREE_SAMPLE_SIZE, data.length)][];
+    for (i = 0; i < sample.length; i++)
+      sample[i] = data[(int) ((long) i * data.length / sample.length)];
+    tree = new CentroidTree(m_Centroids);
+    if (tree.visitedFraction(sample) <= TREE_MAX_VISITED)
+      m_Tree = tree;
+
+    return (m_Tree != null);
+  }
+
+  /**
+   * Returns whether a tree is used for lookup.
+   *
+   * @return		true if tree is used
+   */
+  public boolean usesTree() {
+    return (m_Tree != null);
+  }
+
+  /**
+   * Returns whether single precision is used in batch assignment.
+   *
+   * @return		true if single precision
+   */
+  public boolean getFloatPrecision() {
+    return m_FloatPrecision;
+  }
+
+  /**
+   * Checks whether the row contains missing values (NaN).
+   *
+   * @param x		the row
+   * @return		true if at least one value is missing
+   */
+  public static boolean hasMissing(double[] x) {
+    for (double v: x) {
+      if (Double.isNaN(v))
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the nearest centroid (first one in case of ties),
+   * using the plain squared distance.
+   *
+   * @param x		the row
+   * @return		the index of the centroid
+   */
+  public int nearest(double[] x) {
+    if (m_Tree != null)
+      return m_Tree.nearest(x);
+
+    return nearestBruteForce(x);
+  }
+
+  /**
+   * Returns the index of the nearest centroid (first one in case of ties),
+   * looking at all the centroids. Like SMILE's KMeans.predict, rows with
+   * missing values (NaN) get assigned to the first centroid.
+   *
+   * @param x		the row
+   * @return		the index of the centroid
+   */
+  protected int nearestBruteForce(double[] x) {
+    double	dist;
+    double	diff;
+    double	min;
+    int		result;
+    int		i;
+    int		n;
+
+    result = 0;
+    min    = Double.POSITIVE_INFINITY;
+    for (i = 0; i < m_Centroids.length; i++) {
+      dist = 0.0;
+      for (n = 0; n < x.length; n++) {
+	diff  = x[n] - m_Centroids[i][n];
+	dist += diff * diff;
+      }
+      if (dist < min) {
+	min    = dist;
+	result = i;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the indices of the nearest centroids for the rows, using the
+   * tree if available, otherwise the computation in blocks of rows.
+   *
+   * @param x		the rows
+   * @return		the indices of the centroids
+   */
+  public int[] nearest(double[][] x) {
+    int[]	result;
+    int		start;
+    int		end;
+
+    result = new int[x.length];
+    if (m_Tree != null) {
+      for (start = 0; start < x.length; start++)
+	result[start] = m_Tree.nearest(x[start]);
+      return result;
+    }
+
+    for (start = 0; start < x.length; start += ROW_BLOCK) {
+      end = Math.min(x.length, start + ROW_BLOCK);
+      if (m_FloatPrecision)
+	nearestFloat(x, start, end, result);
+      else
+	nearestDouble(x, start, end, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Assigns a block of rows in double precision.
+   *
+   * @param x		all the rows
+   * @param start	the first row of the block
+   * @param end		the row after the last row of the block
+   * @param result	for storing the indices
+   */
+  protected void nearestDouble(double[][] x, int start, int end, int[] result) {
+    double[]	min;
+    double[]	c;
+    double[]	x0;
+    double[]	x1;
+    double[]	x2;
+    double[]	x3;
+    double	d0;
+    double	d1;
+    double	d2;
+    double	d3;
+    double	v;
+    double	norm;
+    int		dims;
+    int		i;
+    int		j;
+    int		k;
+
+    min = new double[end - start];
+    for (i = start; i < end; i++) {
+      min[i - start] = Double.POSITIVE_INFINITY;
+      result[i]      = 0;
+    }
+
+    for (j = 0; j < m_Centroids.length; j++) {
+      c    = m_Centroids[j];
+      norm = m_SquaredNorms[j];
+      dims = c.length;
+      for (i = start; i + 3 < end; i += 4) {
+	x0 = x[i];
+	x1 = x[i + 1];
+	x2 = x[i + 2];
+	x3 = x[i + 3];
+	d0 = 0.0;
+	d1 = 0.0;
+	d2 = 0.0;
+	d3 = 0.0;
+	for (k = 0; k < dims; k++) {
+	  v   = c[k];
+	  d0 += x0[k] * v;
+	  d1 += x1[k] * v;
+	  d2 += x2[k] * v;
+	  d3 += x3[k] * v;
+	}
+	d0 = norm - 2.0 * d0;
+	d1 = norm - 2.0 * d1;
+	d2 = norm - 2.0 * d2;
+	d3 = norm - 2.0 * d3;
+	if (d0 < min[i - start])     { min[i - start]     = d0; result[i]     = j; }
+	if (d1 < min[i + 1 - start]) { min[i + 1 - start] = d1; result[i + 1] = j; }
+	if (d2 < min[i + 2 - start]) { min[i + 2 - start] = d2; result[i + 2] = j; }
+	if (d3 < min[i + 3 - start]) { min[i + 3 - start] = d3; result[i + 3] = j; }
+      }
+      for (; i < end; i++) {
+	d0 = 0.0;
+	for (k = 0; k < dims; k++)
+	  d0 += x[i][k] * c[k];
+	d0 = norm - 2.0 * d0;
+	if (d0 < min[i - start]) {
+	  min[i - start] = d0;
+	  result[i]      = j;
+	}
+      }
+    }
+  }
+
+  /**
+   * Initializes the single precision centroids, if necessary.
+   */
+  protected synchronized void initFloat() {
+    float[][]	centroids;
+    float[]	norms;
+    int		i;
+    int		n;
+
+    if (m_FloatCentroids != null)
+      return;
+
+    centroids = new float[m_Centroids.length][];
+    norms     = new float[m_Centroids.length];
+    for (i = 0; i < m_Centroids.length; i++) {
+      centroids[i] = new float[m_Centroids[i].length];
+      for (n = 0; n < m_Centroids[i].length; n++)
+	centroids[i][n] = (float) m_Centroids[i][n];
+      norms[i] = (float) m_SquaredNorms[i];
+    }
+    m_FloatSquaredNorms = norms;
+    m_FloatCentroids    = centroids;
+  }
+
+  /**
+   * Assigns a block of rows in single precision.
+   *
+   * @param x		all the rows
+   * @param start	the first row of the block
+   * @param end		the row after the last row of the block
+   * @param result	for storing the indices
+   */
+  protected void nearestFloat(double[][] x, int start, int end, int[] result) {
+    float[][]	rows;
+    float[]	min;
+    float[]	c;
+    float[]	x0;
+    float[]	x1;
+    float[]	x2;
+    float[]	x3;
+    float	d0;
+    float	d1;
+    float	d2;
+    float	d3;
+    float	v;
+    float	norm;
+    int		dims;
+    int		i;
+    int		j;
+    int		k;
+
+    initFloat();
+    rows = new float[end - start][];
+    min  = new float[end - start];
+    for (i = start; i < end; i++) {
+      rows[i - start] = new float[x[i].length];
+      for (k = 0; k < x[i].length; k++)
+	rows[i - start][k] = (float) x[i][k];
+      min[i - start] = Float.POSITIVE_INFINITY;
+      result[i]      = 0;
+    }
+
+    for (j = 0; j < m_FloatCentroids.length; j++) {
+      c    = m_FloatCentroids[j];
+      norm = m_FloatSquaredNorms[j];
+      dims = c.length;
+      for (i = 0; i + 3 < rows.length; i += 4) {
+	x0 = rows[i];
+	x1 = rows[i + 1];
+	x2 = rows[i + 2];
+	x3 = rows[i + 3];
+	d0 = 0.0f;
+	d1 = 0.0f;
+	d2 = 0.0f;
+	d3 = 0.0f;
+	for (k = 0; k < dims; k++) {
+	  v   = c[k];
+	  d0 += x0[k] * v;
+	  d1 += x1[k] * v;
+	  d2 += x2[k] * v;
+	  d3 += x3[k] * v;
+	}
+	d0 = norm - 2.0f * d0;
+	d1 = norm - 2.0f * d1;
+	d2 = norm - 2.0f * d2;
+	d3 = norm - 2.0f * d3;
+	if (d0 < min[i])     { min[i]     = d0; result[start + i]     = j; }
+	if (d1 < min[i + 1]) { min[i + 1] = d1; result[start + i + 1] = j; }
+	if (d2 < min[i + 2]) { min[i + 2] = d2; result[start + i + 2] = j; }
+	if (d3 < min[i + 3]) { min[i + 3] = d3; result[start + i + 3] = j; }
+      }
+      for (; i < rows.length; i++) {
+	d0 = 0.0f;
+	for (k = 0; k < dims; k++)
+	  d0 += rows[i][k] * c[k];
+	d0 = norm - 2.0f * d0;
+	if (d0 < min[i]) {
+	  min[i]            = d0;
+	  result[start + i] = j;
+	}
+      }
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OutOfBagStopping.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Monitors the out-of-bag error of a forest while trees get added and
+ * signals to stop once the error no longer improves: the relative
+ * improvement over the last window of trees is below the tolerance.
+ *
+ * @author agent (agent at local)
+ */
+public class OutOfBagStopping
+  implements Serializable {
+
+  private static final long serialVersionUID = 4409523826917250573L;
+
+  /** the number of trees to compare the error over. */
+  protected int m_Window;
+
+  /** the minimum relative improvement. */
+  protected double m_Tolerance;
+
+  /** the number of trees at which the errors were recorded. */
+  protected List<Integer> m_NumTrees;
+
+  /** the recorded errors. */
+  protected List<Double> m_Errors;
+
+  /** the number of trees at which training stopped, -1 if not stopped. */
+  protected int m_StoppedAt;
+
+  /**
+   * Initializes the monitor.
+   *
+   * @param window	the number of trees to compare the error over
+   * @param tolerance	the minimum relative improvement of the error
+   */
+  public OutOfBagStopping(int window, double tolerance) {
+    if (window < 1)
+      throw new IllegalArgumentException("Window must be at least 1: " + window);
+    m_Window    = window;
+    m_Tolerance = tolerance;
+    m_NumTrees  = new ArrayList<Integer>();
+    m_Errors    = new ArrayList<Double>();
+    m_StoppedAt = -1;
+  }
+
+  /**
+   * Records the error of the forest and determines whether to stop.
+   * Without an error recorded at least a window of trees earlier, training
+   * continues.
+   *
+   * @param numTrees	the current number of trees
+   * @param error	the current out-of-bag error, NaN if not available
+   * @return		true if to stop adding trees
+   */
+  public boolean update(int numTrees, double error) {
+    double	previous;
+    int		i;
+
+    if (m_StoppedAt > -1)
+      return true;
+    if (Double.isNaN(error))
+      return false;
+
+    m_NumTrees.add(numTrees);
+    m_Errors.add(error);
+
+    // latest error at least a window ago
+    previous = Double.NaN;
+    for (i = m_NumTrees.size() - 1; i >= 0; i--) {
+      if (m_NumTrees.get(i) <= numTrees - m_Window) {
+	previous = m_Errors.get(i);
+	break;
+      }
+    }
+    if (Double.isNaN(previous))
+      return false;
+
+    if ((previous == 0) || ((previous - error) / previous < m_Tolerance))
+      m_StoppedAt = numTrees;
+
+    return (m_StoppedAt > -1);
+  }
+
+  /**
+   * Returns whether training was stopped.
+   *
+   * @return		true if stopped
+   */
+  public boolean isStopped() {
+    return (m_StoppedAt > -1);
+  }
+
+  /**
+   * Returns the number of trees at which training stopped.
+   *
+   * @return		the number of trees, -1 if not stopped
+   */
+  public int getStoppedAt() {
+    return m_StoppedAt;
+  }
+
+  /**
+   * Returns the last recorded error.
+   *
+   * @return		the error, NaN if none recorded
+   */
+  public double getError() {
+    if (m_Errors.size() == 0)
+      return Double.NaN;
+    return m_Errors.get(m_Errors.size() - 1);
+  }
+
+  /**
+   * Returns the stopping point and the recorded errors.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    StringBuilder	result;
+    int			i;
+
+    result = new StringBuilder();
+    if (isStopped())
+      result.append("Stopped at ").append(m_StoppedAt).append(" trees, OOB error: ").append(getError());
+    else
+      result.append("Not stopped, OOB error: ").append(getError());
+    result.append("\n  trees/error:");
+    for (i = 0; i < m_NumTrees.size(); i++)
+      result.append(" ").append(m_NumTrees.get(i)).append("/").append(String.format(Locale.ENGLISH, "%.4f", m_Errors.get(i)));
+
+    return result.toString();
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PredictionCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache for predictions, keyed by the converted feature vector
+ * (hash plus exact equality of all values). Thread-safe.
+ * <br>
+ * The entries are spread over independent segments (chosen by the hash of
+ * the feature vector), each with its own lock and least recently used
+ * eviction, so that concurrent lookups rarely contend. Eviction is therefore
+ * only approximately LRU across the whole cache.
+ *
+ * @author agent (agent at local)
+ */
+public class PredictionCache {
+
+  /** the maximum number of segments. */
+  public static final int MAX_SEGMENTS = 16;
+
+  /**
+   * Key wrapping a feature vector.
+   */
+  protected static class Key {
+
+    /** the values. */
+    protected double[] m_Values;
+
+    /** the hash code. */
+    protected int m_Hash;
+
+    /**
+     * Initializes the key.
+     *
+     * @param values	the values (not copied)
+     */
+    public Key(double[] values) {
+      m_Values = values;
+      m_Hash   = Arrays.hashCode(values);
+    }
+
+    /**
+     * Returns the hash code.
+     *
+     * @return		the hash code
+     */
+    @Override
+    public int hashCode() {
+      return m_Hash;
+    }
+
+    /**
+     * Checks whether the values are the same.
+     *
+     * @param obj	the object to compare with
+     * @return		true if the same values
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key))
+	return false;
+      return (m_Hash == ((Key) obj).m_Hash) && Arrays.equals(m_Values, ((Key) obj).m_Values);
+    }
+  }
+
+  /**
+   * Segment of the cache, evicting its least recently used entry once full.
+   * Access must be synchronized on the segment.
+   */
+  protected static class Segment
+    extends LinkedHashMap<Key,double[]> {
+
+    private static final long serialVersionUID = 2468391709046530521L;
+
+    /** the maximum number of entries. */
+    protected int m_MaxSize;
+
+    /**
+     * Initializes the segment.
+     *
+     * @param maxSize	the maximum number of entries
+     */
+    public Segment(int maxSize) {
+      super(16, 0.75f, true);
+      m_MaxSize = maxSize;
+    }
+
+    /**
+     * Removes the least recently used entry if the segment is full.
+     *
+     * @param eldest	the least recently used entry
+     * @return		true if to remove it
+     */
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key,double[]> eldest) {
+      return size() > m_MaxSize;
+    }
+  }
+
+  /** the maximum number of entries. */
+  protected int m_MaxSize;
+
+  /** the segments. */
+  protected Segment[] m_Segments;
+
+  /** the number of hits. */
+  protected AtomicLong m_Hits;
+
+  /** the number of misses. */
+  protected AtomicLong m_Misses;
+
+  /**
+   * Initializes the cache.
+   *
+   * @param maxSize	the maximum number of entries
+   */
+  public PredictionCache(int maxSize) {
+    int		numSegments;
+    int		i;
+
+    if (maxSize < 1)
+      throw new IllegalArgumentException("Cache size must be at least 1, provided: " + maxSize);
+    m_MaxSize   = maxSize;
+    numSegments = Math.min(MAX_SEGMENTS, maxSize);
+    m_Segments  = new Segment[numSegments];
+    for (i = 0; i < numSegments; i++)
+      m_Segments[i] = new Segment(maxSize / numSegments + ((i < maxSize % numSegments) ? 1 : 0));
+    m_Hits      = new AtomicLong();
+    m_Misses    = new AtomicLong();
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   *
+   * @return		the maximum
+   */
+  public int getMaxSize() {
+    return m_MaxSize;
+  }
+
+  /**
+   * Returns the segment responsible for the key.
+   *
+   * @param key		the key
+   * @return		the segment
+   */
+  protected Segment segment(Key key) {
+    int		hash;
+
+    hash = key.m_Hash ^ (key.m_Hash >>> 16);
+    return m_Segments[(hash & Integer.MAX_VALUE) % m_Segments.length];
+  }
+
+  /**
+   * Returns a copy of the cached prediction for the values.
+   *
+   * @param values	the feature vector
+   * @return		the prediction, null if not cached
+   */
+  public double[] get(double[] values) {
+    Key		key;
+    Segment	segment;
+    double[]	result;
+
+    key     = new Key(values);
+    segment = segment(key);
+    synchronized(segment) {
+      result = segment.get(key);
+    }
+    if (result == null) {
+      m_Misses.incrementAndGet();
+      return null;
+    }
+    m_Hits.incrementAndGet();
+
+    return result.clone();
+  }
+
+  /**
+   * Stores copies of the feature vector and the prediction.
+   *
+   * @param values	the feature vector
+   * @param prediction	the prediction
+   */
+  public void put(double[] values, double[] prediction) {
+    Key		key;
+    Segment	segment;
+
+    key     = new Key(values.clone());
+    segment = segment(key);
+    synchronized(segment) {
+      segment.put(key, prediction.clone());
+    }
+  }
+
+  /**
+   * Removes all entries and resets the counters.
+   */
+  public void clear() {
+    for (Segment segment: m_Segments) {
+      synchronized(segment) {
+	segment.clear();
+      }
+    }
+    m_Hits.set(0);
+    m_Misses.set(0);
+  }
+
+  /**
+   * Returns the current number of entries.
+   *
+   * @return		the number of entries
+   */
+  public int size() {
+    int		result;
+
+    result = 0;
+    for (Segment segment: m_Segments) {
+      synchronized(segment) {
+	result += segment.size();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the number of hits.
+   *
+   * @return		the hits
+   */
+  public long getHits() {
+    return m_Hits.get();
+  }
+
+  /**
+   * Returns the number of misses.
+   *
+   * @return		the misses
+   */
+  public long getMisses() {
+    return m_Misses.get();
+  }
+
+  /**
+   * Returns the fraction of lookups that were hits.
+   *
+   * @return		the hit rate, NaN if no lookups yet
+   */
+  public double getHitRate() {
+    long	hits;
+    long	total;
+
+    hits  = m_Hits.get();
+    total = hits + m_Misses.get();
+    if (total == 0)
+      return Double.NaN;
+
+    return (double) hits / total;
+  }
+
+  /**
+   * Returns a short description of the cache state.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "size=" + size() + "/" + m_MaxSize + ", hits=" + getHits() + ", misses=" + getMisses();
+  }
+}
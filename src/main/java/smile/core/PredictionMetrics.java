@@ -0,0 +1,313 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PredictionMetrics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms and counters for the single-row predictions of a
+ * model, split into the time for converting the Weka instance and the
+ * time of the model itself. Recording is lock-free.
+ * <br>
+ * Can be read programmatically via {@link #snapshot()} or via JMX, after
+ * registering it with {@link #register(String)}.
+ *
+ * @author agent (agent at local)
+ * @see LatencyHistogram
+ */
+public class PredictionMetrics
+  implements PredictionMetricsMBean {
+
+  /** the JMX domain. */
+  public static final String JMX_DOMAIN = "smile";
+
+  /**
+   * Immutable copy of the metrics.
+   */
+  public static class Snapshot {
+
+    /** the conversion times. */
+    public LatencyHistogram.Snapshot conversion;
+
+    /** the model times. */
+    public LatencyHistogram.Snapshot model;
+
+    /** the total times. */
+    public LatencyHistogram.Snapshot total;
+
+    /** the number of failed predictions. */
+    public long errors;
+
+    /**
+     * Returns a short description of the metrics.
+     *
+     * @return		the description
+     */
+    @Override
+    public String toString() {
+      return "conversion: " + conversion + "\n"
+	+ "model: " + model + "\n"
+	+ "total: " + total + "\n"
+	+ "errors: " + errors;
+    }
+  }
+
+  /** the conversion times. */
+  protected LatencyHistogram m_Conversion;
+
+  /** the model times. */
+  protected LatencyHistogram m_Model;
+
+  /** the total times. */
+  protected LatencyHistogram m_Total;
+
+  /** the number of failed predictions. */
+  protected AtomicLong m_Errors;
+
+  /** the name under which it is registered with JMX, null if not registered. */
+  protected ObjectName m_ObjectName;
+
+  /**
+   * Initializes the metrics.
+   */
+  public PredictionMetrics() {
+    m_Conversion = new LatencyHistogram();
+    m_Model      = new LatencyHistogram();
+    m_Total      = new LatencyHistogram();
+    m_Errors     = new AtomicLong();
+  }
+
+  /**
+   * Records a prediction.
+   *
+   * @param start	the start time (nano seconds)
+   * @param converted	the time the conversion finished (nano seconds)
+   * @param end		the time the prediction finished (nano seconds)
+   */
+  public void record(long start, long converted, long end) {
+    m_Conversion.record(converted - start);
+    m_Model.record(end - converted);
+    m_Total.record(end - start);
+  }
+
+  /**
+   * Records a failed prediction.
+   */
+  public void error() {
+    m_Errors.incrementAndGet();
+  }
+
+  /**
+   * Returns a copy of the current metrics.
+   *
+   * @return		the snapshot
+   */
+  public Snapshot snapshot() {
+    Snapshot	result;
+
+    result            = new Snapshot();
+    result.conversion = m_Conversion.snapshot();
+    result.model      = m_Model.snapshot();
+    result.total      = m_Total.snapshot();
+    result.errors     = m_Errors.get();
+
+    return result;
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server, under
+   * "smile:type=PredictionMetrics,name=&lt;name&gt;".
+   *
+   * @param name	the name of the model
+   * @throws Exception	if registration fails
+   */
+  public synchronized void register(String name) throws Exception {
+    unregister();
+    m_ObjectName = new ObjectName(JMX_DOMAIN + ":type=" + getClass().getSimpleName() + ",name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, m_ObjectName);
+  }
+
+  /**
+   * Unregisters the metrics from the platform MBean server, if registered.
+   *
+   * @throws Exception	if unregistering fails
+   */
+  public synchronized void unregister() throws Exception {
+    if (m_ObjectName == null)
+      return;
+    if (ManagementFactory.getPlatformMBeanServer().isRegistered(m_ObjectName))
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(m_ObjectName);
+    m_ObjectName = null;
+  }
+
+  /**
+   * Returns the number of predictions.
+   *
+   * @return		the number
+   */
+  @Override
+  public long getCount() {
+    return m_Total.snapshot().getCount();
+  }
+
+  /**
+   * Returns the number of failed predictions.
+   *
+   * @return		the number
+   */
+  @Override
+  public long getErrors() {
+    return m_Errors.get();
+  }
+
+  /**
+   * Returns the average time for converting an instance.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getConversionMean() {
+    return m_Conversion.snapshot().getMean() / 1000.0;
+  }
+
+  /**
+   * Returns the median time for converting an instance.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getConversionP50() {
+    return m_Conversion.snapshot().getPercentile(50) / 1000.0;
+  }
+
+  /**
+   * Returns the 99th percentile of the time for converting an instance.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getConversionP99() {
+    return m_Conversion.snapshot().getPercentile(99) / 1000.0;
+  }
+
+  /**
+   * Returns the average time of the model prediction.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getModelMean() {
+    return m_Model.snapshot().getMean() / 1000.0;
+  }
+
+  /**
+   * Returns the median time of the model prediction.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getModelP50() {
+    return m_Model.snapshot().getPercentile(50) / 1000.0;
+  }
+
+  /**
+   * Returns the 95th percentile of the time of the model prediction.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getModelP95() {
+    return m_Model.snapshot().getPercentile(95) / 1000.0;
+  }
+
+  /**
+   * Returns the 99th percentile of the time of the model prediction.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getModelP99() {
+    return m_Model.snapshot().getPercentile(99) / 1000.0;
+  }
+
+  /**
+   * Returns the 99.9th percentile of the time of the model prediction.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getModelP999() {
+    return m_Model.snapshot().getPercentile(99.9) / 1000.0;
+  }
+
+  /**
+   * Returns the largest time of the model prediction.
+   *
+   * @return		the time
+   */
+  @Override
+  public double getModelMax() {
+    return m_Model.snapshot().getMax() / 1000.0;
+  }
+
+  /**
+   * Returns the median of the total time (conversion and model).
+   *
+   * @return		the time
+   */
+  @Override
+  public double getTotalP50() {
+    return m_Total.snapshot().getPercentile(50) / 1000.0;
+  }
+
+  /**
+   * Returns the 99th percentile of the total time (conversion and model).
+   *
+   * @return		the time
+   */
+  @Override
+  public double getTotalP99() {
+    return m_Total.snapshot().getPercentile(99) / 1000.0;
+  }
+
+  /**
+   * Removes all recorded values.
+   */
+  @Override
+  public void reset() {
+    m_Conversion.reset();
+    m_Model.reset();
+    m_Total.reset();
+    m_Errors.set(0);
+  }
+
+  /**
+   * Returns a short description of the metrics.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PredictionMetricsMBean.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * JMX interface of {@link PredictionMetrics}. Latencies are in micro seconds.
+ *
+ * @author agent (agent at local)
+ */
+public interface PredictionMetricsMBean {
+
+  /**
+   * Returns the number of predictions.
+   *
+   * @return		the number
+   */
+  public long getCount();
+
+  /**
+   * Returns the number of failed predictions.
+   *
+   * @return		the number
+   */
+  public long getErrors();
+
+  /**
+   * Returns the average time for converting an instance.
+   *
+   * @return		the time
+   */
+  public double getConversionMean();
+
+  /**
+   * Returns the median time for converting an instance.
+   *
+   * @return		the time
+   */
+  public double getConversionP50();
+
+  /**
+   * Returns the 99th percentile of the time for converting an instance.
+   *
+   * @return		the time
+   */
+  public double getConversionP99();
+
+  /**
+   * Returns the average time of the model prediction.
+   *
+   * @return		the time
+   */
+  public double getModelMean();
+
+  /**
+   * Returns the median time of the model prediction.
+   *
+   * @return		the time
+   */
+  public double getModelP50();
+
+  /**
+   * Returns the 95th percentile of the time of the model prediction.
+   *
+   * @return		the time
+   */
+  public double getModelP95();
+
+  /**
+   * Returns the 99th percentile of the time of the model prediction.
+   *
+   * @return		the time
+   */
+  public double getModelP99();
+
+  /**
+   * Returns the 99.9th percentile of the time of the model prediction.
+   *
+   * @return		the time
+   */
+  public double getModelP999();
+
+  /**
+   * Returns the largest time of the model prediction.
+   *
+   * @return		the time
+   */
+  public double getModelMax();
+
+  /**
+   * Returns the median of the total time (conversion and model).
+   *
+   * @return		the time
+   */
+  public double getTotalP50();
+
+  /**
+   * Returns the 99th percentile of the total time (conversion and model).
+   *
+   * @return		the time
+   */
+  public double getTotalP99();
+
+  /**
+   * Removes all recorded values.
+   */
+  public void reset();
+}
@@ -0,0 +1,154 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScalarVectorOps.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * Scalar vector operations, using four independent accumulators so that
+ * the JIT can pipeline (and on newer JVMs auto-vectorize) the loops.
+ * Results can differ from a plain loop in the last digits due to the
+ * different summation order. Works on any JVM; fallback if the Vector API
+ * is not available.
+ *
+ * @author agent (agent at local)
+ */
+public class ScalarVectorOps
+  implements VectorOps {
+
+  /**
+   * Computes the dot product of the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the dot product
+   */
+  @Override
+  public double dot(double[] x, double[] y) {
+    double	s0;
+    double	s1;
+    double	s2;
+    double	s3;
+    int		end;
+    int		i;
+
+    s0  = 0.0;
+    s1  = 0.0;
+    s2  = 0.0;
+    s3  = 0.0;
+    end = x.length & ~3;
+    for (i = 0; i < end; i += 4) {
+      s0 += x[i] * y[i];
+      s1 += x[i + 1] * y[i + 1];
+      s2 += x[i + 2] * y[i + 2];
+      s3 += x[i + 3] * y[i + 3];
+    }
+    for (; i < x.length; i++)
+      s0 += x[i] * y[i];
+
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Computes the squared Euclidean distance between the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the squared distance
+   */
+  @Override
+  public double squaredDistance(double[] x, double[] y) {
+    double	s0;
+    double	s1;
+    double	s2;
+    double	s3;
+    double	d0;
+    double	d1;
+    double	d2;
+    double	d3;
+    int		end;
+    int		i;
+
+    s0  = 0.0;
+    s1  = 0.0;
+    s2  = 0.0;
+    s3  = 0.0;
+    end = x.length & ~3;
+    for (i = 0; i < end; i += 4) {
+      d0  = x[i] - y[i];
+      d1  = x[i + 1] - y[i + 1];
+      d2  = x[i + 2] - y[i + 2];
+      d3  = x[i + 3] - y[i + 3];
+      s0 += d0 * d0;
+      s1 += d1 * d1;
+      s2 += d2 * d2;
+      s3 += d3 * d3;
+    }
+    for (; i < x.length; i++) {
+      d0  = x[i] - y[i];
+      s0 += d0 * d0;
+    }
+
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Computes the sum of the square roots of the element-wise products of
+   * the two vectors (Hellinger kernel).
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the sum
+   */
+  @Override
+  public double sqrtProductSum(double[] x, double[] y) {
+    double	s0;
+    double	s1;
+    double	s2;
+    double	s3;
+    int		end;
+    int		i;
+
+    s0  = 0.0;
+    s1  = 0.0;
+    s2  = 0.0;
+    s3  = 0.0;
+    end = x.length & ~3;
+    for (i = 0; i < end; i += 4) {
+      s0 += Math.sqrt(x[i] * y[i]);
+      s1 += Math.sqrt(x[i + 1] * y[i + 1]);
+      s2 += Math.sqrt(x[i + 2] * y[i + 2]);
+      s3 += Math.sqrt(x[i + 3] * y[i + 3]);
+    }
+    for (; i < x.length; i++)
+      s0 += Math.sqrt(x[i] * y[i]);
+
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns a short description of the implementation.
+   *
+   * @return		the description
+   */
+  @Override
+  public String getName() {
+    return "scalar (unrolled)";
+  }
+}
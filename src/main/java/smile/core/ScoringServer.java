@@ -0,0 +1,665 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScoringServer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import weka.core.Utils;
+import weka.core.converters.ConverterUtils.DataSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple HTTP server for scoring rows with a serialized SMILE classifier,
+ * regressor or clusterer. Concurrent requests get coalesced into
+ * micro-batches: the batcher waits at most the maximum wait time for further
+ * requests after the first one, up to the maximum batch size (in rows).
+ * <br>
+ * Endpoints:
+ * <ul>
+ *   <li>POST /score - one row per line (see {@link ModelScorer}), returns one result per line</li>
+ *   <li>GET /stats - throughput, latency percentiles and model swaps</li>
+ *   <li>POST /reload - reloads the model file in the background (if loaded from a file)</li>
+ * </ul>
+ * The model is kept in a {@link ModelHolder}, which allows replacing it
+ * without pausing scoring: each batch uses the model that was current when
+ * the batch started.
+ * <br>
+ * Failures while scoring (including errors like running out of memory) only
+ * fail the affected requests, the batcher keeps running. Requests that are
+ * still pending when the server gets stopped fail as well. Callers wait at
+ * most the timeout for their results.
+ * <br>
+ * Example: <code>curl --data-binary @rows.csv http://localhost:8080/score</code>
+ *
+ * @author agent (agent at local)
+ */
+public class ScoringServer {
+
+  /** the default timeout for scoring requests (msec). */
+  public static final int DEFAULT_TIMEOUT = 30000;
+
+  /**
+   * Container for a scoring request.
+   */
+  protected static class Request {
+
+    /** the rows. */
+    public String[] lines;
+
+    /** the results. */
+    public String[] results;
+
+    /** the error, if any. */
+    public Exception error;
+
+    /** the start time (nano seconds). */
+    public long start;
+
+    /** gets counted down when the request has been processed. */
+    public CountDownLatch done = new CountDownLatch(1);
+  }
+
+  /** the holder of the model to use. */
+  protected ModelHolder m_Holder;
+
+  /** the file the model was loaded from, null if not from file. */
+  protected String m_ModelFile;
+
+  /** the host to bind to. */
+  protected String m_Host;
+
+  /** the port to listen on (0 for any free port). */
+  protected int m_Port;
+
+  /** the maximum number of rows per batch. */
+  protected int m_MaxBatchSize;
+
+  /** the maximum time to wait for further requests (msec). */
+  protected int m_MaxWait;
+
+  /** the number of threads for handling the HTTP requests. */
+  protected int m_NumThreads;
+
+  /** the maximum time to wait for the results of a request (msec). */
+  protected int m_Timeout;
+
+  /** the pending requests. */
+  protected BlockingQueue<Request> m_Queue;
+
+  /** the HTTP server. */
+  protected HttpServer m_Server;
+
+  /** the executor for the HTTP requests. */
+  protected ExecutorService m_Executor;
+
+  /** the batching thread. */
+  protected Thread m_Batcher;
+
+  /** whether the server is running. */
+  protected volatile boolean m_Running;
+
+  /** the start time of the server (msec). */
+  protected long m_StartTime;
+
+  /** the number of requests processed. */
+  protected AtomicLong m_NumRequests;
+
+  /** the number of rows processed. */
+  protected AtomicLong m_NumRows;
+
+  /** the number of batches processed. */
+  protected AtomicLong m_NumBatches;
+
+  /** the number of failed requests. */
+  protected AtomicLong m_NumErrors;
+
+  /** the request latencies. */
+  protected LatencyHistogram m_Latencies;
+
+  /**
+   * Initializes the server.
+   *
+   * @param scorer		the scorer to use
+   * @param host		the host to bind to
+   * @param port		the port to listen on, 0 for any free port
+   * @param maxBatchSize	the maximum number of rows per batch
+   * @param maxWait		the maximum time in msec to wait for further requests
+   * @param numThreads		the number of threads for handling HTTP requests
+   */
+  public ScoringServer(ModelScorer scorer, String host, int port, int maxBatchSize, int maxWait, int numThreads) {
+    this(new ModelHolder(scorer), host, port, maxBatchSize, maxWait, numThreads);
+  }
+
+  /**
+   * Initializes the server.
+   *
+   * @param holder		the holder of the model to use
+   * @param host		the host to bind to
+   * @param port		the port to listen on, 0 for any free port
+   * @param maxBatchSize	the maximum number of rows per batch
+   * @param maxWait		the maximum time in msec to wait for further requests
+   * @param numThreads		the number of threads for handling HTTP requests
+   */
+  public ScoringServer(ModelHolder holder, String host, int port, int maxBatchSize, int maxWait, int numThreads) {
+    m_Holder       = holder;
+    m_Host         = host;
+    m_Port         = port;
+    m_MaxBatchSize = Math.max(1, maxBatchSize);
+    m_MaxWait      = Math.max(0, maxWait);
+    m_NumThreads   = Math.max(1, numThreads);
+    m_Timeout      = DEFAULT_TIMEOUT;
+    m_Queue        = new LinkedBlockingQueue<Request>();
+    m_NumRequests  = new AtomicLong();
+    m_NumRows      = new AtomicLong();
+    m_NumBatches   = new AtomicLong();
+    m_NumErrors    = new AtomicLong();
+    m_Latencies    = new LatencyHistogram();
+  }
+
+  /**
+   * Starts the server.
+   *
+   * @throws IOException	if binding fails
+   */
+  public synchronized void start() throws IOException {
+    if (m_Running)
+      return;
+
+    m_Server = HttpServer.create(new InetSocketAddress(m_Host, m_Port), 0);
+    m_Server.createContext("/score", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+	handleScore(exchange);
+      }
+    });
+    m_Server.createContext("/stats", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+	respond(exchange, 200, getStatistics());
+      }
+    });
+    m_Server.createContext("/reload", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+	handleReload(exchange);
+      }
+    });
+    m_Executor = Executors.newFixedThreadPool(m_NumThreads);
+    m_Server.setExecutor(m_Executor);
+
+    m_Running   = true;
+    m_StartTime = System.currentTimeMillis();
+    m_Batcher   = new Thread(new Runnable() {
+      @Override
+      public void run() {
+	processBatches();
+      }
+    }, getClass().getSimpleName() + "-batcher");
+    m_Batcher.setDaemon(true);
+    m_Batcher.start();
+    m_Server.start();
+  }
+
+  /**
+   * Stops the server. Requests that have not been picked up by the batcher
+   * yet fail.
+   */
+  public synchronized void stop() {
+    List<Request>	pending;
+
+    if (!m_Running)
+      return;
+
+    m_Running = false;
+    m_Server.stop(0);
+    m_Executor.shutdownNow();
+    m_Batcher.interrupt();
+
+    pending = new ArrayList<Request>();
+    m_Queue.drainTo(pending);
+    for (Request request: pending)
+      fail(request, new IllegalStateException("Scoring server stopped"));
+  }
+
+  /**
+   * Sets the maximum time to wait for the results of a request.
+   *
+   * @param value	the timeout in msec, 0 to wait indefinitely
+   */
+  public void setTimeout(int value) {
+    m_Timeout = Math.max(0, value);
+  }
+
+  /**
+   * Returns the maximum time to wait for the results of a request.
+   *
+   * @return		the timeout in msec, 0 to wait indefinitely
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the holder of the model.
+   *
+   * @return		the holder
+   */
+  public ModelHolder getHolder() {
+    return m_Holder;
+  }
+
+  /**
+   * Sets the file the model gets reloaded from via /reload.
+   *
+   * @param value	the file, null to disable reloading
+   */
+  public void setModelFile(String value) {
+    m_ModelFile = value;
+  }
+
+  /**
+   * Returns the file the model gets reloaded from via /reload.
+   *
+   * @return		the file, null if reloading disabled
+   */
+  public String getModelFile() {
+    return m_ModelFile;
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   *
+   * @return		the port
+   */
+  public int getPort() {
+    if (m_Server != null)
+      return m_Server.getAddress().getPort();
+    return m_Port;
+  }
+
+  /**
+   * Scores the rows, coalescing them with other concurrent requests.
+   *
+   * @param lines	the rows
+   * @return		the results
+   * @throws TimeoutException	if the results are not available within the timeout
+   * @throws Exception	if scoring fails or the server is not running
+   */
+  public String[] score(String[] lines) throws Exception {
+    Request	request;
+
+    if (!m_Running)
+      throw new IllegalStateException("Scoring server not running");
+
+    request       = new Request();
+    request.lines = lines;
+    request.start = System.nanoTime();
+    m_Queue.put(request);
+    if (m_Timeout == 0) {
+      request.done.await();
+    }
+    else if (!request.done.await(m_Timeout, TimeUnit.MILLISECONDS)) {
+      m_Queue.remove(request);
+      throw new TimeoutException("No results within " + m_Timeout + "ms");
+    }
+    if (request.error != null)
+      throw request.error;
+
+    return request.results;
+  }
+
+  /**
+   * Fails the request, unless already processed.
+   *
+   * @param request	the request
+   * @param error	the reason
+   */
+  protected void fail(Request request, Throwable error) {
+    if (request.done.getCount() == 0)
+      return;
+    request.error = (error instanceof Exception) ? (Exception) error : new Exception("Scoring failed: " + error, error);
+    m_NumRequests.incrementAndGet();
+    m_NumErrors.incrementAndGet();
+    request.done.countDown();
+  }
+
+  /**
+   * Collects requests into batches and scores them.
+   */
+  protected void processBatches() {
+    List<Request>	batch;
+    Request		request;
+    long		deadline;
+    long		remaining;
+    int			rows;
+
+    batch = new ArrayList<Request>();
+    while (m_Running) {
+      try {
+	batch.clear();
+	request = m_Queue.take();
+	batch.add(request);
+	rows     = request.lines.length;
+	deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(m_MaxWait);
+	while (rows < m_MaxBatchSize) {
+	  remaining = deadline - System.nanoTime();
+	  request   = (remaining > 0) ? m_Queue.poll(remaining, TimeUnit.NANOSECONDS) : m_Queue.poll();
+	  if (request == null)
+	    break;
+	  batch.add(request);
+	  rows += request.lines.length;
+	}
+	process(batch, rows);
+      }
+      catch (InterruptedException e) {
+	break;
+      }
+      catch (Throwable t) {
+	// keep the batcher alive, only the current batch fails
+	for (Request failed: batch)
+	  fail(failed, t);
+      }
+    }
+  }
+
+  /**
+   * Scores the batch of requests. If scoring the batch fails, the requests
+   * get scored individually, so that only the offending ones fail.
+   * The whole batch gets scored with the same model, even if a new one gets
+   * swapped in meanwhile.
+   *
+   * @param batch	the requests
+   * @param rows	the total number of rows
+   */
+  protected void process(List<Request> batch, int rows) {
+    ModelScorer	scorer;
+    String[]	lines;
+    String[]	results;
+    int		offset;
+
+    scorer = m_Holder.get();
+    lines  = new String[rows];
+    offset = 0;
+    for (Request request: batch) {
+      System.arraycopy(request.lines, 0, lines, offset, request.lines.length);
+      offset += request.lines.length;
+    }
+
+    try {
+      results = scorer.score(lines);
+      offset  = 0;
+      for (Request request: batch) {
+	request.results = Arrays.copyOfRange(results, offset, offset + request.lines.length);
+	offset         += request.lines.length;
+      }
+    }
+    catch (Throwable t) {
+      for (Request request: batch) {
+	try {
+	  request.results = scorer.score(request.lines);
+	}
+	catch (Throwable tr) {
+	  request.error = (tr instanceof Exception) ? (Exception) tr : new Exception("Scoring failed: " + tr, tr);
+	}
+      }
+    }
+
+    m_NumBatches.incrementAndGet();
+    for (Request request: batch) {
+      m_NumRequests.incrementAndGet();
+      if (request.error == null)
+	m_NumRows.addAndGet(request.lines.length);
+      else
+	m_NumErrors.incrementAndGet();
+      m_Latencies.record(System.nanoTime() - request.start);
+      request.done.countDown();
+    }
+  }
+
+  /**
+   * Returns the latency percentile over all requests since the server was
+   * started (within the error of {@link LatencyHistogram}).
+   *
+   * @param percentile	the percentile (0-100), 100 for the maximum
+   * @return		the latency in msec, NaN if no requests yet
+   */
+  public double getLatencyPercentile(double percentile) {
+    return getLatencyPercentile(m_Latencies.snapshot(), percentile);
+  }
+
+  /**
+   * Returns the latency percentile of the snapshot.
+   *
+   * @param snapshot	the snapshot of the latencies
+   * @param percentile	the percentile (0-100), 100 for the maximum
+   * @return		the latency in msec, NaN if no requests
+   */
+  protected static double getLatencyPercentile(LatencyHistogram.Snapshot snapshot, double percentile) {
+    if (snapshot.getCount() == 0)
+      return Double.NaN;
+    if (percentile >= 100)
+      return snapshot.getMax() / 1000000.0;
+
+    return snapshot.getPercentile(percentile) / 1000000.0;
+  }
+
+  /**
+   * Returns the throughput since the server was started.
+   *
+   * @return		the rows per second
+   */
+  public double getThroughput() {
+    double	elapsed;
+
+    elapsed = (System.currentTimeMillis() - m_StartTime) / 1000.0;
+    if (elapsed <= 0)
+      return 0.0;
+
+    return m_NumRows.get() / elapsed;
+  }
+
+  /**
+   * Returns the statistics of the server.
+   *
+   * @return		the statistics, one "key: value" per line
+   */
+  public String getStatistics() {
+    StringBuilder		result;
+    LatencyHistogram.Snapshot	latencies;
+    long			batches;
+
+    batches   = m_NumBatches.get();
+    latencies = m_Latencies.snapshot();
+    result    = new StringBuilder();
+    result.append("requests: ").append(m_NumRequests.get()).append("\n");
+    result.append("rows: ").append(m_NumRows.get()).append("\n");
+    result.append("errors: ").append(m_NumErrors.get()).append("\n");
+    result.append("batches: ").append(batches).append("\n");
+    result.append("avg batch size: ").append(batches == 0 ? "NaN" : Utils.doubleToString((double) m_NumRows.get() / batches, 2)).append("\n");
+    result.append("throughput (rows/s): ").append(Utils.doubleToString(getThroughput(), 2)).append("\n");
+    result.append("latency p50 (ms): ").append(Utils.doubleToString(getLatencyPercentile(latencies, 50), 3)).append("\n");
+    result.append("latency p95 (ms): ").append(Utils.doubleToString(getLatencyPercentile(latencies, 95), 3)).append("\n");
+    result.append("latency p99 (ms): ").append(Utils.doubleToString(getLatencyPercentile(latencies, 99), 3)).append("\n");
+    result.append("latency max (ms): ").append(Utils.doubleToString(getLatencyPercentile(latencies, 100), 3)).append("\n");
+    result.append(m_Holder.getStatistics());
+
+    return result.toString();
+  }
+
+  /**
+   * Handles a scoring request.
+   *
+   * @param exchange	the HTTP exchange
+   * @throws IOException	if reading/writing fails
+   */
+  protected void handleScore(HttpExchange exchange) throws IOException {
+    BufferedReader	reader;
+    List<String>	lines;
+    String[]		results;
+    StringBuilder	response;
+    String		line;
+
+    if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+      respond(exchange, 405, "Use POST with one row per line\n");
+      return;
+    }
+
+    lines  = new ArrayList<String>();
+    reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), "UTF-8"));
+    while ((line = reader.readLine()) != null) {
+      if (!line.trim().isEmpty())
+	lines.add(line);
+    }
+    reader.close();
+
+    try {
+      results  = score(lines.toArray(new String[lines.size()]));
+      response = new StringBuilder();
+      for (String result: results)
+	response.append(result).append("\n");
+      respond(exchange, 200, response.toString());
+    }
+    catch (TimeoutException e) {
+      respond(exchange, 503, e.toString() + "\n");
+    }
+    catch (Exception e) {
+      respond(exchange, 400, e.toString() + "\n");
+    }
+  }
+
+  /**
+   * Handles a reload request. Responds immediately, the model gets loaded
+   * and swapped in the background.
+   *
+   * @param exchange	the HTTP exchange
+   * @throws IOException	if writing fails
+   */
+  protected void handleReload(HttpExchange exchange) throws IOException {
+    if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+      respond(exchange, 405, "Use POST\n");
+      return;
+    }
+    if (m_ModelFile == null) {
+      respond(exchange, 409, "Model was not loaded from a file\n");
+      return;
+    }
+    m_Holder.reload(m_ModelFile);
+    respond(exchange, 202, "Reloading " + m_ModelFile + "\n");
+  }
+
+  /**
+   * Sends the response.
+   *
+   * @param exchange	the HTTP exchange
+   * @param code	the HTTP status code
+   * @param content	the content to send
+   * @throws IOException	if writing fails
+   */
+  protected void respond(HttpExchange exchange, int code, String content) throws IOException {
+    OutputStream	out;
+    byte[]		bytes;
+
+    bytes = content.getBytes("UTF-8");
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(code, bytes.length);
+    out = exchange.getResponseBody();
+    out.write(bytes);
+    out.close();
+  }
+
+  /**
+   * Starts the server from the command-line.
+   * <br>
+   * Options: -model file [-host localhost] [-port 8080] [-max-batch-size 64]
+   * [-max-wait 2] [-threads 16] [-timeout 30000] [-decimals 6] [-watch &lt;sec&gt;]
+   * [-warmup-data &lt;file&gt;] [-no-warmup]
+   * <br>
+   * New models get warmed up before use (see {@link ModelWarmup}), with
+   * synthetic rows or the rows from the -warmup-data file.
+   * <br>
+   * With -watch, the model file is checked for changes at the specified
+   * interval and reloaded in the background.
+   *
+   * @param args	the options
+   * @throws Exception	if starting fails
+   */
+  public static void main(String[] args) throws Exception {
+    ScoringServer	server;
+    ModelHolder		holder;
+    String		model;
+    String		host;
+    String		value;
+    int			port;
+    int			maxBatchSize;
+    int			maxWait;
+    int			threads;
+    int			timeout;
+    int			decimals;
+    int			watch;
+
+    model = Utils.getOption("model", args);
+    if (model.isEmpty()) {
+      System.err.println("Usage: " + ScoringServer.class.getName() + " -model <file> "
+	+ "[-host localhost] [-port 8080] [-max-batch-size 64] [-max-wait <msec, 2>] [-threads 16] [-timeout <msec, 30000>] [-decimals 6] "
+	+ "[-watch <sec>] [-warmup-data <file>] [-no-warmup]");
+      System.exit(1);
+    }
+    host         = ((value = Utils.getOption("host", args)).isEmpty()) ? "localhost" : value;
+    port         = ((value = Utils.getOption("port", args)).isEmpty()) ? 8080 : Integer.parseInt(value);
+    maxBatchSize = ((value = Utils.getOption("max-batch-size", args)).isEmpty()) ? 64 : Integer.parseInt(value);
+    maxWait      = ((value = Utils.getOption("max-wait", args)).isEmpty()) ? 2 : Integer.parseInt(value);
+    threads      = ((value = Utils.getOption("threads", args)).isEmpty()) ? 16 : Integer.parseInt(value);
+    timeout      = ((value = Utils.getOption("timeout", args)).isEmpty()) ? DEFAULT_TIMEOUT : Integer.parseInt(value);
+    decimals     = ((value = Utils.getOption("decimals", args)).isEmpty()) ? 6 : Integer.parseInt(value);
+    watch        = ((value = Utils.getOption("watch", args)).isEmpty()) ? 0 : Integer.parseInt(value);
+
+    holder = new ModelHolder(decimals);
+    if (Utils.getFlag("no-warmup", args))
+      holder.setWarmup(null);
+    else if (!(value = Utils.getOption("warmup-data", args)).isEmpty())
+      holder.getWarmup().setData(DataSource.read(value));
+    holder.load(model);
+    if (watch > 0)
+      holder.watch(model, watch);
+    server = new ScoringServer(holder, host, port, maxBatchSize, maxWait, threads);
+    server.setModelFile(model);
+    server.setTimeout(timeout);
+    server.start();
+    System.out.println("Scoring server listening on http://" + host + ":" + server.getPort() + "/score");
+  }
+}
@@ -28,6 +28,9 @@ import java.io.Serializable;
 /**
  * Wraps AttributeDataset and Instances to get around problem that AttributeDataset
  * is not serialiable.
+ * <br>
+ * Safe for concurrent use: the dataset is recreated only once after
+ * deserialization.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
@@ -37,7 +40,7 @@ public class SmileDatasetHeader
   private static final long serialVersionUID = 2740443315072249948L;
 
   /** the SMILE dataset header. */
-  protected transient AttributeDataset m_Dataset;
+  protected transient volatile AttributeDataset m_Dataset;
 
   /** the Weka dataset header. */
   protected Instances m_Instances;
@@ -59,16 +62,24 @@ public class SmileDatasetHeader
    * @return  		the dataset
    */
   public AttributeDataset getDataset() {
-    if (m_Dataset == null) {
-      try {
-	m_Dataset = SmileDatasetUtils.convertInstances(m_Instances);
-      }
-      catch (Exception e) {
-        System.err.println(getClass().getName() + ": failed to reconstruct dataset from instances!");
-        e.printStackTrace();
+    AttributeDataset	result;
+
+    result = m_Dataset;
+    if (result != null)
+      return result;
+
+    synchronized(this) {
+      if (m_Dataset == null) {
+	try {
+	  m_Dataset = SmileDatasetUtils.convertInstances(m_Instances);
+	}
+	catch (Exception e) {
+	  System.err.println(getClass().getName() + ": failed to reconstruct dataset from instances!");
+	  e.printStackTrace();
+	}
       }
+      return m_Dataset;
     }
-    return m_Dataset;
   }
 
   /**
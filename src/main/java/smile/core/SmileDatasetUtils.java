@@ -31,10 +31,17 @@ import weka.core.Instances;
 import weka.core.Utils;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
  * Utility methods for dealing with SMILE datasets.
+ * <br>
+ * Converting instances with {@link #convertInstance(Instance, AttributeDataset)}
+ * and {@link #convertClassValue(Instance, AttributeDataset)} is safe for
+ * concurrent use with the same dataset: attributes that are not (dates share
+ * their date format, open nominal and string attributes add unseen labels)
+ * are only accessed while holding their lock.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
@@ -108,6 +115,40 @@ public class SmileDatasetUtils {
     return result;
   }
 
+  /**
+   * Turns the Weka date/nominal/string value into an internal SMILE value.
+   * Dates get formatted with the date format of the SMILE attribute (the
+   * same format as the Weka one), as the Weka attribute's format is shared
+   * across all copies of the header. Attributes that are not safe for
+   * concurrent use get locked.
+   *
+   * @param in		the instance to get the value from
+   * @param index	the index of the attribute in the instance
+   * @param att		the corresponding SMILE attribute
+   * @return		the internal value
+   * @throws Exception	if parsing fails
+   */
+  protected static double convertValue(Instance in, int index, Attribute att) throws Exception {
+    DateAttribute	date;
+
+    if (att instanceof DateAttribute) {
+      if (in.isMissing(index))
+	return Utils.missingValue();
+      date = (DateAttribute) att;
+      synchronized(date) {
+	return date.valueOf(date.toString(new Date((long) in.value(index))));
+      }
+    }
+
+    if ((att instanceof StringAttribute) || ((att instanceof NominalAttribute) && ((NominalAttribute) att).isOpen())) {
+      synchronized(att) {
+	return att.valueOf(in.stringValue(index));
+      }
+    }
+
+    return att.valueOf(in.stringValue(index));
+  }
+
   /**
    * Turns the Weka Instance into a double array (excl class).
    *
@@ -136,7 +177,7 @@ public class SmileDatasetUtils {
 	case weka.core.Attribute.DATE:
 	case weka.core.Attribute.NOMINAL:
 	case weka.core.Attribute.STRING:
-	  result[j] = dataset.attributes()[i].valueOf(in.stringValue(i));
+	  result[j] = convertValue(in, i, dataset.attributes()[i]);
 	  break;
 	default:
 	  throw new IllegalArgumentException(
@@ -167,7 +208,7 @@ public class SmileDatasetUtils {
       case weka.core.Attribute.DATE:
       case weka.core.Attribute.NOMINAL:
       case weka.core.Attribute.STRING:
-	return dataset.responseAttribute().valueOf(in.stringValue(clsIdx));
+	return convertValue(in, clsIdx, dataset.responseAttribute());
       default:
 	throw new IllegalArgumentException(
 	  "Unhandled attribute type (#" + (in.classIndex()+1) + "/" + in.classAttribute().name() + "): "
@@ -0,0 +1,131 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileMathUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * Math helper methods for prediction hot paths.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileMathUtils {
+
+  /** the number of table entries for exp. */
+  protected static final int EXP_TABLE_SIZE = 64;
+
+  /** the table with 2^(j/64). */
+  protected static final double[] EXP_TABLE;
+
+  /** 64/ln(2). */
+  protected static final double EXP_INV_STEP = EXP_TABLE_SIZE / Math.log(2.0);
+
+  /** high part of ln(2)/64. */
+  protected static final double EXP_STEP_HI = 0.010830424695086549;
+
+  /** low part of ln(2)/64. */
+  protected static final double EXP_STEP_LO = 1.162596423439437e-12;
+
+  /** the vector operations (Vector API or scalar). */
+  protected static final VectorOps VECTOR_OPS = VectorOpsProvider.get();
+
+  static {
+    EXP_TABLE = new double[EXP_TABLE_SIZE];
+    for (int j = 0; j < EXP_TABLE_SIZE; j++)
+      EXP_TABLE[j] = Math.pow(2.0, (double) j / EXP_TABLE_SIZE);
+  }
+
+  /**
+   * Computes e^x using a table of powers of two and a short polynomial,
+   * which is considerably faster than {@link Math#exp(double)} and accurate
+   * to a few ulps. Arguments whose result would be subnormal or overflow,
+   * as well as NaN, are handled by {@link Math#exp(double)}.
+   *
+   * @param x		the exponent
+   * @return		e^x
+   */
+  public static double exp(double x) {
+    double	t;
+    double	r;
+    double	p;
+    int		k;
+    int		n;
+
+    if (!(x > -708.0) || !(x < 709.0))
+      return Math.exp(x);
+
+    t = x * EXP_INV_STEP;
+    k = (int) ((t < 0) ? t - 0.5 : t + 0.5);
+    n = k >> 6;
+    r = (x - k * EXP_STEP_HI) - k * EXP_STEP_LO;
+    p = 1.0 + r * (1.0 + r * (0.5 + r * (1.0 / 6.0 + r * (1.0 / 24.0 + r * (1.0 / 120.0)))));
+
+    return EXP_TABLE[k & (EXP_TABLE_SIZE - 1)] * p * Double.longBitsToDouble(((long) (n + 1023)) << 52);
+  }
+
+  /**
+   * Returns the vector operations in use.
+   *
+   * @return		the implementation
+   * @see		VectorOpsProvider
+   */
+  public static VectorOps getVectorOps() {
+    return VECTOR_OPS;
+  }
+
+  /**
+   * Computes the dot product of the two vectors, with the Vector API if
+   * available, otherwise using four independent accumulators so that the
+   * JIT can pipeline (and vectorize) the loop. Results can differ from a
+   * plain loop in the last digits due to the different summation order.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the dot product
+   * @see		VectorOpsProvider
+   */
+  public static double dot(double[] x, double[] y) {
+    return VECTOR_OPS.dot(x, y);
+  }
+
+  /**
+   * Computes the squared Euclidean distance between the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the squared distance
+   * @see		#dot(double[], double[])
+   */
+  public static double squaredDistance(double[] x, double[] y) {
+    return VECTOR_OPS.squaredDistance(x, y);
+  }
+
+  /**
+   * Computes the sum of the square roots of the element-wise products of
+   * the two vectors (Hellinger kernel).
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the sum
+   * @see		#dot(double[], double[])
+   */
+  public static double sqrtProductSum(double[] x, double[] y) {
+    return VECTOR_OPS.sqrtProductSum(x, y);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileReflectionUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.lang.reflect.Field;
+
+/**
+ * Utility methods for accessing internal state of SMILE models that is not
+ * exposed via their public API (e.g., the weights of the trees in a random
+ * forest).
+ *
+ * @author agent (agent at local)
+ */
+public class SmileReflectionUtils {
+
+  /**
+   * Locates the field in the class hierarchy of the object.
+   *
+   * @param cls		the class to start the search with
+   * @param name	the name of the field
+   * @return		the field
+   * @throws Exception	if the field cannot be found
+   */
+  protected static Field findField(Class cls, String name) throws Exception {
+    Class	current;
+
+    current = cls;
+    while (current != null) {
+      try {
+	return current.getDeclaredField(name);
+      }
+      catch (NoSuchFieldException e) {
+	current = current.getSuperclass();
+      }
+    }
+
+    throw new NoSuchFieldException("Field '" + name + "' not found in " + cls.getName() + "!");
+  }
+
+  /**
+   * Returns the value of the specified (potentially private) field.
+   *
+   * @param obj		the object to get the field value from
+   * @param name	the name of the field
+   * @return		the value
+   * @throws Exception	if the field cannot be accessed
+   */
+  public static Object getField(Object obj, String name) throws Exception {
+    Field	field;
+
+    field = findField(obj.getClass(), name);
+    field.setAccessible(true);
+    return field.get(obj);
+  }
+}
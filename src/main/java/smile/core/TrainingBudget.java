@@ -0,0 +1,160 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TrainingBudget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.io.Serializable;
+
+/**
+ * Keeps track of the time spent on training and records why training
+ * stopped. Iterative algorithms check {@link #isExceeded()} between
+ * iterations (trees, restarts, passes) and keep the best model so far once
+ * the budget is used up. Since a started iteration always gets finished,
+ * training can overrun the budget by up to one iteration.
+ *
+ * @author agent (agent at local)
+ */
+public class TrainingBudget
+  implements Serializable {
+
+  private static final long serialVersionUID = -6315794215906731152L;
+
+  /** the reason if training ran to completion. */
+  public static final String COMPLETED = "completed";
+
+  /** the budget in seconds, 0 for unlimited. */
+  protected double m_Budget;
+
+  /** the start of training (nano seconds, only meaningful while training). */
+  protected transient long m_Start;
+
+  /** the training time in milli-seconds, -1 if not finished yet. */
+  protected long m_Elapsed;
+
+  /** why training stopped, null if not stopped early. */
+  protected String m_StopReason;
+
+  /**
+   * Starts the clock.
+   *
+   * @param budget	the budget in seconds, 0 for unlimited
+   */
+  public TrainingBudget(double budget) {
+    if (budget < 0)
+      throw new IllegalArgumentException("Budget cannot be negative: " + budget);
+    m_Budget     = budget;
+    m_Start      = System.nanoTime();
+    m_Elapsed    = -1;
+    m_StopReason = null;
+  }
+
+  /**
+   * Returns the budget.
+   *
+   * @return		the budget in seconds, 0 for unlimited
+   */
+  public double getBudget() {
+    return m_Budget;
+  }
+
+  /**
+   * Returns whether the time is limited.
+   *
+   * @return		true if limited
+   */
+  public boolean isLimited() {
+    return (m_Budget > 0);
+  }
+
+  /**
+   * Returns whether the budget is used up.
+   *
+   * @return		true if used up, always false if unlimited
+   */
+  public boolean isExceeded() {
+    return isLimited() && (System.nanoTime() - m_Start >= (long) (m_Budget * 1e9));
+  }
+
+  /**
+   * Records that training stopped early. Only the first reason is kept.
+   *
+   * @param reason	why training stopped
+   */
+  public void stop(String reason) {
+    if (m_StopReason == null)
+      m_StopReason = reason;
+  }
+
+  /**
+   * Returns whether training stopped early.
+   *
+   * @return		true if stopped early
+   */
+  public boolean isStopped() {
+    return (m_StopReason != null);
+  }
+
+  /**
+   * Records the training time, once training has finished.
+   */
+  public void finish() {
+    if (m_Elapsed == -1)
+      m_Elapsed = (System.nanoTime() - m_Start) / 1000000L;
+  }
+
+  /**
+   * Returns the training time.
+   *
+   * @return		the time in milli-seconds, -1 if not finished yet
+   */
+  public long getElapsed() {
+    return m_Elapsed;
+  }
+
+  /**
+   * Returns why training stopped.
+   *
+   * @return		the reason, {@link #COMPLETED} if not stopped early
+   */
+  public String getStopReason() {
+    return (m_StopReason == null) ? COMPLETED : m_StopReason;
+  }
+
+  /**
+   * Returns why training stopped and the time it took.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    StringBuilder	result;
+
+    result = new StringBuilder(getStopReason());
+    result.append(" (");
+    if (m_Elapsed > -1)
+      result.append("took ").append(m_Elapsed).append("ms, ");
+    if (isLimited())
+      result.append("budget: ").append(m_Budget).append("s)");
+    else
+      result.append("no budget)");
+
+    return result.toString();
+  }
+}
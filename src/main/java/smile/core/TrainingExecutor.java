@@ -0,0 +1,310 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TrainingExecutor.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs training tasks (eg the trees of a forest) with a fixed number of
+ * threads or on a supplied executor, unlike SMILE's global
+ * MulticoreExecutor which always uses all cores. Several trainings on the
+ * same machine can therefore partition the cores between them, or share a
+ * single executor.
+ * <br>
+ * The own pool gets created with the first run and reused by the following
+ * ones (eg all the batches of trees of an iterative training session), until
+ * {@link #shutdown()} gets called; a later run creates a new pool. Idle
+ * threads time out, in case the executor gets discarded without shutdown.
+ * <br>
+ * Records how many tasks each thread ran, how long it was busy and how much
+ * CPU time it got (if supported by the JVM), relative to the wall time of
+ * the runs. Busy time well above CPU time indicates that the machine is
+ * oversubscribed.
+ *
+ * @author agent (agent at local)
+ */
+public class TrainingExecutor {
+
+  /** the time after which idle threads of the own pool terminate (seconds). */
+  public static final int KEEP_ALIVE = 60;
+
+  /** the number of threads. */
+  protected int m_NumThreads;
+
+  /** the supplied executor, null if using an own pool. */
+  protected ExecutorService m_Executor;
+
+  /** the own pool, null if not created yet or shut down. */
+  protected ThreadPoolExecutor m_Pool;
+
+  /** the number of tasks, busy and CPU nano seconds per thread. */
+  protected Map<String,long[]> m_Busy;
+
+  /** the total wall time of the runs (nano seconds). */
+  protected long m_WallTime;
+
+  /**
+   * Initializes the executor with its own pool.
+   *
+   * @param numThreads	the number of threads, -1 for the number of available processors
+   */
+  public TrainingExecutor(int numThreads) {
+    if (numThreads == -1)
+      numThreads = Runtime.getRuntime().availableProcessors();
+    if (numThreads < 1)
+      throw new IllegalArgumentException("Invalid number of threads: " + numThreads);
+    m_NumThreads = numThreads;
+    m_Executor   = null;
+    m_Busy       = new TreeMap<String,long[]>();
+  }
+
+  /**
+   * Initializes the executor with a supplied executor, which does not get
+   * shut down.
+   *
+   * @param executor	the executor to use
+   * @param numThreads	the number of threads of the executor (for reporting)
+   */
+  public TrainingExecutor(ExecutorService executor, int numThreads) {
+    this(numThreads);
+    m_Executor = executor;
+  }
+
+  /**
+   * Returns the number of threads.
+   *
+   * @return		the number of threads
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the own pool, creates it if necessary.
+   *
+   * @return		the pool
+   */
+  protected synchronized ExecutorService getPool() {
+    final AtomicInteger	count;
+
+    if (m_Pool == null) {
+      count  = new AtomicInteger();
+      m_Pool = new ThreadPoolExecutor(
+	m_NumThreads, m_NumThreads, KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+	@Override
+	public Thread newThread(Runnable r) {
+	  Thread	result;
+	  result = new Thread(r, TrainingExecutor.class.getSimpleName() + "-" + count.incrementAndGet());
+	  result.setDaemon(true);
+	  return result;
+	}
+      });
+      m_Pool.allowCoreThreadTimeOut(true);
+    }
+
+    return m_Pool;
+  }
+
+  /**
+   * Shuts down the own pool, if any. A supplied executor does not get shut
+   * down. Further runs create a new pool.
+   */
+  public synchronized void shutdown() {
+    if (m_Pool != null) {
+      m_Pool.shutdownNow();
+      m_Pool = null;
+    }
+  }
+
+  /**
+   * Records a task.
+   *
+   * @param thread	the name of the thread that ran the task
+   * @param busy	the time the task took (nano seconds)
+   * @param cpu		the CPU time the task took (nano seconds), -1 if not available
+   */
+  protected synchronized void record(String thread, long busy, long cpu) {
+    long[]	stats;
+
+    stats = m_Busy.get(thread);
+    if (stats == null) {
+      stats = new long[3];
+      m_Busy.put(thread, stats);
+    }
+    stats[0]++;
+    stats[1] += busy;
+    stats[2] = ((cpu == -1) || (stats[2] == -1)) ? -1 : stats[2] + cpu;
+  }
+
+  /**
+   * Returns the CPU time of the current thread.
+   *
+   * @return		the time in nano seconds, -1 if not supported
+   */
+  protected static long cpuTime() {
+    ThreadMXBean	bean;
+
+    bean = ManagementFactory.getThreadMXBean();
+    if (!bean.isCurrentThreadCpuTimeSupported())
+      return -1;
+    return bean.getCurrentThreadCpuTime();
+  }
+
+  /**
+   * Wraps the task to record its time.
+   *
+   * @param task	the task to wrap
+   * @param <T>		the type of result
+   * @return		the wrapped task
+   */
+  protected <T> Callable<T> wrap(final Callable<T> task) {
+    return new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+	long	start;
+	long	cpu;
+	start = System.nanoTime();
+	cpu   = cpuTime();
+	try {
+	  return task.call();
+	}
+	finally {
+	  record(Thread.currentThread().getName(), System.nanoTime() - start, (cpu == -1) ? -1 : cpuTime() - cpu);
+	}
+      }
+    };
+  }
+
+  /**
+   * Runs the tasks and returns their results in the order of the tasks.
+   * With a single thread, the tasks run in the calling thread.
+   *
+   * @param tasks	the tasks to run
+   * @param <T>		the type of result
+   * @return		the results
+   * @throws Exception	if a task fails or the run gets interrupted
+   */
+  public <T> List<T> run(List<? extends Callable<T>> tasks) throws Exception {
+    List<T>		result;
+    List<Future<T>>	futures;
+    ExecutorService	pool;
+    long		start;
+    int			i;
+
+    result = new ArrayList<T>();
+    start  = System.nanoTime();
+    try {
+      if ((m_Executor == null) && ((m_NumThreads == 1) || (tasks.size() == 1))) {
+	for (i = 0; i < tasks.size(); i++)
+	  result.add(wrap(tasks.get(i)).call());
+	return result;
+      }
+
+      pool    = (m_Executor == null) ? getPool() : m_Executor;
+      futures = new ArrayList<Future<T>>();
+      try {
+	for (i = 0; i < tasks.size(); i++)
+	  futures.add(pool.submit(wrap(tasks.get(i))));
+	for (i = 0; i < futures.size(); i++)
+	  result.add(futures.get(i).get());
+      }
+      catch (ExecutionException e) {
+	for (Future<T> future: futures)
+	  future.cancel(true);
+	if (e.getCause() instanceof Exception)
+	  throw (Exception) e.getCause();
+	throw e;
+      }
+    }
+    finally {
+      synchronized(this) {
+	m_WallTime += System.nanoTime() - start;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the total wall time of the runs.
+   *
+   * @return		the time in milli seconds
+   */
+  public synchronized long getWallTime() {
+    return m_WallTime / 1000000;
+  }
+
+  /**
+   * Returns the utilisation per thread: busy time relative to the wall time
+   * of the runs.
+   *
+   * @return		the utilisation (0-1) per thread name
+   */
+  public synchronized Map<String,Double> getUtilisation() {
+    Map<String,Double>	result;
+
+    result = new TreeMap<String,Double>();
+    for (String thread: m_Busy.keySet())
+      result.put(thread, (m_WallTime == 0) ? 0.0 : (double) m_Busy.get(thread)[1] / m_WallTime);
+
+    return result;
+  }
+
+  /**
+   * Returns the number of tasks, busy time and utilisation per thread.
+   *
+   * @return		the statistics
+   */
+  @Override
+  public synchronized String toString() {
+    StringBuilder	result;
+    long[]		stats;
+
+    result = new StringBuilder();
+    result.append("Threads: ").append(m_NumThreads).append(", wall time: ").append(getWallTime()).append("ms");
+    for (String thread: m_Busy.keySet()) {
+      stats = m_Busy.get(thread);
+      result.append("\n  ").append(thread).append(": ").append(stats[0]).append(" tasks, busy ")
+	.append(stats[1] / 1000000).append("ms (")
+	.append(String.format(Locale.ENGLISH, "%.1f", (m_WallTime == 0) ? 0.0 : 100.0 * stats[1] / m_WallTime)).append("%)");
+      if (stats[2] != -1)
+	result.append(", CPU ").append(stats[2] / 1000000).append("ms (")
+	  .append(String.format(Locale.ENGLISH, "%.1f", (m_WallTime == 0) ? 0.0 : 100.0 * stats[2] / m_WallTime)).append("%)");
+    }
+
+    return result.toString();
+  }
+}
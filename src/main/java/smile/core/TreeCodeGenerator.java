@@ -0,0 +1,654 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TreeCodeGenerator.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.regression.Regression;
+import weka.core.Instances;
+import weka.core.SerializationHelper;
+import weka.core.Utils;
+import weka.core.converters.ConverterUtils.DataSource;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates Java source code for {@link CompactTrees} (nested if/else
+ * statements with the original thresholds, one static method per tree),
+ * compiles it in memory via javax.tools and loads it with a private class
+ * loader, which allows the JIT to inline the tree structure.
+ * <br>
+ * Large trees get split into several methods of at most
+ * {@link #MAX_METHOD_NODES} nodes, to stay below the size limit for
+ * methods that the JIT compiles, and the trees get distributed across
+ * several classes. Requires a JDK at runtime.
+ * <br>
+ * The main method checks the generated code against the original SMILE
+ * forest on held-out data and compares the prediction times.
+ *
+ * @author agent (agent at local)
+ */
+public class TreeCodeGenerator {
+
+  /** the package of the generated classes. */
+  public static final String PACKAGE = "smile.core.generated";
+
+  /** the maximum number of nodes per generated method. */
+  public static final int MAX_METHOD_NODES = 400;
+
+  /** the maximum number of nodes per generated class. */
+  public static final int MAX_CLASS_NODES = 8000;
+
+  /** the maximum number of trees per generated class. */
+  public static final int MAX_CLASS_TREES = 250;
+
+  /** for generating unique class names. */
+  protected static AtomicLong m_Counter = new AtomicLong();
+
+  /**
+   * Source code in memory.
+   */
+  protected static class Source
+    extends SimpleJavaFileObject {
+
+    /** the code. */
+    protected String m_Code;
+
+    /**
+     * Initializes the source.
+     *
+     * @param className	the fully qualified class name
+     * @param code	the code
+     */
+    public Source(String className, String code) {
+      super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+      m_Code = code;
+    }
+
+    /**
+     * Returns the code.
+     *
+     * @param ignoreEncodingErrors	ignored
+     * @return				the code
+     */
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return m_Code;
+    }
+  }
+
+  /**
+   * Byte code in memory.
+   */
+  protected static class ByteCode
+    extends SimpleJavaFileObject {
+
+    /** the byte code. */
+    protected ByteArrayOutputStream m_Bytes;
+
+    /**
+     * Initializes the byte code.
+     *
+     * @param className	the fully qualified class name
+     */
+    public ByteCode(String className) {
+      super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+      m_Bytes = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Returns the stream to write the byte code to.
+     *
+     * @return		the stream
+     */
+    @Override
+    public OutputStream openOutputStream() {
+      return m_Bytes;
+    }
+  }
+
+  /**
+   * Class loader for the generated byte code.
+   */
+  protected static class ByteCodeClassLoader
+    extends ClassLoader {
+
+    /** the byte code per class name. */
+    protected Map<String,ByteCode> m_Classes;
+
+    /**
+     * Initializes the class loader.
+     *
+     * @param parent	the parent class loader
+     * @param classes	the byte code per class name
+     */
+    public ByteCodeClassLoader(ClassLoader parent, Map<String,ByteCode> classes) {
+      super(parent);
+      m_Classes = classes;
+    }
+
+    /**
+     * Defines the class from the generated byte code.
+     *
+     * @param name	the class name
+     * @return		the class
+     * @throws ClassNotFoundException	if not generated
+     */
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      ByteCode	code;
+      byte[]	bytes;
+
+      code = m_Classes.get(name);
+      if (code == null)
+	return super.findClass(name);
+      bytes = code.m_Bytes.toByteArray();
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
+  /** the trees to generate the code for. */
+  protected CompactTrees m_Trees;
+
+  /** the number of nodes in the subtree of each node. */
+  protected int[] m_SubtreeSizes;
+
+  /** the nodes for which methods still need to be generated. */
+  protected LinkedList<Integer> m_Pending;
+
+  /**
+   * Initializes the generator.
+   *
+   * @param trees	the trees to generate the code for
+   */
+  public TreeCodeGenerator(CompactTrees trees) {
+    m_Trees = trees;
+  }
+
+  /**
+   * Computes the sizes of the subtrees.
+   *
+   * @param node	the node to start with
+   * @return		the size of the subtree
+   */
+  protected int computeSizes(int node) {
+    int[]	nodes;
+    int		size;
+
+    nodes = m_Trees.m_Nodes;
+    size  = 1;
+    if (nodes[node * 2 + 1] >= 0) {
+      size += computeSizes(node + 1);
+      size += computeSizes(nodes[node * 2 + 1]);
+    }
+    m_SubtreeSizes[node] = size;
+
+    return size;
+  }
+
+  /**
+   * Returns the Java literal for the value.
+   *
+   * @param value	the value
+   * @return		the literal
+   */
+  protected static String literal(double value) {
+    if (value == Double.POSITIVE_INFINITY)
+      return "Double.POSITIVE_INFINITY";
+    if (value == Double.NEGATIVE_INFINITY)
+      return "Double.NEGATIVE_INFINITY";
+    // shortest representation that converts back to the same double
+    return Double.toString(value);
+  }
+
+  /**
+   * Generates the statements for the node and its children.
+   *
+   * @param node	the node
+   * @param budget	the remaining number of nodes for the current method
+   * @param code	for adding the code
+   * @return		the remaining budget
+   */
+  protected int generateNode(int node, int budget, StringBuilder code) {
+    int[]	nodes;
+    int		split;
+    int		feature;
+    int		bin;
+    int		next;
+
+    nodes = m_Trees.m_Nodes;
+    next  = nodes[node * 2 + 1];
+    if (next < 0) {
+      code.append("return ").append(~next).append(";\n");
+      return budget - 1;
+    }
+    if (m_SubtreeSizes[node] > budget) {
+      m_Pending.add(node);
+      code.append("return n").append(node).append("(x);\n");
+      return budget - 1;
+    }
+
+    split   = nodes[node * 2];
+    feature = (split >>> 16) & 0x7FFF;
+    bin     = split & 0xFFFF;
+    code.append("if (x[").append(feature).append("] ");
+    if ((split & CompactTrees.NOMINAL) != 0)
+      code.append("== ").append(literal(bin));
+    else
+      code.append("<= ").append(literal(m_Trees.m_Thresholds[feature][bin]));
+    code.append(") {\n");
+    budget = generateNode(node + 1, budget - 1, code);
+    code.append("} else {\n");
+    budget = generateNode(next, budget, code);
+    code.append("}\n");
+
+    return budget;
+  }
+
+  /**
+   * Generates the class for a range of trees.
+   *
+   * @param simpleName	the simple name of the class
+   * @param first	the first tree (incl)
+   * @param last	the last tree (excl)
+   * @return		the code
+   */
+  protected String generatePart(String simpleName, int first, int last) {
+    StringBuilder	result;
+    int		node;
+    int		i;
+
+    result = new StringBuilder();
+    result.append("package ").append(PACKAGE).append(";\n\n");
+    result.append("final class ").append(simpleName).append(" {\n\n");
+
+    // dispatch
+    result.append("static void leaves(double[] x, int[] l) {\n");
+    for (i = first; i < last; i++)
+      result.append("l[").append(i).append("] = n").append(m_Trees.m_Roots[i]).append("(x);\n");
+    result.append("}\n\n");
+    result.append("static int leaf(int tree, double[] x) {\n");
+    result.append("switch (tree) {\n");
+    for (i = first; i < last; i++)
+      result.append("case ").append(i).append(": return n").append(m_Trees.m_Roots[i]).append("(x);\n");
+    result.append("default: throw new IllegalArgumentException(\"Invalid tree index: \" + tree);\n}\n}\n\n");
+
+    // trees
+    for (i = first; i < last; i++)
+      m_Pending.add(m_Trees.m_Roots[i]);
+    while (!m_Pending.isEmpty()) {
+      node = m_Pending.removeFirst();
+      result.append("private static int n").append(node).append("(double[] x) {\n");
+      // the node itself always gets generated in this method
+      m_SubtreeSizes[node] = Math.min(m_SubtreeSizes[node], MAX_METHOD_NODES);
+      generateNode(node, MAX_METHOD_NODES, result);
+      result.append("}\n\n");
+    }
+
+    result.append("}\n");
+
+    return result.toString();
+  }
+
+  /**
+   * Generates the source code. The trees get distributed across several
+   * classes of at most {@link #MAX_CLASS_NODES} nodes and
+   * {@link #MAX_CLASS_TREES} trees each, to stay within the limits of the
+   * constant pool of a class; the main class only dispatches.
+   *
+   * @param simpleName	the simple name of the main class
+   * @return		the code per fully qualified class name (main class first)
+   */
+  public Map<String,String> generate(String simpleName) {
+    Map<String,String>	result;
+    StringBuilder	main;
+    List<Integer>	starts;
+    String		part;
+    int			numTrees;
+    int			nodes;
+    int			size;
+    int			first;
+    int			i;
+
+    numTrees       = m_Trees.numTrees();
+    m_SubtreeSizes = new int[m_Trees.numNodes()];
+    m_Pending      = new LinkedList<Integer>();
+    for (i = 0; i < numTrees; i++)
+      computeSizes(m_Trees.m_Roots[i]);
+
+    // distribute trees
+    starts = new ArrayList<Integer>();
+    nodes  = 0;
+    for (i = 0; i < numTrees; i++) {
+      size = m_SubtreeSizes[m_Trees.m_Roots[i]];
+      if (starts.isEmpty() || (nodes + size > MAX_CLASS_NODES) || (i - starts.get(starts.size() - 1) == MAX_CLASS_TREES)) {
+	starts.add(i);
+	nodes = 0;
+      }
+      nodes += size;
+    }
+    starts.add(numTrees);
+
+    result = new LinkedHashMap<String,String>();
+    main   = new StringBuilder();
+    main.append("package ").append(PACKAGE).append(";\n\n");
+    main.append("public final class ").append(simpleName).append(" implements ").append(CompiledTrees.class.getName()).append(" {\n\n");
+    main.append("public int numTrees() {\nreturn ").append(numTrees).append(";\n}\n\n");
+    main.append("public void leaves(double[] x, int[] l) {\n");
+    for (i = 0; i < starts.size() - 1; i++)
+      main.append(simpleName).append("_").append(i).append(".leaves(x, l);\n");
+    main.append("}\n\n");
+    main.append("public int leaf(int tree, double[] x) {\n");
+    for (i = 0; i < starts.size() - 1; i++)
+      main.append("if (tree < ").append(starts.get(i + 1)).append(") return ").append(simpleName).append("_").append(i).append(".leaf(tree, x);\n");
+    main.append("throw new IllegalArgumentException(\"Invalid tree index: \" + tree);\n}\n\n");
+    main.append("}\n");
+    result.put(PACKAGE + "." + simpleName, main.toString());
+
+    for (i = 0; i < starts.size() - 1; i++) {
+      first = starts.get(i);
+      part  = simpleName + "_" + i;
+      result.put(PACKAGE + "." + part, generatePart(part, first, starts.get(i + 1)));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the class path for compiling the generated code, ie the
+   * location of this package and the system class path.
+   *
+   * @return		the class path
+   */
+  protected static String getClassPath() {
+    String	result;
+
+    result = System.getProperty("java.class.path");
+    try {
+      result = new File(CompiledTrees.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath()
+	+ File.pathSeparator + result;
+    }
+    catch (Exception e) {
+      // ignored, fall back to system class path
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates, compiles and instantiates the code for the trees.
+   *
+   * @return		the compiled trees
+   * @throws Exception	if no compiler available or compilation fails
+   */
+  public CompiledTrees compile() throws Exception {
+    JavaCompiler				compiler;
+    DiagnosticCollector<JavaFileObject>		diagnostics;
+    StandardJavaFileManager			standard;
+    ForwardingJavaFileManager<StandardJavaFileManager>	manager;
+    final Map<String,ByteCode>			classes;
+    ClassLoader					loader;
+    List<String>				options;
+    String					simpleName;
+    String					className;
+    StringBuilder				errors;
+    List<Source>				sources;
+    boolean					success;
+
+    compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null)
+      throw new IllegalStateException("No Java compiler available, running on a JRE instead of a JDK?");
+
+    simpleName  = "Trees" + m_Counter.incrementAndGet();
+    className   = PACKAGE + "." + simpleName;
+    classes     = new HashMap<String,ByteCode>();
+    diagnostics = new DiagnosticCollector<JavaFileObject>();
+    standard    = compiler.getStandardFileManager(diagnostics, null, null);
+    manager     = new ForwardingJavaFileManager<StandardJavaFileManager>(standard) {
+      @Override
+      public JavaFileObject getJavaFileForOutput(Location location, String name, Kind kind, FileObject sibling) {
+	ByteCode code = new ByteCode(name);
+	classes.put(name, code);
+	return code;
+      }
+    };
+    options = new ArrayList<String>(Arrays.asList("-g:none", "-nowarn", "-classpath", getClassPath()));
+    sources = new ArrayList<Source>();
+    for (Map.Entry<String,String> entry: generate(simpleName).entrySet())
+      sources.add(new Source(entry.getKey(), entry.getValue()));
+    try {
+      success = compiler.getTask(null, manager, diagnostics, options, null, sources).call();
+    }
+    finally {
+      manager.close();
+    }
+    if (!success) {
+      errors = new StringBuilder();
+      for (Diagnostic<? extends JavaFileObject> diagnostic: diagnostics.getDiagnostics())
+	errors.append("\n").append(diagnostic.getMessage(null));
+      throw new IllegalStateException("Failed to compile generated trees:" + errors);
+    }
+
+    loader = new ByteCodeClassLoader(CompiledTrees.class.getClassLoader(), classes);
+    return (CompiledTrees) loader.loadClass(className).newInstance();
+  }
+
+  /**
+   * Compares the leaves determined by the compiled trees with the ones of
+   * the compact trees.
+   *
+   * @param trees	the compact trees
+   * @param compiled	the compiled trees
+   * @param x		the rows to check
+   * @return		the number of rows with differences
+   */
+  public static int verify(CompactTrees trees, CompiledTrees compiled, double[][] x) {
+    int		result;
+    int[]	leaves;
+    char[]	bins;
+    int		i;
+    int		n;
+
+    result = 0;
+    leaves = new int[trees.numTrees()];
+    for (i = 0; i < x.length; i++) {
+      bins = trees.bin(x[i]);
+      compiled.leaves(x[i], leaves);
+      for (n = 0; n < leaves.length; n++) {
+	if ((leaves[n] != trees.leaf(n, bins)) || (compiled.leaf(n, x[i]) != leaves[n])) {
+	  result++;
+	  break;
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates the compact form of the SMILE forest.
+   *
+   * @param forest	the SMILE forest (classification or regression)
+   * @param header	the training structure
+   * @param generate	whether to generate code
+   * @return		the compact forest
+   * @throws Exception	if compilation fails
+   */
+  protected static Object compact(Object forest, SmileDatasetHeader header, boolean generate) throws Exception {
+    smile.classification.CompactRandomForest	classification;
+    smile.regression.CompactRandomForest	regression;
+    java.util.List				trees;
+    smile.classification.SoftClassifier[]	dtrees;
+    double[]					weights;
+    int						i;
+
+    if (forest instanceof smile.regression.RandomForest) {
+      regression = new smile.regression.CompactRandomForest((smile.regression.RandomForest) forest, header.getDataset().attributes());
+      regression.getTrees().setGenerateCode(generate);
+      return regression;
+    }
+    if (forest instanceof smile.regression.RandomForestModel) {
+      regression = new smile.regression.CompactRandomForest(((smile.regression.RandomForestModel) forest).getTrees(), header.getDataset().attributes());
+      regression.getTrees().setGenerateCode(generate);
+      return regression;
+    }
+
+    if (forest instanceof smile.classification.RandomForestModel) {
+      dtrees  = ((smile.classification.RandomForestModel) forest).getTrees();
+      weights = ((smile.classification.RandomForestModel) forest).getWeights();
+    }
+    else {
+      trees   = (java.util.List) SmileReflectionUtils.getField(forest, "trees");
+      dtrees  = new smile.classification.SoftClassifier[trees.size()];
+      weights = new double[trees.size()];
+      for (i = 0; i < trees.size(); i++) {
+	dtrees[i]  = (smile.classification.DecisionTree) SmileReflectionUtils.getField(trees.get(i), "tree");
+	weights[i] = (Double) SmileReflectionUtils.getField(trees.get(i), "weight");
+      }
+    }
+    classification = new smile.classification.CompactRandomForest(
+      dtrees, weights, header.getDataset().attributes(), header.getInstances().classAttribute().numValues());
+    classification.getTrees().setGenerateCode(generate);
+
+    return classification;
+  }
+
+  /**
+   * Makes predictions for all rows.
+   *
+   * @param model	the SMILE model
+   * @param x		the rows
+   * @param output	for storing the predictions (label/target followed by posteriors)
+   */
+  protected static void predict(Object model, double[][] x, double[][] output) {
+    int		i;
+
+    for (i = 0; i < x.length; i++) {
+      if (model instanceof Regression)
+	output[i][0] = ((Regression<double[]>) model).predict(x[i]);
+      else
+	output[i][0] = ((smile.classification.SoftClassifier<double[]>) model).predict(x[i], Arrays.copyOfRange(output[i], 1, output[i].length));
+    }
+  }
+
+  /**
+   * Checks and times the generated code against the original SMILE forest
+   * and the interpreted compact trees on held-out data.
+   * <br>
+   * Options: -model file -data file [-iterations 10]
+   * <br>
+   * The model must be a SmileRandomForest (classification or regression)
+   * trained without the compactTrees/generateCode options.
+   *
+   * @param args	the options
+   * @throws Exception	if loading, compiling or predicting fails
+   */
+  public static void main(String[] args) throws Exception {
+    ModelScorer		scorer;
+    Object		forest;
+    Object[]		models;
+    String[]		names;
+    SmileDatasetHeader	header;
+    Instances		data;
+    Instances		mapped;
+    double[][]		x;
+    double[][][]	output;
+    long[]		best;
+    String		model;
+    String		file;
+    String		value;
+    int			iterations;
+    int			diffs;
+    long		start;
+    int			i;
+    int			n;
+    int			m;
+
+    model = Utils.getOption("model", args);
+    file  = Utils.getOption("data", args);
+    if (model.isEmpty() || file.isEmpty()) {
+      System.err.println("Usage: " + TreeCodeGenerator.class.getName() + " -model <file> -data <file> [-iterations 10]");
+      System.exit(1);
+    }
+    iterations = ((value = Utils.getOption("iterations", args)).isEmpty()) ? 10 : Integer.parseInt(value);
+
+    scorer = new ModelScorer(SerializationHelper.read(model), 6);
+    forest = SmileReflectionUtils.getField(scorer.getModel(), "m_Model");
+    if (!(forest instanceof smile.classification.RandomForest) && !(forest instanceof smile.regression.RandomForest)
+      && !(forest instanceof smile.classification.RandomForestModel) && !(forest instanceof smile.regression.RandomForestModel))
+      throw new IllegalArgumentException("Model does not contain a SMILE random forest: " + forest.getClass().getName());
+    header = (SmileDatasetHeader) SmileReflectionUtils.getField(scorer.getModel(), "m_Header");
+
+    data   = DataSource.read(file);
+    mapped = new Instances(scorer.getHeader(), data.numInstances());
+    x      = new double[data.numInstances()][];
+    for (i = 0; i < data.numInstances(); i++) {
+      mapped.add(scorer.map(data.instance(i)));
+      x[i] = SmileDatasetUtils.convertInstance(mapped.lastInstance(), header.getDataset());
+    }
+
+    start  = System.currentTimeMillis();
+    models = new Object[]{forest, compact(forest, header, false), compact(forest, header, true)};
+    names  = new String[]{"original", "compact", "generated"};
+    System.out.println("Compiled in " + (System.currentTimeMillis() - start) + "ms");
+
+    output = new double[models.length][x.length][(forest instanceof Regression) ? 1 : 1 + header.getInstances().classAttribute().numValues()];
+    best   = new long[models.length];
+    Arrays.fill(best, Long.MAX_VALUE);
+    for (n = 0; n < iterations; n++) {
+      for (m = 0; m < models.length; m++) {
+	start   = System.nanoTime();
+	predict(models[m], x, output[m]);
+	best[m] = Math.min(best[m], System.nanoTime() - start);
+      }
+    }
+
+    for (m = 1; m < models.length; m++) {
+      diffs = 0;
+      for (i = 0; i < x.length; i++) {
+	if (!Arrays.equals(output[0][i], output[m][i]))
+	  diffs++;
+      }
+      System.out.println(names[m] + ": " + diffs + " of " + x.length + " rows differ from original");
+    }
+    for (m = 0; m < models.length; m++)
+      System.out.println(names[m] + ": " + Utils.doubleToString((double) best[m] / x.length, 1) + "ns/row (best of " + iterations + ")");
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * VectorOps.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * The vector operations used by the kernels and distances in their hot
+ * paths. Obtain the implementation for the current JVM via
+ * {@link VectorOpsProvider#get()}.
+ *
+ * @author agent (agent at local)
+ */
+public interface VectorOps {
+
+  /**
+   * Computes the dot product of the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the dot product
+   */
+  public double dot(double[] x, double[] y);
+
+  /**
+   * Computes the squared Euclidean distance between the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the squared distance
+   */
+  public double squaredDistance(double[] x, double[] y);
+
+  /**
+   * Computes the sum of the square roots of the element-wise products of
+   * the two vectors (Hellinger kernel).
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the sum
+   */
+  public double sqrtProductSum(double[] x, double[] y);
+
+  /**
+   * Returns a short description of the implementation.
+   *
+   * @return		the description
+   */
+  public String getName();
+}
@@ -0,0 +1,53 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * VectorOpsProvider.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * Provides the vector operations for the current JVM. This is the Java 6
+ * version, which always uses {@link ScalarVectorOps}. The multi-release jar
+ * contains a version for Java 16+ (META-INF/versions/16) that uses the
+ * Vector API instead, if the jdk.incubator.vector module is available
+ * (run with <code>--add-modules jdk.incubator.vector</code>).
+ * <br>
+ * The system property {@link #PROPERTY_SCALAR} set to "true" enforces the
+ * scalar implementation.
+ *
+ * @author agent (agent at local)
+ */
+public class VectorOpsProvider {
+
+  /** the system property for enforcing the scalar implementation. */
+  public static final String PROPERTY_SCALAR = "smile.vectorops.scalar";
+
+  /** the implementation. */
+  protected static VectorOps m_Ops;
+
+  /**
+   * Returns the vector operations to use.
+   *
+   * @return		the implementation
+   */
+  public static synchronized VectorOps get() {
+    if (m_Ops == null)
+      m_Ops = new ScalarVectorOps();
+    return m_Ops;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FastEuclideanDistance.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.math.distance;
+
+import smile.core.SmileMathUtils;
+
+/**
+ * Euclidean distance using
+ * {@link SmileMathUtils#squaredDistance(double[], double[])}, ie the SIMD
+ * or scalar implementation picked by {@link smile.core.VectorOpsProvider}.
+ * Missing values (NaN) get handled like {@link EuclideanDistance} does, ie
+ * skipped and the sum rescaled, using a separate loop. Results can differ
+ * from {@link EuclideanDistance} in the last digits.
+ *
+ * @author agent (agent at local)
+ */
+public class FastEuclideanDistance
+  extends EuclideanDistance {
+
+  private static final long serialVersionUID = -7401734120587245133L;
+
+  /**
+   * Computes the distance.
+   *
+   * @param x		the first vector
+   * @param y		the second vector
+   * @return		the distance
+   */
+  @Override
+  public double d(double[] x, double[] y) {
+    double	result;
+
+    if (x.length != y.length)
+      throw new IllegalArgumentException(String.format("Arrays have different length: x[%d], y[%d]", x.length, y.length));
+
+    result = SmileMathUtils.squaredDistance(x, y);
+    // NaN propagates, ie missing values are present
+    if (Double.isNaN(result))
+      return super.d(x, y);
+
+    return Math.sqrt(result);
+  }
+}
@@ -20,6 +20,15 @@
 
 package smile.math.distance;
 
+import weka.core.Option;
+import weka.core.Utils;
+import weka.core.WekaOptionUtils;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Vector;
+
 /**
  * Euclidean distance.
  *
@@ -30,6 +39,12 @@ public class SmileEuclideanDistance
 
   private static final long serialVersionUID = -3657858010202972888L;
 
+  /** the flag for {@link #m_FastEvaluation}. */
+  public final static String FASTEVALUATION = "fast-evaluation";
+
+  /** whether to use the optimized implementation. */
+  protected boolean m_FastEvaluation = false;
+
   /**
    * Returns a description of the distance.
    *
@@ -41,12 +56,83 @@ public class SmileEuclideanDistance
   }
 
   /**
-   * Returns a new instance of the distance function.
+   * Returns an enumeration describing the available options.
+   *
+   * @return an enumeration of all the available options.
+   */
+  @Override
+  public Enumeration<Option> listOptions() {
+    Vector result = new Vector();
+    WekaOptionUtils.addFlag(result, fastEvaluationTipText(), FASTEVALUATION);
+    WekaOptionUtils.add(result, super.listOptions());
+    return WekaOptionUtils.toEnumeration(result);
+  }
+
+  /**
+   * Parses a given list of options.
+   *
+   * @param options the list of options as an array of strings
+   * @throws Exception if an option is not supported
+   */
+  @Override
+  public void setOptions(String[] options) throws Exception {
+    setFastEvaluation(Utils.getFlag(FASTEVALUATION, options));
+    super.setOptions(options);
+  }
+
+  /**
+   * Gets the current settings.
+   *
+   * @return an array of strings suitable for passing to setOptions
+   */
+  @Override
+  public String[] getOptions() {
+    List<String> result = new ArrayList<String>();
+    WekaOptionUtils.add(result, FASTEVALUATION, getFastEvaluation());
+    WekaOptionUtils.add(result, super.getOptions());
+    return WekaOptionUtils.toArray(result);
+  }
+
+  /**
+   * Sets whether to use the optimized implementation instead of the
+   * scalar loop of SMILE.
+   *
+   * @param value	true if to use the optimized implementation
+   */
+  public void setFastEvaluation(boolean value) {
+    m_FastEvaluation = value;
+  }
+
+  /**
+   * Returns whether to use the optimized implementation instead of the
+   * scalar loop of SMILE.
+   *
+   * @return		true if to use the optimized implementation
+   */
+  public boolean getFastEvaluation() {
+    return m_FastEvaluation;
+  }
+
+  /**
+   * Returns the help string for fastEvaluation.
+   *
+   * @return		the help string
+   */
+  public String fastEvaluationTipText() {
+    return "Whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.";
+  }
+
+  /**
+   * Returns a new instance of the distance function, the optimized
+   * implementation if fast evaluation is enabled.
    *
    * @return		the distance function
    */
   @Override
   public EuclideanDistance getDistance() {
-    return new EuclideanDistance();
+    if (m_FastEvaluation)
+      return new FastEuclideanDistance();
+    else
+      return new EuclideanDistance();
   }
 }
@@ -0,0 +1,66 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FastGaussianKernel.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.math.kernel;
+
+import smile.core.SmileMathUtils;
+
+/**
+ * Gaussian kernel using
+ * {@link SmileMathUtils#squaredDistance(double[], double[])} (SIMD or
+ * scalar, see {@link smile.core.VectorOpsProvider}) and
+ * {@link SmileMathUtils#exp(double)}. Results can differ from
+ * {@link GaussianKernel} in the last digits.
+ *
+ * @author agent (agent at local)
+ */
+public class FastGaussianKernel
+  extends GaussianKernel {
+
+  private static final long serialVersionUID = 6172931838446282749L;
+
+  /** the width parameter (1 / (2 sigma^2)). */
+  protected double m_Gamma;
+
+  /**
+   * Initializes the kernel.
+   *
+   * @param sigma	the smooth/width parameter
+   */
+  public FastGaussianKernel(double sigma) {
+    super(sigma);
+    m_Gamma = 0.5 / (sigma * sigma);
+  }
+
+  /**
+   * Computes the kernel value.
+   *
+   * @param x		the first vector
+   * @param y		the second vector
+   * @return		the kernel value
+   */
+  @Override
+  public double k(double[] x, double[] y) {
+    if (x.length != y.length)
+      throw new IllegalArgumentException(String.format("Arrays have different length: x[%d], y[%d]", x.length, y.length));
+
+    return SmileMathUtils.exp(-m_Gamma * SmileMathUtils.squaredDistance(x, y));
+  }
+}
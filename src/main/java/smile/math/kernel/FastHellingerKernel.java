@@ -0,0 +1,52 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FastHellingerKernel.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.math.kernel;
+
+import smile.core.SmileMathUtils;
+
+/**
+ * Hellinger kernel using
+ * {@link SmileMathUtils#sqrtProductSum(double[], double[])}, ie the SIMD or
+ * scalar implementation picked by {@link smile.core.VectorOpsProvider}.
+ * Results can differ from {@link HellingerKernel} in the last digits.
+ *
+ * @author agent (agent at local)
+ */
+public class FastHellingerKernel
+  extends HellingerKernel {
+
+  private static final long serialVersionUID = -3052478712404591870L;
+
+  /**
+   * Computes the kernel value.
+   *
+   * @param x		the first vector
+   * @param y		the second vector
+   * @return		the kernel value
+   */
+  @Override
+  public double k(double[] x, double[] y) {
+    if (x.length != y.length)
+      throw new IllegalArgumentException(String.format("Arrays have different length: x[%d], y[%d]", x.length, y.length));
+
+    return SmileMathUtils.sqrtProductSum(x, y);
+  }
+}
@@ -40,12 +40,16 @@ public class SmileGaussianKernel
   }
 
   /**
-   * Returns a new instance of the kernel.
+   * Returns a new instance of the kernel, the optimized implementation if
+   * fast evaluation is enabled.
    *
    * @return		the kernel
    */
   @Override
   public GaussianKernel getKernel() {
-    return new GaussianKernel(m_Sigma);
+    if (m_FastEvaluation)
+      return new FastGaussianKernel(m_Sigma);
+    else
+      return new GaussianKernel(m_Sigma);
   }
 }
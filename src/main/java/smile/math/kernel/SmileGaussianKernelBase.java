@@ -39,9 +39,15 @@ public abstract class SmileGaussianKernelBase
   /** the flag for {@link #m_Sigma}. */
   public final static String SIGMA = "sigma";
 
+  /** the flag for {@link #m_FastEvaluation}. */
+  public final static String FASTEVALUATION = "fast-evaluation";
+
   /** the sigma value. */
   protected double m_Sigma = getDefaultSigma();
 
+  /** whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits. */
+  protected boolean m_FastEvaluation = getDefaultFastEvaluation();
+
   /**
    * Returns a desription of the class.
    *
@@ -58,6 +64,7 @@ public abstract class SmileGaussianKernelBase
   public Enumeration listOptions() {
     Vector result = new Vector();
     WekaOptionUtils.addOption(result, sigmaTipText(), "" + getDefaultSigma(), SIGMA);
+    WekaOptionUtils.addFlag(result, fastEvaluationTipText(), FASTEVALUATION);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -71,6 +78,7 @@ public abstract class SmileGaussianKernelBase
   @Override
   public void setOptions(String[] options) throws Exception {
     setSigma(WekaOptionUtils.parse(options, SIGMA, getDefaultSigma()));
+    setFastEvaluation(Utils.getFlag(FASTEVALUATION, options));
     super.setOptions(options);
   }
 
@@ -83,6 +91,7 @@ public abstract class SmileGaussianKernelBase
   public String[] getOptions() {
     List<String> result = new ArrayList<String>();
     WekaOptionUtils.add(result, SIGMA, getSigma());
+    WekaOptionUtils.add(result, FASTEVALUATION, getFastEvaluation());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
@@ -128,4 +137,44 @@ public abstract class SmileGaussianKernelBase
   public String sigmaTipText() {
     return "The sigma value; value >= 0.0.";
   }
+
+  /**
+   * The default value for fastEvaluation.
+   *
+   * @return the default value
+   * @see #m_FastEvaluation
+   */
+  protected boolean getDefaultFastEvaluation() {
+    return false;
+  }
+
+  /**
+   * Returns whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.
+   *
+   * @return the current value
+   * @see #m_FastEvaluation
+   */
+  public boolean getFastEvaluation() {
+    return m_FastEvaluation;
+  }
+
+  /**
+   * Sets whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.
+   *
+   * @param value the new value
+   * @see #m_FastEvaluation
+   */
+  public void setFastEvaluation(boolean value) {
+    m_FastEvaluation = value;
+  }
+
+  /**
+   * Returns the help string for fastEvaluation.
+   *
+   * @return the help string
+   * @see #m_FastEvaluation
+   */
+  public String fastEvaluationTipText() {
+    return "Whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.";
+  }
 }
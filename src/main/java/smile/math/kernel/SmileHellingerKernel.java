@@ -40,12 +40,16 @@ public class SmileHellingerKernel
   }
 
   /**
-   * Returns a new instance of the kernel.
+   * Returns a new instance of the kernel, the optimized implementation if
+   * fast evaluation is enabled.
    *
    * @return		the kernel
    */
   @Override
   public HellingerKernel getKernel() {
-    return new HellingerKernel();
+    if (m_FastEvaluation)
+      return new FastHellingerKernel();
+    else
+      return new HellingerKernel();
   }
 }
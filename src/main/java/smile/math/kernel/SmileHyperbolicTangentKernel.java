@@ -40,12 +40,16 @@ public class SmileHyperbolicTangentKernel
   }
 
   /**
-   * Returns a new instance of the kernel.
+   * Returns a new instance of the kernel, the optimized implementation if
+   * fast evaluation is enabled.
    *
    * @return		the kernel
    */
   @Override
   public HyperbolicTangentKernel getKernel() {
-    return new HyperbolicTangentKernel(m_Scale, m_Offset);
+    if (m_FastEvaluation)
+      return new FastHyperbolicTangentKernel(m_Scale, m_Offset);
+    else
+      return new HyperbolicTangentKernel(m_Scale, m_Offset);
   }
 }
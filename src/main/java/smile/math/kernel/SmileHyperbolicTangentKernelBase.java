@@ -42,12 +42,18 @@ public abstract class SmileHyperbolicTangentKernelBase
   /** the flag for {@link #m_Offset}. */
   public final static String OFFSET = "offset";
 
+  /** the flag for {@link #m_FastEvaluation}. */
+  public final static String FASTEVALUATION = "fast-evaluation";
+
   /** the scale. */
   protected double m_Scale = getDefaultScale();
 
   /** the offset. */
   protected double m_Offset = getDefaultOffset();
 
+  /** whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits. */
+  protected boolean m_FastEvaluation = getDefaultFastEvaluation();
+
   /**
    * Returns a desription of the class.
    *
@@ -65,6 +71,7 @@ public abstract class SmileHyperbolicTangentKernelBase
     Vector result = new Vector();
     WekaOptionUtils.addOption(result, scaleTipText(), "" + getDefaultScale(), SCALE);
     WekaOptionUtils.addOption(result, offsetTipText(), "" + getDefaultOffset(), OFFSET);
+    WekaOptionUtils.addFlag(result, fastEvaluationTipText(), FASTEVALUATION);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -79,6 +86,7 @@ public abstract class SmileHyperbolicTangentKernelBase
   public void setOptions(String[] options) throws Exception {
     setScale(WekaOptionUtils.parse(options, SCALE, getDefaultScale()));
     setOffset(WekaOptionUtils.parse(options, OFFSET, getDefaultOffset()));
+    setFastEvaluation(Utils.getFlag(FASTEVALUATION, options));
     super.setOptions(options);
   }
 
@@ -92,6 +100,7 @@ public abstract class SmileHyperbolicTangentKernelBase
     List<String> result = new ArrayList<String>();
     WekaOptionUtils.add(result, SCALE, getScale());
     WekaOptionUtils.add(result, OFFSET, getOffset());
+    WekaOptionUtils.add(result, FASTEVALUATION, getFastEvaluation());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
@@ -175,4 +184,44 @@ public abstract class SmileHyperbolicTangentKernelBase
   public String offsetTipText() {
     return "The offset.";
   }
+
+  /**
+   * The default value for fastEvaluation.
+   *
+   * @return the default value
+   * @see #m_FastEvaluation
+   */
+  protected boolean getDefaultFastEvaluation() {
+    return false;
+  }
+
+  /**
+   * Returns whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.
+   *
+   * @return the current value
+   * @see #m_FastEvaluation
+   */
+  public boolean getFastEvaluation() {
+    return m_FastEvaluation;
+  }
+
+  /**
+   * Sets whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.
+   *
+   * @param value the new value
+   * @see #m_FastEvaluation
+   */
+  public void setFastEvaluation(boolean value) {
+    m_FastEvaluation = value;
+  }
+
+  /**
+   * Returns the help string for fastEvaluation.
+   *
+   * @return the help string
+   * @see #m_FastEvaluation
+   */
+  public String fastEvaluationTipText() {
+    return "Whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.";
+  }
 }
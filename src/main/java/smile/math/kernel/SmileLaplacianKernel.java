@@ -40,12 +40,16 @@ public class SmileLaplacianKernel
   }
 
   /**
-   * Returns a new instance of the kernel.
+   * Returns a new instance of the kernel, the optimized implementation if
+   * fast evaluation is enabled.
    *
    * @return		the kernel
    */
   @Override
   public LaplacianKernel getKernel() {
-    return new LaplacianKernel(m_Sigma);
+    if (m_FastEvaluation)
+      return new FastLaplacianKernel(m_Sigma);
+    else
+      return new LaplacianKernel(m_Sigma);
   }
 }
@@ -40,12 +40,16 @@ public class SmileLinearKernel
   }
 
   /**
-   * Returns a new instance of the kernel.
+   * Returns a new instance of the kernel, the optimized implementation if
+   * fast evaluation is enabled.
    *
    * @return		the kernel
    */
   @Override
   public LinearKernel getKernel() {
-    return new LinearKernel();
+    if (m_FastEvaluation)
+      return new FastLinearKernel();
+    else
+      return new LinearKernel();
   }
 }
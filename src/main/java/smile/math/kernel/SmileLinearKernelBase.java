@@ -36,6 +36,12 @@ import java.util.Vector;
 public abstract class SmileLinearKernelBase
   extends AbstractSmileKernel<smile.math.kernel.LinearKernel> {
 
+  /** the flag for {@link #m_FastEvaluation}. */
+  public final static String FASTEVALUATION = "fast-evaluation";
+
+  /** whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits. */
+  protected boolean m_FastEvaluation = getDefaultFastEvaluation();
+
   /**
    * Returns a desription of the class.
    *
@@ -51,6 +57,7 @@ public abstract class SmileLinearKernelBase
   @Override
   public Enumeration listOptions() {
     Vector result = new Vector();
+    WekaOptionUtils.addFlag(result, fastEvaluationTipText(), FASTEVALUATION);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -63,6 +70,7 @@ public abstract class SmileLinearKernelBase
    */
   @Override
   public void setOptions(String[] options) throws Exception {
+    setFastEvaluation(Utils.getFlag(FASTEVALUATION, options));
     super.setOptions(options);
   }
 
@@ -74,7 +82,48 @@ public abstract class SmileLinearKernelBase
   @Override
   public String[] getOptions() {
     List<String> result = new ArrayList<String>();
+    WekaOptionUtils.add(result, FASTEVALUATION, getFastEvaluation());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
+
+  /**
+   * The default value for fastEvaluation.
+   *
+   * @return the default value
+   * @see #m_FastEvaluation
+   */
+  protected boolean getDefaultFastEvaluation() {
+    return false;
+  }
+
+  /**
+   * Returns whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.
+   *
+   * @return the current value
+   * @see #m_FastEvaluation
+   */
+  public boolean getFastEvaluation() {
+    return m_FastEvaluation;
+  }
+
+  /**
+   * Sets whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.
+   *
+   * @param value the new value
+   * @see #m_FastEvaluation
+   */
+  public void setFastEvaluation(boolean value) {
+    m_FastEvaluation = value;
+  }
+
+  /**
+   * Returns the help string for fastEvaluation.
+   *
+   * @return the help string
+   * @see #m_FastEvaluation
+   */
+  public String fastEvaluationTipText() {
+    return "Whether to use the optimized implementation instead of the scalar loop of SMILE: SIMD via the Vector API on Java 16+ if the jdk.incubator.vector module is added to the JVM, otherwise a scalar loop with four independent accumulators; results can differ in the last digits.";
+  }
 }
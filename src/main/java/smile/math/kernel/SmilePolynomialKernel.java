@@ -40,12 +40,16 @@ public class SmilePolynomialKernel
   }
 
   /**
-   * Returns a new instance of the kernel.
+   * Returns a new instance of the kernel, the optimized implementation if
+   * fast evaluation is enabled.
    *
    * @return		the kernel
    */
   @Override
   public PolynomialKernel getKernel() {
-    return new PolynomialKernel(m_Degree, m_Scale, m_Offset);
+    if (m_FastEvaluation)
+      return new FastPolynomialKernel(m_Degree, m_Scale, m_Offset);
+    else
+      return new PolynomialKernel(m_Degree, m_Scale, m_Offset);
   }
 }
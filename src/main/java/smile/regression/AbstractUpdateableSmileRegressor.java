@@ -26,6 +26,11 @@ import weka.core.Instance;
 
 /**
  * Ancestor of incremental SMILE regressors.
+ * <br>
+ * Thread-safety: {@link #updateClassifier(weka.core.Instance)} modifies the
+ * model in place and must not be called concurrently with itself or with
+ * predictions. Train a copy and swap it in via {@link smile.core.ModelHolder}
+ * when serving predictions from multiple threads.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
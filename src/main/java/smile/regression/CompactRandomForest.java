@@ -0,0 +1,173 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompactRandomForest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import smile.core.CompactTrees;
+import smile.core.SmileReflectionUtils;
+import smile.data.Attribute;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact form of a SMILE random forest for regression, producing the same
+ * predictions (average of the trees). Only the leaves keep their output,
+ * the split structure is stored in {@link CompactTrees}.
+ *
+ * @author agent (agent at local)
+ */
+public class CompactRandomForest
+  implements Regression<double[]> {
+
+  private static final long serialVersionUID = -1857305926478193626L;
+
+  /** the split structure. */
+  protected CompactTrees m_Trees;
+
+  /** the outputs of the leaves. */
+  protected double[] m_LeafOutputs;
+
+  /** the number of leaves (only used during construction). */
+  protected transient int m_NumLeaves;
+
+  /**
+   * Compiles the trees of the forest.
+   *
+   * @param forest	the forest to compile
+   * @param attributes	the attributes of the training data
+   * @throws Exception	if accessing the trees fails or limits are exceeded
+   */
+  public CompactRandomForest(RandomForest forest, Attribute[] attributes) throws Exception {
+    this(((List<RegressionTree>) SmileReflectionUtils.getField(forest, "trees")).toArray(new RegressionTree[0]), attributes);
+  }
+
+  /**
+   * Compiles the trees.
+   *
+   * @param trees	the trees of the forest (RegressionTree or HistogramTree)
+   * @param attributes	the attributes of the training data
+   * @throws Exception	if accessing the trees fails or limits are exceeded
+   */
+  public CompactRandomForest(Regression<double[]>[] trees, Attribute[] attributes) throws Exception {
+    m_LeafOutputs = new double[16];
+    m_NumLeaves   = 0;
+    m_Trees       = new CompactTrees(trees, attributes, new CompactTrees.LeafHandler() {
+      @Override
+      public int leaf(int tree, Object node) throws Exception {
+	return addLeaf((Double) SmileReflectionUtils.getField(node, "output"));
+      }
+    });
+    m_LeafOutputs = Arrays.copyOf(m_LeafOutputs, m_NumLeaves);
+  }
+
+  /**
+   * Adds the leaf to the table.
+   *
+   * @param output	the output of the leaf
+   * @return		the index of the leaf
+   */
+  protected int addLeaf(double output) {
+    if (m_NumLeaves == m_LeafOutputs.length)
+      m_LeafOutputs = Arrays.copyOf(m_LeafOutputs, m_NumLeaves * 2);
+    m_LeafOutputs[m_NumLeaves] = output;
+
+    return m_NumLeaves++;
+  }
+
+  /**
+   * Returns the number of trees.
+   *
+   * @return		the number of trees
+   */
+  public int size() {
+    return m_Trees.numTrees();
+  }
+
+  /**
+   * Returns the split structure.
+   *
+   * @return		the trees
+   */
+  public CompactTrees getTrees() {
+    return m_Trees;
+  }
+
+  /**
+   * Bins the row for use with {@link #predict(int, char[])}.
+   *
+   * @param x		the row
+   * @return		the binned row
+   */
+  public char[] bin(double[] x) {
+    return m_Trees.bin(x);
+  }
+
+  /**
+   * Predicts the target with a single tree.
+   *
+   * @param tree	the index of the tree
+   * @param bins	the binned row
+   * @return		the prediction of the tree
+   */
+  public double predict(int tree, char[] bins) {
+    return m_LeafOutputs[m_Trees.leaf(tree, bins)];
+  }
+
+  /**
+   * Predicts the target as the average of the trees.
+   *
+   * @param x		the row
+   * @return		the prediction
+   */
+  @Override
+  public double predict(double[] x) {
+    int[]	leaves;
+    double	result;
+
+    leaves = new int[m_Trees.numTrees()];
+    m_Trees.leaves(x, leaves);
+    result = 0.0;
+    for (int leaf: leaves)
+      result += m_LeafOutputs[leaf];
+
+    return result / m_Trees.numTrees();
+  }
+
+  /**
+   * Returns the approximate memory footprint of the model.
+   *
+   * @return		the size in bytes
+   */
+  public long sizeInBytes() {
+    return m_Trees.sizeInBytes() + m_LeafOutputs.length * 8L;
+  }
+
+  /**
+   * Returns a short description of the model.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return getClass().getName() + ": " + size() + " trees, " + m_Trees.numNodes() + " nodes, "
+      + (sizeInBytes() / 1024) + " KB";
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExpandedSVR.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import smile.core.KernelExpansion;
+
+/**
+ * SVR in explicit kernel expansion form, eg a reduced set approximation of
+ * a trained SMILE SVR. Only holds the (reduced) vectors, their coefficients
+ * and the bias, not the full set of support vectors.
+ *
+ * @author agent (agent at local)
+ */
+public class ExpandedSVR
+  implements Regression<double[]> {
+
+  private static final long serialVersionUID = 4410872279925013528L;
+
+  /** the expansion. */
+  protected KernelExpansion m_Expansion;
+
+  /**
+   * Initializes the model.
+   *
+   * @param expansion	the expansion
+   */
+  public ExpandedSVR(KernelExpansion expansion) {
+    m_Expansion = expansion;
+  }
+
+  /**
+   * Returns the expansion.
+   *
+   * @return		the expansion
+   */
+  public KernelExpansion getExpansion() {
+    return m_Expansion;
+  }
+
+  /**
+   * Returns the number of vectors.
+   *
+   * @return		the number of vectors
+   */
+  public int size() {
+    return m_Expansion.size();
+  }
+
+  /**
+   * Predicts the target value.
+   *
+   * @param x		the row
+   * @return		the prediction
+   */
+  @Override
+  public double predict(double[] x) {
+    return m_Expansion.predict(x);
+  }
+
+  /**
+   * Predicts the target values of the rows.
+   *
+   * @param x		the rows
+   * @return		the predictions
+   * @see		KernelExpansion#predict(double[][])
+   */
+  @Override
+  public double[] predict(double[][] x) {
+    return m_Expansion.predict(x);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * HistogramTree.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import smile.core.AbstractHistogramTree;
+import smile.core.HistogramBinning;
+
+/**
+ * Regression tree that finds its splits via histograms of the target sums
+ * over the pre-binned data, as alternative to SMILE's RegressionTree for
+ * large datasets. Like SMILE's tree, splits maximize the reduction of the
+ * squared error and the leaves predict the mean.
+ *
+ * @author agent (agent at local)
+ */
+public class HistogramTree
+  extends AbstractHistogramTree
+  implements Regression<double[]> {
+
+  private static final long serialVersionUID = -2281573364590781520L;
+
+  /**
+   * A node with the predicted value.
+   */
+  public static class ValueNode
+    extends Node {
+
+    private static final long serialVersionUID = 3081620439128733092L;
+
+    /** the prediction (named like in SMILE's nodes). */
+    public double output;
+  }
+
+  /** the targets (only used while growing). */
+  protected transient double[] m_Y;
+
+  /**
+   * Grows the tree.
+   *
+   * @param binning	the binned data
+   * @param y		the targets
+   * @param maxNodes	the maximum number of leaves
+   * @param nodeSize	the minimum node size
+   * @param mtry	the number of features to evaluate per node
+   * @param samples	the number of times each row is in the sample
+   */
+  public HistogramTree(HistogramBinning binning, double[] y, int maxNodes, int nodeSize, int mtry, int[] samples) {
+    m_Y = y;
+    grow(binning, samples, maxNodes, nodeSize, mtry);
+    m_Y = null;
+  }
+
+  /**
+   * Returns the number of target statistics per bin: weight and sum.
+   *
+   * @return		the number of statistics
+   */
+  @Override
+  protected int numStats() {
+    return 2;
+  }
+
+  /**
+   * Adds the target of the row to the statistics.
+   *
+   * @param stats	the weight and sum
+   * @param offset	the offset of the statistics in the array
+   * @param row		the row
+   * @param weight	the weight of the row
+   */
+  @Override
+  protected void add(double[] stats, int offset, int row, int weight) {
+    stats[offset]     += weight;
+    stats[offset + 1] += weight * m_Y[row];
+  }
+
+  /**
+   * Returns the total weight of the rows in the statistics.
+   *
+   * @param stats	the weight and sum
+   * @return		the weight
+   */
+  @Override
+  protected double weight(double[] stats) {
+    return stats[0];
+  }
+
+  /**
+   * Computes the reduction of the squared error of a split.
+   *
+   * @param stats	the weight and sum of the node
+   * @param trueStats	the weight and sum of the true child
+   * @param falseStats	the weight and sum of the false child
+   * @return		the gain
+   */
+  @Override
+  protected double gain(double[] stats, double[] trueStats, double[] falseStats) {
+    return trueStats[1] * trueStats[1] / trueStats[0]
+      + falseStats[1] * falseStats[1] / falseStats[0]
+      - stats[1] * stats[1] / stats[0];
+  }
+
+  /**
+   * Creates a node with the mean as prediction.
+   *
+   * @param stats	the weight and sum of the node
+   * @return		the node
+   */
+  @Override
+  protected Node newNode(double[] stats) {
+    ValueNode	result;
+
+    result        = new ValueNode();
+    result.output = stats[1] / stats[0];
+
+    return result;
+  }
+
+  /**
+   * Predicts the target.
+   *
+   * @param x		the row
+   * @return		the prediction
+   */
+  @Override
+  public double predict(double[] x) {
+    return ((ValueNode) leaf(x)).output;
+  }
+}
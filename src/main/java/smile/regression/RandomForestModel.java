@@ -0,0 +1,131 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RandomForestModel.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+/**
+ * Random forest for regression assembled from individually trained trees
+ * (see {@link RandomForestTrainer}), as SMILE's RandomForest cannot be
+ * created from trees. Predicts like SMILE's forest: the average of the
+ * trees.
+ *
+ * @author agent (agent at local)
+ */
+public class RandomForestModel
+  implements Regression<double[]> {
+
+  private static final long serialVersionUID = -3389015474621835217L;
+
+  /** the trees. */
+  protected Regression<double[]>[] m_Trees;
+
+  /** the out-of-bag error. */
+  protected double m_Error;
+
+  /**
+   * Initializes the forest.
+   *
+   * @param trees	the trees
+   * @param error	the out-of-bag error
+   */
+  public RandomForestModel(Regression<double[]>[] trees, double error) {
+    m_Trees = trees.clone();
+    m_Error = error;
+  }
+
+  /**
+   * Returns the number of trees.
+   *
+   * @return		the number of trees
+   */
+  public int size() {
+    return m_Trees.length;
+  }
+
+  /**
+   * Returns the trees.
+   *
+   * @return		the trees
+   */
+  public Regression<double[]>[] getTrees() {
+    return m_Trees;
+  }
+
+  /**
+   * Returns the out-of-bag estimate of the root mean squared error.
+   *
+   * @return		the error
+   */
+  public double error() {
+    return m_Error;
+  }
+
+  /**
+   * Returns the variable importance, the sum of the importance of the trees.
+   *
+   * @return		the importance per attribute
+   */
+  public double[] importance() {
+    double[]	result;
+    double[]	tree;
+    int		i;
+
+    result = null;
+    for (Regression<double[]> t: m_Trees) {
+      if (t instanceof HistogramTree)
+	tree = ((HistogramTree) t).importance();
+      else
+	tree = ((RegressionTree) t).importance();
+      if (result == null)
+	result = new double[tree.length];
+      for (i = 0; i < tree.length; i++)
+	result[i] += tree[i];
+    }
+
+    return result;
+  }
+
+  /**
+   * Predicts the target as the average of the trees.
+   *
+   * @param x		the row
+   * @return		the prediction
+   */
+  @Override
+  public double predict(double[] x) {
+    double	result;
+
+    result = 0.0;
+    for (Regression<double[]> tree: m_Trees)
+      result += tree.predict(x);
+
+    return result / m_Trees.length;
+  }
+
+  /**
+   * Returns a short description of the model.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return getClass().getName() + ": " + size() + " trees, OOB RMSE: " + m_Error;
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RandomForestTrainer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import smile.core.HistogramBinning;
+import smile.core.TrainingExecutor;
+import smile.data.Attribute;
+import smile.math.Math;
+import smile.util.SmileUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Trains the trees of a random forest for regression on a
+ * {@link TrainingExecutor}, ie with a configurable number of threads rather
+ * than SMILE's global MulticoreExecutor. Uses the same algorithm as SMILE's
+ * RandomForest: bootstrap (or sub-)samples and a regression tree per
+ * sample. Trees can be added in several steps.
+ * <br>
+ * With a maximum number of bins, the data gets pre-binned and the trees
+ * find their splits via histograms (see {@link HistogramTree}) instead of
+ * sorting, which is faster and uses less memory for large datasets.
+ * <br>
+ * SMILE's RandomForest cannot be reused for this: it trains all trees in
+ * its constructor on the global MulticoreExecutor (thread count fixed via a
+ * system property), cannot add trees to an existing forest (needed for
+ * iterative training, OOB-based early stopping and training time budgets)
+ * and has no way to plug in other tree implementations. The sampling, tree
+ * construction and OOB error are therefore replicated here;
+ * RandomForestTrainerTest checks the test RMSE against SMILE's RandomForest.
+ * Unlike SMILE, each tree gets a copy of the sample counts, as
+ * RegressionTree zeroes them while training, which would turn in-bag rows
+ * into out-of-bag ones and make the OOB RMSE too optimistic.
+ *
+ * @author agent (agent at local)
+ * @see RandomForestModel
+ */
+public class RandomForestTrainer {
+
+  /** the attributes. */
+  protected Attribute[] m_Attributes;
+
+  /** the training rows. */
+  protected double[][] m_X;
+
+  /** the targets. */
+  protected double[] m_Y;
+
+  /** the maximum number of leaf nodes. */
+  protected int m_MaxNodes;
+
+  /** the minimum node size. */
+  protected int m_NodeSize;
+
+  /** the number of features to split on. */
+  protected int m_NumFeatures;
+
+  /** the sub-sample size (1 for bootstrap sampling). */
+  protected double m_SubSample;
+
+  /** the sorted index of the numeric attributes, shared by the trees (null if binned). */
+  protected int[][] m_Order;
+
+  /** the binned data, shared by the trees (null if not binned). */
+  protected HistogramBinning m_Binning;
+
+  /** the sum of the out-of-bag predictions per row. */
+  protected double[] m_Predictions;
+
+  /** the number of out-of-bag predictions per row. */
+  protected int[] m_Counts;
+
+  /** the trees so far. */
+  protected List<Regression<double[]>> m_Trees;
+
+  /** for running the training tasks. */
+  protected TrainingExecutor m_Executor;
+
+  /**
+   * Initializes the trainer.
+   *
+   * @param attributes	the attributes
+   * @param x		the training rows
+   * @param y		the targets
+   * @param maxNodes	the maximum number of leaf nodes
+   * @param nodeSize	the minimum node size
+   * @param mtry	the number of features to split on
+   * @param subsample	the sub-sample size (1 for bootstrap sampling)
+   * @param maxBins	the maximum number of bins per numeric attribute for histogram-based split finding, 0 for sorting
+   * @param executor	for running the training tasks
+   */
+  public RandomForestTrainer(Attribute[] attributes, double[][] x, double[] y, int maxNodes, int nodeSize, int mtry,
+			     double subsample, int maxBins, TrainingExecutor executor) {
+    if (x.length != y.length)
+      throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.length, y.length));
+    if ((mtry < 1) || (mtry > x[0].length))
+      throw new IllegalArgumentException("Invalid number of variables to split on at a node of the tree: " + mtry);
+    if (nodeSize < 1)
+      throw new IllegalArgumentException("Invalid minimum size of leaves: " + nodeSize);
+    if (maxNodes < 2)
+      throw new IllegalArgumentException("Invalid maximum number of leaves: " + maxNodes);
+    if ((subsample <= 0) || (subsample > 1))
+      throw new IllegalArgumentException("Invalid sampling rate: " + subsample);
+
+    m_Attributes  = attributes;
+    m_X           = x;
+    m_Y           = y;
+    m_MaxNodes    = maxNodes;
+    m_NodeSize    = nodeSize;
+    m_NumFeatures = mtry;
+    m_SubSample   = subsample;
+    m_Executor    = executor;
+    if (maxBins == 0)
+      m_Order     = SmileUtils.sort(attributes, x);
+    else
+      m_Binning   = new HistogramBinning(attributes, x, maxBins);
+    m_Predictions = new double[x.length];
+    m_Counts      = new int[x.length];
+    m_Trees       = new ArrayList<Regression<double[]>>();
+  }
+
+  /**
+   * Draws the sample for a tree: sampling with replacement, or without
+   * replacement if sub-sampling.
+   *
+   * @return		the number of times each row is in the sample
+   */
+  protected int[] sample() {
+    int[]	result;
+    int[]	perm;
+    int		size;
+    int		i;
+
+    result = new int[m_X.length];
+    if (m_SubSample == 1.0) {
+      for (i = 0; i < m_X.length; i++)
+	result[Math.randomInt(m_X.length)]++;
+    }
+    else {
+      perm = new int[m_X.length];
+      for (i = 0; i < perm.length; i++)
+	perm[i] = i;
+      Math.permutate(perm);
+      size = (int) Math.round(m_X.length * m_SubSample);
+      for (i = 0; i < size; i++)
+	result[perm[i]] = 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * Trains a tree on a new sample and records its out-of-bag predictions.
+   *
+   * @return		the tree
+   */
+  protected Regression<double[]> train() {
+    Regression<double[]>	result;
+    int[]		samples;
+    double[]		predictions;
+    int			i;
+
+    samples     = sample();
+    if (m_Binning == null)
+      result    = new RegressionTree(m_Attributes, m_X, m_Y, m_MaxNodes, m_NodeSize, m_NumFeatures, m_Order, samples.clone(), null, null);
+    else
+      result    = new HistogramTree(m_Binning, m_Y, m_MaxNodes, m_NodeSize, m_NumFeatures, samples);
+    predictions = new double[m_X.length];
+    for (i = 0; i < m_X.length; i++) {
+      if (samples[i] == 0)
+	predictions[i] = result.predict(m_X[i]);
+    }
+
+    synchronized(m_Predictions) {
+      for (i = 0; i < m_X.length; i++) {
+	if (samples[i] == 0) {
+	  m_Predictions[i] += predictions[i];
+	  m_Counts[i]++;
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Trains the specified number of trees and adds them to the forest.
+   *
+   * @param num		the number of trees to add
+   * @throws Exception	if training fails
+   */
+  public void addTrees(int num) throws Exception {
+    List<Callable<Regression<double[]>>>	tasks;
+    int					i;
+
+    tasks = new ArrayList<Callable<Regression<double[]>>>();
+    for (i = 0; i < num; i++) {
+      tasks.add(new Callable<Regression<double[]>>() {
+	@Override
+	public Regression<double[]> call() throws Exception {
+	  return train();
+	}
+      });
+    }
+    m_Trees.addAll(m_Executor.run(tasks));
+  }
+
+  /**
+   * Returns the number of trees trained so far.
+   *
+   * @return		the number of trees
+   */
+  public int numTrees() {
+    return m_Trees.size();
+  }
+
+  /**
+   * Returns the out-of-bag root mean squared error of the trees so far.
+   *
+   * @return		the error, NaN if no out-of-bag predictions available
+   */
+  public double error() {
+    double	sum;
+    int		count;
+    int		i;
+
+    sum   = 0.0;
+    count = 0;
+    synchronized(m_Predictions) {
+      for (i = 0; i < m_Predictions.length; i++) {
+	if (m_Counts[i] > 0) {
+	  sum += Math.sqr(m_Predictions[i] / m_Counts[i] - m_Y[i]);
+	  count++;
+	}
+      }
+    }
+
+    return (count == 0) ? Double.NaN : Math.sqrt(sum / count);
+  }
+
+  /**
+   * Returns the executor for the training tasks.
+   *
+   * @return		the executor
+   */
+  public TrainingExecutor getExecutor() {
+    return m_Executor;
+  }
+
+  /**
+   * Returns the forest of the trees trained so far.
+   *
+   * @return		the forest
+   */
+  public RandomForestModel getModel() {
+    return new RandomForestModel(m_Trees.toArray(new Regression[0]), error());
+  }
+}
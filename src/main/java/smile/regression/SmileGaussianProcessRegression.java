@@ -20,9 +20,13 @@
 
 package smile.regression;
 
+import smile.core.KernelExpansion;
+import smile.core.SmileDatasetUtils;
 import smile.data.AttributeDataset;
+import smile.math.kernel.MercerKernel;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
+import weka.core.Instances;
 
 /**
  * SMILE GaussianProcessRegression.
@@ -34,6 +38,12 @@ public class SmileGaussianProcessRegression
 
   private static final long serialVersionUID = -8861088582494627633L;
 
+  /** the number of instances to convert at a time in batch prediction. */
+  public static final int BATCH_SIZE = 4096;
+
+  /** the model as kernel expansion over the training points. */
+  protected KernelExpansion m_Expansion;
+
   /**
    * Returns a description of the classifier.
    *
@@ -84,7 +94,84 @@ public class SmileGaussianProcessRegression
    */
   @Override
   protected Regression<double[]> buildClassifier(AttributeDataset data) throws Exception {
-    return new GaussianProcessRegression(data.x(), data.y(), m_Kernel.getKernel(), m_Lambda);
+    GaussianProcessRegression<double[]>	result;
+    MercerKernel<double[]>		kernel;
+
+    kernel      = m_Kernel.getKernel();
+    result      = new GaussianProcessRegression<double[]>(data.x(), data.y(), kernel, m_Lambda);
+    m_Expansion = new KernelExpansion(data.x(), result.coefficients(), 0.0, kernel);
+
+    return result;
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    m_Expansion = null;
+  }
+
+  /**
+   * Predicts the target value for the converted instance.
+   *
+   * @param values	the converted instance
+   * @return		the prediction
+   * @throws Exception	if prediction fails
+   */
+  @Override
+  protected double classifyValues(double[] values) throws Exception {
+    if (m_Expansion == null)
+      return super.classifyValues(values);
+
+    return m_Expansion.predict(values);
+  }
+
+  /**
+   * Returns whether batch prediction is more efficient than predicting
+   * instance by instance.
+   *
+   * @return		true if a model is available
+   */
+  @Override
+  public boolean implementsMoreEfficientBatchPrediction() {
+    return (m_Expansion != null);
+  }
+
+  /**
+   * Computes the predictions for the instances, evaluating blocks of
+   * test instances against blocks of training points.
+   *
+   * @param insts	the instances to predict
+   * @return		the predictions (one value per row)
+   * @throws Exception	if prediction fails
+   * @see		KernelExpansion#predict(double[][])
+   */
+  @Override
+  public double[][] distributionsForInstances(Instances insts) throws Exception {
+    double[][]	result;
+    double[][]	x;
+    double[]	pred;
+    int		start;
+    int		end;
+    int		i;
+
+    if (m_Expansion == null)
+      return super.distributionsForInstances(insts);
+
+    result = new double[insts.numInstances()][];
+    for (start = 0; start < insts.numInstances(); start += BATCH_SIZE) {
+      end = Math.min(insts.numInstances(), start + BATCH_SIZE);
+      x   = new double[end - start][];
+      for (i = start; i < end; i++)
+	x[i - start] = SmileDatasetUtils.convertInstance(insts.instance(i), m_Header.getDataset());
+      pred = m_Expansion.predict(x);
+      for (i = start; i < end; i++)
+	result[i] = new double[]{pred[i - start]};
+    }
+
+    return result;
   }
 
   /**
@@ -20,21 +20,79 @@
 
 package smile.regression;
 
+import smile.core.AnytimePrediction;
+import smile.core.AnytimePredictor;
+import smile.core.OutOfBagStopping;
+import smile.core.TrainingBudget;
+import smile.core.SmileDatasetUtils;
+import smile.core.TrainingExecutor;
 import smile.data.AttributeDataset;
 import smile.math.Math;
+import weka.classifiers.IterativeClassifier;
+import weka.core.Aggregateable;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
- * SMILE RandomForest (regression).
+ * SMILE RandomForest (regression). Supports anytime prediction, returning
+ * the average of the trees evaluated before a deadline.
+ * <br>
+ * The trees get built with the configured number of threads (or a supplied
+ * executor) rather than SMILE's global thread pool, see
+ * {@link RandomForestTrainer}. With histogramBins, the trees find their
+ * splits via histograms over pre-binned data rather than by sorting, see
+ * {@link HistogramTree}.
+ * <br>
+ * Can be trained iteratively (eg by IterativeClassifierOptimizer to pick the
+ * number of trees), adding numTreesPerIteration trees per iteration up to
+ * numTrees trees.
+ * <br>
+ * With an oobStoppingWindow, trees get added only as long as the
+ * out-of-bag error keeps improving, see {@link OutOfBagStopping}.
+ * <br>
+ * Forests trained on disjoint partitions of the data (with the same
+ * header) can be merged via {@link #aggregate(SmileRandomForest)} and
+ * {@link #finalizeAggregation()}. The forests must not be compacted, the
+ * merged forest gets compacted when finalizing (if enabled).
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SmileRandomForest
-  extends SmileRandomForestBase {
+  extends SmileRandomForestBase
+  implements AnytimePredictor, IterativeClassifier, Aggregateable<SmileRandomForest> {
 
   private static final long serialVersionUID = -6558986110434792292L;
 
+  /** the trees of the forest, in evaluation order. */
+  protected Regression<double[]>[] m_Trees;
+
+  /** the executor to build the trees with, null to use numThreads. */
+  protected transient ExecutorService m_Executor;
+
+  /** the thread utilisation of the training. */
+  protected String m_TrainingStatistics;
+
+  /** the trainer while training iteratively (or resumable). */
+  protected transient RandomForestTrainer m_Trainer;
+
+  /** the training data while training iteratively (or resumable). */
+  protected transient AttributeDataset m_TrainingData;
+
+  /** the out-of-bag stopping monitor, null if not used. */
+  protected OutOfBagStopping m_OutOfBagStopping;
+
+  /** the forests to merge, null if not aggregating. */
+  protected transient List<RandomForestModel> m_Aggregated;
+
+  /** the number of forests this forest was merged from, 0 if not aggregated. */
+  protected int m_NumAggregated;
+
   /**
    * Returns a description of the classifier.
    *
@@ -74,24 +132,462 @@ public class SmileRandomForest
   }
 
   /**
-   * Builds the classifier.
-   *
-   * @param data	the data to use for training
-   * @return 		the generated model
-   * @throws Exception	if training fails or data does not match capabilities
+   * Resets the scheme.
    */
   @Override
-  protected Regression<double[]> buildClassifier(AttributeDataset data) throws Exception {
-    return new RandomForest(
+  protected void reset() {
+    if (m_Trainer != null)
+      m_Trainer.getExecutor().shutdown();
+    super.reset();
+    m_Trees              = null;
+    m_TrainingStatistics = null;
+    m_Trainer            = null;
+    m_TrainingData       = null;
+    m_OutOfBagStopping   = null;
+    m_Aggregated         = null;
+    m_NumAggregated      = 0;
+  }
+
+  /**
+   * Sets the executor to build the trees with, eg for sharing a pool between
+   * several trainings. Takes precedence over numThreads, which is then only
+   * used for reporting. Does not get serialized.
+   *
+   * @param value	the executor, null to use numThreads
+   */
+  public void setExecutor(ExecutorService value) {
+    m_Executor = value;
+  }
+
+  /**
+   * Returns the executor to build the trees with.
+   *
+   * @return		the executor, null if using numThreads
+   */
+  public ExecutorService getExecutor() {
+    return m_Executor;
+  }
+
+  /**
+   * Returns the thread utilisation of the last training.
+   *
+   * @return		the statistics, null if not trained
+   */
+  public String getTrainingStatistics() {
+    return m_TrainingStatistics;
+  }
+
+  /**
+   * Returns the out-of-bag stopping monitor of the last training, with the
+   * stopping point.
+   *
+   * @return		the monitor, null if not used
+   */
+  public OutOfBagStopping getOutOfBagStopping() {
+    return m_OutOfBagStopping;
+  }
+
+  /**
+   * Creates the out-of-bag stopping monitor.
+   *
+   * @return		the monitor, null if oobStoppingWindow is 0
+   */
+  protected OutOfBagStopping newOutOfBagStopping() {
+    if (m_OobStoppingWindow == 0)
+      return null;
+    return new OutOfBagStopping(m_OobStoppingWindow, m_OobStoppingTolerance);
+  }
+
+  /**
+   * Creates the executor for the training tasks.
+   *
+   * @return		the executor
+   */
+  protected TrainingExecutor newTrainingExecutor() {
+    if (m_Executor != null)
+      return new TrainingExecutor(m_Executor, m_NumThreads);
+    return new TrainingExecutor(m_NumThreads);
+  }
+
+  /**
+   * Creates the trainer for the data.
+   *
+   * @param data	the training data
+   * @return		the trainer
+   */
+  protected RandomForestTrainer newTrainer(AttributeDataset data) {
+    return new RandomForestTrainer(
       data.attributes(),
       data.x(),
       data.y(),
-      m_NumTrees,
       m_MaxNodes,
       m_MinNodeSize,
       m_NumFeatures == -1 ? (int) Math.floor(Math.sqrt(data.attributes().length)) : m_NumFeatures,
       m_SubSample,
-      null);
+      m_HistogramBins,
+      newTrainingExecutor());
+  }
+
+  /**
+   * Compacts the trees of the forest, which get discarded.
+   *
+   * @param x		the rows to verify the generated code with, null to skip verification
+   * @return		the compact forest
+   * @throws Exception	if compacting fails or the generated code differs
+   */
+  protected CompactRandomForest compact(double[][] x) throws Exception {
+    CompactRandomForest		result;
+
+    result  = new CompactRandomForest(m_Trees, m_Header.getDataset().attributes());
+    m_Trees = null;
+    if (m_GenerateCode) {
+      result.getTrees().setGenerateCode(true);
+      if ((x != null) && (result.getTrees().verifyGeneratedCode(x) > 0))
+	throw new IllegalStateException("Generated code differs from compact trees!");
+    }
+
+    return result;
+  }
+
+  /**
+   * Assembles the model from the trees trained so far and shuts down the
+   * thread pool of the training session (resuming creates a new one).
+   * Unless training is to be resumed, the trainer gets discarded and the
+   * trees compacted (if enabled).
+   *
+   * @return 		the generated model
+   * @throws Exception	if compacting the trees fails
+   */
+  protected Regression<double[]> finishTraining() throws Exception {
+    RandomForestModel		result;
+    AttributeDataset		data;
+
+    result               = m_Trainer.getModel();
+    m_TrainingStatistics = m_Trainer.getExecutor().toString();
+    m_Trainer.getExecutor().shutdown();
+    m_Trees              = result.getTrees();
+    if (m_Resume)
+      return result;
+
+    data           = m_TrainingData;
+    m_Trainer      = null;
+    m_TrainingData = null;
+
+    if (m_CompactTrees || m_GenerateCode)
+      return compact(data.x());
+
+    return result;
+  }
+
+  /**
+   * Builds the classifier.
+   *
+   * @param data	the data to use for training
+   * @return 		the generated model
+   * @throws Exception	if training fails or data does not match capabilities
+   */
+  @Override
+  protected Regression<double[]> buildClassifier(AttributeDataset data) throws Exception {
+    m_TrainingData     = data;
+    m_Trainer          = newTrainer(data);
+    m_OutOfBagStopping = newOutOfBagStopping();
+    if ((m_OutOfBagStopping == null) && !m_TrainingBudget.isLimited())
+      m_Trainer.addTrees(m_NumTrees);
+    else
+      while (addTrees());
+
+    return finishTraining();
+  }
+
+  /**
+   * Discards the cached predictions, since they refer to the previous model.
+   */
+  protected void modelChanged() {
+    if (m_PredictionCache != null)
+      m_PredictionCache.clear();
+  }
+
+  /**
+   * Initializes the classifier for iterative training, without any trees.
+   * If resuming, training continues with the current trees and the data
+   * training was initialized with (with a fresh time budget); the data
+   * must have the same structure, but its rows get ignored.
+   *
+   * @param data	the data to use for training
+   * @throws Exception	if data does not match capabilities or, when resuming, differs in structure
+   */
+  @Override
+  public void initializeClassifier(Instances data) throws Exception {
+    String	msg;
+
+    if (m_Resume && (m_Trainer != null)) {
+      msg = m_Header.getInstances().equalHeadersMsg(data);
+      if (msg != null)
+	throw new IllegalArgumentException("Data differs from the data training is resumed with: " + msg);
+      m_TrainingBudget = new TrainingBudget(m_TrainingTimeBudget);
+      return;
+    }
+
+    m_TrainingData     = initDataset(data);
+    m_Trainer          = newTrainer(m_TrainingData);
+    m_OutOfBagStopping = newOutOfBagStopping();
+    m_Model            = m_Trainer.getModel();
+    m_Trees            = ((RandomForestModel) m_Model).getTrees();
+  }
+
+  /**
+   * Adds the next numTreesPerIteration trees, without exceeding numTrees,
+   * and updates the out-of-bag stopping monitor. Once the time budget is
+   * used up, no more trees get added (but at least one batch).
+   *
+   * @return		false if numTrees has been reached, out-of-bag stopping kicked in or the time budget is used up
+   * @throws Exception	if training fails
+   */
+  protected boolean addTrees() throws Exception {
+    int		num;
+
+    num = Math.min(m_NumTreesPerIteration, m_NumTrees - m_Trainer.numTrees());
+    if ((num < 1) || ((m_OutOfBagStopping != null) && m_OutOfBagStopping.isStopped()))
+      return false;
+    if ((m_Trainer.numTrees() > 0) && m_TrainingBudget.isExceeded()) {
+      m_TrainingBudget.stop("time budget used up after " + m_Trainer.numTrees() + " of " + m_NumTrees + " trees");
+      return false;
+    }
+    m_Trainer.addTrees(num);
+    if ((m_OutOfBagStopping != null) && m_OutOfBagStopping.update(m_Trainer.numTrees(), m_Trainer.error()))
+      m_TrainingBudget.stop("out-of-bag error converged after " + m_Trainer.numTrees() + " of " + m_NumTrees + " trees");
+
+    return true;
+  }
+
+  /**
+   * Adds the next numTreesPerIteration trees, without exceeding numTrees.
+   *
+   * @return		false if numTrees has been reached, out-of-bag stopping kicked in or the time budget is used up
+   * @throws Exception	if training fails
+   */
+  @Override
+  public boolean next() throws Exception {
+    if (m_Trainer == null)
+      throw new IllegalStateException("Classifier has not been initialized!");
+
+    if (!addTrees())
+      return false;
+    m_Model = m_Trainer.getModel();
+    m_Trees = ((RandomForestModel) m_Model).getTrees();
+    modelChanged();
+
+    return true;
+  }
+
+  /**
+   * Finishes iterative training.
+   *
+   * @throws Exception	if compacting the trees fails
+   */
+  @Override
+  public void done() throws Exception {
+    if (m_Trainer != null) {
+      m_Model = finishTraining();
+      m_TrainingBudget.finish();
+      modelChanged();
+    }
+  }
+
+  /**
+   * Returns the forest with the trees of this classifier for aggregation.
+   *
+   * @return		the forest
+   * @throws Exception	if not trained or the trees are compacted
+   */
+  protected RandomForestModel getForest() throws Exception {
+    if (m_Header == null)
+      throw new IllegalStateException("Forest has not been trained!");
+    if (!(m_Model instanceof RandomForestModel))
+      throw new IllegalStateException(
+	"Only forests without compacted trees can be aggregated, train them without compactTrees and generateCode!");
+
+    return (RandomForestModel) m_Model;
+  }
+
+  /**
+   * Adds the trees of the forest trained on another partition of the data.
+   * Both forests must have been trained on data with the same header. The
+   * trees do not get remapped, as their splits (and votes) refer to
+   * attribute (and label) indices: headers that differ only in the order of
+   * the attributes or labels get rejected as well. The merged forest is
+   * only available after {@link #finalizeAggregation()}.
+   *
+   * @param toAggregate	the forest to add
+   * @return		this forest
+   * @throws Exception	if the forests cannot be aggregated
+   */
+  @Override
+  public SmileRandomForest aggregate(SmileRandomForest toAggregate) throws Exception {
+    String	msg;
+
+    if ((m_Header == null) || (toAggregate.m_Header == null))
+      throw new IllegalStateException("Both forests must be trained!");
+    msg = m_Header.getInstances().equalHeadersMsg(toAggregate.m_Header.getInstances());
+    if (msg != null)
+      throw new IllegalArgumentException("Forests were trained on incompatible data: " + msg);
+
+    if (m_Aggregated == null) {
+      m_Aggregated = new ArrayList<RandomForestModel>();
+      m_Aggregated.add(getForest());
+    }
+    m_Aggregated.add(toAggregate.getForest());
+
+    return this;
+  }
+
+  /**
+   * Merges the aggregated forests. The trees get interleaved, so that any
+   * prefix (eg for anytime prediction) draws from all partitions. The
+   * out-of-bag error is the root of the mean squared errors of the forests,
+   * weighted by their number of trees.
+   *
+   * @throws Exception	if compacting the trees fails
+   */
+  @Override
+  public void finalizeAggregation() throws Exception {
+    RandomForestModel			result;
+    List<Regression<double[]>>		trees;
+    double				error;
+    int					numErrors;
+    int					max;
+    int					i;
+
+    if (m_Aggregated == null)
+      return;
+
+    trees     = new ArrayList<Regression<double[]>>();
+    error     = 0.0;
+    numErrors = 0;
+    max       = 0;
+    for (RandomForestModel forest: m_Aggregated) {
+      max = Math.max(max, forest.size());
+      if (!Double.isNaN(forest.error())) {
+	error     += forest.size() * forest.error() * forest.error();
+	numErrors += forest.size();
+      }
+    }
+    for (i = 0; i < max; i++) {
+      for (RandomForestModel forest: m_Aggregated) {
+	if (i < forest.size())
+	  trees.add(forest.getTrees()[i]);
+      }
+    }
+    result = new RandomForestModel(trees.toArray(new Regression[0]), (numErrors == 0) ? Double.NaN : Math.sqrt(error / numErrors));
+
+    if (m_Trainer != null)
+      m_Trainer.getExecutor().shutdown();
+    m_NumAggregated      = m_Aggregated.size();
+    m_Aggregated         = null;
+    m_Trainer            = null;
+    m_TrainingData       = null;
+    m_TrainingStatistics = null;
+    m_OutOfBagStopping   = null;
+    m_TrainingBudget     = null;
+    modelChanged();
+
+    m_Trees = result.getTrees();
+    m_Model = result;
+    if (m_CompactTrees || m_GenerateCode)
+      m_Model = compact(null);
+  }
+
+  /**
+   * Returns the number of trees available for anytime prediction.
+   *
+   * @return		the number of trees, 0 if not available
+   */
+  protected int numTrees() {
+    if (m_Trees != null)
+      return m_Trees.length;
+    if (m_Model instanceof CompactRandomForest)
+      return ((CompactRandomForest) m_Model).size();
+    return 0;
+  }
+
+  /**
+   * Predicts the target as the average of the trees evaluated in their
+   * fixed order before the deadline or budget runs out. Since the trees are
+   * trained on independent bootstrap samples, any prefix is a random
+   * sub-forest and the estimate only gets noisier with fewer trees.
+   * A forest without any trees yet (eg after {@link #initializeClassifier(Instances)})
+   * reports zero members.
+   *
+   * @param instance	the instance to predict
+   * @param deadline	the System.nanoTime() value after which to stop, {@link #NO_DEADLINE} for none
+   * @param maxMembers	the maximum number of trees to evaluate (at least one), -1 for all
+   * @return		the prediction
+   * @throws Exception	if prediction fails
+   */
+  @Override
+  public AnytimePrediction predictAnytime(Instance instance, long deadline, int maxMembers) throws Exception {
+    AnytimePrediction	result;
+    CompactRandomForest	compact;
+    double[]		values;
+    char[]		bins;
+    double		sum;
+    int			numTrees;
+    int			budget;
+    int			evaluated;
+
+    values   = SmileDatasetUtils.convertInstance(instance, m_Header.getDataset());
+    numTrees = numTrees();
+    result   = new AnytimePrediction();
+    if (numTrees == 0) {
+      result.prediction  = classifyValues(values);
+      result.membersUsed = 0;
+      result.numMembers  = result.membersUsed;
+      return result;
+    }
+
+    budget    = (maxMembers < 0) ? numTrees : Math.max(1, Math.min(maxMembers, numTrees));
+    compact   = (m_Trees == null) ? (CompactRandomForest) m_Model : null;
+    bins      = (compact == null) ? null : compact.bin(values);
+    sum       = 0.0;
+    evaluated = 0;
+    while (evaluated < budget) {
+      if (compact != null)
+	sum += compact.predict(evaluated, bins);
+      else
+	sum += m_Trees[evaluated].predict(values);
+      evaluated++;
+      if ((deadline != NO_DEADLINE) && (System.nanoTime() - deadline >= 0))
+	break;
+    }
+
+    result.prediction      = sum / evaluated;
+    result.membersUsed     = evaluated;
+    result.numMembers      = numTrees;
+    result.deadlineReached = (evaluated < budget);
+
+    return result;
+  }
+
+  /**
+   * Outputs some information about the model.
+   *
+   * @return		the model
+   */
+  @Override
+  public String toString() {
+    String	result;
+
+    result = super.toString();
+    if (m_Model instanceof CompactRandomForest)
+      result += "\n" + "Compact trees: " + m_Model;
+    if (m_NumAggregated > 0)
+      result += "\n" + "Aggregated from " + m_NumAggregated + " forests";
+    if (m_TrainingStatistics != null)
+      result += "\n" + "Training:\n" + m_TrainingStatistics;
+    if (m_OutOfBagStopping != null)
+      result += "\n" + "Out-of-bag stopping: " + m_OutOfBagStopping;
+
+    return result;
   }
 
   /**
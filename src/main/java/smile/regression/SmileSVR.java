@@ -20,9 +20,17 @@
 
 package smile.regression;
 
+import smile.core.KernelExpansion;
+import smile.core.SmileReflectionUtils;
 import smile.data.AttributeDataset;
+import smile.math.Math;
+import smile.math.kernel.LinearKernel;
+import smile.math.kernel.MercerKernel;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
+import weka.core.Utils;
+
+import java.util.List;
 
 /**
  * SMILE SVR.
@@ -34,6 +42,12 @@ public class SmileSVR
 
   private static final long serialVersionUID = -8861088582494627633L;
 
+  /** the number of support vectors before reduction. */
+  protected int m_NumSupportVectors;
+
+  /** the RMSE of the reduced model on the training data. */
+  protected double m_ReductionError;
+
   /**
    * Returns a description of the classifier.
    *
@@ -82,7 +96,117 @@ public class SmileSVR
    */
   @Override
   protected Regression<double[]> buildClassifier(AttributeDataset data) throws Exception {
-    return new SVR(data.x(), data.y(), m_Kernel.getKernel(), m_Epsilon, m_Capacity, m_Tolerance);
+    SVR<double[]>		result;
+    MercerKernel<double[]>	kernel;
+
+    kernel = m_Kernel.getKernel();
+    result = new SVR<double[]>(data.x(), data.y(), kernel, m_Epsilon, m_Capacity, m_Tolerance);
+    if (kernel instanceof LinearKernel)
+      return collapse(result, kernel, data.attributes().length);
+
+    // replace the support vectors with a smaller set
+    if (m_MaxSupportVectors > 0)
+      return reduce(result, kernel, data.x());
+
+    return result;
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    m_NumSupportVectors = 0;
+    m_ReductionError    = 0.0;
+  }
+
+  /**
+   * Collapses the support vectors of a model trained with a linear kernel
+   * into the primal weight vector, turning prediction into a single dot
+   * product. The full model gets discarded, so that only the weight vector
+   * gets serialized.
+   *
+   * @param svr		the trained model
+   * @param kernel	the kernel used for training
+   * @param numAtts	the number of attributes
+   * @return		the collapsed model
+   * @throws Exception	if accessing the support vectors fails
+   */
+  protected Regression<double[]> collapse(SVR<double[]> svr, MercerKernel<double[]> kernel, int numAtts) throws Exception {
+    List	sv;
+    double[]	weights;
+    double[]	alpha;
+    double[]	x;
+    double	coef;
+    int		i;
+    int		n;
+
+    sv      = (List) SmileReflectionUtils.getField(svr, "sv");
+    weights = new double[numAtts];
+    for (i = 0; i < sv.size(); i++) {
+      alpha = (double[]) SmileReflectionUtils.getField(sv.get(i), "alpha");
+      x     = (double[]) SmileReflectionUtils.getField(sv.get(i), "x");
+      coef  = alpha[1] - alpha[0];
+      for (n = 0; n < x.length; n++)
+	weights[n] += coef * x[n];
+    }
+
+    return new ExpandedSVR(new KernelExpansion(new double[][]{weights}, new double[]{1.0}, (Double) SmileReflectionUtils.getField(svr, "b"), kernel));
+  }
+
+  /**
+   * Approximates the model with at most the maximum number of support
+   * vectors. The full model gets discarded, so that only the reduced set
+   * gets serialized.
+   *
+   * @param svr		the trained model
+   * @param kernel	the kernel used for training
+   * @param x		the training data, for computing the approximation error
+   * @return		the reduced model
+   * @throws Exception	if accessing the support vectors fails
+   * @see		KernelExpansion#reduce(int)
+   */
+  protected Regression<double[]> reduce(SVR<double[]> svr, MercerKernel<double[]> kernel, double[][] x) throws Exception {
+    KernelExpansion	full;
+    KernelExpansion	reduced;
+    List		sv;
+    double[][]		vectors;
+    double[]		coefficients;
+    double[]		alpha;
+    int			i;
+
+    sv           = (List) SmileReflectionUtils.getField(svr, "sv");
+    vectors      = new double[sv.size()][];
+    coefficients = new double[sv.size()];
+    for (i = 0; i < sv.size(); i++) {
+      alpha           = (double[]) SmileReflectionUtils.getField(sv.get(i), "alpha");
+      vectors[i]      = (double[]) SmileReflectionUtils.getField(sv.get(i), "x");
+      coefficients[i] = alpha[1] - alpha[0];
+    }
+    full                = new KernelExpansion(vectors, coefficients, (Double) SmileReflectionUtils.getField(svr, "b"), kernel);
+    reduced             = full.reduce(m_MaxSupportVectors);
+    m_NumSupportVectors = full.size();
+    m_ReductionError    = (x.length == 0) ? 0.0 : Math.sqrt(reduced.squaredError(full, x) / x.length);
+
+    return new ExpandedSVR(reduced);
+  }
+
+  /**
+   * Returns a string representation of the model.
+   *
+   * @return		the model
+   */
+  @Override
+  public String toString() {
+    String	result;
+
+    result = super.toString();
+    if ((m_Model instanceof ExpandedSVR) && (m_NumSupportVectors > 0))
+      result += "\n" + "Reduced set: " + ((ExpandedSVR) m_Model).size() + " of " + m_NumSupportVectors
+	+ " support vectors, RMSE on training data: " + Utils.doubleToString(m_ReductionError, 6);
+
+    return result;
   }
 
   /**
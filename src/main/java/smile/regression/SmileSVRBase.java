@@ -49,6 +49,9 @@ public abstract class SmileSVRBase
   /** the flag for {@link #m_Tolerance}. */
   public final static String TOLERANCE = "tolerance";
 
+  /** the flag for {@link #m_MaxSupportVectors}. */
+  public final static String MAXSUPPORTVECTORS = "max-support-vectors";
+
   /** the kernel to use. */
   protected AbstractSmileKernel m_Kernel = getDefaultKernel();
 
@@ -61,6 +64,9 @@ public abstract class SmileSVRBase
   /** the convergence tolerance. */
   protected double m_Tolerance = getDefaultTolerance();
 
+  /** the maximum number of vectors for approximating the decision function after training (reduced set); use -1 to keep all support vectors. */
+  protected int m_MaxSupportVectors = getDefaultMaxSupportVectors();
+
   /**
    * Returns a desription of the class.
    *
@@ -80,6 +86,7 @@ public abstract class SmileSVRBase
     WekaOptionUtils.addOption(result, epsilonTipText(), "" + getDefaultEpsilon(), EPSILON);
     WekaOptionUtils.addOption(result, capacityTipText(), "" + getDefaultCapacity(), CAPACITY);
     WekaOptionUtils.addOption(result, toleranceTipText(), "" + getDefaultTolerance(), TOLERANCE);
+    WekaOptionUtils.addOption(result, maxSupportVectorsTipText(), "" + getDefaultMaxSupportVectors(), MAXSUPPORTVECTORS);
     WekaOptionUtils.add(result, super.listOptions());
     return WekaOptionUtils.toEnumeration(result);
   }
@@ -96,6 +103,7 @@ public abstract class SmileSVRBase
     setEpsilon(WekaOptionUtils.parse(options, EPSILON, getDefaultEpsilon()));
     setCapacity(WekaOptionUtils.parse(options, CAPACITY, getDefaultCapacity()));
     setTolerance(WekaOptionUtils.parse(options, TOLERANCE, getDefaultTolerance()));
+    setMaxSupportVectors(WekaOptionUtils.parse(options, MAXSUPPORTVECTORS, getDefaultMaxSupportVectors()));
     super.setOptions(options);
   }
 
@@ -111,6 +119,7 @@ public abstract class SmileSVRBase
     WekaOptionUtils.add(result, EPSILON, getEpsilon());
     WekaOptionUtils.add(result, CAPACITY, getCapacity());
     WekaOptionUtils.add(result, TOLERANCE, getTolerance());
+    WekaOptionUtils.add(result, MAXSUPPORTVECTORS, getMaxSupportVectors());
     WekaOptionUtils.add(result, super.getOptions());
     return WekaOptionUtils.toArray(result);
   }
@@ -280,4 +289,46 @@ public abstract class SmileSVRBase
   public String toleranceTipText() {
     return "The convergence tolerance; value > 0.0.";
   }
+
+  /**
+   * The default value for maxSupportVectors.
+   *
+   * @return the default value
+   * @see #m_MaxSupportVectors
+   */
+  protected int getDefaultMaxSupportVectors() {
+    return -1;
+  }
+
+  /**
+   * Returns the maximum number of vectors for approximating the decision function after training (reduced set); use -1 to keep all support vectors.
+   *
+   * @return the current value ((value >= 1) || (value == -1))
+   * @see #m_MaxSupportVectors
+   */
+  public int getMaxSupportVectors() {
+    return m_MaxSupportVectors;
+  }
+
+  /**
+   * Sets the maximum number of vectors for approximating the decision function after training (reduced set); use -1 to keep all support vectors.
+   *
+   * @param value the new value ((value >= 1) || (value == -1))
+   * @see #m_MaxSupportVectors
+   */
+  public void setMaxSupportVectors(int value) {
+    if ((value >= 1) || (value == -1)) {
+      m_MaxSupportVectors = value;
+    }
+  }
+
+  /**
+   * Returns the help string for maxSupportVectors.
+   *
+   * @return the help string
+   * @see #m_MaxSupportVectors
+   */
+  public String maxSupportVectorsTipText() {
+    return "The maximum number of vectors for approximating the decision function after training (reduced set); use -1 to keep all support vectors; (value >= 1) || (value == -1).";
+  }
 }
@@ -0,0 +1,141 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SimdVectorOps.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector operations using the Vector API (jdk.incubator.vector) with the
+ * preferred vector width of the CPU; the remaining elements that do not
+ * fill a whole vector get processed with scalar code. Results can differ
+ * from a plain loop in the last digits due to the different summation
+ * order.
+ * <br>
+ * Package-private, since multi-release jars must not add public classes in
+ * the versioned sections; instantiated via {@link VectorOpsProvider}.
+ *
+ * @author agent (agent at local)
+ */
+class SimdVectorOps
+  implements VectorOps {
+
+  /** the vector shape to use. */
+  protected static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  /**
+   * Computes the dot product of the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the dot product
+   */
+  @Override
+  public double dot(double[] x, double[] y) {
+    DoubleVector	sum;
+    DoubleVector	vx;
+    DoubleVector	vy;
+    double		result;
+    int			end;
+    int			i;
+
+    sum = DoubleVector.zero(SPECIES);
+    end = SPECIES.loopBound(x.length);
+    for (i = 0; i < end; i += SPECIES.length()) {
+      vx  = DoubleVector.fromArray(SPECIES, x, i);
+      vy  = DoubleVector.fromArray(SPECIES, y, i);
+      sum = vx.fma(vy, sum);
+    }
+    result = sum.reduceLanes(VectorOperators.ADD);
+    for (; i < x.length; i++)
+      result += x[i] * y[i];
+
+    return result;
+  }
+
+  /**
+   * Computes the squared Euclidean distance between the two vectors.
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the squared distance
+   */
+  @Override
+  public double squaredDistance(double[] x, double[] y) {
+    DoubleVector	sum;
+    DoubleVector	diff;
+    double		result;
+    double		d;
+    int			end;
+    int			i;
+
+    sum = DoubleVector.zero(SPECIES);
+    end = SPECIES.loopBound(x.length);
+    for (i = 0; i < end; i += SPECIES.length()) {
+      diff = DoubleVector.fromArray(SPECIES, x, i).sub(DoubleVector.fromArray(SPECIES, y, i));
+      sum  = diff.fma(diff, sum);
+    }
+    result = sum.reduceLanes(VectorOperators.ADD);
+    for (; i < x.length; i++) {
+      d       = x[i] - y[i];
+      result += d * d;
+    }
+
+    return result;
+  }
+
+  /**
+   * Computes the sum of the square roots of the element-wise products of
+   * the two vectors (Hellinger kernel).
+   *
+   * @param x		the first vector
+   * @param y		the second vector (at least as long as the first)
+   * @return		the sum
+   */
+  @Override
+  public double sqrtProductSum(double[] x, double[] y) {
+    DoubleVector	sum;
+    double		result;
+    int			end;
+    int			i;
+
+    sum = DoubleVector.zero(SPECIES);
+    end = SPECIES.loopBound(x.length);
+    for (i = 0; i < end; i += SPECIES.length())
+      sum = sum.add(DoubleVector.fromArray(SPECIES, x, i).mul(DoubleVector.fromArray(SPECIES, y, i)).lanewise(VectorOperators.SQRT));
+    result = sum.reduceLanes(VectorOperators.ADD);
+    for (; i < x.length; i++)
+      result += Math.sqrt(x[i] * y[i]);
+
+    return result;
+  }
+
+  /**
+   * Returns a short description of the implementation.
+   *
+   * @return		the description
+   */
+  @Override
+  public String getName() {
+    return "Vector API (" + SPECIES + ")";
+  }
+}
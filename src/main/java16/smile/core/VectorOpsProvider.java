@@ -0,0 +1,96 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * VectorOpsProvider.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+/**
+ * Provides the vector operations for the current JVM. This is the Java 16+
+ * version from the multi-release jar: it uses {@link SimdVectorOps} if the
+ * jdk.incubator.vector module has been added to the JVM (run with
+ * <code>--add-modules jdk.incubator.vector</code>), otherwise
+ * {@link ScalarVectorOps}.
+ * <br>
+ * The system property {@link #PROPERTY_SCALAR} set to "true" enforces the
+ * scalar implementation.
+ *
+ * @author agent (agent at local)
+ */
+public class VectorOpsProvider {
+
+  /** the system property for enforcing the scalar implementation. */
+  public static final String PROPERTY_SCALAR = "smile.vectorops.scalar";
+
+  /** the module with the Vector API. */
+  protected static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+  /** the implementation. */
+  protected static VectorOps m_Ops;
+
+  /**
+   * Compares the operations with the scalar ones. This also links all the
+   * Vector API calls, since the incubator API differs between JDK versions.
+   *
+   * @param ops		the operations to test
+   * @throws IllegalStateException	if the results differ
+   */
+  protected static void selfTest(VectorOps ops) {
+    ScalarVectorOps	scalar;
+    double[]		x;
+    double[]		y;
+    int			i;
+
+    scalar = new ScalarVectorOps();
+    x      = new double[67];
+    y      = new double[67];
+    for (i = 0; i < x.length; i++) {
+      x[i] = i + 1;
+      y[i] = 2 * i + 1;
+    }
+    if ((Math.abs(ops.dot(x, y) - scalar.dot(x, y)) > 1e-9 * scalar.dot(x, y))
+      || (Math.abs(ops.squaredDistance(x, y) - scalar.squaredDistance(x, y)) > 1e-9 * scalar.squaredDistance(x, y))
+      || (Math.abs(ops.sqrtProductSum(x, y) - scalar.sqrtProductSum(x, y)) > 1e-9 * scalar.sqrtProductSum(x, y)))
+      throw new IllegalStateException("Results of " + ops.getName() + " differ from scalar operations");
+  }
+
+  /**
+   * Returns the vector operations to use.
+   *
+   * @return		the implementation
+   */
+  public static synchronized VectorOps get() {
+    if (m_Ops == null) {
+      if (!Boolean.getBoolean(PROPERTY_SCALAR) && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+	try {
+	  // loaded reflectively, so that a missing module cannot break this class
+	  m_Ops = (VectorOps) Class.forName(VectorOpsProvider.class.getPackage().getName() + ".SimdVectorOps")
+	    .getDeclaredConstructor().newInstance();
+	  selfTest(m_Ops);
+	}
+	catch (Throwable t) {
+	  m_Ops = null;
+	  System.err.println(VectorOpsProvider.class.getName() + ": failed to initialize Vector API, using scalar operations: " + t);
+	}
+      }
+      if (m_Ops == null)
+	m_Ops = new ScalarVectorOps();
+    }
+    return m_Ops;
+  }
+}
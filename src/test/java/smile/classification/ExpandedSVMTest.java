@@ -0,0 +1,174 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExpandedSVMTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import org.junit.Test;
+import smile.core.SmileDatasetUtils;
+import smile.core.TestDataUtils;
+import smile.data.AttributeDataset;
+import smile.math.kernel.GaussianKernel;
+import smile.math.kernel.MercerKernel;
+import weka.core.Instances;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the posteriors of {@link ExpandedSVM}, regular and fast, with the
+ * ones of SMILE's SVM and checks the decision-only mode of
+ * {@link SmileSVM}.
+ *
+ * @author agent (agent at local)
+ */
+public class ExpandedSVMTest {
+
+  /** the number of classes. */
+  public static final int NUM_CLASSES = 4;
+
+  /** the maximum difference between the posteriors. */
+  public static final double TOLERANCE = 1e-9;
+
+  /**
+   * Trains SMILE's SVM and compares its predictions with the ones of the
+   * expanded machines.
+   *
+   * @param strategy	the multi-class strategy
+   * @throws Exception	if training fails
+   */
+  protected void check(SVM.Multiclass strategy) throws Exception {
+    Instances			data;
+    AttributeDataset		dataset;
+    MercerKernel<double[]>	kernel;
+    SVM<double[]>		svm;
+    ExpandedSVM			expanded;
+    double[]			expected;
+    double[]			actual;
+    double[][]			x;
+    int				i;
+
+    data    = TestDataUtils.nominalData(300, 5, NUM_CLASSES, 42);
+    dataset = SmileDatasetUtils.convertInstances(data);
+    x       = dataset.x();
+    kernel  = new GaussianKernel(2.0);
+    svm     = new SVM<double[]>(kernel, 1.0, NUM_CLASSES, strategy);
+    svm.learn(x, dataset.labels());
+    svm.trainPlattScaling(x, dataset.labels());
+
+    expected = new double[NUM_CLASSES];
+    actual   = new double[NUM_CLASSES];
+    for (boolean fast: new boolean[]{false, true}) {
+      expanded = new ExpandedSVM(svm, kernel, NUM_CLASSES, strategy);
+      expanded.setFastPosteriors(fast);
+      for (i = 0; i < x.length; i++) {
+	assertEquals(strategy + "/fast=" + fast + ": label of row " + i, svm.predict(x[i]), expanded.predict(x[i]));
+	assertEquals(strategy + "/fast=" + fast + ": label with posteriors of row " + i, svm.predict(x[i], expected), expanded.predict(x[i], actual));
+	assertArrayEquals(strategy + "/fast=" + fast + ": posteriors of row " + i, expected, actual, TOLERANCE);
+      }
+    }
+  }
+
+  /**
+   * Compares the one-vs-one machines.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testOneVsOne() throws Exception {
+    check(SVM.Multiclass.ONE_VS_ONE);
+  }
+
+  /**
+   * Compares the one-vs-all machines.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testOneVsAll() throws Exception {
+    check(SVM.Multiclass.ONE_VS_ALL);
+  }
+
+  /**
+   * Compares the coupling on flat arrays with SMILE's.
+   */
+  @Test
+  public void testCouple() {
+    Random	rnd;
+    double[][]	r;
+    double[]	work;
+    double[]	expected;
+    double[]	actual;
+    int		k;
+    int		i;
+    int		j;
+
+    rnd = new Random(1);
+    for (k = 3; k <= 6; k++) {
+      r    = new double[k][k];
+      work = new double[2 * k * k + k];
+      for (i = 0; i < k; i++) {
+	for (j = i + 1; j < k; j++) {
+	  r[i][j]         = 0.05 + 0.9 * rnd.nextDouble();
+	  r[j][i]         = 1.0 - r[i][j];
+	  work[i * k + j] = r[i][j];
+	  work[j * k + i] = r[j][i];
+	}
+      }
+      expected = new double[k];
+      actual   = new double[k];
+      PlattScaling.multiclass(k, r, expected);
+      ExpandedSVM.couple(k, work, actual);
+      assertArrayEquals("k=" + k, expected, actual, 1e-12);
+    }
+  }
+
+  /**
+   * Checks that the decision-only mode returns one-hot distributions that
+   * agree with the predicted labels.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testDecisionOnly() throws Exception {
+    Instances	data;
+    SmileSVM	svm;
+    double[]	dist;
+    double	label;
+    int		i;
+    int		n;
+
+    data = TestDataUtils.nominalData(200, 5, NUM_CLASSES, 42);
+    for (SVM.Multiclass strategy: SVM.Multiclass.values()) {
+      svm = new SmileSVM();
+      svm.setMultiClassStrategy(strategy);
+      svm.setDecisionOnly(true);
+      svm.buildClassifier(data);
+      for (i = 0; i < data.numInstances(); i++) {
+	dist  = svm.distributionForInstance(data.instance(i));
+	label = svm.classifyInstance(data.instance(i));
+	assertEquals(strategy + ": number of classes", NUM_CLASSES, dist.length);
+	for (n = 0; n < dist.length; n++)
+	  assertEquals(strategy + ": probability of class " + n + " of row " + i, (n == label) ? 1.0 : 0.0, dist[n], 0.0);
+      }
+    }
+  }
+}
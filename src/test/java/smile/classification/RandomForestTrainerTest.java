@@ -0,0 +1,130 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RandomForestTrainerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import org.junit.Test;
+import smile.core.SmileDatasetUtils;
+import smile.core.TestDataUtils;
+import smile.core.TrainingExecutor;
+import smile.data.AttributeDataset;
+import weka.core.Instances;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the out-of-bag error and the test error of
+ * {@link RandomForestTrainer} with the ones of SMILE's RandomForest, using
+ * the same parameters.
+ *
+ * @author agent (agent at local)
+ */
+public class RandomForestTrainerTest {
+
+  /** the number of trees. */
+  public static final int NUM_TREES = 200;
+
+  /** the maximum absolute difference between the errors. */
+  public static final double TOLERANCE = 0.05;
+
+  /**
+   * Returns the error rate of the predictions.
+   *
+   * @param model	the model to evaluate
+   * @param x		the rows
+   * @param y		the actual labels
+   * @return		the error rate
+   */
+  protected double error(Classifier<double[]> model, double[][] x, int[] y) {
+    int		errors;
+    int		i;
+
+    errors = 0;
+    for (i = 0; i < x.length; i++) {
+      if (model.predict(x[i]) != y[i])
+	errors++;
+    }
+
+    return (double) errors / x.length;
+  }
+
+  /**
+   * Trains both forests and compares the errors.
+   *
+   * @param subsample	the sampling rate
+   * @throws Exception	if training fails
+   */
+  protected void check(double subsample) throws Exception {
+    Instances		data;
+    AttributeDataset	train;
+    AttributeDataset	test;
+    int			mtry;
+    TrainingExecutor	executor;
+    RandomForestTrainer	trainer;
+    RandomForestModel	ours;
+    RandomForest	smile;
+    String		msg;
+
+    data  = TestDataUtils.nominalData(1000, 10, 3, 42, false);
+    train = SmileDatasetUtils.convertInstances(new Instances(data, 0, 700));
+    test  = SmileDatasetUtils.convertInstances(new Instances(data, 700, 300));
+    mtry  = (int) Math.floor(Math.sqrt(train.attributes().length));
+    msg   = "subsample=" + subsample;
+
+    executor = new TrainingExecutor(1);
+    try {
+      trainer = new RandomForestTrainer(
+	train.attributes(), train.x(), train.labels(), 100, 1, mtry, subsample,
+	DecisionTree.SplitRule.GINI, null, 0, executor);
+      trainer.addTrees(NUM_TREES);
+      ours = trainer.getModel();
+    }
+    finally {
+      executor.shutdown();
+    }
+    smile = new RandomForest(
+      train.attributes(), train.x(), train.labels(), NUM_TREES, 100, 1, mtry, subsample,
+      DecisionTree.SplitRule.GINI, null);
+
+    assertEquals(msg + ": number of trees", NUM_TREES, ours.size());
+    assertEquals(msg + ": OOB error", smile.error(), ours.error(), TOLERANCE);
+    assertEquals(msg + ": test error", error(smile, test.x(), test.labels()), error(ours, test.x(), test.labels()), TOLERANCE);
+  }
+
+  /**
+   * Compares the forests trained on bootstrap samples.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testBootstrap() throws Exception {
+    check(1.0);
+  }
+
+  /**
+   * Compares the forests trained on sub-samples.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testSubSample() throws Exception {
+    check(0.7);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileRandomForestConcurrencyTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import org.junit.Test;
+import smile.core.ConcurrencyTestUtils;
+import smile.core.TestDataUtils;
+import weka.core.Instances;
+
+/**
+ * Predicts with a single {@link SmileRandomForest} from several threads and
+ * compares the results with the single-threaded ones.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileRandomForestConcurrencyTest {
+
+  /**
+   * Builds the forest on the given data.
+   *
+   * @param data	the training data
+   * @param compact	whether to use the compact trees
+   * @return		the built classifier
+   * @throws Exception	if training fails
+   */
+  protected SmileRandomForest build(Instances data, boolean compact) throws Exception {
+    SmileRandomForest	result;
+
+    result = new SmileRandomForest();
+    result.setNumTrees(50);
+    result.setCompactTrees(compact);
+    result.buildClassifier(data);
+
+    return result;
+  }
+
+  /**
+   * Hammers the classifier with the prediction cache and metrics turned on
+   * and off, and through the scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param compact	whether to use the compact trees
+   * @throws Exception	if training or prediction fails
+   */
+  protected void check(String msg, boolean compact) throws Exception {
+    Instances	data;
+
+    // SMILE's decision trees cannot split on date attributes
+    data = TestDataUtils.nominalData(200, 10, 3, 42, false);
+    ConcurrencyTestUtils.assertConcurrentPredictions(msg, build(data, compact), data);
+  }
+
+  /**
+   * Tests the regular trees.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testConcurrentPredictions() throws Exception {
+    check("regular trees", false);
+  }
+
+  /**
+   * Tests the compact trees.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testConcurrentPredictionsCompact() throws Exception {
+    check("compact trees", true);
+  }
+}
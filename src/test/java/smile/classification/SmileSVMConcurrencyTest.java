@@ -0,0 +1,88 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileSVMConcurrencyTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.classification;
+
+import org.junit.Test;
+import smile.core.ConcurrencyTestUtils;
+import smile.core.TestDataUtils;
+import weka.core.Instances;
+
+/**
+ * Predicts with a single {@link SmileSVM} from several threads and
+ * compares the results with the single-threaded ones.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileSVMConcurrencyTest {
+
+  /**
+   * Builds the SVM on the given data.
+   *
+   * @param data	the training data
+   * @param fast	whether to use the fast posteriors
+   * @return		the built classifier
+   * @throws Exception	if training fails
+   */
+  protected SmileSVM build(Instances data, boolean fast) throws Exception {
+    SmileSVM	result;
+
+    result = new SmileSVM();
+    result.setFastPosteriors(fast);
+    result.buildClassifier(data);
+
+    return result;
+  }
+
+  /**
+   * Hammers the classifier with the prediction cache and metrics turned on
+   * and off, and through the scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param fast	whether to use the fast posteriors
+   * @throws Exception	if training or prediction fails
+   */
+  protected void check(String msg, boolean fast) throws Exception {
+    Instances	data;
+
+    data = TestDataUtils.nominalData(200, 10, 3, 42);
+    ConcurrencyTestUtils.assertConcurrentPredictions(msg, build(data, fast), data);
+  }
+
+  /**
+   * Tests the regular posteriors.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testConcurrentPredictions() throws Exception {
+    check("regular posteriors", false);
+  }
+
+  /**
+   * Tests the fast posteriors.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testConcurrentPredictionsFast() throws Exception {
+    check("fast posteriors", true);
+  }
+}
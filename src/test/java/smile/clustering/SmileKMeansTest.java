@@ -0,0 +1,284 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileKMeansTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.clustering;
+
+import org.junit.Test;
+import smile.core.SmileDatasetUtils;
+import smile.core.TestDataUtils;
+import smile.core.TrainingBudget;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the cluster assignments of {@link SmileKMeans} and
+ * {@link SmileCLARANS} (single rows and batches) with the ones of SMILE's
+ * KMeans.predict and CLARANS.predict, for rows with missing values, and
+ * checks the stop reasons of the training time budget.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileKMeansTest {
+
+  /**
+   * Generates the data (numeric attributes only).
+   *
+   * @param numAtts	the number of attributes
+   * @return		the data
+   */
+  protected Instances data(int numAtts) {
+    return TestDataUtils.clusterData(2000, numAtts, 42);
+  }
+
+  /**
+   * Builds the clusterer.
+   *
+   * @param data	the training data
+   * @param numClusters	the number of clusters
+   * @return		the clusterer
+   * @throws Exception	if training fails
+   */
+  protected SmileKMeans build(Instances data, int numClusters) throws Exception {
+    SmileKMeans		result;
+
+    result = new SmileKMeans();
+    result.setNumClusters(numClusters);
+    result.buildClusterer(data);
+
+    return result;
+  }
+
+  /**
+   * Sets the first or the last value of some of the rows to missing.
+   *
+   * @param data	the data to use
+   * @return		the new data
+   */
+  protected Instances withMissing(Instances data) {
+    Instances	result;
+    int		i;
+
+    result = new Instances(data);
+    for (i = 0; i < result.numInstances(); i += 7)
+      result.instance(i).setMissing(0);
+    for (i = 3; i < result.numInstances(); i += 11)
+      result.instance(i).setMissing(result.numAttributes() - 1);
+
+    return result;
+  }
+
+  /**
+   * Checks that the assignments of rows with missing values agree with
+   * the model's predict and that the distribution can be computed.
+   *
+   * @param msg		the message to prefix failures with
+   * @param clu		the built clusterer
+   * @param data	the data with missing values
+   * @throws Exception	if clustering fails
+   */
+  protected void checkSingle(String msg, AbstractSmileClusterer clu, Instances data) throws Exception {
+    Instance	inst;
+    double[]	dist;
+    int		expected;
+    int		i;
+
+    for (i = 0; i < data.numInstances(); i++) {
+      inst     = data.instance(i);
+      expected = clu.m_Model.predict(SmileDatasetUtils.convertInstance(inst, clu.getHeader().getDataset()));
+      assertEquals(msg + ": row " + i, expected, clu.clusterInstance(inst));
+      dist = clu.distributionForInstance(inst);
+      assertEquals(msg + ": distribution of row " + i, 1.0, dist[expected], 0.0);
+    }
+  }
+
+  /**
+   * Checks that the batch assignments of rows with missing values agree
+   * with the model's predict and that all indices are valid.
+   *
+   * @param msg		the message to prefix failures with
+   * @param clu		the built clusterer
+   * @param data	the data with missing values
+   * @throws Exception	if clustering fails
+   */
+  protected void checkBatch(String msg, AbstractSmileClusterer clu, Instances data) throws Exception {
+    Instance	inst;
+    int[]	actual;
+    int		i;
+
+    actual = clu.clusterInstances(data);
+    assertEquals(msg + ": number of rows", data.numInstances(), actual.length);
+    for (i = 0; i < data.numInstances(); i++) {
+      inst = data.instance(i);
+      assertTrue(msg + ": valid index for row " + i, (actual[i] >= 0) && (actual[i] < clu.numberOfClusters()));
+      if (inst.hasMissingValue())
+	assertEquals(msg + ": row " + i, clu.m_Model.predict(SmileDatasetUtils.convertInstance(inst, clu.getHeader().getDataset())), actual[i]);
+    }
+  }
+
+  /**
+   * Tests the brute force assignment of rows with missing values.
+   *
+   * @throws Exception	if training or clustering fails
+   */
+  @Test
+  public void testMissingValuesBruteForce() throws Exception {
+    Instances	data;
+    SmileKMeans	clu;
+
+    data = data(10);
+    clu  = build(data, 4);
+    assertTrue("brute force", !clu.m_NearestCentroids.usesTree());
+    checkSingle("brute force", clu, withMissing(data));
+  }
+
+  /**
+   * Tests the tree-based assignment of rows with missing values.
+   *
+   * @throws Exception	if training or clustering fails
+   */
+  @Test
+  public void testMissingValuesTree() throws Exception {
+    Instances	data;
+    SmileKMeans	clu;
+
+    data = data(2);
+    clu  = build(data, 128);
+    assertTrue("tree", clu.m_NearestCentroids.usesTree());
+    checkSingle("tree", clu, withMissing(data));
+  }
+
+  /**
+   * Tests the batch assignment of rows with missing values in double and
+   * single precision.
+   *
+   * @throws Exception	if training or clustering fails
+   */
+  @Test
+  public void testMissingValuesBatch() throws Exception {
+    Instances	data;
+    SmileKMeans	clu;
+
+    data = data(10);
+    for (boolean floatPrecision: new boolean[]{false, true}) {
+      clu = new SmileKMeans();
+      clu.setNumClusters(4);
+      clu.setFloatPrecision(floatPrecision);
+      clu.buildClusterer(data);
+      assertTrue("brute force", !clu.m_NearestCentroids.usesTree());
+      checkBatch("batch (float=" + floatPrecision + ")", clu, withMissing(data));
+    }
+  }
+
+  /**
+   * Tests the tree-based assignment of rows with missing values with
+   * CLARANS, whose distance skips missing values rather than assigning
+   * such rows to the first medoid.
+   *
+   * @throws Exception	if training or clustering fails
+   */
+  @Test
+  public void testMissingValuesCLARANS() throws Exception {
+    Instances		data;
+    Instances		missing;
+    SmileCLARANS	clu;
+    int			i;
+    boolean		other;
+
+    data = data(2);
+    clu  = new SmileCLARANS();
+    clu.setNumClusters(64);
+    clu.setMaxNeighbor(100);
+    clu.buildClusterer(data);
+    assertTrue("tree", clu.m_NearestCentroids.usesTree());
+    missing = withMissing(data);
+    checkSingle("CLARANS", clu, missing);
+    checkBatch("CLARANS batch", clu, missing);
+
+    // rows with missing values must not all end up with the first medoid
+    other = false;
+    for (i = 0; i < missing.numInstances(); i++) {
+      if (missing.instance(i).hasMissingValue() && (clu.clusterInstance(missing.instance(i)) != 0))
+	other = true;
+    }
+    assertTrue("CLARANS: rows with missing values spread over medoids", other);
+  }
+
+  /**
+   * Tests the stop reasons of the restarts of k-means with an exhausted
+   * and an unlimited budget.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testBudgetKMeans() throws Exception {
+    Instances	data;
+    SmileKMeans	clu;
+
+    data = data(5);
+    for (double budget: new double[]{1e-9, 0.0}) {
+      clu = new SmileKMeans();
+      clu.setNumClusters(4);
+      clu.setRuns(5);
+      clu.setTrainingTimeBudget(budget);
+      clu.buildClusterer(data);
+      if (budget > 0) {
+	assertTrue("stopped", clu.getTrainingBudget().isStopped());
+	assertEquals("stop reason", "time budget used up after 1 of 5 runs", clu.getTrainingBudget().getStopReason());
+      }
+      else {
+	assertEquals("stop reason", TrainingBudget.COMPLETED, clu.getTrainingBudget().getStopReason());
+      }
+      assertEquals("number of clusters", 4, clu.numberOfClusters());
+    }
+  }
+
+  /**
+   * Tests the stop reasons of the local searches of CLARANS with an
+   * exhausted and an unlimited budget.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testBudgetCLARANS() throws Exception {
+    Instances		data;
+    SmileCLARANS	clu;
+
+    data = TestDataUtils.clusterData(300, 5, 42);
+    for (double budget: new double[]{1e-9, 0.0}) {
+      clu = new SmileCLARANS();
+      clu.setNumClusters(4);
+      clu.setNumLocalMinima(3);
+      clu.setMaxNeighbor(20);
+      clu.setTrainingTimeBudget(budget);
+      clu.buildClusterer(data);
+      if (budget > 0) {
+	assertTrue("stopped", clu.getTrainingBudget().isStopped());
+	assertEquals("stop reason", "time budget used up after 1 of 3 local minima", clu.getTrainingBudget().getStopReason());
+      }
+      else {
+	assertEquals("stop reason", TrainingBudget.COMPLETED, clu.getTrainingBudget().getStopReason());
+      }
+      assertEquals("number of clusters", 4, clu.numberOfClusters());
+    }
+  }
+}
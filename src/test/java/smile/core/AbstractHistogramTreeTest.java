@@ -0,0 +1,189 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractHistogramTreeTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import smile.classification.DecisionTree;
+import smile.classification.HistogramTree;
+import smile.data.AttributeDataset;
+import smile.math.Math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the histograms derived via subtraction (and the rebuilt
+ * ones) of {@link AbstractHistogramTree} equal freshly built ones and
+ * that the histogram budget does not change the tree.
+ *
+ * @author agent (agent at local)
+ */
+public class AbstractHistogramTreeTest {
+
+  /** the number of subtracted histograms that got checked. */
+  protected static int m_NumSubtracted;
+
+  /** the number of rebuilt histograms that got checked. */
+  protected static int m_NumRebuilt;
+
+  /** the maximum number of nodes with histograms. */
+  protected static int m_MaxNodes;
+
+  /**
+   * Tree that compares the histograms of the children with freshly built
+   * ones after each split.
+   */
+  public static class CheckedTree
+    extends HistogramTree {
+
+    private static final long serialVersionUID = 1L;
+
+    /** the maximum number of nodes keeping histograms, 0 for the default. */
+    protected static int m_Budget;
+
+    /**
+     * Grows the tree.
+     *
+     * @param binning	the binned data
+     * @param y		the class labels
+     * @param numClasses	the number of classes
+     * @param samples	the number of times each row is in the sample
+     */
+    public CheckedTree(HistogramBinning binning, int[] y, int numClasses, int[] samples) {
+      super(binning, y, numClasses, 1000, 1, binning.numFeatures(), DecisionTree.SplitRule.GINI, samples);
+    }
+
+    /**
+     * Returns the budget for the test, if set.
+     *
+     * @param bytesPerNode	the memory for the histograms of a node
+     * @return			the maximum number of nodes
+     */
+    @Override
+    protected int maxHistogramNodes(long bytesPerNode) {
+      if (m_Budget > 0)
+	return m_Budget;
+      return super.maxHistogramNodes(bytesPerNode);
+    }
+
+    /**
+     * Splits the node and compares the histograms of the children.
+     *
+     * @param node	the node to split
+     * @return		the children
+     */
+    @Override
+    protected TrainNode[] split(TrainNode node) {
+      TrainNode[]	result;
+      double[][]	fresh;
+      boolean		subtracted;
+      int		i;
+
+      subtracted = (node.histograms != null);
+      result     = super.split(node);
+      for (TrainNode child: result) {
+	if (child.histograms == null)
+	  continue;
+	fresh = histograms(child.rows);
+	for (i = 0; i < fresh.length; i++)
+	  assertArrayEquals("feature " + i, fresh[i], child.histograms[i], 0.0);
+	if (subtracted)
+	  m_NumSubtracted++;
+	else
+	  m_NumRebuilt++;
+      }
+      m_MaxNodes = java.lang.Math.max(m_MaxNodes, m_NumHistogramNodes);
+
+      return result;
+    }
+  }
+
+  /**
+   * Grows a tree with the given budget.
+   *
+   * @param budget	the maximum number of nodes with histograms, 0 for the default
+   * @return		the tree
+   * @throws Exception	if generating the data fails
+   */
+  protected HistogramTree grow(int budget) throws Exception {
+    AttributeDataset	data;
+    HistogramBinning	binning;
+    int[]		samples;
+    int			i;
+
+    data    = SmileDatasetUtils.convertInstances(TreeTestUtils.withMissing(TreeTestUtils.mixedData(1000, false, 1), 0.1, 2));
+    binning = new HistogramBinning(data.attributes(), data.x(), 16);
+    samples = new int[data.size()];
+    for (i = 0; i < samples.length; i++)
+      samples[i] = 1 + (i % 3);
+
+    m_NumSubtracted       = 0;
+    m_NumRebuilt          = 0;
+    m_MaxNodes            = 0;
+    CheckedTree.m_Budget  = budget;
+    Math.setSeed(42);
+    try {
+      return new CheckedTree(binning, data.labels(), TreeTestUtils.NUM_CLASSES, samples);
+    }
+    finally {
+      CheckedTree.m_Budget = 0;
+    }
+  }
+
+  /**
+   * Checks the subtracted histograms without a limit.
+   *
+   * @throws Exception	if growing fails
+   */
+  @Test
+  public void testSubtraction() throws Exception {
+    grow(0);
+    assertTrue("subtracted histograms: " + m_NumSubtracted, m_NumSubtracted > 100);
+    assertEquals("rebuilt histograms", 0, m_NumRebuilt);
+  }
+
+  /**
+   * Checks the histograms with a small budget and compares the tree with
+   * the one grown without limit.
+   *
+   * @throws Exception	if growing fails
+   */
+  @Test
+  public void testBudget() throws Exception {
+    HistogramTree	unlimited;
+    HistogramTree	limited;
+    AttributeDataset	data;
+    double[][]		x;
+    int			i;
+
+    unlimited = grow(0);
+    limited   = grow(4);
+    assertTrue("subtracted histograms: " + m_NumSubtracted, m_NumSubtracted > 0);
+    assertTrue("rebuilt histograms: " + m_NumRebuilt, m_NumRebuilt > 0);
+    assertTrue("nodes with histograms: " + m_MaxNodes, m_MaxNodes <= 5);
+
+    data = SmileDatasetUtils.convertInstances(TreeTestUtils.mixedData(500, false, 3));
+    x    = data.x();
+    for (i = 0; i < x.length; i++)
+      assertEquals("row " + i, unlimited.predict(x[i]), limited.predict(x[i]));
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BulkScorerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import weka.core.Instances;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that {@link BulkScorer} outputs the results in input order,
+ * independent of the number of threads, and that errors of the reader and
+ * the writer get propagated without hanging.
+ *
+ * @author agent (agent at local)
+ */
+public class BulkScorerTest {
+
+  /** the number of rows per chunk. */
+  public static final int CHUNK_SIZE = 7;
+
+  /** the timeout for the tests in msec. */
+  public static final long TIMEOUT = 60000;
+
+  /** the number of threads for the multi-threaded runs. */
+  public static final int NUM_THREADS = 8;
+
+  /**
+   * Writer that fails after a number of writes.
+   */
+  public static class FailingWriter
+    extends Writer {
+
+    /** the output so far. */
+    protected StringBuilder m_Output;
+
+    /** the number of writes before failing. */
+    protected int m_Remaining;
+
+    /**
+     * Initializes the writer.
+     *
+     * @param numWrites	the number of writes before failing
+     */
+    public FailingWriter(int numWrites) {
+      m_Output    = new StringBuilder();
+      m_Remaining = numWrites;
+    }
+
+    /**
+     * Writes the characters or fails once the number of writes is used up.
+     *
+     * @param cbuf		the characters
+     * @param off		the offset of the first character
+     * @param len		the number of characters
+     * @throws IOException	if the number of writes is used up
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      if (m_Remaining-- <= 0)
+	throw new IOException("Failing writer");
+      m_Output.append(cbuf, off, len);
+    }
+
+    /**
+     * Does nothing.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Does nothing.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns the output so far.
+     *
+     * @return		the output
+     */
+    @Override
+    public String toString() {
+      return m_Output.toString();
+    }
+  }
+
+  /**
+   * Returns the data to score.
+   *
+   * @return		the data
+   */
+  protected Instances data() {
+    return TestDataUtils.nominalData(1000, 5, 3, 42, false);
+  }
+
+  /**
+   * Turns the data into CSV.
+   *
+   * @param data	the data to convert
+   * @param invalid	the row to replace with an invalid one, -1 for none
+   * @return		the CSV rows
+   */
+  protected String csv(Instances data, int invalid) {
+    StringBuilder	result;
+    int			i;
+
+    result = new StringBuilder();
+    for (i = 0; i < data.numInstances(); i++) {
+      if (i == invalid)
+	result.append("invalid");
+      else
+	result.append(TestDataUtils.toLine(data.instance(i)));
+      result.append("\n");
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Splits the output into lines.
+   *
+   * @param output	the output
+   * @return		the lines
+   */
+  protected String[] lines(String output) {
+    if (output.isEmpty())
+      return new String[0];
+    return output.split("\n");
+  }
+
+  /**
+   * Checks that CSV and ARFF output is the same for a single and several
+   * threads and equals the results of scoring all rows at once.
+   *
+   * @throws Exception	if scoring fails
+   */
+  @Test(timeout = TIMEOUT)
+  public void testOrder() throws Exception {
+    Instances		data;
+    ModelScorer		scorer;
+    BulkScorer		bulk;
+    String[]		expected;
+    StringWriter	out;
+
+    data     = data();
+    scorer   = ModelScorerTest.scorer(data);
+    expected = scorer.score(data);
+    for (int numThreads: new int[]{1, NUM_THREADS}) {
+      bulk = new BulkScorer(scorer, numThreads, CHUNK_SIZE);
+      out  = new StringWriter();
+      bulk.scoreCSV(new BufferedReader(new StringReader(csv(data, -1))), false, out);
+      assertArrayEquals("CSV, threads=" + numThreads, expected, lines(out.toString()));
+      assertEquals("CSV rows, threads=" + numThreads, data.numInstances(), bulk.getNumRows());
+
+      out = new StringWriter();
+      bulk.scoreArff(new BufferedReader(new StringReader(data.toString())), out);
+      assertArrayEquals("ARFF, threads=" + numThreads, expected, lines(out.toString()));
+      assertEquals("ARFF rows, threads=" + numThreads, data.numInstances(), bulk.getNumRows());
+    }
+  }
+
+  /**
+   * Checks that a row that cannot be parsed stops scoring, after the
+   * complete chunks before it got written in order.
+   *
+   * @throws Exception	if scoring fails unexpectedly
+   */
+  @Test(timeout = TIMEOUT)
+  public void testReaderError() throws Exception {
+    Instances		data;
+    ModelScorer		scorer;
+    BulkScorer		bulk;
+    String[]		expected;
+    StringWriter	out;
+    int			invalid;
+
+    data     = data();
+    scorer   = ModelScorerTest.scorer(data);
+    expected = scorer.score(data);
+    invalid  = 500;
+    for (int numThreads: new int[]{1, NUM_THREADS}) {
+      bulk = new BulkScorer(scorer, numThreads, CHUNK_SIZE);
+      out  = new StringWriter();
+      try {
+	bulk.scoreCSV(new BufferedReader(new StringReader(csv(data, invalid))), false, out);
+	fail("Invalid row got scored, threads=" + numThreads);
+      }
+      catch (IllegalArgumentException e) {
+	// expected
+      }
+      assertArrayEquals(
+	"rows before invalid chunk, threads=" + numThreads,
+	Arrays.copyOf(expected, (invalid / CHUNK_SIZE) * CHUNK_SIZE), lines(out.toString()));
+    }
+  }
+
+  /**
+   * Checks that a failing writer stops scoring and its error gets
+   * propagated, after the rows before the failure got written in order.
+   *
+   * @throws Exception	if scoring fails unexpectedly
+   */
+  @Test(timeout = TIMEOUT)
+  public void testWriterError() throws Exception {
+    Instances		data;
+    ModelScorer		scorer;
+    BulkScorer		bulk;
+    String[]		expected;
+    Writer		out;
+    int			numWrites;
+
+    data      = data();
+    scorer    = ModelScorerTest.scorer(data);
+    expected  = scorer.score(data);
+    numWrites = 300;
+    for (int numThreads: new int[]{1, NUM_THREADS}) {
+      bulk = new BulkScorer(scorer, numThreads, CHUNK_SIZE);
+      out  = new FailingWriter(numWrites);
+      try {
+	bulk.scoreCSV(new BufferedReader(new StringReader(csv(data, -1))), false, out);
+	fail("Failing writer did not fail scoring, threads=" + numThreads);
+      }
+      catch (IOException e) {
+	assertEquals("error", "Failing writer", e.getMessage());
+      }
+      assertArrayEquals("rows before failure, threads=" + numThreads, Arrays.copyOf(expected, numWrites), lines(out.toString()));
+      assertTrue("rows scored, threads=" + numThreads, bulk.getNumRows() < data.numInstances());
+    }
+  }
+}
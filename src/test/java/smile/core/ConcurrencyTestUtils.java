@@ -0,0 +1,514 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ConcurrencyTestUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.classification.AbstractSmileClassifier;
+import smile.clustering.AbstractSmileClusterer;
+import smile.data.AttributeDataset;
+import smile.data.StringAttribute;
+import smile.regression.AbstractSmileRegressor;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Helper methods for the tests that hammer a built model from several
+ * threads and compare the predictions with a single-threaded baseline.
+ * <br>
+ * The data should contain a date attribute (and optionally a string
+ * attribute), as converting these values is not thread-safe by itself.
+ *
+ * @author agent (agent at local)
+ */
+public class ConcurrencyTestUtils {
+
+  /** the default number of threads. */
+  public static final int NUM_THREADS = 8;
+
+  /** the default number of passes each thread makes through the data. */
+  public static final int NUM_ROUNDS = 5;
+
+  /** the maximum time to wait for the threads in seconds. */
+  public static final int TIMEOUT = 120;
+
+  /** the prediction cache sizes to test with. */
+  public static final int[] CACHE_SIZES = new int[]{0, 50, 1000};
+
+  /** the number of decimals for the scorer. */
+  public static final int NUM_DECIMALS = 6;
+
+  /**
+   * Makes a single prediction.
+   */
+  public interface Predictor {
+
+    /**
+     * Predicts the instance.
+     *
+     * @param inst	the instance to predict
+     * @return		the prediction
+     * @throws Exception	if prediction fails
+     */
+    public double[] predict(Instance inst) throws Exception;
+  }
+
+  /**
+   * Gives access to the prediction settings of a model.
+   */
+  protected interface Settings {
+
+    /**
+     * Returns whether the model has a prediction cache.
+     *
+     * @return		true if cache available
+     */
+    public boolean hasCache();
+
+    /**
+     * Sets the size of the prediction cache.
+     *
+     * @param value	the size
+     */
+    public void setCacheSize(int value);
+
+    /**
+     * Sets whether to collect metrics.
+     *
+     * @param value	true if to collect
+     */
+    public void setCollectMetrics(boolean value);
+
+    /**
+     * Returns the metrics.
+     *
+     * @return		the metrics, null if not collected
+     */
+    public PredictionMetrics getMetrics();
+  }
+
+  /**
+   * Generates a dataset with a numeric, a date and a string attribute and a
+   * nominal class. None of the wrappers handle string attributes, so this
+   * data is only meant for the conversion of instances.
+   *
+   * @param numInst	the number of rows
+   * @param numStrings	the number of distinct strings
+   * @param seed	the seed for the random numbers
+   * @return		the dataset
+   */
+  public static Instances stringData(int numInst, int numStrings, long seed) {
+    ArrayList<Attribute>	atts;
+    ArrayList<String>		labels;
+    Instances			result;
+    Random			rnd;
+    double[]			values;
+    int				n;
+
+    atts = new ArrayList<Attribute>();
+    atts.add(new Attribute("num"));
+    atts.add(new Attribute("date", TestDataUtils.DATE_FORMAT));
+    atts.add(new Attribute("string", (List<String>) null));
+    labels = new ArrayList<String>();
+    labels.add("yes");
+    labels.add("no");
+    atts.add(new Attribute("class", labels));
+    result = new Instances("string", atts, numInst);
+    result.setClassIndex(3);
+
+    rnd = new Random(seed);
+    for (n = 0; n < numInst; n++) {
+      values    = new double[4];
+      values[0] = rnd.nextGaussian();
+      values[1] = TestDataUtils.randomDate(rnd, 0, 365);
+      values[2] = result.attribute(2).addStringValue("string-" + rnd.nextInt(numStrings));
+      values[3] = rnd.nextInt(2);
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a predictor that combines the class distribution (newly
+   * allocated and into a buffer) and the classification.
+   *
+   * @param cls		the built classifier
+   * @return		the predictor
+   */
+  public static Predictor classifier(final AbstractSmileClassifier cls) {
+    return new Predictor() {
+      public double[] predict(Instance inst) throws Exception {
+	double[] dist = cls.distributionForInstance(inst);
+	double[] buffer = new double[cls.numClasses()];
+	double[] result = new double[dist.length * 2 + 1];
+	cls.distributionForInstance(inst, buffer);
+	System.arraycopy(dist, 0, result, 0, dist.length);
+	System.arraycopy(buffer, 0, result, dist.length, buffer.length);
+	result[result.length - 1] = cls.classifyInstance(inst);
+	return result;
+      }
+    };
+  }
+
+  /**
+   * Returns a predictor that combines the prediction and the distribution.
+   *
+   * @param reg		the built regressor
+   * @return		the predictor
+   */
+  public static Predictor regressor(final AbstractSmileRegressor reg) {
+    return new Predictor() {
+      public double[] predict(Instance inst) throws Exception {
+	double[] dist = reg.distributionForInstance(inst);
+	double[] result = new double[dist.length + 1];
+	System.arraycopy(dist, 0, result, 0, dist.length);
+	result[dist.length] = reg.classifyInstance(inst);
+	return result;
+      }
+    };
+  }
+
+  /**
+   * Returns a predictor that combines the cluster and the cluster
+   * distribution.
+   *
+   * @param clu		the built clusterer
+   * @return		the predictor
+   */
+  public static Predictor clusterer(final AbstractSmileClusterer clu) {
+    return new Predictor() {
+      public double[] predict(Instance inst) throws Exception {
+	double[] dist = clu.distributionForInstance(inst);
+	double[] result = new double[dist.length + 1];
+	System.arraycopy(dist, 0, result, 0, dist.length);
+	result[dist.length] = clu.clusterInstance(inst);
+	return result;
+      }
+    };
+  }
+
+  /**
+   * Returns a predictor that goes through the text form of the instances:
+   * the line gets parsed with the scorer and then predicted with the
+   * model's predictor.
+   *
+   * @param scorer	the scorer to parse the lines with
+   * @param data	the instances that will get predicted
+   * @param predictor	the predictor for the model of the scorer
+   * @return		the predictor
+   */
+  public static Predictor scorer(final ModelScorer scorer, Instances data, final Predictor predictor) {
+    final Map<Instance,String>	lines;
+    int				i;
+
+    lines = new IdentityHashMap<Instance,String>();
+    for (i = 0; i < data.numInstances(); i++)
+      lines.put(data.instance(i), TestDataUtils.toLine(data.instance(i)));
+
+    return new Predictor() {
+      public double[] predict(Instance inst) throws Exception {
+	Instance parsed = scorer.parse(lines.get(inst));
+	parsed.setDataset(scorer.getHeader());
+	return predictor.predict(parsed);
+      }
+    };
+  }
+
+  /**
+   * Returns a predictor that converts the instances with the dataset
+   * structure. String values get turned back into strings (their hash
+   * code), as their internal values depend on the order they were seen in.
+   *
+   * @param dataset	the dataset structure
+   * @return		the predictor
+   * @see		SmileDatasetUtils#convertInstance(Instance, AttributeDataset)
+   */
+  public static Predictor converter(final AttributeDataset dataset) {
+    return new Predictor() {
+      public double[] predict(Instance inst) throws Exception {
+	double[] result = SmileDatasetUtils.convertInstance(inst, dataset);
+	for (int i = 0; i < result.length; i++) {
+	  smile.data.Attribute att = dataset.attributes()[i];
+	  if (att instanceof StringAttribute) {
+	    synchronized(att) {
+	      result[i] = att.toString(result[i]).hashCode();
+	    }
+	  }
+	}
+	return result;
+      }
+    };
+  }
+
+  /**
+   * Predicts all the instances sequentially.
+   *
+   * @param data	the instances to predict
+   * @param predictor	for making the predictions
+   * @return		the predictions
+   * @throws Exception	if prediction fails
+   */
+  public static double[][] baseline(Instances data, Predictor predictor) throws Exception {
+    double[][]	result;
+    int		i;
+
+    result = new double[data.numInstances()][];
+    for (i = 0; i < data.numInstances(); i++)
+      result[i] = predictor.predict(data.instance(i)).clone();
+
+    return result;
+  }
+
+  /**
+   * Predicts the instances from several threads at once, each thread
+   * going through them several times in its own random order, and checks
+   * that every prediction is bit-identical to the baseline.
+   *
+   * @param msg		the message to prefix failures with
+   * @param data	the instances to predict
+   * @param expected	the single-threaded predictions
+   * @param predictor	for making the predictions
+   * @param numThreads	the number of threads
+   * @param numRounds	the number of passes each thread makes
+   * @throws Exception	if the threads fail to finish
+   */
+  public static void assertConcurrentPredictions(final String msg, final Instances data, final double[][] expected, final Predictor predictor, int numThreads, final int numRounds) throws Exception {
+    ExecutorService		executor;
+    final CountDownLatch	start;
+    List<Future<String>>	futures;
+    int				i;
+    String			error;
+
+    executor = Executors.newFixedThreadPool(numThreads);
+    start    = new CountDownLatch(1);
+    futures  = new ArrayList<Future<String>>();
+    try {
+      for (i = 0; i < numThreads; i++) {
+	final long seed = i;
+	futures.add(executor.submit(new Callable<String>() {
+	  public String call() throws Exception {
+	    List<Integer> order;
+	    double[] actual;
+	    int r;
+
+	    order = new ArrayList<Integer>();
+	    for (int n = 0; n < data.numInstances(); n++)
+	      order.add(n);
+	    start.await();
+	    for (r = 0; r < numRounds; r++) {
+	      Collections.shuffle(order, new Random(seed * numRounds + r));
+	      for (Integer n: order) {
+		actual = predictor.predict(data.instance(n));
+		if (!Arrays.equals(expected[n], actual))
+		  return "row " + n + ": expected " + Arrays.toString(expected[n]) + ", got " + Arrays.toString(actual);
+	      }
+	    }
+	    return null;
+	  }
+	}));
+      }
+      start.countDown();
+      for (Future<String> future: futures) {
+	error = future.get(TIMEOUT, TimeUnit.SECONDS);
+	if (error != null)
+	  fail(msg + ": " + error);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Checks the predictions from several threads against a single-threaded
+   * baseline with the default number of threads and rounds.
+   *
+   * @param msg		the message to prefix failures with
+   * @param data	the instances to predict
+   * @param expected	the single-threaded predictions
+   * @param predictor	for making the predictions
+   * @throws Exception	if the threads fail to finish
+   */
+  public static void assertConcurrentPredictions(String msg, Instances data, double[][] expected, Predictor predictor) throws Exception {
+    assertConcurrentPredictions(msg, data, expected, predictor, NUM_THREADS, NUM_ROUNDS);
+  }
+
+  /**
+   * Returns the number of predictions per row type that
+   * {@link #assertConcurrentPredictions(String, Instances, double[][], Predictor)}
+   * makes at least.
+   *
+   * @param data	the instances to predict
+   * @return		the number of predictions
+   */
+  public static long numPredictions(Instances data) {
+    return (long) NUM_THREADS * NUM_ROUNDS * data.numInstances();
+  }
+
+  /**
+   * Checks that the metrics recorded every single-row prediction.
+   *
+   * @param msg		the message to prefix failures with
+   * @param metrics	the metrics, null if not collected
+   * @param collect	whether metrics should get collected
+   * @param min		the minimum number of predictions
+   */
+  public static void assertMetrics(String msg, PredictionMetrics metrics, boolean collect, long min) {
+    if (!collect) {
+      assertTrue(msg + ": no metrics expected", metrics == null);
+      return;
+    }
+    assertTrue(msg + ": metrics expected", metrics != null);
+    assertTrue(msg + ": predictions recorded", metrics.getCount() >= min);
+    assertEquals(msg + ": errors recorded", 0, metrics.getErrors());
+  }
+
+  /**
+   * Hammers the model with the prediction cache (if available) and the
+   * metrics turned on and off, and finally through the text form of the
+   * scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param model	the built model
+   * @param data	the instances to predict
+   * @param predictor	for making the predictions
+   * @param settings	for changing the settings of the model
+   * @throws Exception	if prediction fails
+   */
+  protected static void assertConcurrentPredictions(String msg, Object model, Instances data, Predictor predictor, Settings settings) throws Exception {
+    double[][]	expected;
+    int[]	cacheSizes;
+    String	name;
+
+    expected   = baseline(data, predictor);
+    cacheSizes = settings.hasCache() ? CACHE_SIZES : new int[]{0};
+    for (int cache: cacheSizes) {
+      for (boolean metrics: new boolean[]{false, true}) {
+	name = msg + " (" + (settings.hasCache() ? "cache=" + cache + ", " : "") + "metrics=" + metrics + ")";
+	if (settings.hasCache())
+	  settings.setCacheSize(cache);
+	settings.setCollectMetrics(metrics);
+	assertConcurrentPredictions(name, data, expected, predictor);
+	assertMetrics(name, settings.getMetrics(), metrics, numPredictions(data));
+	settings.setCollectMetrics(false);
+      }
+    }
+
+    assertConcurrentPredictions(msg + " (scorer)", data, expected, scorer(new ModelScorer(model, NUM_DECIMALS), data, predictor));
+  }
+
+  /**
+   * Hammers the classifier with the prediction cache and metrics turned on
+   * and off, and through the scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param cls		the built classifier
+   * @param data	the instances to predict
+   * @throws Exception	if prediction fails
+   */
+  public static void assertConcurrentPredictions(String msg, final AbstractSmileClassifier cls, Instances data) throws Exception {
+    assertConcurrentPredictions(msg, cls, data, classifier(cls), new Settings() {
+      public boolean hasCache() {
+	return true;
+      }
+      public void setCacheSize(int value) {
+	cls.setPredictionCacheSize(value);
+      }
+      public void setCollectMetrics(boolean value) {
+	cls.setCollectMetrics(value);
+      }
+      public PredictionMetrics getMetrics() {
+	return cls.getMetrics();
+      }
+    });
+  }
+
+  /**
+   * Hammers the regressor with the prediction cache and metrics turned on
+   * and off, and through the scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param reg		the built regressor
+   * @param data	the instances to predict
+   * @throws Exception	if prediction fails
+   */
+  public static void assertConcurrentPredictions(String msg, final AbstractSmileRegressor reg, Instances data) throws Exception {
+    assertConcurrentPredictions(msg, reg, data, regressor(reg), new Settings() {
+      public boolean hasCache() {
+	return true;
+      }
+      public void setCacheSize(int value) {
+	reg.setPredictionCacheSize(value);
+      }
+      public void setCollectMetrics(boolean value) {
+	reg.setCollectMetrics(value);
+      }
+      public PredictionMetrics getMetrics() {
+	return reg.getMetrics();
+      }
+    });
+  }
+
+  /**
+   * Hammers the clusterer with the metrics turned on and off (clusterers
+   * have no prediction cache), and through the scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param clu		the built clusterer
+   * @param data	the instances to cluster
+   * @throws Exception	if clustering fails
+   */
+  public static void assertConcurrentPredictions(String msg, final AbstractSmileClusterer clu, Instances data) throws Exception {
+    assertConcurrentPredictions(msg, clu, data, clusterer(clu), new Settings() {
+      public boolean hasCache() {
+	return false;
+      }
+      public void setCacheSize(int value) {
+      }
+      public void setCollectMetrics(boolean value) {
+	clu.setCollectMetrics(value);
+      }
+      public PredictionMetrics getMetrics() {
+	return clu.getMetrics();
+      }
+    });
+  }
+}
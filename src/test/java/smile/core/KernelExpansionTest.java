@@ -0,0 +1,164 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * KernelExpansionTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import smile.math.kernel.GaussianKernel;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the reduced set approximation of {@link KernelExpansion}.
+ *
+ * @author agent (agent at local)
+ */
+public class KernelExpansionTest {
+
+  /** the number of vectors. */
+  public static final int NUM_VECTORS = 200;
+
+  /** the number of dimensions. */
+  public static final int NUM_DIMS = 4;
+
+  /**
+   * Generates random rows.
+   *
+   * @param num		the number of rows
+   * @param rnd		the random number generator
+   * @return		the rows
+   */
+  protected double[][] rows(int num, Random rnd) {
+    double[][]	result;
+    int		i;
+    int		n;
+
+    result = new double[num][NUM_DIMS];
+    for (i = 0; i < num; i++) {
+      for (n = 0; n < NUM_DIMS; n++)
+	result[i][n] = rnd.nextGaussian();
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates an expansion with random vectors and coefficients.
+   *
+   * @param vectors	the vectors to use
+   * @param rnd		the random number generator
+   * @return		the expansion
+   */
+  protected KernelExpansion expansion(double[][] vectors, Random rnd) {
+    double[]	coefficients;
+    int		i;
+
+    coefficients = new double[vectors.length];
+    for (i = 0; i < coefficients.length; i++)
+      coefficients[i] = rnd.nextDouble() * 2.0 - 1.0;
+
+    return new KernelExpansion(vectors, coefficients, 0.5, new GaussianKernel(1.0));
+  }
+
+  /**
+   * Returns the RMSE of the reduced expansion.
+   *
+   * @param reduced	the reduced expansion
+   * @param full	the full expansion
+   * @param x		the rows to evaluate on
+   * @return		the RMSE
+   */
+  protected double rmse(KernelExpansion reduced, KernelExpansion full, double[][] x) {
+    return Math.sqrt(reduced.squaredError(full, x) / x.length);
+  }
+
+  /**
+   * Tests that there is nothing to reduce if the maximum is not below the
+   * number of vectors, and that linearly dependent vectors are not needed.
+   */
+  @Test
+  public void testExact() {
+    Random		rnd;
+    double[][]		vectors;
+    double[][]		x;
+    KernelExpansion	full;
+    KernelExpansion	reduced;
+    int			i;
+
+    rnd  = new Random(42);
+    x    = rows(500, rnd);
+    full = expansion(rows(NUM_VECTORS, rnd), rnd);
+    assertSame("same number", full, full.reduce(NUM_VECTORS));
+    assertSame("more", full, full.reduce(NUM_VECTORS + 10));
+    assertEquals("RMSE", 0.0, rmse(full.reduce(NUM_VECTORS), full, x), 0.0);
+
+    // duplicated vectors: half of them suffice
+    vectors = rows(20, rnd);
+    vectors = new double[][]{
+      vectors[0], vectors[1], vectors[2], vectors[3], vectors[4], vectors[5], vectors[6], vectors[7], vectors[8], vectors[9],
+      vectors[0], vectors[1], vectors[2], vectors[3], vectors[4], vectors[5], vectors[6], vectors[7], vectors[8], vectors[9]};
+    for (i = 10; i < vectors.length; i++)
+      vectors[i] = vectors[i].clone();
+    full    = expansion(vectors, rnd);
+    reduced = full.reduce(10);
+    assertTrue("at most 10 vectors", reduced.size() <= 10);
+    assertEquals("RMSE with duplicates", 0.0, rmse(reduced, full, x), 1e-6);
+  }
+
+  /**
+   * Tests that the approximation error decreases as more vectors are
+   * allowed, and that the batch predictions agree with the single ones.
+   */
+  @Test
+  public void testDecreasingError() {
+    Random		rnd;
+    double[][]		x;
+    KernelExpansion	full;
+    KernelExpansion	reduced;
+    double[]		batch;
+    double		error;
+    double		first;
+    double		last;
+    int			i;
+
+    rnd   = new Random(42);
+    x     = rows(500, rnd);
+    full  = expansion(rows(NUM_VECTORS, rnd), rnd);
+    first = Double.NaN;
+    last  = Double.POSITIVE_INFINITY;
+    for (int max: new int[]{5, 10, 20, 40, 80, 160}) {
+      reduced = full.reduce(max);
+      assertEquals("number of vectors", max, reduced.size());
+      error = rmse(reduced, full, x);
+      assertTrue("RMSE " + error + " with " + max + " vectors below " + last, error < last);
+      last  = error;
+      if (Double.isNaN(first))
+	first = error;
+      batch = reduced.predict(x);
+      for (i = 0; i < x.length; i++)
+	assertEquals("batch prediction " + i, reduced.predict(x[i]), batch[i], 1e-9);
+    }
+    assertTrue("RMSE with 160 of " + NUM_VECTORS + " vectors " + last + " far below the one with 5 " + first, last < first / 10);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LatencyHistogramTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the buckets and the percentiles of {@link LatencyHistogram}.
+ *
+ * @author agent (agent at local)
+ */
+public class LatencyHistogramTest {
+
+  /**
+   * Checks that the bounds of each bucket map back to the bucket, that the
+   * buckets are contiguous and that their relative width is bounded.
+   */
+  @Test
+  public void testBucketRoundTrip() {
+    long	lower;
+    long	upper;
+    int		i;
+
+    assertEquals("first bucket", 0, LatencyHistogram.lowerBound(0));
+    for (i = 0; i < LatencyHistogram.NUM_BUCKETS; i++) {
+      lower = LatencyHistogram.lowerBound(i);
+      upper = LatencyHistogram.upperBound(i);
+      assertEquals("lower bound of bucket " + i, i, LatencyHistogram.bucket(lower));
+      assertEquals("upper bound of bucket " + i, i, LatencyHistogram.bucket(upper));
+      assertTrue("non-empty bucket " + i, lower <= upper);
+      if (i < LatencyHistogram.NUM_BUCKETS - 1)
+	assertEquals("contiguous after bucket " + i, upper + 1, LatencyHistogram.lowerBound(i + 1));
+      if (i < LatencyHistogram.SUB_BUCKETS)
+	assertEquals("exact bucket " + i, lower, upper);
+      else
+	assertTrue("width of bucket " + i, (double) (upper - lower + 1) / lower <= 1.0 / LatencyHistogram.SUB_BUCKETS);
+    }
+    assertEquals("largest value", LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    assertEquals("negative value", 0, LatencyHistogram.bucket(-1));
+  }
+
+  /**
+   * Compares the percentiles with the exact ones of the recorded values.
+   */
+  @Test
+  public void testPercentileError() {
+    LatencyHistogram		histogram;
+    LatencyHistogram.Snapshot	snapshot;
+    Random			rnd;
+    long[]			values;
+    double			exact;
+    double			actual;
+    int				i;
+
+    rnd       = new Random(42);
+    values    = new long[10000];
+    histogram = new LatencyHistogram();
+    for (i = 0; i < values.length; i++) {
+      // log-uniform between 1 and 10^9 nano seconds
+      values[i] = (long) Math.pow(10, rnd.nextDouble() * 9);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    snapshot = histogram.snapshot();
+    assertEquals("count", values.length, snapshot.getCount());
+    assertEquals("max", values[values.length - 1], snapshot.getMax());
+    for (double percentile: new double[]{0.1, 1, 10, 25, 50, 75, 90, 95, 99, 99.9, 100}) {
+      exact  = values[(int) Math.max(1, Math.ceil(percentile / 100.0 * values.length)) - 1];
+      actual = snapshot.getPercentile(percentile);
+      // half the relative bucket width, plus rounding to the middle of small buckets
+      assertEquals("percentile " + percentile, exact, actual, exact / (2.0 * LatencyHistogram.SUB_BUCKETS) + 0.5);
+    }
+  }
+
+  /**
+   * Checks the snapshot without values.
+   */
+  @Test
+  public void testEmpty() {
+    LatencyHistogram.Snapshot	snapshot;
+
+    snapshot = new LatencyHistogram().snapshot();
+    assertEquals("count", 0, snapshot.getCount());
+    assertTrue("percentile", Double.isNaN(snapshot.getPercentile(50)));
+    assertTrue("mean", Double.isNaN(snapshot.getMean()));
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelHolderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import smile.classification.SmileRandomForest;
+import weka.core.Instances;
+import weka.core.SerializationHelper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests swapping and (re)loading models with {@link ModelHolder}.
+ *
+ * @author agent (agent at local)
+ */
+public class ModelHolderTest {
+
+  /** the timeout for the tests in msec. */
+  public static final long TIMEOUT = 60000;
+
+  /**
+   * Trains a forest.
+   *
+   * @param data	the training data
+   * @param numTrees	the number of trees
+   * @return		the forest
+   * @throws Exception	if training fails
+   */
+  protected SmileRandomForest forest(Instances data, int numTrees) throws Exception {
+    SmileRandomForest	result;
+
+    result = new SmileRandomForest();
+    result.setNumTrees(numTrees);
+    result.buildClassifier(data);
+
+    return result;
+  }
+
+  /**
+   * Returns a holder without warmup.
+   *
+   * @param scorer	the initial model, null for none
+   * @return		the holder
+   */
+  protected ModelHolder holder(ModelScorer scorer) {
+    ModelHolder		result;
+
+    result = new ModelHolder(ModelScorerTest.NUM_DECIMALS);
+    result.setWarmup(null);
+    if (scorer != null)
+      result.swap(scorer);
+
+    return result;
+  }
+
+  /**
+   * Writes invalid content to the file.
+   *
+   * @param file	the file to write to
+   * @throws Exception	if writing fails
+   */
+  protected void corrupt(File file) throws Exception {
+    FileOutputStream	out;
+
+    out = new FileOutputStream(file);
+    try {
+      out.write("not a model".getBytes("UTF-8"));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Tests swapping models with the same and with a different header.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testSwap() throws Exception {
+    Instances		data;
+    Instances		other;
+    ModelScorer		first;
+    ModelScorer		second;
+    ModelHolder		holder;
+
+    data   = TestDataUtils.nominalData(200, 5, 3, 42, false);
+    other  = new Instances(data);
+    other.renameAttribute(0, "other");
+    first  = new ModelScorer(forest(data, 5), ModelScorerTest.NUM_DECIMALS);
+    second = new ModelScorer(forest(data, 10), ModelScorerTest.NUM_DECIMALS);
+    holder = holder(null);
+    try {
+      assertNull("no model", holder.get());
+      assertNull("no previous model", holder.swap(first));
+      assertEquals("swaps after initial model", 0, holder.getNumSwaps());
+      assertSame("previous model", first, holder.swap(second));
+      assertSame("current model", second, holder.get());
+      assertEquals("swaps", 1, holder.getNumSwaps());
+      try {
+	holder.swap(new ModelScorer(forest(other, 5), ModelScorerTest.NUM_DECIMALS));
+	fail("Model with different header got swapped in");
+      }
+      catch (IllegalArgumentException e) {
+	// expected
+      }
+      assertSame("model after rejected swap", second, holder.get());
+      assertEquals("swaps after rejected swap", 1, holder.getNumSwaps());
+    }
+    finally {
+      holder.shutdown();
+    }
+  }
+
+  /**
+   * Tests reloading in the background, successfully and with an invalid
+   * file.
+   *
+   * @throws Exception	if training or loading fails unexpectedly
+   */
+  @Test(timeout = TIMEOUT)
+  public void testReload() throws Exception {
+    Instances		data;
+    ModelScorer		first;
+    ModelHolder		holder;
+    File		file;
+    Future<ModelScorer>	future;
+    ModelScorer		loaded;
+
+    data   = TestDataUtils.nominalData(200, 5, 3, 42, false);
+    first  = new ModelScorer(forest(data, 5), ModelScorerTest.NUM_DECIMALS);
+    holder = holder(first);
+    file   = File.createTempFile("model", ".model");
+    try {
+      SerializationHelper.write(file.getAbsolutePath(), forest(data, 10));
+      future = holder.reload(file.getAbsolutePath());
+      loaded = future.get();
+      assertSame("reloaded model", loaded, holder.get());
+      assertEquals("swaps", 1, holder.getNumSwaps());
+      assertNull("error", holder.getLastError());
+
+      corrupt(file);
+      future = holder.reload(file.getAbsolutePath());
+      try {
+	future.get();
+	fail("Invalid model got loaded");
+      }
+      catch (ExecutionException e) {
+	// expected
+      }
+      assertSame("model after failed reload", loaded, holder.get());
+      assertEquals("swaps after failed reload", 1, holder.getNumSwaps());
+      assertNotNull("error", holder.getLastError());
+    }
+    finally {
+      holder.shutdown();
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests that a changed file gets loaded and that a failed file only gets
+   * tried again once its timestamp changes again.
+   *
+   * @throws Exception	if training or loading fails unexpectedly
+   */
+  @Test(timeout = TIMEOUT)
+  public void testWatch() throws Exception {
+    Instances		data;
+    ModelScorer		first;
+    ModelHolder		holder;
+    File		file;
+    Exception		error;
+    long		modified;
+
+    data   = TestDataUtils.nominalData(200, 5, 3, 42, false);
+    first  = new ModelScorer(forest(data, 5), ModelScorerTest.NUM_DECIMALS);
+    holder = holder(first);
+    file   = File.createTempFile("model", ".model");
+    try {
+      SerializationHelper.write(file.getAbsolutePath(), forest(data, 10));
+      modified = file.lastModified();
+      holder.watch(file.getAbsolutePath(), 3600);
+      assertFalse("unchanged file", holder.check(file.getAbsolutePath()));
+      assertSame("model of unchanged file", first, holder.get());
+
+      // partially written file
+      corrupt(file);
+      assertTrue(file.setLastModified(modified + 10000));
+      assertFalse("failed file", holder.check(file.getAbsolutePath()));
+      error = holder.getLastError();
+      assertNotNull("error", error);
+      assertSame("model after failed load", first, holder.get());
+      assertFalse("failed file with same timestamp", holder.check(file.getAbsolutePath()));
+      assertSame("no further attempt", error, holder.getLastError());
+
+      // completely written file
+      SerializationHelper.write(file.getAbsolutePath(), forest(data, 10));
+      assertTrue(file.setLastModified(modified + 20000));
+      assertTrue("changed file", holder.check(file.getAbsolutePath()));
+      assertTrue("new model", holder.get() != first);
+      assertNull("error", holder.getLastError());
+      assertEquals("swaps", 1, holder.getNumSwaps());
+    }
+    finally {
+      holder.shutdown();
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelScorerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import smile.classification.SmileRandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the parsing of comma-separated rows in {@link ModelScorer}.
+ *
+ * @author agent (agent at local)
+ */
+public class ModelScorerTest {
+
+  /** the labels of the nominal attribute, containing separators and quotes. */
+  public static final String[] LABELS = new String[]{"a,b", "c d", "it's", "say \"hi\""};
+
+  /** the number of decimals for the scorer. */
+  public static final int NUM_DECIMALS = 6;
+
+  /**
+   * Generates data with a nominal attribute whose labels contain commas and
+   * quotes, a numeric attribute and a nominal class.
+   *
+   * @return		the data
+   */
+  public static Instances data() {
+    ArrayList<Attribute>	atts;
+    Instances			result;
+    Random			rnd;
+    int				label;
+    int				i;
+
+    atts = new ArrayList<Attribute>();
+    atts.add(new Attribute("label", new ArrayList<String>(Arrays.asList(LABELS))));
+    atts.add(new Attribute("x"));
+    atts.add(new Attribute("class", new ArrayList<String>(Arrays.asList("yes", "no"))));
+    result = new Instances("quoted", atts, 200);
+    result.setClassIndex(2);
+    rnd = new Random(42);
+    for (i = 0; i < 200; i++) {
+      label = rnd.nextInt(LABELS.length);
+      result.add(new DenseInstance(1.0, new double[]{label, rnd.nextGaussian() + label, label % 2}));
+    }
+
+    return result;
+  }
+
+  /**
+   * Builds a scorer for the data.
+   *
+   * @param data	the training data
+   * @return		the scorer
+   * @throws Exception	if training fails
+   */
+  public static ModelScorer scorer(Instances data) throws Exception {
+    SmileRandomForest	cls;
+
+    cls = new SmileRandomForest();
+    cls.setNumTrees(10);
+    cls.buildClassifier(data);
+
+    return new ModelScorer(cls, NUM_DECIMALS);
+  }
+
+  /**
+   * Tests splitting rows with quoted and missing values.
+   */
+  @Test
+  public void testSplit() {
+    assertArrayEquals(
+      new String[]{"1", "a,b", "x\"y", null, null, "it's", "tab\there", " padded "},
+      ModelScorer.split("1, 'a,b' ,\"x\"\"y\",?,,'it\\'s', \"tab\\there\", ' padded '"));
+    assertArrayEquals("quoted missing value", new String[]{"?", ""}, ModelScorer.split("'?',\"\""));
+    assertArrayEquals("trailing empty value", new String[]{"1", null}, ModelScorer.split("1,"));
+    assertArrayEquals("single value", new String[]{"1.5"}, ModelScorer.split(" 1.5 "));
+  }
+
+  /**
+   * Tests that malformed quotes get rejected.
+   */
+  @Test
+  public void testSplitInvalid() {
+    for (String line: new String[]{"'a,b", "\"a\"b,1", "'a\\"}) {
+      try {
+	ModelScorer.split(line);
+	fail("Should have failed: " + line);
+      }
+      catch (IllegalArgumentException e) {
+	// expected
+      }
+    }
+  }
+
+  /**
+   * Tests that quoted labels containing commas and quotes end up in the
+   * right column and get scored like the original instances.
+   *
+   * @throws Exception	if training or scoring fails
+   */
+  @Test
+  public void testParseQuoted() throws Exception {
+    Instances	data;
+    ModelScorer	scorer;
+    Instance	inst;
+    Instances	parsed;
+    String	label;
+    int		i;
+
+    data   = data();
+    scorer = scorer(data);
+    parsed = new Instances(scorer.getHeader(), data.numInstances());
+    for (i = 0; i < data.numInstances(); i++) {
+      label = data.instance(i).stringValue(0);
+      if (i % 2 == 0)
+	inst = scorer.parse("\"" + label.replace("\"", "\"\"") + "\"," + data.instance(i).value(1));
+      else
+	inst = scorer.parse("'" + label.replace("'", "\\'") + "', " + data.instance(i).value(1) + ", " + data.instance(i).stringValue(2));
+      assertEquals("label of row " + i, data.instance(i).value(0), inst.value(0), 0.0);
+      assertEquals("value of row " + i, data.instance(i).value(1), inst.value(1), 0.0);
+      assertTrue("class of row " + i, inst.isMissing(2));
+      parsed.add(inst);
+    }
+    assertArrayEquals("scores", scorer.score(data), scorer.score(parsed));
+
+    inst = scorer.parse("?,?");
+    assertTrue("missing label", inst.isMissing(0));
+    assertTrue("missing value", inst.isMissing(1));
+  }
+}
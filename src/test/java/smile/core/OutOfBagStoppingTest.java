@@ -0,0 +1,123 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OutOfBagStoppingTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the stopping decisions of {@link OutOfBagStopping}.
+ *
+ * @author agent (agent at local)
+ */
+public class OutOfBagStoppingTest {
+
+  /**
+   * Checks that the error to compare with is the latest one recorded at
+   * least a window of trees earlier.
+   */
+  @Test
+  public void testWindow() {
+    OutOfBagStopping	stopping;
+
+    stopping = new OutOfBagStopping(10, 0.01);
+    assertFalse("no earlier error", stopping.update(1, 0.5));
+    assertFalse("no earlier error", stopping.update(5, 0.3));
+    assertFalse("no error a window earlier", stopping.update(12, 0.299));
+    assertFalse("missing error", stopping.update(14, Double.NaN));
+    assertTrue("too little improvement over error at 5 trees", stopping.update(16, 0.2985));
+    assertEquals("stopped at", 16, stopping.getStoppedAt());
+    assertEquals("error", 0.2985, stopping.getError(), 0.0);
+    assertTrue("stays stopped", stopping.update(20, 0.1));
+    assertEquals("stopped at", 16, stopping.getStoppedAt());
+  }
+
+  /**
+   * Checks that training continues as long as the error improves enough.
+   */
+  @Test
+  public void testImproving() {
+    OutOfBagStopping	stopping;
+    int			i;
+
+    stopping = new OutOfBagStopping(5, 0.01);
+    for (i = 1; i <= 50; i++)
+      assertFalse("trees: " + i, stopping.update(i, 1.0 / i));
+    assertFalse("stopped", stopping.isStopped());
+    assertEquals("stopped at", -1, stopping.getStoppedAt());
+  }
+
+  /**
+   * Checks that an error of zero stops training.
+   */
+  @Test
+  public void testZeroError() {
+    OutOfBagStopping	stopping;
+
+    stopping = new OutOfBagStopping(10, 0.01);
+    assertFalse(stopping.update(10, 0.0));
+    assertTrue("zero error a window earlier", stopping.update(20, 0.0));
+    assertEquals("stopped at", 20, stopping.getStoppedAt());
+  }
+
+  /**
+   * Checks that a rising error stops training, unless the tolerance is
+   * negative and the rise stays within it.
+   */
+  @Test
+  public void testRisingError() {
+    OutOfBagStopping	stopping;
+
+    stopping = new OutOfBagStopping(10, 0.0);
+    assertFalse(stopping.update(10, 0.2));
+    assertTrue("rising error", stopping.update(20, 0.21));
+
+    stopping = new OutOfBagStopping(10, -0.1);
+    assertFalse(stopping.update(10, 0.2));
+    assertFalse("rise within tolerance", stopping.update(20, 0.21));
+    assertTrue("rise beyond tolerance", stopping.update(30, 0.25));
+  }
+
+  /**
+   * Checks that the errors get output independent of the default locale.
+   */
+  @Test
+  public void testToString() {
+    OutOfBagStopping	stopping;
+    Locale		locale;
+
+    stopping = new OutOfBagStopping(10, 0.01);
+    stopping.update(10, 0.25);
+    locale = Locale.getDefault();
+    try {
+      Locale.setDefault(Locale.GERMANY);
+      assertTrue(stopping.toString(), stopping.toString().contains("10/0.2500"));
+    }
+    finally {
+      Locale.setDefault(locale);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PredictionCacheTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PredictionCache}.
+ *
+ * @author agent (agent at local)
+ */
+public class PredictionCacheTest {
+
+  /**
+   * Tests that the number of entries never exceeds the maximum, for sizes
+   * below and above the number of segments.
+   */
+  @Test
+  public void testMaxSize() {
+    PredictionCache	cache;
+    int			i;
+
+    for (int maxSize: new int[]{1, 5, PredictionCache.MAX_SEGMENTS, 50, 1000}) {
+      cache = new PredictionCache(maxSize);
+      for (i = 0; i < maxSize * 10; i++) {
+	cache.put(new double[]{i, i * 0.5}, new double[]{i});
+	assertTrue("size=" + maxSize + ", entries", cache.size() <= maxSize);
+      }
+      assertTrue("size=" + maxSize + ", filled", cache.size() > 0);
+      cache.clear();
+      assertEquals("size=" + maxSize + ", cleared", 0, cache.size());
+    }
+  }
+
+  /**
+   * Tests that modifying the arrays after storing or retrieving them does
+   * not affect the cache.
+   */
+  @Test
+  public void testCopies() {
+    PredictionCache	cache;
+    double[]		values;
+    double[]		prediction;
+
+    cache      = new PredictionCache(10);
+    values     = new double[]{1.0, 2.0};
+    prediction = new double[]{0.25, 0.75};
+    cache.put(values, prediction);
+    values[0]     = 3.0;
+    prediction[0] = 1.0;
+    assertNull("modified key", cache.get(values));
+    assertArrayEquals("original key", new double[]{0.25, 0.75}, cache.get(new double[]{1.0, 2.0}), 0.0);
+    cache.get(new double[]{1.0, 2.0})[1] = 0.0;
+    assertArrayEquals("modified result", new double[]{0.25, 0.75}, cache.get(new double[]{1.0, 2.0}), 0.0);
+    assertEquals("hits", 3, cache.getHits());
+    assertEquals("misses", 1, cache.getMisses());
+  }
+}
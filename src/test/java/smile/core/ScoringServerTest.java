@@ -0,0 +1,317 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScoringServerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ScoringServer} on localhost, using any free port.
+ *
+ * @author agent (agent at local)
+ */
+public class ScoringServerTest {
+
+  /** the number of concurrent clients in the batching test. */
+  public static final int NUM_CLIENTS = 8;
+
+  /** the maximum wait in msec for further requests in the batching test. */
+  public static final int MAX_WAIT = 500;
+
+  /** the training data. */
+  protected Instances m_Data;
+
+  /** the scorer. */
+  protected ModelScorer m_Scorer;
+
+  /** the server. */
+  protected ScoringServer m_Server;
+
+  /**
+   * Response of the server.
+   */
+  protected static class Response {
+
+    /** the HTTP status code. */
+    public int code;
+
+    /** the content. */
+    public String content;
+  }
+
+  /**
+   * Builds the model.
+   *
+   * @throws Exception	if training fails
+   */
+  @Before
+  public void setUp() throws Exception {
+    m_Data   = ModelScorerTest.data();
+    m_Scorer = ModelScorerTest.scorer(m_Data);
+  }
+
+  /**
+   * Stops the server.
+   */
+  @After
+  public void tearDown() {
+    if (m_Server != null) {
+      m_Server.stop();
+      m_Server.getHolder().shutdown();
+    }
+  }
+
+  /**
+   * Starts the server on any free port.
+   *
+   * @param maxBatchSize	the maximum number of rows per batch
+   * @param maxWait		the maximum time in msec to wait for further requests
+   * @throws Exception		if starting fails
+   */
+  protected void start(int maxBatchSize, int maxWait) throws Exception {
+    m_Server = new ScoringServer(m_Scorer, "localhost", 0, maxBatchSize, maxWait, NUM_CLIENTS);
+    m_Server.start();
+    assertTrue("port assigned", m_Server.getPort() > 0);
+  }
+
+  /**
+   * Sends a request to the server.
+   *
+   * @param path	the path, eg /score
+   * @param method	the HTTP method
+   * @param body	the body to post, null for none
+   * @return		the response
+   * @throws Exception	if the request fails
+   */
+  protected Response request(String path, String method, String body) throws Exception {
+    Response			result;
+    HttpURLConnection		conn;
+    OutputStream		out;
+    InputStream			in;
+    ByteArrayOutputStream	bytes;
+    byte[]			buffer;
+    int				read;
+
+    conn = (HttpURLConnection) new URL("http://localhost:" + m_Server.getPort() + path).openConnection();
+    conn.setRequestMethod(method);
+    if (body != null) {
+      conn.setDoOutput(true);
+      out = conn.getOutputStream();
+      out.write(body.getBytes("UTF-8"));
+      out.close();
+    }
+
+    result      = new Response();
+    result.code = conn.getResponseCode();
+    in          = (result.code < 400) ? conn.getInputStream() : conn.getErrorStream();
+    bytes       = new ByteArrayOutputStream();
+    buffer      = new byte[4096];
+    while ((read = in.read(buffer)) > -1)
+      bytes.write(buffer, 0, read);
+    in.close();
+    conn.disconnect();
+    result.content = bytes.toString("UTF-8");
+
+    return result;
+  }
+
+  /**
+   * Returns the rows in text form, quoting the labels.
+   *
+   * @param from	the first row
+   * @param to		the row after the last one
+   * @return		the rows
+   */
+  protected String[] lines(int from, int to) {
+    String[]	result;
+    Instance	inst;
+    int		i;
+
+    result = new String[to - from];
+    for (i = from; i < to; i++) {
+      inst = m_Data.instance(i);
+      result[i - from] = "\"" + inst.stringValue(0).replace("\"", "\"\"") + "\"," + inst.value(1);
+    }
+
+    return result;
+  }
+
+  /**
+   * Joins the rows, one per line.
+   *
+   * @param lines	the rows
+   * @return		the joined rows
+   */
+  protected String join(String[] lines) {
+    StringBuilder	result;
+
+    result = new StringBuilder();
+    for (String line: lines)
+      result.append(line).append("\n");
+
+    return result.toString();
+  }
+
+  /**
+   * Retrieves the statistics from /stats.
+   *
+   * @return		the statistics (key/value)
+   * @throws Exception	if the request fails
+   */
+  protected Map<String,String> stats() throws Exception {
+    Map<String,String>	result;
+    Response		response;
+    int			pos;
+
+    response = request("/stats", "GET", null);
+    assertEquals("stats status", 200, response.code);
+    result = new HashMap<String,String>();
+    for (String line: response.content.split("\n")) {
+      pos = line.indexOf(": ");
+      if (pos > -1)
+	result.put(line.substring(0, pos), line.substring(pos + 2));
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests scoring rows via /score and the handling of invalid requests.
+   *
+   * @throws Exception	if the test fails
+   */
+  @Test
+  public void testScore() throws Exception {
+    Response	response;
+    String[]	lines;
+
+    start(64, 2);
+    lines    = lines(0, 50);
+    response = request("/score", "POST", join(lines));
+    assertEquals("status", 200, response.code);
+    assertEquals("results", join(m_Scorer.score(lines)), response.content);
+
+    response = request("/score", "GET", null);
+    assertEquals("GET not allowed", 405, response.code);
+
+    response = request("/score", "POST", "\"unknown label\",1.0\n");
+    assertEquals("invalid row", 400, response.code);
+    assertTrue("error message", response.content.contains("unknown label"));
+  }
+
+  /**
+   * Tests that concurrent requests get coalesced into batches and that
+   * every client gets its own results.
+   *
+   * @throws Exception	if the test fails
+   */
+  @Test
+  public void testBatching() throws Exception {
+    ExecutorService		executor;
+    List<Future<Response>>	futures;
+    final CountDownLatch	ready;
+    Map<String,String>		stats;
+    Response			response;
+    int				i;
+
+    start(1000, MAX_WAIT);
+    executor = Executors.newFixedThreadPool(NUM_CLIENTS);
+    ready    = new CountDownLatch(1);
+    futures  = new ArrayList<Future<Response>>();
+    try {
+      for (i = 0; i < NUM_CLIENTS; i++) {
+	final String[] lines = lines(i * 10, i * 10 + 10);
+	futures.add(executor.submit(new Callable<Response>() {
+	  @Override
+	  public Response call() throws Exception {
+	    ready.await();
+	    return request("/score", "POST", join(lines));
+	  }
+	}));
+      }
+      ready.countDown();
+      for (i = 0; i < NUM_CLIENTS; i++) {
+	response = futures.get(i).get(30, TimeUnit.SECONDS);
+	assertEquals("status of client " + i, 200, response.code);
+	assertEquals("results of client " + i, join(m_Scorer.score(lines(i * 10, i * 10 + 10))), response.content);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    stats = stats();
+    assertEquals("requests", "" + NUM_CLIENTS, stats.get("requests"));
+    assertEquals("rows", "" + (NUM_CLIENTS * 10), stats.get("rows"));
+    assertTrue("coalesced into fewer batches: " + stats.get("batches"), Integer.parseInt(stats.get("batches")) < NUM_CLIENTS);
+  }
+
+  /**
+   * Tests the statistics reported via /stats.
+   *
+   * @throws Exception	if the test fails
+   */
+  @Test
+  public void testStats() throws Exception {
+    Map<String,String>	stats;
+    int			i;
+
+    start(64, 0);
+    stats = stats();
+    assertEquals("no requests yet", "0", stats.get("requests"));
+    assertEquals("no latencies yet", "NaN", stats.get("latency p50 (ms)"));
+
+    for (i = 0; i < 5; i++)
+      assertEquals("request " + i, 200, request("/score", "POST", join(lines(i, i + 3))).code);
+    assertEquals("invalid row", 400, request("/score", "POST", "1,2,3,4\n").code);
+
+    stats = stats();
+    assertEquals("requests", "6", stats.get("requests"));
+    assertEquals("rows", "15", stats.get("rows"));
+    assertEquals("errors", "1", stats.get("errors"));
+    assertEquals("swaps", "0", stats.get("swaps"));
+    assertTrue("p50", Double.parseDouble(stats.get("latency p50 (ms)")) > 0);
+    assertTrue("p50 <= p99", Double.parseDouble(stats.get("latency p50 (ms)")) <= Double.parseDouble(stats.get("latency p99 (ms)")));
+    assertTrue("p99 <= max", Double.parseDouble(stats.get("latency p99 (ms)")) <= Double.parseDouble(stats.get("latency max (ms)")));
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileDatasetUtilsConcurrencyTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import smile.core.ConcurrencyTestUtils.Predictor;
+import weka.core.Instances;
+
+/**
+ * Converts instances with date and string attributes from several threads
+ * and compares the results with the single-threaded ones.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileDatasetUtilsConcurrencyTest {
+
+  /**
+   * Converts the instances with a dataset structure that has not seen any
+   * of the strings yet, so that the threads add them concurrently.
+   *
+   * @throws Exception	if conversion fails
+   */
+  @Test
+  public void testConcurrentConversion() throws Exception {
+    Instances	data;
+    Predictor	predictor;
+    double[][]	expected;
+
+    data      = ConcurrencyTestUtils.stringData(1000, 500, 42);
+    expected  = ConcurrencyTestUtils.baseline(data, ConcurrencyTestUtils.converter(SmileDatasetUtils.convertInstances(new Instances(data, 0))));
+    predictor = ConcurrencyTestUtils.converter(SmileDatasetUtils.convertInstances(new Instances(data, 0)));
+    ConcurrencyTestUtils.assertConcurrentPredictions("conversion", data, expected, predictor);
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TestDataUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Helper methods for generating the datasets used by the tests.
+ *
+ * @author agent (agent at local)
+ */
+public class TestDataUtils {
+
+  /** the format of the date attribute. */
+  public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+  /** the earliest date (2019-01-01 00:00:00 UTC). */
+  public static final long BASE_DATE = 1546300800000L;
+
+  /** the number of milli-seconds in a day. */
+  public static final long DAY = 24L * 60 * 60 * 1000;
+
+  /**
+   * Returns a random date (whole seconds).
+   *
+   * @param rnd		the random number generator to use
+   * @param offset	the offset in days from {@link #BASE_DATE}
+   * @param range	the range in days
+   * @return		the date (msec)
+   */
+  protected static double randomDate(Random rnd, int offset, int range) {
+    return BASE_DATE + offset * DAY + rnd.nextInt(range * 24 * 60 * 60) * 1000L;
+  }
+
+  /**
+   * Generates a dataset with numeric attributes, a date attribute and a
+   * nominal class, with the attribute means and dates depending on the class.
+   *
+   * @param numInst	the number of rows
+   * @param numAtts	the number of numeric attributes
+   * @param numClasses	the number of class labels
+   * @param seed	the seed for the random numbers
+   * @return		the dataset
+   */
+  public static Instances nominalData(int numInst, int numAtts, int numClasses, long seed) {
+    return nominalData(numInst, numAtts, numClasses, seed, true);
+  }
+
+  /**
+   * Generates a dataset with numeric attributes, an optional date attribute
+   * and a nominal class, with the attribute means and dates depending on the
+   * class.
+   *
+   * @param numInst	the number of rows
+   * @param numAtts	the number of numeric attributes
+   * @param numClasses	the number of class labels
+   * @param seed	the seed for the random numbers
+   * @param date	whether to add the date attribute
+   * @return		the dataset
+   */
+  public static Instances nominalData(int numInst, int numAtts, int numClasses, long seed, boolean date) {
+    ArrayList<Attribute>	atts;
+    ArrayList<String>		labels;
+    Instances			result;
+    Random			rnd;
+    double[]			values;
+    int				cls;
+    int				i;
+    int				n;
+
+    atts = new ArrayList<Attribute>();
+    for (i = 0; i < numAtts; i++)
+      atts.add(new Attribute("att-" + (i + 1)));
+    if (date)
+      atts.add(new Attribute("date", DATE_FORMAT));
+    labels = new ArrayList<String>();
+    for (i = 0; i < numClasses; i++)
+      labels.add("class-" + (i + 1));
+    atts.add(new Attribute("class", labels));
+    result = new Instances("nominal", atts, numInst);
+    result.setClassIndex(atts.size() - 1);
+
+    rnd = new Random(seed);
+    for (n = 0; n < numInst; n++) {
+      values = new double[atts.size()];
+      cls    = rnd.nextInt(numClasses);
+      for (i = 0; i < numAtts; i++)
+	values[i] = rnd.nextGaussian() + ((i % numClasses == cls) ? 2.0 : 0.0);
+      if (date)
+	values[numAtts] = randomDate(rnd, cls * 30, 45);
+      values[values.length - 1] = cls;
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a dataset with numeric attributes, a date attribute and a
+   * noisy linear numeric class.
+   *
+   * @param numInst	the number of rows
+   * @param numAtts	the number of numeric attributes
+   * @param seed	the seed for the random numbers
+   * @return		the dataset
+   */
+  public static Instances numericData(int numInst, int numAtts, long seed) {
+    return numericData(numInst, numAtts, seed, true);
+  }
+
+  /**
+   * Generates a dataset with numeric attributes, an optional date attribute
+   * and a noisy linear numeric class.
+   *
+   * @param numInst	the number of rows
+   * @param numAtts	the number of numeric attributes
+   * @param seed	the seed for the random numbers
+   * @param date	whether to add the date attribute
+   * @return		the dataset
+   */
+  public static Instances numericData(int numInst, int numAtts, long seed, boolean date) {
+    ArrayList<Attribute>	atts;
+    Instances			result;
+    Random			rnd;
+    double[]			values;
+    double			target;
+    int				i;
+    int				n;
+
+    atts = new ArrayList<Attribute>();
+    for (i = 0; i < numAtts; i++)
+      atts.add(new Attribute("att-" + (i + 1)));
+    if (date)
+      atts.add(new Attribute("date", DATE_FORMAT));
+    atts.add(new Attribute("class"));
+    result = new Instances("numeric", atts, numInst);
+    result.setClassIndex(atts.size() - 1);
+
+    rnd = new Random(seed);
+    for (n = 0; n < numInst; n++) {
+      values = new double[atts.size()];
+      target = 0.0;
+      for (i = 0; i < numAtts; i++) {
+	values[i] = rnd.nextGaussian();
+	target   += (i + 1) * values[i];
+      }
+      if (date) {
+	values[numAtts] = randomDate(rnd, 0, 365);
+	target         += (values[numAtts] - BASE_DATE) / DAY / 100.0;
+      }
+      values[values.length - 1] = target + 0.1 * rnd.nextGaussian();
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a dataset with numeric attributes only and no class
+   * attribute, as the clusterers handle neither dates nor strings.
+   *
+   * @param numInst	the number of rows
+   * @param numAtts	the number of numeric attributes
+   * @param seed	the seed for the random numbers
+   * @return		the dataset
+   */
+  public static Instances clusterData(int numInst, int numAtts, long seed) {
+    Instances	result;
+
+    result = nominalData(numInst, numAtts, 3, seed, false);
+    result.setClassIndex(-1);
+    result.deleteAttributeAt(result.numAttributes() - 1);
+
+    return result;
+  }
+
+  /**
+   * Turns the instance into a comma-separated line as expected by
+   * {@link ModelScorer#parse(String)}. Dates get formatted with a new date
+   * format, as the one of the attribute is shared.
+   *
+   * @param inst	the instance to convert
+   * @return		the line
+   */
+  public static String toLine(Instance inst) {
+    StringBuilder	result;
+    Attribute		att;
+    int			i;
+
+    result = new StringBuilder();
+    for (i = 0; i < inst.numAttributes(); i++) {
+      if (i > 0)
+	result.append(",");
+      att = inst.attribute(i);
+      if (inst.isMissing(i))
+	result.append("?");
+      else if (att.isNominal() || att.isString())
+	result.append(inst.stringValue(i));
+      else if (att.isDate())
+	result.append(new SimpleDateFormat(att.getDateFormat()).format(new Date((long) inst.value(i))));
+      else
+	result.append(Double.toString(inst.value(i)));
+    }
+
+    return result.toString();
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TreeCodeGeneratorTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import org.junit.Test;
+import smile.data.AttributeDataset;
+import smile.regression.CompactRandomForest;
+import smile.regression.RandomForestModel;
+import weka.core.Instances;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the code generated by {@link TreeCodeGenerator} against the
+ * interpretation of the trees, for forests that need splitting across
+ * methods and classes, and after serialization.
+ *
+ * @author agent (agent at local)
+ */
+public class TreeCodeGeneratorTest {
+
+  /**
+   * Returns a copy of the object via serialization.
+   *
+   * @param obj		the object to copy
+   * @return		the copy
+   * @throws Exception	if serialization fails
+   */
+  protected Object copy(Object obj) throws Exception {
+    ByteArrayOutputStream	bos;
+    ObjectOutputStream		oos;
+    ObjectInputStream		ois;
+
+    bos = new ByteArrayOutputStream();
+    oos = new ObjectOutputStream(bos);
+    oos.writeObject(obj);
+    oos.close();
+    ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+    try {
+      return ois.readObject();
+    }
+    finally {
+      ois.close();
+    }
+  }
+
+  /**
+   * Returns the number of occurrences of the string.
+   *
+   * @param code	the code to search
+   * @param str		the string to look for
+   * @return		the number of occurrences
+   */
+  protected int count(String code, String str) {
+    int		result;
+    int		index;
+
+    result = 0;
+    index  = code.indexOf(str);
+    while (index > -1) {
+      result++;
+      index = code.indexOf(str, index + str.length());
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the number of nodes of the subtree.
+   *
+   * @param trees	the trees
+   * @param node	the root of the subtree
+   * @return		the number of nodes
+   */
+  protected int subtreeSize(CompactTrees trees, int node) {
+    int		next;
+
+    next = trees.m_Nodes[node * 2 + 1];
+    if (next < 0)
+      return 1;
+
+    return 1 + subtreeSize(trees, node + 1) + subtreeSize(trees, next);
+  }
+
+  /**
+   * Generates code for a forest of large trees and checks it before and after
+   * serialization.
+   *
+   * @throws Exception	if training, compiling or serialization fails
+   */
+  @Test
+  public void testLargeForest() throws Exception {
+    Instances			data;
+    AttributeDataset		train;
+    double[][]			test;
+    RandomForestModel		model;
+    CompactRandomForest		forest;
+    CompactRandomForest		restored;
+    Map<String,String>		code;
+    int				methods;
+    int				largest;
+
+    data   = TreeTestUtils.mixedData(3000, true, 1);
+    train  = SmileDatasetUtils.convertInstances(TreeTestUtils.withMissing(new Instances(data, 0, 2500), 0.05, 2));
+    test   = TreeTestUtils.withMissing(TreeTestUtils.rows(new Instances(data, 2500, 500), train), 0.1, 3);
+    model  = TreeTestUtils.regressionForest(train, 40, 1000, 0);
+    forest = new CompactRandomForest(model.getTrees(), train.attributes());
+
+    // the forest must need several classes and several methods per tree
+    largest = 0;
+    for (int root: forest.getTrees().m_Roots)
+      largest = Math.max(largest, subtreeSize(forest.getTrees(), root));
+    assertTrue("tree larger than a method: " + largest, largest > TreeCodeGenerator.MAX_METHOD_NODES);
+    assertTrue("forest larger than a class: " + forest.getTrees().numNodes(), forest.getTrees().numNodes() > TreeCodeGenerator.MAX_CLASS_NODES);
+    code    = new TreeCodeGenerator(forest.getTrees()).generate("Test");
+    methods = 0;
+    for (String part: code.values())
+      methods += count(part, "private static int n");
+    assertTrue("number of classes: " + code.size(), code.size() > 2);
+    assertTrue("number of methods: " + methods, methods > forest.size());
+
+    forest.getTrees().setGenerateCode(true);
+    assertEquals("mismatches", 0, forest.getTrees().verifyGeneratedCode(test));
+
+    // compiled code is not serialized, but regenerated on first use
+    restored = (CompactRandomForest) copy(forest);
+    assertTrue("generate code", restored.getTrees().getGenerateCode());
+    assertNull("compiled code after deserialization", restored.getTrees().m_Compiled);
+    assertEquals("mismatches after deserialization", 0, restored.getTrees().verifyGeneratedCode(test));
+    assertNotNull("regenerated code", restored.getTrees().m_Compiled);
+    for (double[] x: test)
+      assertEquals(forest.predict(x), restored.predict(x), 0.0);
+  }
+}
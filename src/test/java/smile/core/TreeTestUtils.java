@@ -0,0 +1,241 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TreeTestUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.core;
+
+import smile.classification.DecisionTree;
+import smile.data.AttributeDataset;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Helper methods for the tests of the random forest models: data with
+ * numeric and nominal attributes (and optionally missing values) and
+ * forests trained directly via the trainers.
+ *
+ * @author agent (agent at local)
+ */
+public class TreeTestUtils {
+
+  /** the number of numeric attributes. */
+  public static final int NUM_NUMERIC = 4;
+
+  /** the number of labels of the nominal attributes. */
+  public static final int[] NUM_LABELS = new int[]{3, 4};
+
+  /** the number of class labels. */
+  public static final int NUM_CLASSES = 3;
+
+  /**
+   * Generates a dataset with numeric and nominal attributes and a nominal or
+   * numeric class depending on them. The last numeric attribute only takes
+   * the values -2, -1, 0 (as -0.0 and 0.0), 1 and 2, so that values equal to
+   * split points and signed zeros occur.
+   *
+   * @param numInst		the number of rows
+   * @param numericClass	whether to generate a numeric class
+   * @param seed		the seed for the random numbers
+   * @return			the dataset
+   */
+  public static Instances mixedData(int numInst, boolean numericClass, long seed) {
+    ArrayList<Attribute>	atts;
+    ArrayList<String>		labels;
+    Instances			result;
+    Random			rnd;
+    double[]			values;
+    double			target;
+    int				i;
+    int				n;
+
+    atts = new ArrayList<Attribute>();
+    for (i = 0; i < NUM_NUMERIC; i++)
+      atts.add(new Attribute("num-" + (i + 1)));
+    for (i = 0; i < NUM_LABELS.length; i++) {
+      labels = new ArrayList<String>();
+      for (n = 0; n < NUM_LABELS[i]; n++)
+	labels.add("nom" + (i + 1) + "-" + (n + 1));
+      atts.add(new Attribute("nom-" + (i + 1), labels));
+    }
+    if (numericClass) {
+      atts.add(new Attribute("class"));
+    }
+    else {
+      labels = new ArrayList<String>();
+      for (i = 0; i < NUM_CLASSES; i++)
+	labels.add("class-" + (i + 1));
+      atts.add(new Attribute("class", labels));
+    }
+    result = new Instances(numericClass ? "mixed-numeric" : "mixed-nominal", atts, numInst);
+    result.setClassIndex(atts.size() - 1);
+
+    rnd = new Random(seed);
+    for (n = 0; n < numInst; n++) {
+      values = new double[atts.size()];
+      for (i = 0; i < NUM_NUMERIC - 1; i++)
+	values[i] = rnd.nextGaussian();
+      values[NUM_NUMERIC - 1] = rnd.nextInt(5) - 2;
+      if ((values[NUM_NUMERIC - 1] == 0) && rnd.nextBoolean())
+	values[NUM_NUMERIC - 1] = -0.0;
+      for (i = 0; i < NUM_LABELS.length; i++)
+	values[NUM_NUMERIC + i] = rnd.nextInt(NUM_LABELS[i]);
+      target = values[0] + 0.5 * values[NUM_NUMERIC - 1] + ((values[NUM_NUMERIC] == 1) ? 1.5 : 0.0) - ((values[NUM_NUMERIC + 1] == 2) ? 1.0 : 0.0);
+      if (numericClass)
+	values[values.length - 1] = target + 0.1 * rnd.nextGaussian();
+      else
+	values[values.length - 1] = (target < -0.5) ? 0 : ((target < 0.8) ? 1 : 2);
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a copy of the data with some of the numeric attribute values (not
+   * the class) set to missing.
+   *
+   * @param data	the data to use
+   * @param rate	the fraction of values to set to missing
+   * @param seed	the seed for the random numbers
+   * @return		the new data
+   */
+  public static Instances withMissing(Instances data, double rate, long seed) {
+    Instances	result;
+    Random	rnd;
+    int		i;
+    int		n;
+
+    result = new Instances(data);
+    rnd    = new Random(seed);
+    for (n = 0; n < result.numInstances(); n++) {
+      for (i = 0; i < result.numAttributes(); i++) {
+	if ((i != result.classIndex()) && result.attribute(i).isNumeric() && (rnd.nextDouble() < rate))
+	  result.instance(n).setMissing(i);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a copy of the rows with some of the values, numeric or nominal,
+   * set to missing.
+   *
+   * @param x		the rows to use
+   * @param rate	the fraction of values to set to missing
+   * @param seed	the seed for the random numbers
+   * @return		the new rows
+   */
+  public static double[][] withMissing(double[][] x, double rate, long seed) {
+    double[][]	result;
+    Random	rnd;
+    int		i;
+    int		n;
+
+    result = new double[x.length][];
+    rnd    = new Random(seed);
+    for (n = 0; n < x.length; n++) {
+      result[n] = x[n].clone();
+      for (i = 0; i < result[n].length; i++) {
+	if (rnd.nextDouble() < rate)
+	  result[n][i] = Double.NaN;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Trains a classification forest with a single thread.
+   *
+   * @param data	the training data
+   * @param numTrees	the number of trees
+   * @param maxNodes	the maximum number of leaves per tree
+   * @param maxBins	the maximum number of bins, 0 for sorting
+   * @return		the forest
+   * @throws Exception	if training fails
+   */
+  public static smile.classification.RandomForestModel classificationForest(AttributeDataset data, int numTrees, int maxNodes, int maxBins) throws Exception {
+    smile.classification.RandomForestTrainer	trainer;
+    TrainingExecutor				executor;
+
+    executor = new TrainingExecutor(1);
+    try {
+      trainer = new smile.classification.RandomForestTrainer(
+	data.attributes(), data.x(), data.labels(), maxNodes, 1, (int) Math.floor(Math.sqrt(data.attributes().length)),
+	1.0, DecisionTree.SplitRule.GINI, null, maxBins, executor);
+      trainer.addTrees(numTrees);
+      return trainer.getModel();
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Trains a regression forest with a single thread.
+   *
+   * @param data	the training data
+   * @param numTrees	the number of trees
+   * @param maxNodes	the maximum number of leaves per tree
+   * @param maxBins	the maximum number of bins, 0 for sorting
+   * @return		the forest
+   * @throws Exception	if training fails
+   */
+  public static smile.regression.RandomForestModel regressionForest(AttributeDataset data, int numTrees, int maxNodes, int maxBins) throws Exception {
+    smile.regression.RandomForestTrainer	trainer;
+    TrainingExecutor				executor;
+
+    executor = new TrainingExecutor(1);
+    try {
+      trainer = new smile.regression.RandomForestTrainer(
+	data.attributes(), data.x(), data.y(), maxNodes, 5, Math.max(1, data.attributes().length / 3),
+	1.0, maxBins, executor);
+      trainer.addTrees(numTrees);
+      return trainer.getModel();
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Converts the instances into rows using the structure of the training
+   * data.
+   *
+   * @param data	the instances to convert
+   * @param train	the converted training data
+   * @return		the rows
+   * @throws Exception	if conversion fails
+   */
+  public static double[][] rows(Instances data, AttributeDataset train) throws Exception {
+    double[][]	result;
+    int		i;
+
+    result = new double[data.numInstances()][];
+    for (i = 0; i < data.numInstances(); i++)
+      result[i] = SmileDatasetUtils.convertInstance(data.instance(i), train);
+
+    return result;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompactRandomForestTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import org.junit.Test;
+import smile.core.SmileDatasetUtils;
+import smile.core.TreeTestUtils;
+import smile.data.AttributeDataset;
+import weka.core.Instances;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the predictions of {@link CompactRandomForest} with the ones of
+ * the uncompressed {@link RandomForestModel}, on data with nominal
+ * attributes, signed zeros and missing values.
+ *
+ * @author agent (agent at local)
+ */
+public class CompactRandomForestTest {
+
+  /**
+   * Trains a forest and compares the predictions of both representations.
+   *
+   * @param maxBins	the maximum number of bins, 0 for sorting
+   * @throws Exception	if training or compiling fails
+   */
+  protected void check(int maxBins) throws Exception {
+    Instances			data;
+    AttributeDataset		train;
+    double[][]			test;
+    RandomForestModel		model;
+    CompactRandomForest		compact;
+    int				i;
+
+    data    = TreeTestUtils.mixedData(600, true, 1);
+    train   = SmileDatasetUtils.convertInstances(TreeTestUtils.withMissing(new Instances(data, 0, 400), 0.1, 2));
+    test    = TreeTestUtils.withMissing(TreeTestUtils.rows(new Instances(data, 400, 200), train), 0.2, 3);
+    model   = TreeTestUtils.regressionForest(train, 30, 100, maxBins);
+    compact = new CompactRandomForest(model.getTrees(), train.attributes());
+
+    assertEquals("number of trees", model.size(), compact.size());
+    for (i = 0; i < test.length; i++)
+      assertEquals("prediction of row " + i, model.predict(test[i]), compact.predict(test[i]), 1e-12);
+  }
+
+  /**
+   * Compares forests of regression trees.
+   *
+   * @throws Exception	if training or compiling fails
+   */
+  @Test
+  public void testRegressionTrees() throws Exception {
+    check(0);
+  }
+
+  /**
+   * Compares forests of histogram trees.
+   *
+   * @throws Exception	if training or compiling fails
+   */
+  @Test
+  public void testHistogramTrees() throws Exception {
+    check(16);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RandomForestTrainerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import org.junit.Test;
+import smile.core.SmileDatasetUtils;
+import smile.core.TestDataUtils;
+import smile.core.TrainingExecutor;
+import smile.data.AttributeDataset;
+import weka.core.Instances;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the test RMSE of {@link RandomForestTrainer} with the one of
+ * SMILE's RandomForest, using the same parameters, and checks that the
+ * out-of-bag RMSE is an estimate of the test RMSE.
+ *
+ * @author agent (agent at local)
+ */
+public class RandomForestTrainerTest {
+
+  /** the number of trees. */
+  public static final int NUM_TREES = 200;
+
+  /** the maximum relative difference between the RMSEs. */
+  public static final double TOLERANCE = 0.15;
+
+  /** the maximum relative difference between the OOB RMSE and the test RMSE. */
+  public static final double OOB_TOLERANCE = 0.25;
+
+  /**
+   * Returns the root mean squared error of the predictions.
+   *
+   * @param model	the model to evaluate
+   * @param x		the rows
+   * @param y		the actual targets
+   * @return		the RMSE
+   */
+  protected double rmse(Regression<double[]> model, double[][] x, double[] y) {
+    double	sum;
+    double	diff;
+    int		i;
+
+    sum = 0.0;
+    for (i = 0; i < x.length; i++) {
+      diff = model.predict(x[i]) - y[i];
+      sum += diff * diff;
+    }
+
+    return Math.sqrt(sum / x.length);
+  }
+
+  /**
+   * Trains both forests and compares the RMSEs.
+   *
+   * @param subsample	the sampling rate
+   * @throws Exception	if training fails
+   */
+  protected void check(double subsample) throws Exception {
+    Instances		data;
+    AttributeDataset	train;
+    AttributeDataset	test;
+    int			mtry;
+    TrainingExecutor	executor;
+    RandomForestTrainer	trainer;
+    RandomForestModel	ours;
+    RandomForest	smile;
+    double		expected;
+    double		actual;
+    String		msg;
+
+    data  = TestDataUtils.numericData(1000, 5, 42, false);
+    train = SmileDatasetUtils.convertInstances(new Instances(data, 0, 700));
+    test  = SmileDatasetUtils.convertInstances(new Instances(data, 700, 300));
+    mtry  = Math.max(1, train.attributes().length / 3);
+    msg   = "subsample=" + subsample;
+
+    executor = new TrainingExecutor(1);
+    try {
+      trainer = new RandomForestTrainer(
+	train.attributes(), train.x(), train.y(), 100, 5, mtry, subsample, 0, executor);
+      trainer.addTrees(NUM_TREES);
+      ours = trainer.getModel();
+    }
+    finally {
+      executor.shutdown();
+    }
+    smile = new RandomForest(
+      train.attributes(), train.x(), train.y(), NUM_TREES, 100, 5, mtry, subsample);
+
+    assertEquals(msg + ": number of trees", NUM_TREES, ours.size());
+    expected = rmse(smile, test.x(), test.y());
+    actual   = rmse(ours, test.x(), test.y());
+    assertEquals(msg + ": test RMSE", expected, actual, expected * TOLERANCE);
+    // SMILE's RegressionTree zeroes the sample counts it is given, so SMILE's
+    // OOB rows include in-bag ones and its OOB RMSE is too optimistic
+    assertTrue(msg + ": OOB RMSE not below SMILE's", ours.error() >= smile.error());
+    assertEquals(msg + ": OOB RMSE", actual, ours.error(), actual * OOB_TOLERANCE);
+  }
+
+  /**
+   * Compares the forests trained on bootstrap samples.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testBootstrap() throws Exception {
+    check(1.0);
+  }
+
+  /**
+   * Compares the forests trained on sub-samples.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testSubSample() throws Exception {
+    check(0.7);
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileRandomForestTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import org.junit.Test;
+import smile.core.TestDataUtils;
+import smile.core.TrainingBudget;
+import weka.core.Instances;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the training options of {@link SmileRandomForest}.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileRandomForestTest {
+
+  /**
+   * Builds a forest.
+   *
+   * @param data	the training data
+   * @param numTrees	the number of trees
+   * @return		the forest
+   * @throws Exception	if training fails
+   */
+  protected SmileRandomForest build(Instances data, int numTrees) throws Exception {
+    SmileRandomForest	result;
+
+    result = new SmileRandomForest();
+    result.setNumTrees(numTrees);
+    result.setNumThreads(1);
+    result.buildClassifier(data);
+
+    return result;
+  }
+
+  /**
+   * Returns the root mean squared error of the forest.
+   *
+   * @param forest	the forest to evaluate
+   * @param data	the test data
+   * @return		the error
+   * @throws Exception	if prediction fails
+   */
+  protected double error(SmileRandomForest forest, Instances data) throws Exception {
+    double	sum;
+    double	diff;
+    int		i;
+
+    sum = 0.0;
+    for (i = 0; i < data.numInstances(); i++) {
+      diff = forest.classifyInstance(data.instance(i)) - data.instance(i).classValue();
+      sum += diff * diff;
+    }
+
+    return Math.sqrt(sum / data.numInstances());
+  }
+
+  /**
+   * Aggregates two forests trained on partitions of the data.
+   *
+   * @throws Exception	if training or aggregation fails
+   */
+  @Test
+  public void testAggregate() throws Exception {
+    Instances		data;
+    Instances		test;
+    SmileRandomForest	first;
+    SmileRandomForest	second;
+    RandomForestModel	firstModel;
+    RandomForestModel	secondModel;
+    RandomForestModel	merged;
+    double		firstError;
+
+    data        = TestDataUtils.numericData(900, 10, 42, false);
+    test        = new Instances(data, 600, 300);
+    first       = build(new Instances(data, 0, 300), 10);
+    second      = build(new Instances(data, 300, 300), 15);
+    firstModel  = (RandomForestModel) first.m_Model;
+    secondModel = (RandomForestModel) second.m_Model;
+    firstError  = error(first, test);
+
+    assertSame(first, first.aggregate(second));
+    first.finalizeAggregation();
+    merged = (RandomForestModel) first.m_Model;
+    assertEquals("number of trees", 25, merged.size());
+    assertSame("first tree", firstModel.getTrees()[0], merged.getTrees()[0]);
+    assertSame("second tree", secondModel.getTrees()[0], merged.getTrees()[1]);
+    assertSame("last tree", secondModel.getTrees()[14], merged.getTrees()[24]);
+    assertTrue("description", first.toString().contains("Aggregated from 2 forests"));
+    assertTrue("test error", error(first, test) <= firstError * 1.05);
+  }
+
+  /**
+   * Checks that a forest trained on a different header gets rejected.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testAggregateMismatchedHeader() throws Exception {
+    Instances		data;
+    Instances		other;
+    SmileRandomForest	first;
+
+    data  = TestDataUtils.numericData(600, 10, 42, false);
+    other = new Instances(data, 300, 300);
+    other.renameAttribute(0, "other");
+    first = build(new Instances(data, 0, 300), 10);
+    try {
+      first.aggregate(build(other, 10));
+      fail("Forest trained on a different header was aggregated");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests the stop reasons with an exhausted and an unlimited budget.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testBudget() throws Exception {
+    Instances		data;
+    SmileRandomForest	forest;
+
+    data = TestDataUtils.numericData(300, 10, 42, false);
+    for (double budget: new double[]{1e-9, 0.0}) {
+      forest = new SmileRandomForest();
+      forest.setNumTrees(20);
+      forest.setNumTreesPerIteration(5);
+      forest.setNumThreads(1);
+      forest.setTrainingTimeBudget(budget);
+      forest.buildClassifier(data);
+      if (budget > 0) {
+	assertTrue("stopped", forest.getTrainingBudget().isStopped());
+	assertEquals("stop reason", "time budget used up after 5 of 20 trees", forest.getTrainingBudget().getStopReason());
+	assertEquals("number of trees", 5, ((RandomForestModel) forest.m_Model).size());
+      }
+      else {
+	assertEquals("stop reason", TrainingBudget.COMPLETED, forest.getTrainingBudget().getStopReason());
+	assertEquals("number of trees", 20, ((RandomForestModel) forest.m_Model).size());
+      }
+    }
+  }
+
+  /**
+   * Trains iteratively by hand, without resuming.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testIterative() throws Exception {
+    Instances		data;
+    SmileRandomForest	forest;
+    int			iterations;
+
+    data   = TestDataUtils.numericData(300, 10, 42, false);
+    forest = new SmileRandomForest();
+    forest.setNumTrees(30);
+    forest.setNumTreesPerIteration(10);
+    forest.setNumThreads(1);
+    forest.initializeClassifier(data);
+    iterations = 0;
+    while (forest.next()) {
+      iterations++;
+      assertEquals("number of trees after iteration " + iterations, iterations * 10, ((RandomForestModel) forest.m_Model).size());
+    }
+    assertEquals("number of iterations", 3, iterations);
+    forest.done();
+    assertEquals("number of trees", 30, ((RandomForestModel) forest.m_Model).size());
+    assertNull("trainer", forest.m_Trainer);
+    forest.done();
+    try {
+      forest.next();
+      fail("Iteration after done() without resume");
+    }
+    catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Resumes training from 50 to 80 trees.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testResume() throws Exception {
+    Instances		data;
+    SmileRandomForest	forest;
+    RandomForestModel	before;
+    RandomForestModel	after;
+    int			i;
+
+    data   = TestDataUtils.numericData(300, 10, 42, false);
+    forest = new SmileRandomForest();
+    forest.setNumTrees(50);
+    forest.setNumThreads(1);
+    forest.setResume(true);
+    forest.buildClassifier(data);
+    before = (RandomForestModel) forest.m_Model;
+    assertEquals("number of trees before", 50, before.size());
+
+    forest.setNumTrees(80);
+    forest.initializeClassifier(data);
+    while (forest.next());
+    forest.done();
+    after = (RandomForestModel) forest.m_Model;
+    assertEquals("number of trees after", 80, after.size());
+    for (i = 0; i < before.size(); i++)
+      assertSame("tree " + i, before.getTrees()[i], after.getTrees()[i]);
+  }
+
+  /**
+   * Checks that resuming with data of a different structure gets rejected.
+   *
+   * @throws Exception	if training fails
+   */
+  @Test
+  public void testResumeMismatchedHeader() throws Exception {
+    Instances		data;
+    Instances		other;
+    SmileRandomForest	forest;
+
+    data   = TestDataUtils.numericData(300, 10, 42, false);
+    other  = new Instances(data);
+    other.renameAttribute(0, "other");
+    forest = new SmileRandomForest();
+    forest.setNumTrees(10);
+    forest.setNumThreads(1);
+    forest.setResume(true);
+    forest.buildClassifier(data);
+    try {
+      forest.initializeClassifier(other);
+      fail("Resumed with data of a different structure");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Checks that the cached predictions get discarded when trees get added.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testResumeClearsCache() throws Exception {
+    Instances		data;
+    SmileRandomForest	forest;
+    int			i;
+
+    data   = TestDataUtils.numericData(300, 10, 42, false);
+    forest = new SmileRandomForest();
+    forest.setNumTrees(10);
+    forest.setNumThreads(1);
+    forest.setResume(true);
+    forest.setPredictionCacheSize(1000);
+    forest.buildClassifier(data);
+    for (i = 0; i < data.numInstances(); i++)
+      forest.distributionForInstance(data.instance(i));
+    assertTrue("cached predictions", forest.m_PredictionCache.size() > 0);
+
+    forest.setNumTrees(20);
+    forest.initializeClassifier(data);
+    assertTrue("next iteration", forest.next());
+    assertEquals("cached predictions after next()", 0, forest.m_PredictionCache.size());
+    for (i = 0; i < data.numInstances(); i++)
+      forest.distributionForInstance(data.instance(i));
+    forest.done();
+    assertEquals("cached predictions after done()", 0, forest.m_PredictionCache.size());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileSVRConcurrencyTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import org.junit.Test;
+import smile.core.ConcurrencyTestUtils;
+import smile.core.TestDataUtils;
+import weka.core.Instances;
+
+/**
+ * Predicts with a single {@link SmileSVR} from several threads and
+ * compares the results with the single-threaded ones.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileSVRConcurrencyTest {
+
+  /**
+   * Hammers the regressor with the prediction cache and metrics turned on
+   * and off, and through the scorer.
+   *
+   * @param msg		the message to prefix failures with
+   * @param maxSupportVectors	the maximum number of support vectors, -1 for all
+   * @throws Exception	if training or prediction fails
+   */
+  protected void check(String msg, int maxSupportVectors) throws Exception {
+    SmileSVR	reg;
+    Instances	data;
+
+    data = TestDataUtils.numericData(200, 5, 42);
+    reg  = new SmileSVR();
+    reg.setMaxSupportVectors(maxSupportVectors);
+    reg.buildClassifier(data);
+    ConcurrencyTestUtils.assertConcurrentPredictions(msg, reg, data);
+  }
+
+  /**
+   * Tests all the support vectors.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testConcurrentPredictions() throws Exception {
+    check("all support vectors", -1);
+  }
+
+  /**
+   * Tests the reduced set of support vectors.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testConcurrentPredictionsReduced() throws Exception {
+    check("reduced support vectors", 20);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SmileSVRTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package smile.regression;
+
+import org.junit.Test;
+import smile.core.SmileDatasetUtils;
+import smile.core.TestDataUtils;
+import smile.data.AttributeDataset;
+import smile.math.kernel.SmileLinearKernel;
+import weka.core.Instances;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the models that {@link SmileSVR} keeps after training.
+ *
+ * @author agent (agent at local)
+ */
+public class SmileSVRTest {
+
+  /**
+   * Tests that a linear kernel collapses the model into a single weight
+   * vector that predicts like SMILE's SVR.
+   *
+   * @throws Exception	if training or prediction fails
+   */
+  @Test
+  public void testLinearKernel() throws Exception {
+    Instances		data;
+    AttributeDataset	dataset;
+    SmileSVR		reg;
+    SVR<double[]>	svr;
+    ExpandedSVR		model;
+    double[]		values;
+    int			i;
+
+    data = TestDataUtils.numericData(200, 5, 42, false);
+    reg  = new SmileSVR();
+    reg.setKernel(new SmileLinearKernel());
+    reg.buildClassifier(data);
+    assertTrue("collapsed", reg.m_Model instanceof ExpandedSVR);
+    model = (ExpandedSVR) reg.m_Model;
+    assertEquals("single vector", 1, model.size());
+
+    dataset = SmileDatasetUtils.convertInstances(data);
+    svr     = new SVR<double[]>(dataset.x(), dataset.y(), new SmileLinearKernel().getKernel(), reg.getEpsilon(), reg.getCapacity(), reg.getTolerance());
+    for (i = 0; i < data.numInstances(); i++) {
+      values = SmileDatasetUtils.convertInstance(data.instance(i), reg.m_Header.getDataset());
+      assertEquals("row " + i, svr.predict(values), reg.classifyInstance(data.instance(i)), 1e-8);
+    }
+  }
+}